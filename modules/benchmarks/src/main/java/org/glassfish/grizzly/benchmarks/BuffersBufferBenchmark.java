@@ -0,0 +1,162 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.BuffersBuffer;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link BuffersBuffer} indexed access benchmarks for different composite
+ * buffer fan-outs (the number of the component buffers).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuffersBufferBenchmark {
+    @Param({"2", "8", "32"})
+    int fanOut;
+
+    @Param({"64", "1024"})
+    int componentSize;
+
+    @Param({"heap", "pooled-direct"})
+    String memoryManager;
+
+    private BuffersBuffer composite;
+    private byte[] bulkArray;
+    
+    @Setup
+    public void setup() {
+        final MemoryManager mm = "heap".equals(memoryManager)
+                ? new HeapMemoryManager()
+                : new PooledMemoryManager(true);
+        
+        composite = BuffersBuffer.create(mm);
+        for (int i = 0; i < fanOut; i++) {
+            final Buffer component = mm.allocate(componentSize);
+            for (int j = 0; j < componentSize; j++) {
+                component.put(j, (byte) (i + j));
+            }
+            
+            composite.append(component);
+        }
+        
+        bulkArray = new byte[composite.remaining()];
+    }
+
+    /**
+     * Sequential absolute get(int) over the whole composite buffer,
+     * the way HTTP parser accesses it.
+     */
+    @Benchmark
+    public int indexedGetSequential() {
+        final BuffersBuffer b = composite;
+        final int limit = b.limit();
+        
+        int sum = 0;
+        for (int i = 0; i < limit; i++) {
+            sum += b.get(i);
+        }
+        
+        return sum;
+    }
+
+    /**
+     * Absolute get(int), which jumps between the component buffers.
+     */
+    @Benchmark
+    public int indexedGetStrided() {
+        final BuffersBuffer b = composite;
+        final int limit = b.limit();
+        final int stride = componentSize + 1;
+        
+        int sum = 0;
+        for (int i = 0; i < fanOut; i++) {
+            for (int j = i; j < limit; j += stride) {
+                sum += b.get(j);
+            }
+        }
+        
+        return sum;
+    }
+
+    @Benchmark
+    public long relativeGetLong() {
+        final BuffersBuffer b = composite;
+        final int position = b.position();
+        
+        long sum = 0;
+        while (b.remaining() >= 8) {
+            sum += b.getLong();
+        }
+        
+        b.position(position);
+        return sum;
+    }
+    
+    @Benchmark
+    public byte[] bulkGet() {
+        final BuffersBuffer b = composite;
+        final int position = b.position();
+        b.get(bulkArray);
+        b.position(position);
+        
+        return bulkArray;
+    }
+}
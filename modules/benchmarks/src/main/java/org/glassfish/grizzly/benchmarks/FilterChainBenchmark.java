@@ -0,0 +1,194 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Context;
+import org.glassfish.grizzly.IOEvent;
+import org.glassfish.grizzly.ProcessorExecutor;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChain;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.FilterChainEvent;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link org.glassfish.grizzly.filterchain.DefaultFilterChain} traversal
+ * benchmarks.
+ * 
+ * The chain consists of <tt>filters</tt> filters, where <tt>active</tt>
+ * of them override the handler of the benchmarked operation and the rest
+ * are {@link BaseFilter} pass-through filters, the way typical HTTP chains
+ * look like. The chain runs on unconnected {@link TCPNIOConnection}, so only
+ * the chain dispatch cost is measured.
+ * 
+ * With <tt>skipPassThrough=false</tt> the chain calls every filter for
+ * every operation, the way it did before the dispatch table was introduced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterChainBenchmark {
+    private static final FilterChainEvent EVENT = new FilterChainEvent() {
+        @Override
+        public Object type() {
+            return "benchmark";
+        }
+    };
+    
+    @Param({"4", "8"})
+    int filters;
+
+    @Param({"1", "2"})
+    int active;
+
+    @Param({"true", "false"})
+    boolean skipPassThrough;
+    
+    private TCPNIOTransport transport;
+    private TCPNIOConnection connection;
+    private FilterChain chain;
+    private Buffer message;
+    
+    @Setup
+    public void setup() {
+        transport = TCPNIOTransportBuilder.newInstance().build();
+        connection = new TCPNIOConnection(transport, null);
+        message = Buffers.wrap(transport.getMemoryManager(), "message");
+        
+        final FilterChainBuilder builder = FilterChainBuilder.stateless();
+        // active filters are spread over the chain, the last filter is
+        // always active
+        final int step = filters / active;
+        for (int i = 0; i < filters; i++) {
+            builder.add((i + 1) % step == 0
+                    ? new ActiveFilter()
+                    : new BaseFilter());
+        }
+        
+        System.setProperty(
+                "org.glassfish.grizzly.filterchain.DefaultFilterChain.call-pass-through-filters",
+                String.valueOf(!skipPassThrough));
+        chain = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transport.shutdownNow();
+    }
+    
+    @Benchmark
+    public Object read() {
+        final FilterChainContext ctx = chain.obtainFilterChainContext(connection);
+        ctx.setMessage(message);
+        
+        final Context context = ctx.getInternalContext();
+        context.setIoEvent(IOEvent.READ);
+        ProcessorExecutor.execute(context);
+        
+        return ctx;
+    }
+
+    @Benchmark
+    public Object write() {
+        chain.write(connection, null, message, null);
+        return message;
+    }
+
+    @Benchmark
+    public Object eventUpstream() {
+        chain.fireEventUpstream(connection, EVENT, null);
+        return EVENT;
+    }
+
+    @Benchmark
+    public Object eventDownstream() {
+        chain.fireEventDownstream(connection, EVENT, null);
+        return EVENT;
+    }
+    
+    private static final class ActiveFilter extends BaseFilter {
+        private int counter;
+        
+        @Override
+        public NextAction handleRead(final FilterChainContext ctx)
+                throws IOException {
+            counter++;
+            return ctx.getInvokeAction();
+        }
+
+        @Override
+        public NextAction handleWrite(final FilterChainContext ctx)
+                throws IOException {
+            counter++;
+            return ctx.getInvokeAction();
+        }
+
+        @Override
+        public NextAction handleEvent(final FilterChainContext ctx,
+                final FilterChainEvent event) throws IOException {
+            counter++;
+            return ctx.getInvokeAction();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback {@link HttpServer} keep-alive request/response benchmark.
+ * 
+ * Every benchmark thread keeps its own persistent HTTP/1.1 connection,
+ * sends a GET request with a browser-like header set and reads
+ * the fixed-length response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HttpServerBenchmark {
+    private static final String LISTENER_NAME = "benchmark";
+    
+    @Param({"16", "8192"})
+    int responseSize;
+    
+    private HttpServer server;
+    private int port;
+    
+    @Setup
+    public void setup() throws IOException {
+        server = new HttpServer();
+        final NetworkListener listener =
+                new NetworkListener(LISTENER_NAME, "localhost", 0);
+        server.addListener(listener);
+        
+        final byte[] body = new byte[responseSize];
+        Arrays.fill(body, (byte) 'r');
+        
+        server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(final Request request, final Response response)
+                    throws Exception {
+                response.setContentType("text/plain");
+                response.setContentLength(body.length);
+                response.getOutputStream().write(body);
+            }
+        }, "/");
+        
+        server.start();
+        port = listener.getPort();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.shutdownNow();
+    }
+
+    @Benchmark
+    public int request(final Client client) throws IOException {
+        return client.request();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int requestConcurrent(final Client client) throws IOException {
+        return client.request();
+    }
+    
+    @State(Scope.Thread)
+    public static class Client {
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+        private byte[] request;
+        private final byte[] readBuffer = new byte[16384];
+        
+        @Setup(Level.Trial)
+        public void connect(final HttpServerBenchmark benchmark)
+                throws IOException {
+            socket = new Socket("localhost", benchmark.port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = socket.getInputStream();
+            
+            request = ("GET /index.html HTTP/1.1\r\n"
+                    + "Host: localhost:" + benchmark.port + "\r\n"
+                    + "User-Agent: Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/62.0.3202.94 Safari/537.36\r\n"
+                    + "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8\r\n"
+                    + "Accept-Encoding: gzip, deflate\r\n"
+                    + "Accept-Language: en-US,en;q=0.9\r\n"
+                    + "Connection: keep-alive\r\n"
+                    + "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+        
+        /**
+         * Sends the request and reads the response, which is expected
+         * to have Content-Length header.
+         * 
+         * @return the response body length.
+         */
+        int request() throws IOException {
+            out.write(request);
+            out.flush();
+            
+            final byte[] buf = readBuffer;
+            int read = 0;
+            int headerEnd = -1;
+            int contentLength = -1;
+            
+            while (true) {
+                final int n = in.read(buf, read, buf.length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                
+                read += n;
+                
+                if (headerEnd == -1) {
+                    headerEnd = indexOfHeaderEnd(buf, read);
+                    if (headerEnd != -1) {
+                        contentLength = parseContentLength(buf, headerEnd);
+                    }
+                }
+                
+                if (headerEnd != -1 && read >= headerEnd + contentLength) {
+                    return contentLength;
+                }
+            }
+        }
+        
+        private static int indexOfHeaderEnd(final byte[] buf, final int len) {
+            for (int i = 3; i < len; i++) {
+                if (buf[i] == '\n' && buf[i - 1] == '\r'
+                        && buf[i - 2] == '\n' && buf[i - 3] == '\r') {
+                    return i + 1;
+                }
+            }
+            
+            return -1;
+        }
+        
+        private static int parseContentLength(final byte[] buf,
+                final int headerEnd) {
+            final String headers = new String(buf, 0, headerEnd,
+                    StandardCharsets.ISO_8859_1).toLowerCase();
+            final int idx = headers.indexOf("content-length:");
+            if (idx == -1) {
+                throw new IllegalStateException("No Content-Length: " + headers);
+            }
+            
+            final int end = headers.indexOf('\r', idx);
+            return Integer.parseInt(
+                    headers.substring(idx + "content-length:".length(), end).trim());
+        }
+    }
+}
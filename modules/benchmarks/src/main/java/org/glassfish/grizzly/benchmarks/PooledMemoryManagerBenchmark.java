@@ -0,0 +1,124 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.PooledMemoryManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link PooledMemoryManager} allocate/release benchmarks.
+ * 
+ * The <tt>burst</tt> benchmark allocates a batch of buffers before releasing
+ * them, which is closer to the way the buffers are held by the connections
+ * with pending writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledMemoryManagerBenchmark {
+    private static final int BURST = 16;
+    
+    @Param({"64", "1024", "8192", "65536"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean direct;
+
+    private PooledMemoryManager mm;
+
+    @Setup
+    public void setup() {
+        mm = new PooledMemoryManager(direct);
+    }
+
+    @Benchmark
+    public void allocateRelease(final Blackhole bh) {
+        final Buffer buffer = mm.allocate(size);
+        bh.consume(buffer);
+        buffer.tryDispose();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void allocateReleaseContended(final Blackhole bh) {
+        final Buffer buffer = mm.allocate(size);
+        bh.consume(buffer);
+        buffer.tryDispose();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void burst(final BurstState state, final Blackhole bh) {
+        final Buffer[] buffers = state.buffers;
+        for (int i = 0; i < BURST; i++) {
+            buffers[i] = mm.allocate(size);
+        }
+        
+        for (int i = 0; i < BURST; i++) {
+            bh.consume(buffers[i]);
+            buffers[i].tryDispose();
+            buffers[i] = null;
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class BurstState {
+        final Buffer[] buffers = new Buffer[BURST];
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
+import org.glassfish.grizzly.utils.EchoFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback {@link TCPNIOTransport} echo round-trip benchmark.
+ * 
+ * The server side is a {@link TCPNIOTransport} with an {@link EchoFilter},
+ * the client side is a plain blocking {@link Socket} per benchmark thread,
+ * so the measured time is dominated by the server's selector/filter chain
+ * path and the loopback network stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TCPNIOEchoBenchmark {
+    @Param({"64", "4096"})
+    int payloadSize;
+
+    @Param({"same-thread", "worker-thread"})
+    String ioStrategy;
+    
+    private TCPNIOTransport transport;
+    private int port;
+    
+    @Setup
+    public void setup() throws IOException {
+        transport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy("same-thread".equals(ioStrategy)
+                        ? SameThreadIOStrategy.getInstance()
+                        : WorkerThreadIOStrategy.getInstance())
+                .setTcpNoDelay(true)
+                .build();
+        
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+        
+        final TCPNIOServerConnection serverConnection =
+                transport.bind("localhost", 0);
+        port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+        
+        transport.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        transport.shutdownNow();
+    }
+
+    @Benchmark
+    public byte[] roundTrip(final Client client) throws IOException {
+        return client.roundTrip();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] roundTripConcurrent(final Client client) throws IOException {
+        return client.roundTrip();
+    }
+    
+    @State(Scope.Thread)
+    public static class Client {
+        private Socket socket;
+        private OutputStream out;
+        private InputStream in;
+        private byte[] request;
+        private byte[] response;
+        
+        @Setup(Level.Trial)
+        public void connect(final TCPNIOEchoBenchmark benchmark)
+                throws IOException {
+            socket = new Socket("localhost", benchmark.port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = socket.getInputStream();
+            
+            request = new byte[benchmark.payloadSize];
+            Arrays.fill(request, (byte) 'e');
+            response = new byte[benchmark.payloadSize];
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+        
+        byte[] roundTrip() throws IOException {
+            out.write(request);
+            out.flush();
+            
+            int read = 0;
+            while (read < response.length) {
+                final int n = in.read(response, read, response.length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                
+                read += n;
+            }
+            
+            return response;
+        }
+    }
+}
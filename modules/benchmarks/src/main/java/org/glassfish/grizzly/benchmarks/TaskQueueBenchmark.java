@@ -0,0 +1,259 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import org.glassfish.grizzly.asyncqueue.AsyncWriteQueueRecord;
+import org.glassfish.grizzly.asyncqueue.TaskQueue;
+import org.glassfish.grizzly.memory.Buffers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+/**
+ * {@link TaskQueue} benchmarks: 1, 4 and 16 producers offering write records
+ * to the same queue, which is drained by a single consumer, like a
+ * connection's async write queue shared by several application threads.
+ * 
+ * The <tt>taskQueue</tt> groups use the {@link TaskQueue}, the <tt>clq</tt>
+ * groups use a {@link ConcurrentLinkedQueue} with the separate byte counter,
+ * the way the {@link TaskQueue} was implemented before.
+ * The producers back off when the queue has more than {@link #MAX_PENDING}
+ * records, so the queue doesn't grow unbounded, and the consumer waits for
+ * a record, so the consumer's score is the number of transferred records.
+ * Both stop waiting, when the iteration is over, otherwise the threads,
+ * which finished the iteration earlier, could never let them return.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskQueueBenchmark {
+    private static final int MAX_PENDING = 4096;
+
+    @State(Scope.Group)
+    public static class TaskQueueState {
+        final TaskQueue<AsyncWriteQueueRecord> queue =
+                TaskQueue.createTaskQueue(null);
+        
+        void offer(final Control control) {
+            while (queue.spaceInBytes() > MAX_PENDING) {
+                if (control.stopMeasurement) {
+                    return;
+                }
+                
+                Thread.yield();
+            }
+            
+            queue.reserveSpace(1);
+            queue.offer(createRecord());
+        }
+        
+        AsyncWriteQueueRecord poll(final Control control) {
+            AsyncWriteQueueRecord record;
+            while ((record = queue.poll()) == null) {
+                if (control.stopMeasurement) {
+                    return null;
+                }
+                
+                Thread.yield();
+            }
+            
+            queue.releaseSpace(1);
+            return record;
+        }
+    }
+    
+    @State(Scope.Group)
+    public static class ClqState {
+        private static final AtomicIntegerFieldUpdater<ClqState> spaceInBytesUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(ClqState.class, "spaceInBytes");
+        private volatile int spaceInBytes;
+        
+        final Queue<AsyncWriteQueueRecord> queue =
+                new ConcurrentLinkedQueue<AsyncWriteQueueRecord>();
+        
+        void offer(final Control control) {
+            while (spaceInBytes > MAX_PENDING) {
+                if (control.stopMeasurement) {
+                    return;
+                }
+                
+                Thread.yield();
+            }
+            
+            spaceInBytesUpdater.addAndGet(this, 1);
+            queue.offer(createRecord());
+        }
+        
+        AsyncWriteQueueRecord poll(final Control control) {
+            AsyncWriteQueueRecord record;
+            while ((record = queue.poll()) == null) {
+                if (control.stopMeasurement) {
+                    return null;
+                }
+                
+                Thread.yield();
+            }
+            
+            spaceInBytesUpdater.addAndGet(this, -1);
+            return record;
+        }
+    }
+    
+    // ------------------------------------------------------------ TaskQueue
+
+    @Benchmark
+    @Group("taskQueue1")
+    @GroupThreads(1)
+    public void taskQueue1Offer(final TaskQueueState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("taskQueue1")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord taskQueue1Poll(final TaskQueueState state,
+            final Control control) {
+        return state.poll(control);
+    }
+
+    @Benchmark
+    @Group("taskQueue4")
+    @GroupThreads(4)
+    public void taskQueue4Offer(final TaskQueueState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("taskQueue4")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord taskQueue4Poll(final TaskQueueState state,
+            final Control control) {
+        return state.poll(control);
+    }
+
+    @Benchmark
+    @Group("taskQueue16")
+    @GroupThreads(16)
+    public void taskQueue16Offer(final TaskQueueState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("taskQueue16")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord taskQueue16Poll(final TaskQueueState state,
+            final Control control) {
+        return state.poll(control);
+    }
+
+    // ------------------------------------------------- ConcurrentLinkedQueue
+
+    @Benchmark
+    @Group("clq1")
+    @GroupThreads(1)
+    public void clq1Offer(final ClqState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("clq1")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord clq1Poll(final ClqState state,
+            final Control control) {
+        return state.poll(control);
+    }
+
+    @Benchmark
+    @Group("clq4")
+    @GroupThreads(4)
+    public void clq4Offer(final ClqState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("clq4")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord clq4Poll(final ClqState state,
+            final Control control) {
+        return state.poll(control);
+    }
+
+    @Benchmark
+    @Group("clq16")
+    @GroupThreads(16)
+    public void clq16Offer(final ClqState state,
+            final Control control) {
+        state.offer(control);
+    }
+
+    @Benchmark
+    @Group("clq16")
+    @GroupThreads(1)
+    public AsyncWriteQueueRecord clq16Poll(final ClqState state,
+            final Control control) {
+        return state.poll(control);
+    }
+    
+    private static AsyncWriteQueueRecord createRecord() {
+        return AsyncWriteQueueRecord.create(null, Buffers.EMPTY_BUFFER,
+                null, null, null, true);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.glassfish.grizzly.threadpool.FixedThreadPool;
+import org.glassfish.grizzly.threadpool.GrizzlyExecutorService;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.grizzly.threadpool.WorkStealingThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Worker thread pool dispatch benchmark: 4 benchmark threads, playing
+ * the selector threads, dispatch batches of short tasks to the pool and wait
+ * until the batch is processed.
+ * Each task carries a "connection" affinity key, like the tasks dispatched by
+ * {@link org.glassfish.grizzly.strategies.WorkerThreadIOStrategy}.
+ *
+ * The <tt>fixed</tt> pool is the {@link FixedThreadPool} with the single
+ * shared task queue, the <tt>workStealing</tt> pool is the
+ * {@link WorkStealingThreadPool} with per-worker task queues.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ThreadPoolBenchmark {
+    private static final int BATCH_SIZE = 256;
+    private static final int CONNECTIONS_PER_THREAD = 16;
+
+    @State(Scope.Benchmark)
+    public static class PoolState {
+        @Param({"fixed", "workStealing"})
+        String pool;
+
+        @Param({"4", "16"})
+        int workers;
+
+        GrizzlyExecutorService executor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = GrizzlyExecutorService.createInstance(
+                    ThreadPoolConfig.defaultConfig()
+                    .setPoolName("benchmark-" + pool)
+                    .setCorePoolSize(workers)
+                    .setMaxPoolSize(workers)
+                    .setWorkStealing("workStealing".equals(pool)));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DispatcherState {
+        final Object[] connections = new Object[CONNECTIONS_PER_THREAD];
+        final AtomicInteger pending = new AtomicInteger();
+        Task[] tasks;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new Object();
+            }
+
+            tasks = new Task[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                tasks[i] = new Task(connections[i % connections.length], pending);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void dispatch(final PoolState poolState,
+            final DispatcherState state) {
+        final Task[] tasks = state.tasks;
+        state.pending.set(tasks.length);
+
+        for (Task task : tasks) {
+            poolState.executor.execute(task);
+        }
+
+        while (state.pending.get() > 0) {
+            Thread.yield();
+        }
+    }
+
+    private static final class Task
+            implements WorkStealingThreadPool.AffinityTask {
+        private final Object connection;
+        private final AtomicInteger pending;
+
+        private Task(final Object connection, final AtomicInteger pending) {
+            this.connection = connection;
+            this.pending = pending;
+        }
+
+        @Override
+        public Object getAffinityKey() {
+            return connection;
+        }
+
+        @Override
+        public void run() {
+            pending.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.benchmarks;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.UDPNIOServerConnection;
+import org.glassfish.grizzly.nio.transport.UDPNIOTransport;
+import org.glassfish.grizzly.nio.transport.UDPNIOTransportBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loopback {@link UDPNIOTransport} receive throughput benchmark.
+ * 
+ * A plain {@link DatagramSocket} client sends bursts of datagrams to a
+ * {@link UDPNIOTransport}, which only counts them, so the measured time is
+ * dominated by the server's per-datagram selector/filter chain path.
+ * Compare the {@link UDPNIOTransport#setReadBatchSize(int)} values to see
+ * the effect of draining several datagrams per read-ready event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UDPNIOBatchBenchmark {
+    private static final int BURST_SIZE = 16;
+    
+    /**
+     * Max time to wait for a burst to be received, datagrams lost on
+     * the loopback interface must not block the benchmark.
+     */
+    private static final long BURST_TIMEOUT_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(100);
+    
+    @Param({"64", "1400"})
+    int payloadSize;
+
+    @Param({"1", "16"})
+    int readBatchSize;
+    
+    private final AtomicLong receivedCounter = new AtomicLong();
+    
+    private UDPNIOTransport transport;
+    private DatagramSocket client;
+    private DatagramPacket packet;
+    private long expected;
+    
+    @Setup
+    public void setup() throws IOException {
+        transport = UDPNIOTransportBuilder.newInstance()
+                .setReadBatchSize(readBatchSize)
+                .build();
+        
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new BaseFilter() {
+                    @Override
+                    public NextAction handleRead(final FilterChainContext ctx)
+                            throws IOException {
+                        final Buffer buffer = ctx.getMessage();
+                        buffer.tryDispose();
+                        receivedCounter.incrementAndGet();
+                        return ctx.getStopAction();
+                    }
+                })
+                .build());
+        
+        final UDPNIOServerConnection serverConnection =
+                transport.bind("localhost", 0);
+        final SocketAddress serverAddress = new InetSocketAddress("localhost",
+                ((InetSocketAddress) serverConnection.getLocalAddress()).getPort());
+        
+        transport.start();
+        
+        client = new DatagramSocket();
+        packet = new DatagramPacket(new byte[payloadSize], payloadSize,
+                serverAddress);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        transport.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public long receiveBurst() throws IOException {
+        for (int i = 0; i < BURST_SIZE; i++) {
+            client.send(packet);
+        }
+        
+        expected += BURST_SIZE;
+        
+        final long deadline = System.nanoTime() + BURST_TIMEOUT_NANOS;
+        long received;
+        while ((received = receivedCounter.get()) < expected) {
+            if (System.nanoTime() - deadline > 0) {
+                // some datagrams were dropped, don't wait for them
+                expected = received;
+                break;
+            }
+            
+            Thread.yield();
+        }
+        
+        return received;
+    }
+}
@@ -132,6 +132,28 @@ public interface ConnectionProbe {
      */
     void onIOEventDisableEvent(Connection connection, IOEvent ioEvent);
 
+    /**
+     * Method will be called, when reading from the {@link Connection} gets
+     * suspended, because its async write queue exceeded the high watermark.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param pendingBytes the number of bytes in the async write queue.
+     *
+     * @since 3.0
+     */
+    void onReadSuspendEvent(Connection connection, int pendingBytes);
+
+    /**
+     * Method will be called, when reading from the {@link Connection} gets
+     * resumed, because its async write queue dropped below the low watermark.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param pendingBytes the number of bytes in the async write queue.
+     *
+     * @since 3.0
+     */
+    void onReadResumeEvent(Connection connection, int pendingBytes);
+
 
     // ---------------------------------------------------------- Nested Classes
 
@@ -207,6 +229,18 @@ public interface ConnectionProbe {
         @Override
         public void onIOEventDisableEvent(Connection connection, IOEvent ioEvent) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onReadSuspendEvent(Connection connection, int pendingBytes) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onReadResumeEvent(Connection connection, int pendingBytes) {}
+
     } // END Adapter
 
 }
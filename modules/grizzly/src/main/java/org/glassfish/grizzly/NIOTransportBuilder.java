@@ -50,6 +50,7 @@ import org.glassfish.grizzly.nio.NIOChannelDistributor;
 import org.glassfish.grizzly.nio.NIOTransport;
 import org.glassfish.grizzly.nio.SelectionKeyHandler;
 import org.glassfish.grizzly.nio.SelectorHandler;
+import org.glassfish.grizzly.nio.TransportMemoryBudget;
 import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 
@@ -91,6 +92,9 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
     protected int connectionTimeout = NIOTransport.DEFAULT_CONNECTION_TIMEOUT;
     protected boolean reuseAddress = NIOTransport.DEFAULT_REUSE_ADDRESS;
     protected int maxPendingBytesPerConnection = AsyncQueueWriter.AUTO_SIZE;
+    protected int readThrottlingLowWatermark = -1;
+    protected int readThrottlingHighWatermark = -1;
+    protected TransportMemoryBudget memoryBudget;
     protected boolean optimizedForMultiplexing = NIOTransport.DEFAULT_OPTIMIZED_FOR_MULTIPLEXING;
 
     protected long readTimeout = TimeUnit.MILLISECONDS.convert(Transport.DEFAULT_READ_TIMEOUT, TimeUnit.SECONDS);
@@ -509,6 +513,52 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         return getThis();
     }
 
+    /**
+     * @see org.glassfish.grizzly.nio.NIOTransport#getReadThrottlingLowWatermark()
+     * @since 3.0
+     */
+    public int getReadThrottlingLowWatermark() {
+        return readThrottlingLowWatermark;
+    }
+
+    /**
+     * @see org.glassfish.grizzly.nio.NIOTransport#getReadThrottlingHighWatermark()
+     * @since 3.0
+     */
+    public int getReadThrottlingHighWatermark() {
+        return readThrottlingHighWatermark;
+    }
+
+    /**
+     * @return this <code>NIOTransportBuilder</code>
+     * @see org.glassfish.grizzly.nio.NIOTransport#setReadThrottlingWatermarks(int, int)
+     * @since 3.0
+     */
+    public T setReadThrottlingWatermarks(final int lowWatermark,
+            final int highWatermark) {
+        this.readThrottlingLowWatermark = lowWatermark;
+        this.readThrottlingHighWatermark = highWatermark;
+        return getThis();
+    }
+
+    /**
+     * @see org.glassfish.grizzly.nio.NIOTransport#getMemoryBudget()
+     * @since 3.0
+     */
+    public TransportMemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * @return this <code>NIOTransportBuilder</code>
+     * @see org.glassfish.grizzly.nio.NIOTransport#setMemoryBudget(org.glassfish.grizzly.nio.TransportMemoryBudget)
+     * @since 3.0
+     */
+    public T setMemoryBudget(final TransportMemoryBudget memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return getThis();
+    }
+
     /**
      * @see org.glassfish.grizzly.asyncqueue.AsyncQueueWriter#getMaxPendingBytesPerConnection()
      * <p/>
@@ -574,6 +624,9 @@ public abstract class NIOTransportBuilder<T extends NIOTransportBuilder> {
         transport.setReadBufferSize(readBufferSize);
         transport.setWriteBufferSize(writeBufferSize);
         transport.setReuseAddress(reuseAddress);
+        transport.setReadThrottlingWatermarks(readThrottlingLowWatermark,
+                readThrottlingHighWatermark);
+        transport.setMemoryBudget(memoryBudget);
         transport.setOptimizedForMultiplexing(isOptimizedForMultiplexing());
         transport.getAsyncQueueIO()
                 .getWriter()
@@ -129,6 +129,20 @@ public interface TransportProbe {
      */
     void onErrorEvent(Transport transport, Throwable error);
 
+    /**
+     * Method will be called by a {@link Transport} selector thread each time
+     * it returns from a select operation.
+     * The <tt>selectedKeysCount</tt> is the number of keys to be processed;
+     * a select, which returned no keys, is an empty (or spurious) wakeup,
+     * a high rate of them is a sign of selector spin.
+     *
+     * @param transport {@link Transport}, the event belongs to.
+     * @param selectedKeysCount the number of selected keys to be processed.
+     *
+     * @since 3.0
+     */
+    void onSelectEvent(Transport transport, int selectedKeysCount);
+
 
     // ---------------------------------------------------------- Nested Classes
 
@@ -205,6 +219,12 @@ public interface TransportProbe {
         @Override
         public void onErrorEvent(Transport transport, Throwable error) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onSelectEvent(Transport transport, int selectedKeysCount) {}
+
     } // END Adapter
 
 }
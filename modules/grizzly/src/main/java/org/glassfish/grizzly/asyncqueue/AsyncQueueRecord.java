@@ -66,6 +66,11 @@ public abstract class AsyncQueueRecord<R> implements Cacheable {
     protected boolean isRecycled = false;
     protected DebugPoint recycleTrack;
     
+    /**
+     * The next record in the {@link MpscRecordQueue}.
+     */
+    volatile AsyncQueueRecord queueNext;
+    
     protected AsyncQueueRecord() {
     }
     
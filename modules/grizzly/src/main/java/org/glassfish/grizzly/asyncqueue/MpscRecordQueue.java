@@ -0,0 +1,351 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.asyncqueue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Intrusive multi-producer/single-consumer {@link AsyncQueueRecord} queue.
+ * 
+ * The records are linked using their own {@link AsyncQueueRecord#queueNext}
+ * field, so no node is allocated per element, and {@link #offer(org.glassfish.grizzly.asyncqueue.AsyncQueueRecord)}
+ * is a single atomic swap of the tail, which never retries no matter how
+ * many threads are adding records concurrently.
+ * 
+ * The consumer side operations are serialized, normally there is only one
+ * consumer (the thread processing the connection's queue), so the
+ * serialization is uncontended, however it's still safe for other threads
+ * to poll or remove records, for example when a connection is being closed,
+ * or a producer takes back the record it offered to the closed
+ * {@link TaskQueue}. Making the head CAS based instead wouldn't be safe
+ * either, the records are recycled, so the same record may come back to
+ * the head of the queue (ABA problem).
+ * 
+ * A record may be queued in only one {@link MpscRecordQueue} at a time.
+ * 
+ * @param <E> {@link AsyncQueueRecord} type
+ */
+final class MpscRecordQueue<E extends AsyncQueueRecord> extends AbstractQueue<E> {
+    private static final AtomicReferenceFieldUpdater<MpscRecordQueue, AsyncQueueRecord> tailUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(MpscRecordQueue.class, AsyncQueueRecord.class, "tail");
+    private static final AtomicReferenceFieldUpdater<AsyncQueueRecord, AsyncQueueRecord> nextUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(AsyncQueueRecord.class, AsyncQueueRecord.class, "queueNext");
+    
+    /**
+     * The stub record, which is linked into the queue, when the consumer
+     * takes the last record.
+     */
+    private final AsyncQueueRecord stub = new StubRecord();
+    
+    /**
+     * The last queued record, updated by producers.
+     */
+    private volatile AsyncQueueRecord tail;
+    
+    /**
+     * The first queued record (or the stub), accessed by consumers only
+     * (under the consumerLock).
+     */
+    private AsyncQueueRecord head;
+    
+    private final Object consumerLock = new Object();
+
+    MpscRecordQueue() {
+        head = tail = stub;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean offer(final E record) {
+        if (record == null) {
+            throw new NullPointerException();
+        }
+        
+        link(record);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E poll() {
+        synchronized (consumerLock) {
+            return poll0();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public E peek() {
+        synchronized (consumerLock) {
+            return peek0();
+        }
+    }
+
+    /**
+     * Removes the records from the head of the queue and passes them to the
+     * {@link TaskQueue.Drainer} until the queue is empty, or the
+     * {@link TaskQueue.Drainer} rejects a record, the rejected record stays
+     * at the head of the queue.
+     * 
+     * @param drainer the {@link TaskQueue.Drainer} to pass the records to.
+     * @return the number of drained records.
+     */
+    int drain(final TaskQueue.Drainer<? super E> drainer) {
+        int count = 0;
+        
+        synchronized (consumerLock) {
+            E record;
+            while ((record = peek0()) != null && drainer.accept(record)) {
+                poll0();
+                count++;
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean remove(final Object o) {
+        if (o == null || o == stub) {
+            return false;
+        }
+        
+        synchronized (consumerLock) {
+            AsyncQueueRecord pred = null;
+            AsyncQueueRecord node = head;
+            
+            while (node != null) {
+                if (node == o) {
+                    unlink(pred, node);
+                    return true;
+                }
+                
+                pred = node;
+                node = next(node);
+            }
+        }
+        
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    /**
+     * Returns the number of queued records. Unlike most collections, this
+     * method is <em>NOT</em> a constant-time operation.
+     * 
+     * @return the number of queued records.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        
+        synchronized (consumerLock) {
+            for (AsyncQueueRecord node = head; node != null; node = next(node)) {
+                if (node != stub) {
+                    size++;
+                }
+            }
+        }
+        
+        return size;
+    }
+
+    /**
+     * Returns the iterator over the snapshot of the queued records.
+     * 
+     * @return the iterator over the snapshot of the queued records.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<E> iterator() {
+        final ArrayList<E> snapshot = new ArrayList<E>();
+        
+        synchronized (consumerLock) {
+            for (AsyncQueueRecord node = head; node != null; node = next(node)) {
+                if (node != stub) {
+                    snapshot.add((E) node);
+                }
+            }
+        }
+        
+        final Iterator<E> it = snapshot.iterator();
+        
+        return new Iterator<E>() {
+            private E last;
+            
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return last = it.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                
+                MpscRecordQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private void link(final AsyncQueueRecord record) {
+        nextUpdater.lazySet(record, null);
+        final AsyncQueueRecord prev = tailUpdater.getAndSet(this, record);
+        prev.queueNext = record;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private E peek0() {
+        AsyncQueueRecord h = head;
+        if (h == stub) {
+            final AsyncQueueRecord next = next(h);
+            if (next == null) {
+                return null;
+            }
+            
+            head = h = next;
+        }
+        
+        return (E) h;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private E poll0() {
+        final AsyncQueueRecord h = peek0();
+        if (h == null) {
+            return null;
+        }
+        
+        AsyncQueueRecord next = next(h);
+        if (next == null) {
+            // h is the last record, link the stub after it, so the head
+            // always points to a queue node
+            link(stub);
+            next = awaitNext(h);
+        }
+        
+        head = next;
+        nextUpdater.lazySet(h, null);
+        
+        return (E) h;
+    }
+    
+    private void unlink(final AsyncQueueRecord pred, final AsyncQueueRecord node) {
+        if (pred == null) {
+            // node is the head
+            poll0();
+            return;
+        }
+        
+        AsyncQueueRecord next = node.queueNext;
+        if (next == null) {
+            // try to make pred the tail
+            pred.queueNext = null;
+            if (tailUpdater.compareAndSet(this, node, pred)) {
+                return;
+            }
+            
+            // a producer is linking a record after the node
+            pred.queueNext = node;
+            next = awaitNext(node);
+        }
+        
+        pred.queueNext = next;
+        nextUpdater.lazySet(node, null);
+    }
+
+    /**
+     * Returns the record following the passed one, waits if a producer has
+     * already swapped the tail, but hasn't linked the record yet.
+     */
+    private AsyncQueueRecord next(final AsyncQueueRecord node) {
+        final AsyncQueueRecord next = node.queueNext;
+        return next != null || node == tail
+                ? next
+                : awaitNext(node);
+    }
+    
+    private static AsyncQueueRecord awaitNext(final AsyncQueueRecord node) {
+        AsyncQueueRecord next;
+        while ((next = node.queueNext) == null) {
+            Thread.yield();
+        }
+        
+        return next;
+    }
+    
+    private static final class StubRecord extends AsyncQueueRecord<Object> {
+        @Override
+        public Object getCurrentResult() {
+            return null;
+        }
+
+        @Override
+        public void recycle() {
+        }
+    }
+}
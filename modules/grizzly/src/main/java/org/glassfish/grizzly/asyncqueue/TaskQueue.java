@@ -60,7 +60,7 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
     /**
      * The queue of tasks, which will be processed asynchronously
      */
-    private final Queue<E> queue;
+    private final MpscRecordQueue<E> queue;
     
     private static final AtomicReferenceFieldUpdater<TaskQueue, AsyncQueueRecord> currentElementUpdater =
             AtomicReferenceFieldUpdater.newUpdater(TaskQueue.class, AsyncQueueRecord.class, "currentElement");
@@ -82,7 +82,7 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
 
     protected TaskQueue(final MutableMaxQueueSize maxQueueSizeHolder) {
         this.maxQueueSizeHolder = maxQueueSizeHolder;
-        queue = new ConcurrentLinkedQueue<E>();
+        queue = new MpscRecordQueue<E>();
     }
 
     // ---------------------------------------------------------- Public Methods
@@ -194,6 +194,19 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
         return queue;
     }
 
+    /**
+     * Removes the tasks from the head of the queue and passes them to the
+     * {@link Drainer} until the queue is empty, or the {@link Drainer}
+     * rejects a task. The rejected task stays at the head of the queue.
+     * Unlike {@link #poll()}, the current element is not taken into account.
+     * 
+     * @param drainer the {@link Drainer} to pass the tasks to.
+     * @return the number of drained tasks.
+     */
+    public int drain(final Drainer<? super E> drainer) {
+        return queue.drain(drainer);
+    }
+
     public void notifyWritePossible(final WriteHandler writeHandler) {
         notifyWritePossible(writeHandler, maxQueueSizeHolder.getMaxQueueSize());
     }
@@ -375,4 +388,20 @@ public final class TaskQueue<E extends AsyncQueueRecord> {
     public interface MutableMaxQueueSize {
         int getMaxQueueSize();
     }
+
+    /**
+     * Receives the tasks {@link #drain(org.glassfish.grizzly.asyncqueue.TaskQueue.Drainer) drained}
+     * from the queue.
+     * 
+     * @param <E> {@link AsyncQueueRecord} type
+     */
+    public interface Drainer<E> {
+        /**
+         * @param task the task at the head of the queue.
+         * @return <tt>true</tt>, if the task is accepted and has to be removed
+         *         from the queue, or <tt>false</tt> to stop draining and
+         *         leave the task in the queue.
+         */
+        boolean accept(E task);
+    }
 }
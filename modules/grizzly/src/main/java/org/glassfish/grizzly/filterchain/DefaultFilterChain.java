@@ -73,6 +73,20 @@ public final class DefaultFilterChain extends ListFacadeFilterChain {
     private final FiltersStateFactory filtersStateFactory =
             new FiltersStateFactory();
     
+    /**
+     * If <tt>true</tt>, every {@link Filter} is called for every operation,
+     * even if the {@link Filter} inherits {@link BaseFilter}'s pass-through
+     * implementation of the operation handler. Is read when the chain is created.
+     */
+    private final boolean isCallPassThroughFilters = Boolean.getBoolean(
+            DefaultFilterChain.class.getName() + ".call-pass-through-filters");
+    
+    /**
+     * Precompiled dispatch table, <tt>null</tt> means the table has to be
+     * (re)compiled.
+     */
+    private volatile FilterDispatchTable dispatchTable;
+    
     /**
      * Logger
      */
@@ -187,8 +201,24 @@ public final class DefaultFilterChain extends ListFacadeFilterChain {
         int lastNextActionType = InvokeAction.TYPE;
         NextAction lastNextAction = null;
 
+        final Operation operation = ctx.getOperation();
+        final boolean isUpstream = executor.isUpstream();
+        
         while (i != end) {
 
+            if (!isCallPassThroughFilters && ctx.predefinedNextAction == null) {
+                // jump over the filters with pass-through operation handler
+                final int nextIdx = obtainDispatchTable().next(
+                        operation, isUpstream, i, end);
+                if (nextIdx != i) {
+                    i = nextIdx;
+                    ctx.setFilterIdx(i);
+                    if (i == end) {
+                        break;
+                    }
+                }
+            }
+            
             // current Filter to be executed
             currentFilter = get(i);
 
@@ -489,6 +519,32 @@ public final class DefaultFilterChain extends ListFacadeFilterChain {
         return new DefaultFilterChain(filters.subList(fromIndex, toIndex));
     }
 
+    @Override
+    public void clear() {
+        super.clear();
+        dispatchTable = null;
+    }
+
+    @Override
+    protected void notifyChangedExcept(final Filter filter) {
+        dispatchTable = null;
+        super.notifyChangedExcept(filter);
+    }
+
+    /**
+     * @return the {@link FilterDispatchTable} compiled for the current
+     *         {@link Filter}s.
+     */
+    FilterDispatchTable obtainDispatchTable() {
+        FilterDispatchTable table = dispatchTable;
+        if (table == null || table.size() != filters.size()) {
+            table = FilterDispatchTable.compile(filters);
+            dispatchTable = table;
+        }
+        
+        return table;
+    }
+
     @SuppressWarnings("unchecked")
     private FiltersState obtainFiltersState(final Connection connection) {
         return (FiltersState) connection.obtainProcessorState(this, filtersStateFactory);
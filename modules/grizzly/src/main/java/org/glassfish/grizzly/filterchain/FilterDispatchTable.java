@@ -0,0 +1,194 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.filterchain;
+
+import java.util.Arrays;
+import java.util.List;
+import org.glassfish.grizzly.filterchain.FilterChainContext.Operation;
+
+/**
+ * Precompiled {@link FilterChain} dispatch information, which lets
+ * the chain jump over the {@link Filter}s, which inherit
+ * {@link BaseFilter}'s pass-through implementation of the operation handler,
+ * instead of calling them one by one.
+ * 
+ * For each {@link Operation} the table keeps the index of the closest
+ * {@link Filter} at or after the given index (in both directions), which
+ * really handles the operation.
+ * The table is immutable and has to be recompiled once the {@link FilterChain}
+ * is changed.
+ */
+final class FilterDispatchTable {
+    private static final Operation[] OPERATIONS = Operation.values();
+    
+    /**
+     * Caches per {@link Filter} class, which operation handlers are overridden.
+     */
+    private static final ClassValue<boolean[]> HANDLED_OPERATIONS =
+            new ClassValue<boolean[]>() {
+        @Override
+        protected boolean[] computeValue(final Class<?> filterClass) {
+            final boolean[] handled = new boolean[OPERATIONS.length];
+            for (Operation operation : OPERATIONS) {
+                handled[operation.ordinal()] =
+                        isHandlerOverridden(filterClass, operation);
+            }
+            
+            return handled;
+        }
+    };
+    
+    private final int size;
+    // [operation][filterIdx] -> the closest handling filter index >= filterIdx, or size
+    private final int[][] nextUpstream;
+    // [operation][filterIdx] -> the closest handling filter index <= filterIdx, or -1
+    private final int[][] nextDownstream;
+
+    private FilterDispatchTable(final int size, final int[][] nextUpstream,
+            final int[][] nextDownstream) {
+        this.size = size;
+        this.nextUpstream = nextUpstream;
+        this.nextDownstream = nextDownstream;
+    }
+
+    static FilterDispatchTable compile(final List<Filter> filters) {
+        final int size = filters.size();
+        final int[][] nextUpstream = new int[OPERATIONS.length][size];
+        final int[][] nextDownstream = new int[OPERATIONS.length][size];
+        
+        final boolean[][] handled = new boolean[size][];
+        for (int i = 0; i < size; i++) {
+            handled[i] = isHandledOperations(filters.get(i));
+        }
+        
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int next = size;
+            for (int i = size - 1; i >= 0; i--) {
+                if (handled[i][op]) {
+                    next = i;
+                }
+                nextUpstream[op][i] = next;
+            }
+            
+            next = -1;
+            for (int i = 0; i < size; i++) {
+                if (handled[i][op]) {
+                    next = i;
+                }
+                nextDownstream[op][i] = next;
+            }
+        }
+        
+        return new FilterDispatchTable(size, nextUpstream, nextDownstream);
+    }
+
+    /**
+     * @return the number of {@link Filter}s the table was compiled for.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the first {@link Filter}, starting from the
+     * <tt>filterIdx</tt>, which has to be called to process the operation,
+     * or <tt>endIdx</tt>, if there is no such {@link Filter} in the range.
+     * 
+     * @param operation {@link Operation}
+     * @param isUpstream <tt>true</tt>, if the chain is executed upstream
+     * @param filterIdx the current {@link Filter} index
+     * @param endIdx the (exclusive) end index
+     */
+    int next(final Operation operation, final boolean isUpstream,
+            final int filterIdx, final int endIdx) {
+        if (filterIdx < 0 || filterIdx >= size) {
+            return filterIdx;
+        }
+        
+        return isUpstream
+                ? Math.min(nextUpstream[operation.ordinal()][filterIdx], endIdx)
+                : Math.max(nextDownstream[operation.ordinal()][filterIdx], endIdx);
+    }
+
+    private static boolean[] isHandledOperations(final Filter filter) {
+        if (filter instanceof BaseFilter) {
+            return HANDLED_OPERATIONS.get(filter.getClass());
+        }
+        
+        // custom Filter implementations are always called
+        final boolean[] handled = new boolean[OPERATIONS.length];
+        Arrays.fill(handled, true);
+        return handled;
+    }
+
+    private static boolean isHandlerOverridden(final Class<?> filterClass,
+            final Operation operation) {
+        try {
+            switch (operation) {
+                case ACCEPT:
+                    return isOverridden(filterClass, "handleAccept", FilterChainContext.class);
+                case CONNECT:
+                    return isOverridden(filterClass, "handleConnect", FilterChainContext.class);
+                case READ:
+                    return isOverridden(filterClass, "handleRead", FilterChainContext.class);
+                case WRITE:
+                    return isOverridden(filterClass, "handleWrite", FilterChainContext.class);
+                case EVENT:
+                    return isOverridden(filterClass, "handleEvent",
+                            FilterChainContext.class, FilterChainEvent.class);
+                case CLOSE:
+                    return isOverridden(filterClass, "handleClose", FilterChainContext.class);
+                default:
+                    return true;
+            }
+        } catch (Exception e) {
+            // be on the safe side - call the filter
+            return true;
+        }
+    }
+
+    private static boolean isOverridden(final Class<?> filterClass,
+            final String methodName, final Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        return filterClass.getMethod(methodName, parameterTypes)
+                .getDeclaringClass() != BaseFilter.class;
+    }
+}
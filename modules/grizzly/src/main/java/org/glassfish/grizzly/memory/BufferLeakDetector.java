@@ -0,0 +1,157 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.memory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
+
+/**
+ * Sampling detector of pooled {@link Buffer}s, which were garbage collected
+ * without being released, so their memory has never been returned to the pool.
+ *
+ * For the configured fraction of allocations the detector records the
+ * allocation stack trace and weakly tracks the {@link Buffer}. If the
+ * {@link Buffer} gets garbage collected before it's released - the leak
+ * is logged together with the allocation stack trace.
+ */
+final class BufferLeakDetector {
+    private static final Logger LOGGER = Grizzly.logger(BufferLeakDetector.class);
+
+    private final float samplingRate;
+
+    private final ReferenceQueue<Buffer> refQueue =
+            new ReferenceQueue<Buffer>();
+
+    // keeps the trackers reachable until they're closed or reported
+    private final Set<Tracker> trackers = Collections.newSetFromMap(
+            new ConcurrentHashMap<Tracker, Boolean>());
+
+    private final AtomicLong leaksCount = new AtomicLong();
+
+    /**
+     * @param samplingRate the fraction of allocations to be tracked,
+     *                     from <tt>0</tt> (exclusive) to <tt>1</tt>
+     */
+    BufferLeakDetector(final float samplingRate) {
+        if (samplingRate <= 0.0f || samplingRate > 1.0f) {
+            throw new IllegalArgumentException(
+                    "samplingRate must be greater than zero and less or equal to 1");
+        }
+
+        this.samplingRate = samplingRate;
+    }
+
+    /**
+     * Starts tracking the newly allocated {@link Buffer}, if the allocation
+     * is sampled. The leaks detected so far are reported.
+     *
+     * @param buffer the allocated {@link Buffer}
+     * @return the {@link Tracker}, which has to be closed once
+     *         the {@link Buffer} is released, or <tt>null</tt>, if the
+     *         allocation is not sampled
+     */
+    Tracker track(final Buffer buffer) {
+        if (samplingRate < 1.0f
+                && ThreadLocalRandom.current().nextFloat() >= samplingRate) {
+            return null;
+        }
+
+        reportLeaks();
+
+        final Tracker tracker = new Tracker(buffer, refQueue);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * @return the number of detected leaks
+     */
+    long getLeaksCount() {
+        reportLeaks();
+        return leaksCount.get();
+    }
+
+    private void reportLeaks() {
+        Tracker tracker;
+        while ((tracker = (Tracker) refQueue.poll()) != null) {
+            if (trackers.remove(tracker)) {
+                leaksCount.incrementAndGet();
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    LOGGER.log(Level.WARNING,
+                            LogMessages.WARNING_GRIZZLY_MEMORY_BUFFER_LEAK(
+                                    tracker.description),
+                            tracker.allocationStackTrace);
+                }
+            }
+        }
+    }
+
+    final class Tracker extends WeakReference<Buffer> {
+        private final String description;
+        private final Throwable allocationStackTrace;
+
+        private Tracker(final Buffer buffer,
+                final ReferenceQueue<Buffer> refQueue) {
+            super(buffer, refQueue);
+            description = buffer.getClass().getSimpleName()
+                    + "[capacity=" + buffer.capacity() + ']';
+            allocationStackTrace = new Throwable("Buffer allocation");
+        }
+
+        /**
+         * Stops tracking, the {@link Buffer} has been properly released.
+         */
+        void close() {
+            trackers.remove(this);
+            clear();
+        }
+    }
+}
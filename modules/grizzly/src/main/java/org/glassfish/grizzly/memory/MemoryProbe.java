@@ -67,6 +67,26 @@ public interface MemoryProbe {
      */
     void onBufferReleaseToPoolEvent(int size);
 
+    /**
+     * Called by {@link MemoryManager}, when buffer gets allocated from
+     * the current thread's arena (arena hit).
+     *
+     * @param size buffer size
+     *
+     * @since 3.0
+     */
+    void onBufferAllocateFromArenaEvent(int size);
+
+    /**
+     * Called by {@link MemoryManager}, when the current thread's arena is
+     * empty, so the buffer has to be allocated from a shared pool (arena miss).
+     *
+     * @param size buffer size
+     *
+     * @since 3.0
+     */
+    void onArenaMissEvent(int size);
+
 
     // ---------------------------------------------------------- Nested Classes
 
@@ -100,5 +120,17 @@ public interface MemoryProbe {
         @Override
         public void onBufferReleaseToPoolEvent(int size) {}
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onBufferAllocateFromArenaEvent(int size) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onArenaMissEvent(int size) {}
+
     } // END Adapter
 }
@@ -48,6 +48,7 @@ import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.LockSupport;
 
@@ -68,6 +69,7 @@ import org.glassfish.grizzly.monitoring.MonitoringUtils;
  *     <li>The percentage of the heap that this manager will use when populating the pools</li>
  *     <li>The percentage of buffers to be pre-allocated during MemoryManager initialization</li>
  *     <li>The flag indicating whether direct or heap based {@link Buffer}s will be allocated</li>
+ *     <li>The per-thread arena size, i.e. the number of buffers every thread may cache per pool</li>
  * </ul>
  *
  * If no explicit configuration is provided, the following defaults will be used:
@@ -79,8 +81,28 @@ import org.glassfish.grizzly.monitoring.MonitoringUtils;
  *     <li>Percentage of heap: 3% ({@link #DEFAULT_HEAP_USAGE_PERCENTAGE})</li>
  *     <li>Percentage of buffers to be pre-allocated: 100% ({@link #DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE})</li>
  *     <li>Heap based {@link Buffer}s will be allocated</li>
+ *     <li>Per-thread arenas are disabled ({@link #DEFAULT_ARENA_SIZE})</li>
  * </ul>
  *
+ * If per-thread arenas are enabled, every thread allocating {@link Buffer}s gets its own
+ * arena per pool, which is bound to one of the pool slices. The arena is
+ * refilled from and spilled to its slice in batches of a half of the arena size,
+ * so a {@link Buffer} allocated and released on the same thread (typical for
+ * a selector thread reading data) doesn't touch the slice's shared indices.
+ * A {@link Buffer} released on a thread, whose arena is bound to another slice,
+ * is returned directly to its owning slice.
+ * Please note, the buffers cached in a thread's arena are not available to
+ * other threads, and are left to GC when the thread terminates.
+ *
+ * The allocated {@link Buffer}s (except composite ones) are
+ * {@link ReferenceCountedBuffer}s, so their memory could be shared by several
+ * owners without copying. To catch the {@link Buffer}s, which are not returned
+ * to the pool, the leak detection could be enabled by setting the
+ * <tt>org.glassfish.grizzly.memory.PooledMemoryManager.leak-detection-sampling-rate</tt>
+ * system property to the fraction (from 0 to 1) of allocations to be tracked.
+ * The leak detection records the allocation stack trace for each tracked
+ * {@link Buffer}, so the sampling rate should be kept low in production.
+ *
  * The main advantage of this manager over {@link org.glassfish.grizzly.memory.HeapMemoryManager} or
  * {@link org.glassfish.grizzly.memory.ByteBufferManager} is that this implementation doesn't use ThreadLocal pools
  * and as such, doesn't suffer from the memory fragmentation/reallocation cycle that can impact the ThreadLocal versions.
@@ -101,6 +123,20 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
 
     private static final long BACK_OFF_DELAY = Long.getLong(
             PooledMemoryManager.class + ".back-off-delay", 0L);
+
+    /**
+     * The default per-thread arena size, zero means arenas are disabled.
+     * Could be changed using the
+     * <tt>org.glassfish.grizzly.memory.PooledMemoryManager.arena-size</tt>
+     * system property.
+     */
+    public static final int DEFAULT_ARENA_SIZE = Integer.getInteger(
+            PooledMemoryManager.class.getName() + ".arena-size", 0);
+
+    private static final float LEAK_DETECTION_SAMPLING_RATE = Float.parseFloat(
+            System.getProperty(PooledMemoryManager.class.getName()
+                    + ".leak-detection-sampling-rate", "0"));
+
     /**
      * Basic monitoring support.  Concrete implementations of this class need
      * only to implement the {@link #createJmxManagementObject()}  method
@@ -122,6 +158,9 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     // the max buffer size pooled by this memory manager
     private final int maxPooledBufferSize;
 
+    // null, if the leak detection is disabled
+    private final BufferLeakDetector leakDetector;
+
 
     // ------------------------------------------------------------ Constructors
 
@@ -135,6 +174,7 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
      *     <li>Number of pool slices based on <code>Runtime.getRuntime().availableProcessors()</code></li>
      *     <li>The initial allocation will use 3% of the heap</li>
      *     <li>The percentage of buffers to be pre-allocated during MemoryManager initialization</li>
+     *     <li>The per-thread arena size {@link #DEFAULT_ARENA_SIZE}</li>
      * </ul>
      */
     public PooledMemoryManager() {
@@ -182,6 +222,34 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             final float percentOfHeap,
             final float percentPreallocated,
             final boolean isDirect) {
+        this(baseBufferSize, numberOfPools, growthFactor, numberOfPoolSlices,
+                percentOfHeap, percentPreallocated, isDirect,
+                DEFAULT_ARENA_SIZE);
+    }
+
+    /**
+     * Creates a new <code>PooledMemoryManager</code> using the specified parameters for configuration.
+     *
+     * @param baseBufferSize the base size of the buffer for the 1st pool, every next pool n will have buffer size equal to bufferSize(n-1) * 2^growthFactor
+     * @param numberOfPools the number of pools, responsible for allocation of buffers of a pool-specific size
+     * @param growthFactor the buffer size growth factor, that defines 2^x multiplier, used to calculate buffer size for next allocated pool
+     * @param numberOfPoolSlices the number of pool slices that every pool will stripe allocation requests across
+     * @param percentOfHeap percentage of the heap that will be used when populating the pools
+     * @param percentPreallocated percentage of buffers to be pre-allocated during MemoryManager initialization
+     * @param isDirect flag, indicating whether direct or heap based {@link Buffer}s will be allocated
+     * @param arenaSize the max number of buffers every thread may cache per pool, zero disables per-thread arenas
+     *
+     * @since 3.0
+     */
+    public PooledMemoryManager(
+            final int baseBufferSize,
+            final int numberOfPools,
+            final int growthFactor,
+            final int numberOfPoolSlices,
+            final float percentOfHeap,
+            final float percentPreallocated,
+            final boolean isDirect,
+            final int arenaSize) {
         if (baseBufferSize <= 0) {
             throw new IllegalArgumentException("baseBufferSize must be greater than zero");
         }
@@ -210,14 +278,22 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             throw new IllegalArgumentException("percentPreallocated must be greater or equal to zero and less or equal to 1");
         }
 
+        if (arenaSize < 0) {
+            throw new IllegalArgumentException("arenaSize must be greater or equal to zero");
+        }
+
         final long heapSize = Runtime.getRuntime().maxMemory();
         final long memoryPerSubPool = (long) (heapSize * percentOfHeap / numberOfPools);
 
+        leakDetector = LEAK_DETECTION_SAMPLING_RATE > 0.0f
+                ? new BufferLeakDetector(Math.min(LEAK_DETECTION_SAMPLING_RATE, 1.0f))
+                : null;
+        
         pools = new Pool[numberOfPools];
         for (int i = 0, bufferSize = baseBufferSize; i < numberOfPools; i++, bufferSize <<= growthFactor) {
             pools[i] = new Pool(bufferSize, memoryPerSubPool,
                     numberOfPoolSlices, percentPreallocated, isDirect,
-                    monitoringConfig);
+                    arenaSize, leakDetector, monitoringConfig);
         }
         maxPooledBufferSize = pools[numberOfPools - 1].bufferSize;
     }
@@ -407,6 +483,10 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     Pool[] getPools() {
         return Arrays.copyOf(pools, pools.length);
     }
+
+    BufferLeakDetector getLeakDetector() {
+        return leakDetector;
+    }
     
     // --------------------------------------------------------- Private Methods
 
@@ -488,11 +568,35 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         private final PoolSlice[] slices;
         private final int bufferSize;
 
+        // the max number of buffers in a thread's arena, 0 if arenas are disabled
+        private final int arenaSize;
+        // the current thread's arena, null if arenas are disabled
+        private final ThreadLocal<Arena> arenas;
+        
+        // null, if the leak detection is disabled
+        private final BufferLeakDetector leakDetector;
+        
+        private final DefaultMonitoringConfig<MemoryProbe> monitoringConfig;
+
         public Pool(final int bufferSize, final long memoryPerSubPool,
                 final int numberOfPoolSlices, final float percentPreallocated,
                 final boolean isDirect,
                 final DefaultMonitoringConfig<MemoryProbe> monitoringConfig) {
+            this(bufferSize, memoryPerSubPool, numberOfPoolSlices,
+                    percentPreallocated, isDirect, 0, null, monitoringConfig);
+        }
+
+        public Pool(final int bufferSize, final long memoryPerSubPool,
+                final int numberOfPoolSlices, final float percentPreallocated,
+                final boolean isDirect, final int arenaSize,
+                final BufferLeakDetector leakDetector,
+                final DefaultMonitoringConfig<MemoryProbe> monitoringConfig) {
             this.bufferSize = bufferSize;
+            this.arenaSize = arenaSize;
+            this.leakDetector = leakDetector;
+            this.monitoringConfig = monitoringConfig;
+            arenas = arenaSize > 0 ? new ThreadLocal<Arena>() : null;
+            
             slices = new PoolSlice[numberOfPoolSlices];
             final long memoryPerSlice = memoryPerSubPool / numberOfPoolSlices;
             
@@ -524,10 +628,71 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         }
         
         public Buffer allocate() {
-            final PoolSlice slice = getSlice();
-            PoolBuffer b = slice.poll();
+            final PoolBuffer b;
+            if (arenas != null) {
+                b = allocateFromArena();
+            } else {
+                final PoolSlice slice = getSlice();
+                final PoolBuffer pb = slice.poll();
+                b = (pb != null ? pb : slice.allocate()).prepare();
+            }
+            
+            if (leakDetector != null) {
+                b.leakTracker(leakDetector.track(b));
+            }
+            
+            return b;
+        }
+
+        /**
+         * Returns the {@link PoolBuffer} to the current thread's arena, if the
+         * arena is bound to the buffer's slice, or to the owning slice otherwise.
+         */
+        void release(final PoolBuffer b) {
+            if (arenas != null) {
+                final Arena arena = arenas.get();
+                if (arena != null && arena.home == b.owner()) {
+                    arena.offer(b);
+                    return;
+                }
+            }
+            
+            b.owner().offer(b);
+        }
+        
+        /**
+         * @return the number of {@link Buffer}s cached in the current thread's
+         * arena
+         */
+        int arenaElementsCount() {
+            if (arenas != null) {
+                final Arena arena = arenas.get();
+                if (arena != null) {
+                    return arena.size;
+                }
+            }
+            
+            return 0;
+        }
+        
+        private PoolBuffer allocateFromArena() {
+            Arena arena = arenas.get();
+            if (arena == null) {
+                arena = new Arena(getSlice(), arenaSize);
+                arenas.set(arena);
+            }
+            
+            PoolBuffer b = arena.poll();
+            if (b != null) {
+                ProbeNotifier.notifyBufferAllocatedFromArena(monitoringConfig,
+                        bufferSize);
+                return b.prepare();
+            }
+            
+            ProbeNotifier.notifyArenaMiss(monitoringConfig, bufferSize);
+            b = arena.refill();
             if (b == null) {
-                b = slice.allocate();
+                b = arena.home.allocate();
             }
             
             return b.prepare();
@@ -731,6 +896,101 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             }
         }
 
+        /**
+         * Polls up to <tt>max</tt> {@link PoolBuffer}s at once, the buffers
+         * are claimed using single poll index update.
+         *
+         * @param dst the array to store the polled buffers to, starting from 0
+         * @param max the max number of buffers to poll
+         * @return the number of polled buffers
+         */
+        final int poll(final PoolBuffer[] dst, final int max) {
+            int pollIdx;
+            int count;
+            for (;;) {
+                pollIdx = this.pollIdx.get();
+                final int offerIdx = this.offerIdx.get();
+                
+                // weak elements count, might return false negatives
+                count = Math.min(max, elementsCount(pollIdx, offerIdx));
+                if (count <= 0) {
+                    return 0;
+                }
+                
+                if (this.pollIdx.compareAndSet(pollIdx,
+                        nextIndex(pollIdx, count))) {
+                    break;
+                }
+                
+                LockSupport.parkNanos(BACK_OFF_DELAY);
+            }
+            
+            for (int i = 0; i < count; i++, pollIdx = nextIndex(pollIdx)) {
+                final int unmaskedPollIdx = unmask(pollIdx);
+                final AtomicReferenceArray<PoolBuffer> pool = pool(pollIdx);
+                PoolBuffer pb;
+                while ((pb = pool.getAndSet(unmaskedPollIdx, null)) == null) {
+                    // give offer at this index time to complete...
+                    Thread.yield();
+                }
+                
+                ProbeNotifier.notifyBufferAllocatedFromPool(monitoringConfig,
+                                                            bufferSize);
+                dst[i] = pb;
+            }
+            
+            return count;
+        }
+
+        /**
+         * Offers up to <tt>count</tt> {@link PoolBuffer}s at once, the buffers
+         * are placed using single offer index update.
+         *
+         * @param src the array of buffers to offer
+         * @param offset the offset of the first buffer in <tt>src</tt>
+         * @param count the number of buffers to offer
+         * @return the number of buffers, that were accepted by the slice,
+         *         starting from the <tt>offset</tt>
+         */
+        final int offer(final PoolBuffer[] src, final int offset,
+                final int count) {
+            int offerIdx;
+            int accepted;
+            for (;;) {
+                offerIdx = this.offerIdx.get();
+                final int pollIdx = this.pollIdx.get();
+                
+                // weak free space check, might return false negatives
+                accepted = Math.min(count,
+                        maxPoolSize - elementsCount(pollIdx, offerIdx));
+                if (accepted <= 0) {
+                    return 0;
+                }
+                
+                if (this.offerIdx.compareAndSet(offerIdx,
+                        nextIndex(offerIdx, accepted))) {
+                    break;
+                }
+                
+                LockSupport.parkNanos(BACK_OFF_DELAY);
+            }
+            
+            for (int i = 0; i < accepted; i++, offerIdx = nextIndex(offerIdx)) {
+                final int unmaskedOfferIdx = unmask(offerIdx);
+                final AtomicReferenceArray<PoolBuffer> pool = pool(offerIdx);
+                final PoolBuffer b = src[offset + i];
+                while (!pool.compareAndSet(unmaskedOfferIdx, null, b)) {
+                    // give poll at this index time to complete...
+                    Thread.yield();
+                }
+                
+                ProbeNotifier.notifyBufferReleasedToPool(monitoringConfig,
+                                                         bufferSize);
+            }
+            
+            return accepted;
+        }
+        
         public final int elementsCount() {
             return elementsCount(pollIdx.get(), offerIdx.get());
         }
@@ -824,6 +1084,14 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             }
         }
 
+        private int nextIndex(int currentIdx, final int steps) {
+            for (int i = 0; i < steps; i++) {
+                currentIdx = nextIndex(currentIdx);
+            }
+            
+            return currentIdx;
+        }
+        
         /*
          * Return lower 30 bits, i.e., the actual array index.
          */
@@ -901,17 +1169,84 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     } // END BufferPool
 
 
-    interface PoolBuffer extends Buffer {
+    /*
+     * Per-thread cache of PoolBuffers of a single Pool. The arena is bound to
+     * one PoolSlice and caches only the buffers owned by that slice,
+     * so buffers are exchanged with the slice in batches, touching the slice's
+     * shared indices once per batch.
+     * The arena is accessed only by the thread it belongs to.
+     */
+    static final class Arena {
+        // the slice buffers are polled from and spilled to
+        private final PoolSlice home;
+        private final PoolBuffer[] buffers;
+        private final int batchSize;
+        private int size;
+
+        Arena(final PoolSlice home, final int arenaSize) {
+            this.home = home;
+            buffers = new PoolBuffer[arenaSize];
+            batchSize = Math.max(1, arenaSize >> 1);
+        }
+
+        PoolBuffer poll() {
+            if (size == 0) {
+                return null;
+            }
+            
+            final PoolBuffer b = buffers[--size];
+            buffers[size] = null;
+            return b;
+        }
+
+        /*
+         * Refills the empty arena from the home slice and returns one of
+         * the polled buffers, or null, if the slice is empty.
+         */
+        PoolBuffer refill() {
+            assert size == 0;
+            size = home.poll(buffers, batchSize);
+            return poll();
+        }
+
+        void offer(final PoolBuffer b) {
+            if (size == buffers.length) {
+                spill();
+            }
+            
+            buffers[size++] = b;
+        }
+
+        /*
+         * Spills the least recently released batch of buffers to the home
+         * slice. The buffers, which didn't fit the slice, are left to GC.
+         */
+        private void spill() {
+            home.offer(buffers, 0, batchSize);
+            
+            final int remaining = size - batchSize;
+            System.arraycopy(buffers, batchSize, buffers, 0, remaining);
+            Arrays.fill(buffers, remaining, size, null);
+            size = remaining;
+        }
+    } // END Arena
+
+    interface PoolBuffer extends ReferenceCountedBuffer {
         PoolBuffer prepare();
         boolean free();
         PoolBuffer free(boolean free);
 
         PoolSlice owner();
+        
+        void leakTracker(BufferLeakDetector.Tracker tracker);
     }
     
     private static final class PoolHeapBuffer extends HeapBuffer
             implements PoolBuffer {
 
+        private static final AtomicIntegerFieldUpdater<PoolHeapBuffer> REF_COUNT_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(PoolHeapBuffer.class, "refCount");
+        
         // The pool slice to which this Buffer instance will be returned.
         private final PoolSlice owner;
 
@@ -919,6 +1254,12 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         // be true.
         boolean free;
 
+        // the number of references to this Buffer instance, see ReferenceCountedBuffer
+        private volatile int refCount = 1;
+        
+        // not null, if the allocation is tracked by the leak detector
+        private BufferLeakDetector.Tracker leakTracker;
+
         // represents the number of 'child' buffers that have been created using
         // this as the foundation.  This source buffer can't be returned
         // to the pool unless this value is zero.
@@ -982,6 +1323,7 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         public PoolBuffer prepare() {
             allowBufferDispose = true;
             free = false;
+            refCount = 1;
             
             return this;
         }
@@ -1001,6 +1343,51 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             this.free = free;
             return this;
         }
+
+        @Override
+        public void leakTracker(final BufferLeakDetector.Tracker tracker) {
+            leakTracker = tracker;
+        }
+
+        // ------------------------------ Methods from ReferenceCountedBuffer
+
+        @Override
+        public ReferenceCountedBuffer retain() {
+            checkDispose();
+            for (;;) {
+                final int count = refCount;
+                if (count <= 0) {
+                    throw new IllegalStateException(
+                            "PoolBuffer has already been released");
+                }
+                
+                if (REF_COUNT_UPDATER.compareAndSet(this, count, count + 1)) {
+                    return this;
+                }
+            }
+        }
+
+        @Override
+        public int refCount() {
+            return refCount;
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedSlice() {
+            // the slice shares the memory using shareCount
+            return (ReferenceCountedBuffer) slice();
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedSlice(final int position,
+                final int limit) {
+            return (ReferenceCountedBuffer) slice(position, limit);
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedDuplicate() {
+            return (ReferenceCountedBuffer) duplicate();
+        }
         
         // ------------------------------------------ Methods from HeapBuffer
 
@@ -1044,9 +1431,13 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             return b;            
         }
         
+        /**
+         * Drops the reference to this <tt>PoolBuffer</tt>, the buffer is
+         * disposed once the last reference is dropped.
+         */
         @Override
         public void dispose() {
-            if (free) {
+            if (free || !releaseReference()) {
                 return;
             }
             free = true;
@@ -1054,6 +1445,22 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             dispose0();
         }
 
+        /*
+         * Returns true, if the last reference has been released.
+         */
+        private boolean releaseReference() {
+            for (;;) {
+                final int count = refCount;
+                if (count <= 0) {
+                    return false;
+                }
+                
+                if (REF_COUNT_UPDATER.compareAndSet(this, count, count - 1)) {
+                    return count == 1;
+                }
+            }
+        }
+
         private void dispose0() {
             // check shared counter optimistically
             boolean isNotShared = shareCount.get() == 0;
@@ -1075,12 +1482,20 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
 
 
         private void returnToPool() {
+            closeLeakTracker();
             // restore capacity
             cap = heap.length;
             // clear
             clear();
             
-            owner.offer(this);
+            owner.owner.release(this);
+        }
+
+        private void closeLeakTracker() {
+            if (leakTracker != null) {
+                leakTracker.close();
+                leakTracker = null;
+            }
         }
         
         // ----------------------------------------------------- Protected Methods
@@ -1133,6 +1548,9 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
     private static final class PoolByteBufferWrapper extends ByteBufferWrapper
             implements PoolBuffer {
 
+        private static final AtomicIntegerFieldUpdater<PoolByteBufferWrapper> REF_COUNT_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(PoolByteBufferWrapper.class, "refCount");
+        
         // The pool slice to which this Buffer instance will be returned.
         private final PoolSlice owner;
 
@@ -1140,6 +1558,12 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         // be true.
         boolean free;
 
+        // the number of references to this Buffer instance, see ReferenceCountedBuffer
+        private volatile int refCount = 1;
+        
+        // not null, if the allocation is tracked by the leak detector
+        private BufferLeakDetector.Tracker leakTracker;
+
         // represents the number of 'child' buffers that have been created using
         // this as the foundation.  This source buffer can't be returned
         // to the pool unless this value is zero.
@@ -1209,6 +1633,7 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         public PoolBuffer prepare() {
             allowBufferDispose = true;
             free = false;
+            refCount = 1;
             return this;
         }
 
@@ -1227,12 +1652,61 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             this.free = free;
             return this;
         }
+
+        @Override
+        public void leakTracker(final BufferLeakDetector.Tracker tracker) {
+            leakTracker = tracker;
+        }
+
+        // ------------------------------ Methods from ReferenceCountedBuffer
+
+        @Override
+        public ReferenceCountedBuffer retain() {
+            checkDispose();
+            for (;;) {
+                final int count = refCount;
+                if (count <= 0) {
+                    throw new IllegalStateException(
+                            "PoolBuffer has already been released");
+                }
+                
+                if (REF_COUNT_UPDATER.compareAndSet(this, count, count + 1)) {
+                    return this;
+                }
+            }
+        }
+
+        @Override
+        public int refCount() {
+            return refCount;
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedSlice() {
+            // the slice shares the memory using shareCount
+            return (ReferenceCountedBuffer) slice();
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedSlice(final int position,
+                final int limit) {
+            return (ReferenceCountedBuffer) slice(position, limit);
+        }
+
+        @Override
+        public ReferenceCountedBuffer retainedDuplicate() {
+            return (ReferenceCountedBuffer) duplicate();
+        }
         
         // ------------------------------------------ Methods from ByteBufferWrapper
         
+        /**
+         * Drops the reference to this <tt>PoolBuffer</tt>, the buffer is
+         * disposed once the last reference is dropped.
+         */
         @Override
         public void dispose() {
-            if (free) {
+            if (free || !releaseReference()) {
                 return;
             }
             free = true;
@@ -1240,6 +1714,22 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
             dispose0();
         }
 
+        /*
+         * Returns true, if the last reference has been released.
+         */
+        private boolean releaseReference() {
+            for (;;) {
+                final int count = refCount;
+                if (count <= 0) {
+                    return false;
+                }
+                
+                if (REF_COUNT_UPDATER.compareAndSet(this, count, count - 1)) {
+                    return count == 1;
+                }
+            }
+        }
+
         private void dispose0() {
             // check shared counter optimistically
             boolean isNotShared = shareCount.get() == 0;
@@ -1294,9 +1784,17 @@ public class PooledMemoryManager implements MemoryManager<Buffer>, WrapperAware
         
         private void returnToPool() {
             // should be called on "source" only
+            closeLeakTracker();
             visible = origVisible;
             visible.clear();
-            owner.offer(this);
+            owner.owner.release(this);
+        }
+
+        private void closeLeakTracker() {
+            if (leakTracker != null) {
+                leakTracker.close();
+                leakTracker = null;
+            }
         }
     } // END PoolBuffer    
 }
@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.memory;
+
+import org.glassfish.grizzly.Buffer;
+
+/**
+ * {@link Buffer}, which memory could be shared by several owners.
+ * Each owner holds a reference to the {@link Buffer}, which has to be
+ * dropped using {@link #release()}, {@link #tryDispose()} or {@link #dispose()},
+ * and the {@link Buffer} memory is deallocated (returned to a pool) only when
+ * the last reference is dropped.
+ *
+ * A newly allocated {@link Buffer} has exactly one reference, so if
+ * {@link #retain()} is never called - the {@link Buffer} behaves as a
+ * regular single-owner {@link Buffer}.
+ *
+ * The reference count is thread-safe, however the {@link Buffer} position,
+ * limit and mark are not, so the owners, which process the {@link Buffer}
+ * concurrently, for example write it to different connections, should use
+ * {@link #retainedSlice()} or {@link #retainedDuplicate()}.
+ * 
+ * @see PooledMemoryManager
+ * @since 3.0
+ */
+public interface ReferenceCountedBuffer extends Buffer {
+
+    /**
+     * Adds a reference to this {@link Buffer}.
+     *
+     * @return this {@link Buffer}
+     * @throws IllegalStateException if the {@link Buffer} has already been
+     *         released
+     */
+    ReferenceCountedBuffer retain();
+
+    /**
+     * @return the number of references this {@link Buffer} holds,
+     *         <tt>0</tt> means the {@link Buffer} has been released
+     */
+    int refCount();
+
+    /**
+     * Returns a slice of this {@link Buffer} between the current position and
+     * limit, which shares the memory with this {@link Buffer} and holds its own
+     * reference to it. The memory is deallocated once both this {@link Buffer}
+     * and the slice are released.
+     *
+     * @return the slice of this {@link Buffer} holding the reference
+     *         to its memory
+     * @see #slice()
+     */
+    ReferenceCountedBuffer retainedSlice();
+
+    /**
+     * Returns a slice of this {@link Buffer} between the given position and
+     * limit, which shares the memory with this {@link Buffer} and holds its own
+     * reference to it. The memory is deallocated once both this {@link Buffer}
+     * and the slice are released.
+     *
+     * @param position the position of the slice
+     * @param limit the limit of the slice
+     * @return the slice of this {@link Buffer} holding the reference
+     *         to its memory
+     * @see #slice(int, int)
+     */
+    ReferenceCountedBuffer retainedSlice(int position, int limit);
+
+    /**
+     * Returns a duplicate of this {@link Buffer}, which shares the memory
+     * with this {@link Buffer} and holds its own reference to it.
+     * The memory is deallocated once both this {@link Buffer} and
+     * the duplicate are released.
+     *
+     * @return the duplicate of this {@link Buffer} holding the reference
+     *         to its memory
+     * @see #duplicate()
+     */
+    ReferenceCountedBuffer retainedDuplicate();
+}
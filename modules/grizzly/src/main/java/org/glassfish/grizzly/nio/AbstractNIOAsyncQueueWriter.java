@@ -238,6 +238,8 @@ public abstract class AbstractNIOAsyncQueueWriter
         final Reentrant reentrants = Reentrant.getWriteReentrant();
 
         try {
+            nioConnection.onAsyncWriteQueueSizeChanged(bytesToReserve, pendingBytes);
+            
             if (!reentrants.inc()) {
                 // Max number of reentrants is reached
 
@@ -266,6 +268,8 @@ public abstract class AbstractNIOAsyncQueueWriter
                         writeTaskQueue.releaseSpaceAndNotify(bytesToRelease);
 
                 final boolean isQueueEmpty = (pendingBytesAfterRelease == 0);
+                nioConnection.onAsyncWriteQueueSizeChanged(-bytesToRelease,
+                        pendingBytesAfterRelease);
 
                 if (isLogFine) {
                     doFineLog("AsyncQueueWriter.write directWrite connection={0}, record={1}, "
@@ -392,7 +396,11 @@ public abstract class AbstractNIOAsyncQueueWriter
                     context.setManualIOEventControl();
                 }
                 
-                isComplete = (writeTaskQueue.releaseSpace(bytesReleased) == 0);
+                final int pendingBytesAfterRelease =
+                        writeTaskQueue.releaseSpace(bytesReleased);
+                isComplete = (pendingBytesAfterRelease == 0);
+                nioConnection.onAsyncWriteQueueSizeChanged(-bytesReleased,
+                        pendingBytesAfterRelease);
             }
 
             if (isLogFine) {
@@ -0,0 +1,177 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.Connection;
+
+/**
+ * Load-aware {@link NIOChannelDistributor} implementation, which assigns a
+ * new channel to the less loaded of two randomly chosen {@link SelectorRunner}s
+ * (the "power of two choices").
+ * 
+ * The {@link SelectorRunner} load is estimated as the number of open
+ * {@link Connection}s registered on the runner (see {@link SelectorRunner#getConnectionsCount()})
+ * plus the runner's recent event rate (see {@link SelectorRunner#getEventRate()})
+ * divided by the configured number of events per second, which are considered
+ * as heavy as one extra {@link Connection}. Comparing two random runners
+ * instead of picking the global minimum keeps the distribution balanced
+ * even when the load values are a bit stale, for example during a connection
+ * storm, when many channels are being registered before the runners
+ * update their load.
+ * 
+ * @since 3.0
+ */
+public final class LeastLoadedConnectionDistributor
+        extends AbstractNIOConnectionDistributor {
+    
+    /**
+     * The default number of selected events per second, which are
+     * considered as heavy as one extra {@link Connection}.
+     */
+    public static final int DEFAULT_EVENT_RATE_PER_CONNECTION = 100;
+    
+    private final boolean useDedicatedAcceptor;
+    private final int eventRatePerConnection;
+
+    public LeastLoadedConnectionDistributor(final NIOTransport transport) {
+        this(transport, false);
+    }
+
+    public LeastLoadedConnectionDistributor(final NIOTransport transport,
+            final boolean useDedicatedAcceptor) {
+        this(transport, useDedicatedAcceptor, DEFAULT_EVENT_RATE_PER_CONNECTION);
+    }
+
+    /**
+     * Constructs LeastLoadedConnectionDistributor with the given configuration.
+     * 
+     * @param transport
+     * @param useDedicatedAcceptor depending on this flag server {@link Connection}s,
+     *          responsible for accepting client connections, will or will not
+     *          use dedicated {@link SelectorRunner}
+     * @param eventRatePerConnection the number of selected events per second,
+     *          which are considered as heavy as one extra {@link Connection}
+     */
+    public LeastLoadedConnectionDistributor(final NIOTransport transport,
+            final boolean useDedicatedAcceptor,
+            final int eventRatePerConnection) {
+        super(transport);
+        
+        if (eventRatePerConnection <= 0) {
+            throw new IllegalArgumentException(
+                    "eventRatePerConnection must be greater than zero");
+        }
+        
+        this.useDedicatedAcceptor = useDedicatedAcceptor;
+        this.eventRatePerConnection = eventRatePerConnection;
+    }
+    
+    @Override
+    public void registerChannel(final SelectableChannel channel,
+            final int interestOps, final Object attachment) throws IOException {
+        transport.getSelectorHandler().registerChannel(next(), 
+                channel, interestOps, attachment);
+    }
+
+    @Override
+    public void registerChannelAsync(
+            final SelectableChannel channel, final int interestOps,
+            final Object attachment,
+            final CompletionHandler<RegisterChannelResult> completionHandler) {
+        transport.getSelectorHandler().registerChannelAsync(
+                next(), channel, interestOps, attachment, completionHandler);
+    }
+
+    @Override
+    public void registerServiceChannelAsync(
+            final SelectableChannel channel, final int interestOps,
+            final Object attachment,
+            final CompletionHandler<RegisterChannelResult> completionHandler) {
+        
+        transport.getSelectorHandler().registerChannelAsync(
+                nextService(), channel, interestOps,
+                attachment, completionHandler);
+    }
+
+    /**
+     * Returns the load estimate of the given {@link SelectorRunner}.
+     * 
+     * @param selectorRunner {@link SelectorRunner}
+     * @return the load estimate of the given {@link SelectorRunner}.
+     */
+    public long getLoad(final SelectorRunner selectorRunner) {
+        return (long) selectorRunner.getConnectionsCount()
+                + selectorRunner.getEventRate() / eventRatePerConnection;
+    }
+    
+    private SelectorRunner next() {
+        final SelectorRunner[] runners = getTransportSelectorRunners();
+        final int offset = useDedicatedAcceptor && runners.length > 1 ? 1 : 0;
+        final int count = runners.length - offset;
+        if (count == 1) {
+            return runners[offset];
+        }
+        
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final int first = random.nextInt(count);
+        int second = random.nextInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+        
+        final SelectorRunner firstRunner = runners[first + offset];
+        final SelectorRunner secondRunner = runners[second + offset];
+        
+        return getLoad(secondRunner) < getLoad(firstRunner)
+                ? secondRunner
+                : firstRunner;
+    }
+
+    private SelectorRunner nextService() {
+        return useDedicatedAcceptor
+                ? getTransportSelectorRunners()[0]
+                : next();
+    }
+}
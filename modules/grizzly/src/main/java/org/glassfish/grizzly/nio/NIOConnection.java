@@ -55,6 +55,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -139,8 +140,32 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
     private volatile CloseReason closeReason;
     private volatile GrizzlyFuture<CloseReason> closeFuture;
     
+    // the SelectorRunner, which counts this connection in its load
+    private static final AtomicReferenceFieldUpdater<NIOConnection, SelectorRunner> loadSelectorRunnerUpdater =
+            AtomicReferenceFieldUpdater.newUpdater(NIOConnection.class,
+                    SelectorRunner.class, "loadSelectorRunner");
+    @SuppressWarnings("unused")
+    private volatile SelectorRunner loadSelectorRunner;
+    
     protected volatile boolean isBlocking;
     protected volatile boolean isStandalone;        
+
+    // read throttling watermarks, -1 means read throttling is disabled
+    private volatile int readThrottlingHighWatermark = -1;
+    private volatile int readThrottlingLowWatermark = -1;
+    // the read suspend reasons bitmask, updated under readThrottlingSync
+    private volatile int readSuspendReasons;
+    private final Object readThrottlingSync = new Object();
+    // OP_READ interest registered for the channel, updated under readThrottlingSync
+    // if reading is flow controlled
+    private volatile boolean isReadInterested;
+    // bytes accounted against the transport memory budget
+    private volatile long budgetedBytes;
+    private static final AtomicLongFieldUpdater<NIOConnection> budgetedBytesUpdater =
+            AtomicLongFieldUpdater.newUpdater(NIOConnection.class, "budgetedBytes");
+
+    static final int READ_SUSPEND_WRITE_QUEUE = 1;
+    static final int READ_SUSPEND_MEMORY_BUDGET = 2;
     protected short zeroByteReadCount;
     private final List<org.glassfish.grizzly.CloseListener> closeListeners =
             Collections.synchronizedList(new LinkedList<>());
@@ -226,6 +251,179 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         this.maxAsyncWriteQueueSize = maxAsyncWriteQueueSize;
     }
     
+    /**
+     * Enables read throttling: reading from the connection is suspended
+     * (OP_READ interest is removed), once the number of bytes in the async
+     * write queue reaches the high watermark, and resumed, once the number
+     * drops to the low watermark, so a peer that doesn't read the data fast
+     * enough stops the peer (or the processing) producing the data.
+     * The transitions are reported via
+     * {@link ConnectionProbe#onReadSuspendEvent(org.glassfish.grizzly.Connection, int)}
+     * and {@link ConnectionProbe#onReadResumeEvent(org.glassfish.grizzly.Connection, int)}.
+     *
+     * @param lowWatermark the number of pending bytes to resume reading at.
+     * @param highWatermark the number of pending bytes to suspend reading at,
+     *        or <tt>-1</tt> to disable read throttling.
+     *
+     * @since 3.0
+     */
+    public void setReadThrottlingWatermarks(final int lowWatermark,
+            final int highWatermark) {
+        if (highWatermark >= 0 && (lowWatermark < 0 || lowWatermark >= highWatermark)) {
+            throw new IllegalArgumentException("lowWatermark has to be in [0, "
+                    + highWatermark + ") range, but was " + lowWatermark);
+        }
+
+        readThrottlingLowWatermark = highWatermark >= 0 ? lowWatermark : -1;
+        readThrottlingHighWatermark = highWatermark >= 0 ? highWatermark : -1;
+    }
+
+    /**
+     * @return the async write queue size (in bytes), which suspends reading,
+     *         or <tt>-1</tt> if read throttling is disabled.
+     *
+     * @since 3.0
+     */
+    public int getReadThrottlingHighWatermark() {
+        return readThrottlingHighWatermark;
+    }
+
+    /**
+     * @return the async write queue size (in bytes), which resumes reading,
+     *         or <tt>-1</tt> if read throttling is disabled.
+     *
+     * @since 3.0
+     */
+    public int getReadThrottlingLowWatermark() {
+        return readThrottlingLowWatermark;
+    }
+
+    /**
+     * @return <tt>true</tt>, if reading is suspended, because the async write
+     *         queue has reached the high watermark or the transport
+     *         {@link TransportMemoryBudget} is exhausted.
+     *
+     * @since 3.0
+     */
+    public boolean isReadSuspended() {
+        return readSuspendReasons != 0;
+    }
+
+    /**
+     * @return the number of bytes this connection holds, which are
+     *         accounted against the transport {@link TransportMemoryBudget}.
+     *
+     * @since 3.0
+     */
+    public long getBudgetedBytes() {
+        return budgetedBytes;
+    }
+
+    /**
+     * Is called by the async write queue, when the number of pending bytes
+     * changes, to account the change against the memory budget and to
+     * suspend or resume reading if read throttling is enabled.
+     */
+    void onAsyncWriteQueueSizeChanged(final int delta, final int pendingBytes)
+            throws IOException {
+        final TransportMemoryBudget memoryBudget = transport.memoryBudget;
+        if (memoryBudget != null) {
+            if (delta > 0) {
+                memoryBudget.reserve(this, delta);
+            } else if (delta < 0) {
+                memoryBudget.release(this, -delta);
+            }
+        }
+
+        final int highWatermark = readThrottlingHighWatermark;
+        if (highWatermark < 0) {
+            return;
+        }
+
+        final boolean isSuspended =
+                (readSuspendReasons & READ_SUSPEND_WRITE_QUEUE) != 0;
+        if (pendingBytes >= highWatermark) {
+            if (!isSuspended) {
+                suspendRead(READ_SUSPEND_WRITE_QUEUE, pendingBytes);
+            }
+        } else if (isSuspended && pendingBytes <= readThrottlingLowWatermark) {
+            resumeRead(READ_SUSPEND_WRITE_QUEUE, pendingBytes);
+        }
+    }
+
+    /**
+     * Adds the delta to the connection's budgeted bytes, the result is
+     * never less than zero.
+     *
+     * @return the delta actually applied.
+     */
+    long addBudgetedBytes(final long delta) {
+        while (true) {
+            final long current = budgetedBytes;
+            final long applied = Math.max(delta, -current);
+            if (budgetedBytesUpdater.compareAndSet(this, current, current + applied)) {
+                return applied;
+            }
+        }
+    }
+
+    void suspendRead(final int reason, final int pendingBytes)
+            throws IOException {
+        synchronized (readThrottlingSync) {
+            final int reasons = readSuspendReasons;
+            if ((reasons & reason) != 0) {
+                return;
+            }
+
+            readSuspendReasons = reasons | reason;
+            if (reasons != 0) {
+                // already suspended
+                return;
+            }
+
+            if (isReadInterested) {
+                transport.getSelectorHandler().deregisterKeyInterest(
+                        selectorRunner, selectionKey,
+                        IOEvent.READ.getSelectionKeyInterest());
+            }
+        }
+
+        notifyProbesReadSuspend(this, pendingBytes);
+    }
+
+    void resumeRead(final int reason, final int pendingBytes)
+            throws IOException {
+        synchronized (readThrottlingSync) {
+            final int reasons = readSuspendReasons;
+            if ((reasons & reason) == 0) {
+                return;
+            }
+
+            readSuspendReasons = reasons & ~reason;
+            if (readSuspendReasons != 0) {
+                // still suspended for another reason
+                return;
+            }
+
+            if (isReadInterested && closeReason == null
+                    && !isCloseScheduled.get()) {
+                transport.getSelectorHandler().registerKeyInterest(
+                        selectorRunner, selectionKey,
+                        IOEvent.READ.getSelectionKeyInterest());
+            }
+        }
+
+        notifyProbesReadResume(this, pendingBytes);
+    }
+
+    /**
+     * @return <tt>true</tt>, if OP_READ interest has to be tracked, because
+     *         reading may be suspended.
+     */
+    private boolean isReadFlowControlled() {
+        return readThrottlingHighWatermark >= 0 || transport.memoryBudget != null;
+    }
+
     @Override
     public long getReadTimeout(TimeUnit timeUnit) {
         return timeUnit.convert(readTimeoutMillis, TimeUnit.MILLISECONDS);
@@ -252,6 +450,7 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
 
     protected void setSelectorRunner(SelectorRunner selectorRunner) {
         this.selectorRunner = selectorRunner;
+        updateSelectorRunnerLoad(selectorRunner);
     }
 
     public void attachToSelectorRunner(final SelectorRunner selectorRunner)
@@ -269,6 +468,7 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
                 future.get(readTimeoutMillis, TimeUnit.MILLISECONDS);
             this.selectorRunner = selectorRunner;
             this.selectionKey = result.getSelectionKey();
+            updateSelectorRunnerLoad(selectorRunner);
         } catch (InterruptedException | TimeoutException e) {
             throw new IOException("", e);
         } catch (ExecutionException e) {
@@ -282,6 +482,7 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         final SelectorRunner selectorRunnerLocal = this.selectorRunner;
         this.selectionKey = null;
         this.selectorRunner = null;
+        updateSelectorRunnerLoad(null);
         if (selectorRunnerLocal != null) {
             transport.getSelectorHandler().deregisterChannel(selectorRunnerLocal,
                 channel);
@@ -303,6 +504,15 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
     protected void setSelectionKey(SelectionKey selectionKey) {
         this.selectionKey = selectionKey;
         setChannel(selectionKey.channel());
+        
+        // the channel might be registered with OP_READ interest
+        // (an accepted connection), which the IOStrategy may never toggle
+        if (selectionKey.isValid()) {
+            synchronized (readThrottlingSync) {
+                isReadInterested =
+                        (selectionKey.interestOps() & SelectionKey.OP_READ) != 0;
+            }
+        }
     }
 
     @Override
@@ -620,6 +830,13 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
             }
             
             preClose();
+            updateSelectorRunnerLoad(null);
+            
+            final TransportMemoryBudget memoryBudget = transport.memoryBudget;
+            if (memoryBudget != null) {
+                memoryBudget.releaseAll(this);
+            }
+
             notifyCloseListeners(reason);
             notifyProbesClose(this);
             
@@ -659,6 +876,32 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         }
     }
 
+    /**
+     * Moves this {@link Connection} to the given {@link SelectorRunner}'s load,
+     * the closed {@link Connection} is not counted by any runner.
+     */
+    private void updateSelectorRunnerLoad(final SelectorRunner newSelectorRunner) {
+        final SelectorRunner runner = isCloseScheduled.get() ? null : newSelectorRunner;
+        final SelectorRunner oldRunner =
+                loadSelectorRunnerUpdater.getAndSet(this, runner);
+        if (oldRunner == runner) {
+            return;
+        }
+        
+        if (oldRunner != null) {
+            oldRunner.onConnectionDetached();
+        }
+        
+        if (runner != null) {
+            runner.onConnectionAttached();
+            
+            // the connection might have been closed concurrently
+            if (isCloseScheduled.get()) {
+                updateSelectorRunnerLoad(null);
+            }
+        }
+    }
+
     /**
      * Do the actual connection close.
      */
@@ -847,6 +1090,40 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         }
     }
 
+    /**
+     * Notify registered {@link ConnectionProbe}s about the read suspend event.
+     *
+     * @param connection the <tt>Connection</tt> event occurred on.
+     * @param pendingBytes the number of bytes in the async write queue.
+     */
+    protected static void notifyProbesReadSuspend(NIOConnection connection,
+        int pendingBytes) {
+        final ConnectionProbe[] probes =
+            connection.monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (ConnectionProbe probe : probes) {
+                probe.onReadSuspendEvent(connection, pendingBytes);
+            }
+        }
+    }
+
+    /**
+     * Notify registered {@link ConnectionProbe}s about the read resume event.
+     *
+     * @param connection the <tt>Connection</tt> event occurred on.
+     * @param pendingBytes the number of bytes in the async write queue.
+     */
+    protected static void notifyProbesReadResume(NIOConnection connection,
+        int pendingBytes) {
+        final ConnectionProbe[] probes =
+            connection.monitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (ConnectionProbe probe : probes) {
+                probe.onReadResumeEvent(connection, pendingBytes);
+            }
+        }
+    }
+
     /**
      * Notify registered {@link ConnectionProbe}s about the close event.
      *
@@ -953,6 +1230,24 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         isInitialReadRequired = isInitialReadRequired && !isOpRead;
         
         final SelectorHandler selectorHandler = transport.getSelectorHandler();
+        
+        if (isOpRead && isReadFlowControlled()) {
+            synchronized (readThrottlingSync) {
+                isReadInterested = true;
+                if (readSuspendReasons == 0) {
+                    selectorHandler.registerKeyInterest(selectorRunner,
+                            selectionKey, interest);
+                }
+            }
+            
+            return;
+        }
+        
+        if (isOpRead) {
+            // keep tracking, read throttling may be enabled later
+            isReadInterested = true;
+        }
+        
         selectorHandler.registerKeyInterest(selectorRunner, selectionKey,
             interest);
     }
@@ -987,6 +1282,21 @@ public abstract class NIOConnection implements Connection<SocketAddress> {
         notifyIOEventDisabled(this, ioEvent);
 
         final SelectorHandler selectorHandler = transport.getSelectorHandler();
+        
+        if (ioEvent == IOEvent.READ && isReadFlowControlled()) {
+            synchronized (readThrottlingSync) {
+                isReadInterested = false;
+                selectorHandler.deregisterKeyInterest(selectorRunner,
+                        selectionKey, interest);
+            }
+            
+            return;
+        }
+        
+        if (ioEvent == IOEvent.READ) {
+            isReadInterested = false;
+        }
+        
         selectorHandler.deregisterKeyInterest(selectorRunner, selectionKey, interest);
     }
 
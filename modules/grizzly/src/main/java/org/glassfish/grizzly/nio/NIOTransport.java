@@ -108,6 +108,15 @@ public abstract class NIOTransport extends AbstractTransport
      * The socket time out
      */
     int clientSocketSoTimeout = DEFAULT_CLIENT_SOCKET_SO_TIMEOUT;
+    /**
+     * The connections' read throttling watermarks, -1 means disabled
+     */
+    int readThrottlingLowWatermark = -1;
+    int readThrottlingHighWatermark = -1;
+    /**
+     * The transport-wide memory budget, <tt>null</tt> means no budget
+     */
+    volatile TransportMemoryBudget memoryBudget;
     /**
      * Default channel connection timeout
      */
@@ -327,6 +336,52 @@ public abstract class NIOTransport extends AbstractTransport
         return selectorRunners;
     }
 
+    /**
+     * Returns the number of open {@link Connection}s registered on each
+     * {@link SelectorRunner}, or an empty array, if the transport is not started.
+     * 
+     * @return the number of open {@link Connection}s per {@link SelectorRunner}.
+     * @see SelectorRunner#getConnectionsCount()
+     * @since 3.0
+     */
+    public int[] getSelectorRunnersConnectionsCount() {
+        final SelectorRunner[] runners = selectorRunners;
+        if (runners == null) {
+            return new int[0];
+        }
+        
+        final int[] counts = new int[runners.length];
+        for (int i = 0; i < runners.length; i++) {
+            final SelectorRunner runner = runners[i];
+            counts[i] = runner != null ? runner.getConnectionsCount() : 0;
+        }
+        
+        return counts;
+    }
+
+    /**
+     * Returns the recent number of selected events per second of each
+     * {@link SelectorRunner}, or an empty array, if the transport is not started.
+     * 
+     * @return the recent event rate per {@link SelectorRunner}.
+     * @see SelectorRunner#getEventRate()
+     * @since 3.0
+     */
+    public int[] getSelectorRunnersEventRate() {
+        final SelectorRunner[] runners = selectorRunners;
+        if (runners == null) {
+            return new int[0];
+        }
+        
+        final int[] rates = new int[runners.length];
+        for (int i = 0; i < runners.length; i++) {
+            final SelectorRunner runner = runners[i];
+            rates[i] = runner != null ? runner.getEventRate() : 0;
+        }
+        
+        return rates;
+    }
+
     /**
      * Notify registered {@link TransportProbe}s about the error.
      *
@@ -403,6 +458,23 @@ public abstract class NIOTransport extends AbstractTransport
         }
     }
 
+    /**
+     * Notify registered {@link TransportProbe}s about the select event.
+     *
+     * @param transport the <tt>Transport</tt> event occurred on.
+     * @param selectedKeysCount the number of selected keys.
+     */
+    protected static void notifyProbesSelect(final NIOTransport transport,
+            final int selectedKeysCount) {
+        final TransportProbe[] probes =
+                transport.transportMonitoringConfig.getProbesUnsafe();
+        if (probes != null) {
+            for (TransportProbe probe : probes) {
+                probe.onSelectEvent(transport, selectedKeysCount);
+            }
+        }
+    }
+
     /**
      * Start TCPNIOTransport.
      * <p/>
@@ -705,6 +777,10 @@ public abstract class NIOTransport extends AbstractTransport
         if (connectionMonitoringConfig.hasProbes()) {
             connection.setMonitoringProbes(connectionMonitoringConfig.getProbes());
         }
+        if (readThrottlingHighWatermark >= 0) {
+            connection.setReadThrottlingWatermarks(readThrottlingLowWatermark,
+                    readThrottlingHighWatermark);
+        }
     }
 
     public boolean isReuseAddress() {
@@ -716,6 +792,99 @@ public abstract class NIOTransport extends AbstractTransport
         notifyProbesConfigChanged(this);
     }
 
+    /**
+     * @return the async write queue size (in bytes), which suspends reading
+     *         from a connection, or <tt>-1</tt> if read throttling is disabled.
+     *
+     * @see NIOConnection#setReadThrottlingWatermarks(int, int)
+     * @since 3.0
+     */
+    public int getReadThrottlingHighWatermark() {
+        return readThrottlingHighWatermark;
+    }
+
+    /**
+     * @return the async write queue size (in bytes), which resumes reading
+     *         from a connection, or <tt>-1</tt> if read throttling is disabled.
+     *
+     * @see NIOConnection#setReadThrottlingWatermarks(int, int)
+     * @since 3.0
+     */
+    public int getReadThrottlingLowWatermark() {
+        return readThrottlingLowWatermark;
+    }
+
+    /**
+     * Sets the read throttling watermarks for the connections created
+     * by the transport.
+     *
+     * @param lowWatermark the number of pending bytes to resume reading at.
+     * @param highWatermark the number of pending bytes to suspend reading at,
+     *        or <tt>-1</tt> to disable read throttling.
+     *
+     * @see NIOConnection#setReadThrottlingWatermarks(int, int)
+     * @since 3.0
+     */
+    public void setReadThrottlingWatermarks(final int lowWatermark,
+            final int highWatermark) {
+        if (highWatermark >= 0 && (lowWatermark < 0 || lowWatermark >= highWatermark)) {
+            throw new IllegalArgumentException("lowWatermark has to be in [0, "
+                    + highWatermark + ") range, but was " + lowWatermark);
+        }
+
+        this.readThrottlingLowWatermark = highWatermark >= 0 ? lowWatermark : -1;
+        this.readThrottlingHighWatermark = highWatermark >= 0 ? highWatermark : -1;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return the transport-wide {@link TransportMemoryBudget}, or
+     *         <tt>null</tt> if the transport memory is not limited.
+     *
+     * @since 3.0
+     */
+    public TransportMemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the transport-wide {@link TransportMemoryBudget}. The budget has
+     * to be set before the transport is started.
+     *
+     * @param memoryBudget the {@link TransportMemoryBudget}, or <tt>null</tt>
+     *        to not limit the transport memory.
+     *
+     * @since 3.0
+     */
+    public void setMemoryBudget(final TransportMemoryBudget memoryBudget) {
+        if (memoryBudget != null) {
+            memoryBudget.attach(this);
+        }
+
+        this.memoryBudget = memoryBudget;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Stops accepting new connections, is called when the
+     * {@link TransportMemoryBudget} usage exceeds the accept pause threshold.
+     * The default implementation does nothing.
+     *
+     * @since 3.0
+     */
+    protected void pauseAccepting() {
+    }
+
+    /**
+     * Resumes accepting new connections, is called when the
+     * {@link TransportMemoryBudget} usage drops below the accept pause
+     * threshold. The default implementation does nothing.
+     *
+     * @since 3.0
+     */
+    protected void resumeAccepting() {
+    }
+
     public int getClientSocketSoTimeout() {
         return clientSocketSoTimeout;
     }
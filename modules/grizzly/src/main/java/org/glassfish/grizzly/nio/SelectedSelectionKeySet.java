@@ -0,0 +1,203 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * Array-backed replacement for the JDK {@link Selector}'s selected-key set.
+ * The JDK's default implementation is a {@link java.util.HashSet}, which
+ * produces an {@link Iterator} and hash entries on every select, and
+ * {@link SelectorRunner} only ever appends to, drains and clears the set.
+ *
+ * The set is installed into the {@link Selector} implementation using
+ * reflection, see {@link #install(java.nio.channels.Selector)}. If that isn't
+ * permitted by the JDK or security manager - the {@link Selector} keeps
+ * its default set.
+ *
+ * The set is not thread-safe and must only be accessed by the
+ * {@link SelectorRunner} thread the {@link Selector} belongs to.
+ * Keys are never looked up or removed, so {@link #contains(java.lang.Object)}
+ * and {@link #remove(java.lang.Object)} are no-ops.
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+    private static final Logger LOGGER = Grizzly.logger(SelectedSelectionKeySet.class);
+
+    private static final String SELECTOR_IMPL_CLASS_NAME = "sun.nio.ch.SelectorImpl";
+    
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private SelectionKey[] keys;
+    private int size;
+
+    SelectedSelectionKeySet() {
+        keys = new SelectionKey[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Replaces the passed {@link Selector}'s selected-key set with a new
+     * {@link SelectedSelectionKeySet}.
+     *
+     * @param selector {@link Selector}
+     * @return the installed {@link SelectedSelectionKeySet}, or <tt>null</tt>
+     *         if the {@link Selector} implementation doesn't allow the
+     *         replacement, in which case the {@link Selector} is left intact.
+     */
+    static SelectedSelectionKeySet install(final Selector selector) {
+        try {
+            final Class<?> selectorImplClass = Class.forName(
+                    SELECTOR_IMPL_CLASS_NAME, false,
+                    ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isInstance(selector)) {
+                return null;
+            }
+
+            final Field selectedKeysField =
+                    selectorImplClass.getDeclaredField("selectedKeys");
+            final Field publicSelectedKeysField =
+                    selectorImplClass.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+
+            final SelectedSelectionKeySet keySet = new SelectedSelectionKeySet();
+            selectedKeysField.set(selector, keySet);
+            publicSelectedKeysField.set(selector, keySet);
+
+            return keySet;
+        } catch (Throwable t) {
+            // ClassNotFoundException, NoSuchFieldException, SecurityException,
+            // or JDK 9+ InaccessibleObjectException if sun.nio.ch isn't opened
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Can't install optimized selected-key set into "
+                        + selector + ", the default one will be used", t);
+            }
+
+            return null;
+        }
+    }
+
+    @Override
+    public boolean add(final SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+
+        keys[size++] = key;
+        return true;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the key at the given position.
+     * 
+     * @param index the key position, must be less than {@link #size()}
+     * @return the {@link SelectionKey} at the given position
+     */
+    SelectionKey get(final int index) {
+        return keys[index];
+    }
+
+    @Override
+    public void clear() {
+        if (size != 0) {
+            Arrays.fill(keys, 0, size, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+            private int idx;
+
+            @Override
+            public boolean hasNext() {
+                return idx < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return keys[idx++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -78,6 +78,22 @@ public final class SelectorRunner implements Runnable {
     private final static Logger LOGGER = Grizzly.logger(SelectorRunner.class);
     
     private final static String THREAD_MARKER = " SelectorRunner";
+
+    /**
+     * If <tt>true</tt>, the JDK {@link Selector}'s selected-key set is replaced
+     * with an array-backed one, which is drained by index, so no garbage is
+     * produced per select. If the replacement is not permitted by the JDK,
+     * the {@link Selector}'s default set is used.
+     */
+    static final boolean OPTIMIZE_SELECTED_KEYS = Boolean.getBoolean(
+            SelectorRunner.class.getName() + ".optimize-selected-keys");
+
+    /**
+     * The interval the selected keys are counted for, before the event rate
+     * is updated.
+     */
+    private static final long EVENT_RATE_SAMPLE_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(100);
     
     private final NIOTransport transport;
     private final AtomicReference<State> stateHolder;
@@ -98,12 +114,21 @@ public final class SelectorRunner implements Runnable {
     private int lastSelectedKeysCount;
     private Set<SelectionKey> readyKeySet;
     private Iterator<SelectionKey> iterator;
+    // not null, if the Selector uses optimized selected-key set
+    private SelectedSelectionKeySet selectedKeySet;
+    private int keyIndex;
     private SelectionKey key = null;
     private int keyReadyOps;
 
     private final AtomicBoolean selectorWakeupFlag = new AtomicBoolean();
     private final AtomicInteger runnerThreadActivityCounter = new AtomicInteger();
 
+    // Load fields
+    private final AtomicInteger connectionsCount = new AtomicInteger();
+    private volatile int eventRate;
+    private int sampleEventsCount;
+    private long sampleStartNanos = System.nanoTime();
+
     public static SelectorRunner create(final NIOTransport transport)
             throws IOException {
         return new SelectorRunner(transport,
@@ -116,6 +141,7 @@ public final class SelectorRunner implements Runnable {
             final Selector selector) {
         this.transport = transport;
         this.selector = selector;
+        selectedKeySet = installSelectedKeySet(selector);
         stateHolder = new AtomicReference<State>(State.STOPPED);
 
         pendingTasks = new ConcurrentLinkedQueue<SelectorHandlerTask>();
@@ -332,6 +358,11 @@ public final class SelectorRunner implements Runnable {
 
             lastSelectedKeysCount = 0;
 
+            if (selectedKeySet != null) {
+                // make sure no keys left from the iteration aborted by an error
+                selectedKeySet.clear();
+            }
+
             if (!selectorHandler.preSelect(this)) {
                 return false;
             }
@@ -342,9 +373,16 @@ public final class SelectorRunner implements Runnable {
             if (stateHolder.get() == State.STOPPING) return true;
             
             lastSelectedKeysCount = readyKeySet.size();
+            NIOTransport.notifyProbesSelect(transport, lastSelectedKeysCount);
+            updateEventRate(lastSelectedKeysCount);
             
             if (lastSelectedKeysCount != 0) {
-                iterator = readyKeySet.iterator();
+                if (readyKeySet != selectedKeySet) {
+                    iterator = readyKeySet.iterator();
+                } else {
+                    keyIndex = 0;
+                }
+                
                 if (!iterateKeys()) return false;
                 readyKeySet.clear();
             }
@@ -375,23 +413,44 @@ public final class SelectorRunner implements Runnable {
     }
 
     private boolean iterateKeys() {
-        final Iterator<SelectionKey> it = iterator;
+        final SelectedSelectionKeySet keySet = selectedKeySet;
+        if (keySet != null && readyKeySet == keySet) {
+            // keyIndex is kept in the field to resume the iteration
+            // after the runner was postponed
+            final int size = keySet.size();
+            while (keyIndex < size) {
+                if (!iterateKey(keySet.get(keyIndex++))) {
+                    return false;
+                }
+            }
+        } else {
+            final Iterator<SelectionKey> it = iterator;
 
-        while (it.hasNext()) {
-            try {
-                key = it.next();
-                keyReadyOps = key.readyOps();
-                if (!iterateKeyEvents()) {
+            while (it.hasNext()) {
+                if (!iterateKey(it.next())) {
                     return false;
                 }
-            } catch (IOException e) {
-                keyReadyOps = 0;
-                dropConnectionDueToException(key, "Unexpected IOException. Channel " + key.channel() + " will be closed.", e, Level.WARNING, Level.FINE);
-            } catch (CancelledKeyException e) {
-                keyReadyOps = 0;
-                dropConnectionDueToException(key, "Unexpected CancelledKeyException. Channel " + key.channel() + " will be closed.", e, Level.FINE, Level.FINE);
             }
         }
+        
+        return true;
+    }
+
+    private boolean iterateKey(final SelectionKey selectionKey) {
+        try {
+            key = selectionKey;
+            keyReadyOps = key.readyOps();
+            if (!iterateKeyEvents()) {
+                return false;
+            }
+        } catch (IOException e) {
+            keyReadyOps = 0;
+            dropConnectionDueToException(key, "Unexpected IOException. Channel " + key.channel() + " will be closed.", e, Level.WARNING, Level.FINE);
+        } catch (CancelledKeyException e) {
+            keyReadyOps = 0;
+            dropConnectionDueToException(key, "Unexpected CancelledKeyException. Channel " + key.channel() + " will be closed.", e, Level.FINE, Level.FINE);
+        }
+        
         return true;
     }
 
@@ -498,9 +557,58 @@ public final class SelectorRunner implements Runnable {
         return lastSelectedKeysCount;
     }
 
+    /**
+     * Returns the number of open {@link Connection}s, which are currently
+     * registered on this {@link SelectorRunner}.
+     * 
+     * @return the number of open {@link Connection}s registered on this
+     *         {@link SelectorRunner}.
+     */
+    public int getConnectionsCount() {
+        return connectionsCount.get();
+    }
+
+    /**
+     * Returns the recent number of {@link SelectionKey}s selected per second.
+     * The rate is a moving average, which is updated by the runner thread
+     * after a select, so it may lag behind while the runner is busy or blocked
+     * in a select.
+     * 
+     * @return the recent number of {@link SelectionKey}s selected per second.
+     */
+    public int getEventRate() {
+        return eventRate;
+    }
+
+    void onConnectionAttached() {
+        connectionsCount.incrementAndGet();
+    }
+
+    void onConnectionDetached() {
+        connectionsCount.decrementAndGet();
+    }
+
+    private void updateEventRate(final int selectedKeysCount) {
+        sampleEventsCount += selectedKeysCount;
+        
+        final long now = System.nanoTime();
+        final long elapsed = now - sampleStartNanos;
+        if (elapsed >= EVENT_RATE_SAMPLE_NANOS) {
+            final long sampleRate = Math.min(Integer.MAX_VALUE,
+                    sampleEventsCount * 1000000000L / elapsed);
+            // each new sample takes half of the weight
+            eventRate = (int) ((eventRate + sampleRate) >> 1);
+            
+            sampleEventsCount = 0;
+            sampleStartNanos = now;
+        }
+    }
+
     protected final void switchToNewSelector() throws IOException {
         final Selector oldSelector = selector;
         final Selector newSelector = Selectors.newSelector(transport.getSelectorProvider());
+        final SelectedSelectionKeySet newSelectedKeySet =
+                installSelectedKeySet(newSelector);
 
         final Set<SelectionKey> keys = oldSelector.keys();
         final SelectionKeyHandler selectionKeyHandler =
@@ -522,6 +630,7 @@ public final class SelectorRunner implements Runnable {
             }
         }
 
+        selectedKeySet = newSelectedKeySet;
         setSelector(newSelector);
 
         try {
@@ -530,6 +639,13 @@ public final class SelectorRunner implements Runnable {
         }
     }
 
+    private static SelectedSelectionKeySet installSelectedKeySet(
+            final Selector selector) {
+        return OPTIMIZE_SELECTED_KEYS
+                ? SelectedSelectionKeySet.install(selector)
+                : null;
+    }
+
     private void abortTasksInQueue(final Queue<SelectorHandlerTask> taskQueue) {
         SelectorHandlerTask task;
         while ((task = taskQueue.poll()) != null) {
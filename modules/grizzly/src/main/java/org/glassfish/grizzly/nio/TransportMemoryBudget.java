@@ -0,0 +1,412 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
+
+/**
+ * Transport-wide memory budget, which limits the memory all the transport
+ * connections may hold together: the bytes pending in the connections'
+ * async write queues and the bytes buffered by the upper layers (for
+ * example, HTTP request bodies buffered by the <tt>InputBuffer</tt>), which
+ * report them using {@link #reserve(Connection, int)} and
+ * {@link #release(Connection, int)}.
+ *
+ * When the usage exceeds the configured thresholds the transport degrades
+ * gracefully:
+ * <ul>
+ *   <li>accept pause threshold - the transport stops accepting new connections;</li>
+ *   <li>read suspend threshold - reading is suspended for the connections
+ *       holding the most memory;</li>
+ *   <li>request reject threshold - the upper layers reject new requests
+ *       (the HTTP server responds with <tt>503 Service Unavailable</tt>),
+ *       see {@link #admitRequest()}.</li>
+ * </ul>
+ * Each action is undone, when the usage drops below 90% of its threshold.
+ *
+ * @see NIOTransport#setMemoryBudget(TransportMemoryBudget)
+ *
+ * @since 3.0
+ */
+public class TransportMemoryBudget {
+    private static final Logger LOGGER = Grizzly.logger(TransportMemoryBudget.class);
+
+    public static final float DEFAULT_ACCEPT_PAUSE_RATIO = 0.8f;
+    public static final float DEFAULT_READ_SUSPEND_RATIO = 0.9f;
+    public static final float DEFAULT_REQUEST_REJECT_RATIO = 0.95f;
+
+    // an action is undone, when the usage drops below this part of its threshold
+    private static final float RESUME_RATIO = 0.9f;
+    // the part of the budgeted connections, which reading is suspended for
+    private static final int HEAVIEST_CONNECTIONS_DIVISOR = 10;
+
+    private final long budget;
+    private final long acceptPauseThreshold;
+    private final long readSuspendThreshold;
+    private final long requestRejectThreshold;
+
+    private final AtomicLong usage = new AtomicLong();
+    private final AtomicLong peakUsage = new AtomicLong();
+    private final AtomicLong rejectedRequestsCount = new AtomicLong();
+
+    // guards the accept pause and read suspend transitions
+    private final Object sync = new Object();
+    private volatile boolean isAcceptPaused;
+    private volatile boolean isReadSuspended;
+
+    // the connections holding budgeted bytes
+    private final Set<NIOConnection> connections =
+            Collections.newSetFromMap(new ConcurrentHashMap<NIOConnection, Boolean>());
+    private final Queue<NIOConnection> readSuspendedConnections =
+            new ConcurrentLinkedQueue<NIOConnection>();
+
+    private volatile NIOTransport transport;
+
+    /**
+     * Creates the budget with the default thresholds.
+     *
+     * @param budget the max number of bytes the transport connections may hold.
+     */
+    public TransportMemoryBudget(final long budget) {
+        this(budget, DEFAULT_ACCEPT_PAUSE_RATIO, DEFAULT_READ_SUSPEND_RATIO,
+                DEFAULT_REQUEST_REJECT_RATIO);
+    }
+
+    /**
+     * @param budget the max number of bytes the transport connections may hold.
+     * @param acceptPauseRatio the part of the budget, which pauses accepting
+     *        new connections.
+     * @param readSuspendRatio the part of the budget, which suspends reading
+     *        from the heaviest connections.
+     * @param requestRejectRatio the part of the budget, which makes the upper
+     *        layers reject new requests.
+     */
+    public TransportMemoryBudget(final long budget,
+            final float acceptPauseRatio, final float readSuspendRatio,
+            final float requestRejectRatio) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("budget <= 0");
+        }
+
+        checkRatio(acceptPauseRatio, "acceptPauseRatio");
+        checkRatio(readSuspendRatio, "readSuspendRatio");
+        checkRatio(requestRejectRatio, "requestRejectRatio");
+
+        this.budget = budget;
+        this.acceptPauseThreshold = (long) (budget * acceptPauseRatio);
+        this.readSuspendThreshold = (long) (budget * readSuspendRatio);
+        this.requestRejectThreshold = (long) (budget * requestRejectRatio);
+    }
+
+    /**
+     * @return the max number of bytes the transport connections may hold.
+     */
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return the number of bytes the transport connections currently hold.
+     */
+    public long getUsage() {
+        return usage.get();
+    }
+
+    /**
+     * @return the max number of bytes the transport connections held at once.
+     */
+    public long getPeakUsage() {
+        return peakUsage.get();
+    }
+
+    /**
+     * @return <tt>true</tt>, if accepting new connections is paused.
+     */
+    public boolean isAcceptPaused() {
+        return isAcceptPaused;
+    }
+
+    /**
+     * @return the number of connections, which reading is suspended for by
+     *         the budget.
+     */
+    public int getReadSuspendedConnectionsCount() {
+        return readSuspendedConnections.size();
+    }
+
+    /**
+     * @return the number of requests rejected by {@link #admitRequest()}.
+     */
+    public long getRejectedRequestsCount() {
+        return rejectedRequestsCount.get();
+    }
+
+    /**
+     * Is called by the upper layers before processing a new request.
+     *
+     * @return <tt>true</tt>, if the request may be processed, or
+     *         <tt>false</tt>, if the usage exceeds the request reject
+     *         threshold and the request has to be rejected.
+     */
+    public boolean admitRequest() {
+        if (usage.get() < requestRejectThreshold) {
+            return true;
+        }
+
+        rejectedRequestsCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Accounts the bytes held by the {@link Connection}.
+     *
+     * @param connection the {@link Connection} holding the bytes.
+     * @param bytes the number of bytes.
+     */
+    public void reserve(final Connection connection, final int bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+
+        NIOConnection nioConnection = null;
+        if (connection instanceof NIOConnection) {
+            nioConnection = (NIOConnection) connection;
+            nioConnection.addBudgetedBytes(bytes);
+            connections.add(nioConnection);
+        }
+
+        final long newUsage = usage.addAndGet(bytes);
+        updatePeakUsage(newUsage);
+        onUsageChanged(newUsage);
+
+        if (nioConnection != null && !nioConnection.isOpen()) {
+            // the connection might be closed before the bytes were added
+            releaseAll(nioConnection);
+        }
+    }
+
+    /**
+     * Releases the bytes held by the {@link Connection}.
+     *
+     * @param connection the {@link Connection} holding the bytes.
+     * @param bytes the number of bytes.
+     */
+    public void release(final Connection connection, final int bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+
+        long delta = -bytes;
+        if (connection instanceof NIOConnection) {
+            final NIOConnection nioConnection = (NIOConnection) connection;
+            // the bytes might be already released, if the connection is closed
+            delta = nioConnection.addBudgetedBytes(-bytes);
+            if (nioConnection.getBudgetedBytes() == 0) {
+                connections.remove(nioConnection);
+            }
+        }
+
+        if (delta != 0) {
+            onUsageChanged(usage.addAndGet(delta));
+        }
+    }
+
+    /**
+     * Releases all the bytes held by the closed {@link NIOConnection}.
+     */
+    void releaseAll(final NIOConnection connection) {
+        connections.remove(connection);
+        readSuspendedConnections.remove(connection);
+
+        final long delta = connection.addBudgetedBytes(-Long.MAX_VALUE);
+        if (delta != 0) {
+            onUsageChanged(usage.addAndGet(delta));
+        }
+    }
+
+    void attach(final NIOTransport transport) {
+        if (this.transport != null && this.transport != transport) {
+            throw new IllegalStateException(
+                    "The memory budget is already used by another transport");
+        }
+
+        this.transport = transport;
+    }
+
+    private void onUsageChanged(final long newUsage) {
+        if (isActionRequired(newUsage)) {
+            synchronized (sync) {
+                // recheck the usage, it might have been changed concurrently
+                updateActions(usage.get());
+            }
+        }
+    }
+
+    private boolean isActionRequired(final long newUsage) {
+        final boolean isAcceptActionRequired = isAcceptPaused
+                ? newUsage < acceptPauseThreshold * RESUME_RATIO
+                : newUsage >= acceptPauseThreshold;
+        final boolean isReadActionRequired = isReadSuspended
+                ? newUsage < readSuspendThreshold * RESUME_RATIO
+                : newUsage >= readSuspendThreshold;
+
+        return isAcceptActionRequired || isReadActionRequired;
+    }
+
+    private void updateActions(final long newUsage) {
+        if (!isAcceptPaused && newUsage >= acceptPauseThreshold) {
+            isAcceptPaused = true;
+            logExceeded(newUsage, acceptPauseThreshold, "pausing accepting connections");
+            final NIOTransport t = transport;
+            if (t != null) {
+                t.pauseAccepting();
+            }
+        } else if (isAcceptPaused && newUsage < acceptPauseThreshold * RESUME_RATIO) {
+            isAcceptPaused = false;
+            logResumed(newUsage, "accepting connections");
+            final NIOTransport t = transport;
+            if (t != null) {
+                t.resumeAccepting();
+            }
+        }
+
+        if (!isReadSuspended && newUsage >= readSuspendThreshold) {
+            isReadSuspended = true;
+            logExceeded(newUsage, readSuspendThreshold,
+                    "suspending reading from the heaviest connections");
+            suspendHeaviestConnections();
+        } else if (isReadSuspended && newUsage < readSuspendThreshold * RESUME_RATIO) {
+            isReadSuspended = false;
+            logResumed(newUsage, "reading");
+            resumeConnections();
+        }
+    }
+
+    private void suspendHeaviestConnections() {
+        final List<NIOConnection> candidates =
+                new ArrayList<NIOConnection>(connections);
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Collections.sort(candidates, new Comparator<NIOConnection>() {
+            @Override
+            public int compare(final NIOConnection c1, final NIOConnection c2) {
+                final long b1 = c1.getBudgetedBytes();
+                final long b2 = c2.getBudgetedBytes();
+                return b1 > b2 ? -1 : (b1 == b2 ? 0 : 1);
+            }
+        });
+
+        final int count = Math.max(1,
+                candidates.size() / HEAVIEST_CONNECTIONS_DIVISOR);
+        for (int i = 0; i < count; i++) {
+            final NIOConnection connection = candidates.get(i);
+            readSuspendedConnections.offer(connection);
+            try {
+                connection.suspendRead(NIOConnection.READ_SUSPEND_MEMORY_BUDGET,
+                        connection.getAsyncWriteQueue().spaceInBytes());
+            } catch (IOException e) {
+                readSuspendedConnections.remove(connection);
+                LOGGER.log(Level.FINE, "Can't suspend reading from "
+                        + connection, e);
+            }
+        }
+    }
+
+    private void resumeConnections() {
+        NIOConnection connection;
+        while ((connection = readSuspendedConnections.poll()) != null) {
+            try {
+                connection.resumeRead(NIOConnection.READ_SUSPEND_MEMORY_BUDGET,
+                        connection.getAsyncWriteQueue().spaceInBytes());
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can't resume reading from "
+                        + connection, e);
+            }
+        }
+    }
+
+    private void updatePeakUsage(final long newUsage) {
+        long peak;
+        while (newUsage > (peak = peakUsage.get())
+                && !peakUsage.compareAndSet(peak, newUsage)) {
+        }
+    }
+
+    private void logExceeded(final long newUsage, final long threshold,
+            final String action) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.log(Level.WARNING,
+                    LogMessages.WARNING_GRIZZLY_TRANSPORT_MEMORY_BUDGET_EXCEEDED(
+                            transport != null ? transport.getName() : null,
+                            newUsage, threshold, action));
+        }
+    }
+
+    private void logResumed(final long newUsage, final String action) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Transport {0} memory usage {1} bytes, resuming {2}",
+                    new Object[] {transport != null ? transport.getName() : null,
+                        newUsage, action});
+        }
+    }
+
+    private static void checkRatio(final float ratio, final String name) {
+        if (ratio <= 0 || ratio > 1) {
+            throw new IllegalArgumentException(name + " has to be in (0, 1] range");
+        }
+    }
+}
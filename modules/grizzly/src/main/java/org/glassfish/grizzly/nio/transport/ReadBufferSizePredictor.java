@@ -0,0 +1,101 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio.transport;
+
+/**
+ * Predicts the size of the {@link org.glassfish.grizzly.Buffer} to be
+ * allocated for the next {@link TCPNIOConnection} read, based on the recent
+ * read sizes.
+ * 
+ * The predicted size is doubled as soon as a read fills up the entire buffer,
+ * and is halved if two reads in a row could fit into half of the buffer,
+ * so the connections exchanging small messages don't waste memory, and
+ * the connections transferring large amounts of data don't need too many
+ * read syscalls. The predicted size always stays within the configured
+ * [min; max] range.
+ * 
+ * The predictor is not thread-safe, it's expected to be used by the thread
+ * processing the {@link TCPNIOConnection} read.
+ */
+final class ReadBufferSizePredictor {
+    private final int minSize;
+    private final int maxSize;
+    
+    private int nextSize;
+    private boolean decreaseNow;
+
+    ReadBufferSizePredictor(final int minSize, final int maxSize,
+            final int initialSize) {
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+        this.nextSize = Math.max(minSize, Math.min(this.maxSize, initialSize));
+    }
+
+    /**
+     * @return the size of the {@link org.glassfish.grizzly.Buffer} to be
+     *         allocated for the next read.
+     */
+    int nextSize() {
+        return nextSize;
+    }
+
+    /**
+     * Updates the prediction based on the last read result.
+     * 
+     * @param allocatedSize the size of the buffer the data was read to.
+     * @param readSize the number of bytes read.
+     */
+    void onRead(final int allocatedSize, final int readSize) {
+        if (readSize >= allocatedSize) {
+            decreaseNow = false;
+            nextSize = (int) Math.min((long) maxSize, (long) nextSize << 1);
+        } else if (readSize <= (nextSize >> 1)) {
+            if (decreaseNow) {
+                nextSize = Math.max(minSize, nextSize >> 1);
+                decreaseNow = false;
+            } else {
+                decreaseNow = true;
+            }
+        } else {
+            decreaseNow = false;
+        }
+    }
+}
@@ -170,8 +170,8 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
         }
         
         if (queueRecord.size > 0) {
-            final int bufferSize = Math.min(queueRecord.size,
-                    connection.getWriteBufferSize() * 3 / 2);
+            final int bufferSize = TCPNIOUtils.calcWriteBufferSize(
+                    (TCPNIOConnection) connection, queueRecord.size);
 
             final DirectByteBufferRecord directByteBufferRecord =
                     DirectByteBufferRecord.get();
@@ -179,7 +179,9 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             try {
                 final SocketChannel socketChannel = (SocketChannel) connection.getChannel();
 
-                fill(queueRecord, bufferSize, directByteBufferRecord);
+                fill(queueRecord, bufferSize, directByteBufferRecord,
+                        TCPNIOUtils.getMaxGatheringWriteBuffers(
+                                (TCPNIOConnection) connection));
                 directByteBufferRecord.finishBufferSlice();
 
                 final int arraySize = directByteBufferRecord.getArraySize();
@@ -207,7 +209,8 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
     
     private static void fill(final CompositeQueueRecord queueRecord,
             final int totalBufferSize,            
-            final DirectByteBufferRecord ioRecord) {
+            final DirectByteBufferRecord ioRecord,
+            final int maxArraySize) {
         
 //        int dstBufferRemaining = dstByteBuffer.remaining();
 //        
@@ -237,7 +240,11 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
                     message.toBufferArray(pos, pos + totalRemaining);
 
             savedBufferStates.add(bufferArray);
-            TCPNIOUtils.fill(bufferArray, totalRemaining, ioRecord);
+            if (!TCPNIOUtils.fill(bufferArray, totalRemaining, ioRecord,
+                    maxArraySize)) {
+                // the max number of buffers per gathering write is reached
+                break;
+            }
             
             totalRemaining -= messageRemaining;
         }
@@ -337,35 +344,14 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             return currentRecord;
         }
         
-        AsyncWriteQueueRecord nextRecord = checkAndGetNextRecord(writeTaskQueue);
-        
-        if (nextRecord == null) {
-            return currentRecord;
-        }
-        
         final CompositeQueueRecord compositeQueueRecord =
-                createCompositeQueueRecord(currentRecord);
+                getCompositeQueueRecord(currentRecord);
         
-        do {
-            compositeQueueRecord.append(nextRecord);
-        } while(compositeQueueRecord.remaining() < queueSize &&
-                (nextRecord = checkAndGetNextRecord(writeTaskQueue)) != null);
+        // take the following records from the queue in one batch
+        compositeQueueRecord.startAggregation(currentRecord, queueSize);
+        writeTaskQueue.drain(compositeQueueRecord);
         
-        return compositeQueueRecord;
-    }
-
-    private static AsyncWriteQueueRecord checkAndGetNextRecord(
-            final TaskQueue<AsyncWriteQueueRecord> writeTaskQueue) {
-
-        final AsyncWriteQueueRecord nextRecord = writeTaskQueue.getQueue().poll();
-        if (nextRecord == null) {
-            return null;
-        } else if (!canBeAggregated(nextRecord)) {
-            writeTaskQueue.setCurrentElement(nextRecord);
-            return null;
-        }
-
-        return nextRecord;
+        return compositeQueueRecord.finishAggregation();
     }
     
     private static boolean canBeAggregated(final AsyncWriteQueueRecord record) {
@@ -376,7 +362,7 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
                     TCPNIOAsyncQueueWriter.class.getName() + ".compositeBuffer");
 
-    private CompositeQueueRecord createCompositeQueueRecord(
+    private CompositeQueueRecord getCompositeQueueRecord(
             final AsyncWriteQueueRecord currentRecord) {
         
         if (!(currentRecord instanceof CompositeQueueRecord)) {
@@ -389,14 +375,14 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
                 COMPOSITE_BUFFER_ATTR.set(connection, compositeQueueRecord);
             }
 
-            compositeQueueRecord.append(currentRecord);
             return compositeQueueRecord;
         } else {
             return (CompositeQueueRecord) currentRecord;
         }
     }
 
-    private static final class CompositeQueueRecord extends AsyncWriteQueueRecord {
+    private static final class CompositeQueueRecord extends AsyncWriteQueueRecord
+            implements TaskQueue.Drainer<AsyncWriteQueueRecord> {
         
         private final ArrayList<BufferArray> savedBufferStates =
                 new ArrayList<BufferArray>(2);
@@ -406,6 +392,11 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
         
         private int size;
         
+        // the aggregation state
+        private AsyncWriteQueueRecord firstRecord;
+        private boolean isFirstAccept;
+        private int sizeLimit;
+        
         
         public static CompositeQueueRecord create(final Connection connection) {
             return new CompositeQueueRecord(connection);
@@ -426,6 +417,49 @@ public final class TCPNIOAsyncQueueWriter extends AbstractNIOAsyncQueueWriter {
             queue.add(queueRecord);
         }
 
+        /**
+         * Prepares the aggregation of the queued records following the
+         * <tt>currentRecord</tt>, which is appended only if at least one
+         * record is accepted.
+         */
+        void startAggregation(final AsyncWriteQueueRecord currentRecord,
+                final int sizeLimit) {
+            this.firstRecord = currentRecord != this ? currentRecord : null;
+            this.sizeLimit = sizeLimit;
+            this.isFirstAccept = true;
+        }
+
+        @Override
+        public boolean accept(final AsyncWriteQueueRecord record) {
+            if (!record.canBeAggregated()) {
+                return false;
+            }
+            
+            if (isFirstAccept) {
+                isFirstAccept = false;
+                if (firstRecord != null) {
+                    append(firstRecord);
+                    firstRecord = null;
+                }
+            } else if (size >= sizeLimit) {
+                return false;
+            }
+            
+            append(record);
+            return true;
+        }
+
+        /**
+         * @return the record to be written: this composite record, if
+         *         any record was aggregated, or the current record otherwise.
+         */
+        AsyncWriteQueueRecord finishAggregation() {
+            final AsyncWriteQueueRecord notAggregated = firstRecord;
+            firstRecord = null;
+            
+            return notAggregated != null ? notAggregated : this;
+        }
+
         @Override
         public boolean isUncountable() {
             return false;
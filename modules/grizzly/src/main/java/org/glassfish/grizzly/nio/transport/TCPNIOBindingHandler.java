@@ -42,13 +42,19 @@ package org.glassfish.grizzly.nio.transport;
 
 import org.glassfish.grizzly.AbstractBindingHandler;
 import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.utils.Exceptions;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.ServerSocketChannel;
 import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class may be used to apply a custom {@link org.glassfish.grizzly.Processor} and/or {@link org.glassfish.grizzly.ProcessorSelector}
@@ -64,6 +70,14 @@ import java.util.concurrent.locks.Lock;
  */
 public class TCPNIOBindingHandler extends AbstractBindingHandler {
 
+    private static final Logger LOGGER = Grizzly.logger(TCPNIOBindingHandler.class);
+
+    /**
+     * <tt>StandardSocketOptions.SO_REUSEPORT</tt>, or <tt>null</tt>, if
+     * the option is not available (JDK 8 and earlier).
+     */
+    private static final SocketOption<Boolean> SO_REUSEPORT = lookupReusePortOption();
+
     private final TCPNIOTransport tcpTransport;
 
     // ------------------------------------------------------------ Constructors
@@ -85,10 +99,22 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
 
     @Override
     public TCPNIOServerConnection bind(SocketAddress socketAddress, int backlog) throws IOException {
-        return bindToChannelAndAddress(
-                tcpTransport.getSelectorProvider().openServerSocketChannel(),
-                socketAddress,
-                backlog);
+        final ServerSocketChannel serverSocketChannel =
+                tcpTransport.getSelectorProvider().openServerSocketChannel();
+        
+        if (tcpTransport.isReusePortListeners() && socketAddress != null
+                && tcpTransport.getSelectorRunnersCount() > 1) {
+            if (isReusePortSupported(serverSocketChannel)) {
+                return bindReusePortListeners(serverSocketChannel,
+                        socketAddress, backlog);
+            }
+            
+            LOGGER.log(Level.WARNING,
+                    LogMessages.WARNING_GRIZZLY_SOCKET_REUSEPORT_UNSUPPORTED(socketAddress));
+        }
+        
+        return bindToChannelAndAddress(serverSocketChannel, socketAddress,
+                backlog, -1);
     }
 
     @Override
@@ -96,6 +122,7 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
         return bindToChannelAndAddress(
                 this.<ServerSocketChannel>getSystemInheritedChannel(ServerSocketChannel.class),
                 null,
+                -1,
                 -1);
     }
 
@@ -112,9 +139,49 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
     // --------------------------------------------------------- Private Methods
 
 
+    /**
+     * Binds one SO_REUSEPORT server socket per {@link org.glassfish.grizzly.nio.SelectorRunner}.
+     * The first listener is returned, the other listeners are bound to the
+     * same (resolved) address and closed together with the first one.
+     */
+    private TCPNIOServerConnection bindReusePortListeners(
+            final ServerSocketChannel serverSocketChannel,
+            final SocketAddress socketAddress,
+            final int backlog)
+    throws IOException {
+        final Lock lock = tcpTransport.getState().getStateLocker().writeLock();
+        lock.lock();
+        try {
+            final TCPNIOServerConnection serverConnection =
+                    bindToChannelAndAddress(serverSocketChannel, socketAddress,
+                    backlog, 0);
+            
+            // the address might have had an ephemeral port
+            final SocketAddress boundAddress = serverConnection.getLocalAddress();
+            final int listenersCount = tcpTransport.getSelectorRunnersCount();
+            
+            try {
+                for (int i = 1; i < listenersCount; i++) {
+                    serverConnection.reusePortListeners.add(
+                            bindToChannelAndAddress(
+                            tcpTransport.getSelectorProvider().openServerSocketChannel(),
+                            boundAddress, backlog, i));
+                }
+            } catch (IOException e) {
+                tcpTransport.unbind(serverConnection);
+                throw e;
+            }
+            
+            return serverConnection;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private TCPNIOServerConnection bindToChannelAndAddress(final ServerSocketChannel serverSocketChannel,
                                                            final SocketAddress socketAddress,
-                                                           final int backlog)
+                                                           final int backlog,
+                                                           final int listenerIndex)
     throws IOException {
         TCPNIOServerConnection serverConnection = null;
 
@@ -127,6 +194,10 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
             tcpTransport.getChannelConfigurator().preConfigure(transport,
                     serverSocketChannel);
             
+            if (listenerIndex >= 0) {
+                serverSocketChannel.setOption(SO_REUSEPORT, true);
+            }
+            
             if (socketAddress != null) {
                 serverSocket.bind(socketAddress, backlog);
             }
@@ -137,6 +208,7 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
             serverConnection = tcpTransport.obtainServerNIOConnection(serverSocketChannel);
             serverConnection.setProcessor(getProcessor());
             serverConnection.setProcessorSelector(getProcessorSelector());
+            serverConnection.listenerIndex = listenerIndex;
             tcpTransport.serverConnections.add(serverConnection);
             serverConnection.resetProperties();
 
@@ -163,6 +235,22 @@ public class TCPNIOBindingHandler extends AbstractBindingHandler {
         }
     }
 
+    private static boolean isReusePortSupported(
+            final ServerSocketChannel serverSocketChannel) {
+        return SO_REUSEPORT != null
+                && serverSocketChannel.supportedOptions().contains(SO_REUSEPORT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> lookupReusePortOption() {
+        try {
+            return (SocketOption<Boolean>) StandardSocketOptions.class
+                    .getField("SO_REUSEPORT").get(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
 
     // ----------------------------------------------------------- Inner Classes
 
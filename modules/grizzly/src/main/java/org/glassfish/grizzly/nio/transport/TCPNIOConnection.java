@@ -71,6 +71,12 @@ public class TCPNIOConnection extends NIOConnection {
 
     private int readBufferSize = -1;
     private int writeBufferSize = -1;
+    
+    /**
+     * The read buffer size predictor, <tt>null</tt> if the adaptive
+     * read buffer size is disabled.
+     */
+    ReadBufferSizePredictor readBufferSizePredictor;
 
     private AtomicReference<ConnectResultHandler> connectHandlerRef;
 
@@ -138,6 +144,14 @@ public class TCPNIOConnection extends NIOConnection {
                     ? getWriteBufferSize() * 4
                     : transportMaxAsyncWriteQueueSize);
 
+            final TCPNIOTransport tcpTransport = (TCPNIOTransport) transport;
+            readBufferSizePredictor = tcpTransport.isAdaptiveReadBufferSize()
+                    ? new ReadBufferSizePredictor(
+                            tcpTransport.getMinAdaptiveReadBufferSize(),
+                            tcpTransport.getMaxAdaptiveReadBufferSize(),
+                            getReadBufferSize())
+                    : null;
+
             localSocketAddressHolder = Holder.lazyHolder(
                     new NullaryFunction<SocketAddress>() {
                         @Override
@@ -198,6 +212,24 @@ public class TCPNIOConnection extends NIOConnection {
         }
     }
 
+    /**
+     * Returns the size of the {@link Buffer} to be allocated for the next read.
+     * If the {@link TCPNIOTransport#isAdaptiveReadBufferSize() adaptive read buffer size}
+     * is enabled, the size is predicted based on the recent read sizes,
+     * otherwise it's the {@link #getReadBufferSize() read buffer size}.
+     * 
+     * The value is updated before {@link ConnectionProbe#onReadEvent(Connection, Buffer, int)}
+     * is called, so probes may use it to track the predictor decisions.
+     * 
+     * @return the size of the {@link Buffer} to be allocated for the next read.
+     */
+    public int getNextReadBufferSize() {
+        final ReadBufferSizePredictor predictor = readBufferSizePredictor;
+        return predictor != null
+                ? predictor.nextSize()
+                : getReadBufferSize();
+    }
+
     /**
      * {@inheritDoc}
      */
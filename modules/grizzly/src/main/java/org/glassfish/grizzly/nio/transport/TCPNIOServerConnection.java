@@ -45,6 +45,8 @@ import java.net.SocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +57,7 @@ import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.nio.RegisterChannelResult;
 import org.glassfish.grizzly.nio.SelectionKeyHandler;
+import org.glassfish.grizzly.nio.SelectorRunner;
 import org.glassfish.grizzly.utils.CompletionHandlerAdapter;
 import org.glassfish.grizzly.utils.Exceptions;
 import org.glassfish.grizzly.utils.Holder;
@@ -75,6 +78,19 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
     private final RegisterAcceptedChannelCompletionHandler defaultCompletionHandler;
     private final Object acceptSync = new Object();
 
+    /**
+     * The index of the {@link SelectorRunner} this SO_REUSEPORT listener is
+     * bound to, or <tt>-1</tt>, if the listener is registered using
+     * the transport's {@link org.glassfish.grizzly.nio.NIOChannelDistributor}.
+     */
+    int listenerIndex = -1;
+    /**
+     * The SO_REUSEPORT listeners bound to the same address, which have to be
+     * closed together with this one.
+     */
+    final Collection<TCPNIOServerConnection> reusePortListeners =
+            new ConcurrentLinkedQueue<TCPNIOServerConnection>();
+
     public TCPNIOServerConnection(TCPNIOTransport transport,
             ServerSocketChannel serverSocketChannel) {
         super(transport, serverSocketChannel);
@@ -88,11 +104,22 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         final FutureImpl<RegisterChannelResult> future =
                 SafeFutureImpl.create();
-        
-        transport.getNIOChannelDistributor().registerServiceChannelAsync(
-                channel, SelectionKey.OP_ACCEPT, this,
+        final CompletionHandler<RegisterChannelResult> completionHandler =
                 new CompletionHandlerAdapter<RegisterChannelResult, RegisterChannelResult>(
-                future, registerCompletionHandler));
+                future, registerCompletionHandler);
+        
+        final SelectorRunner listenerSelectorRunner = listenerIndex >= 0
+                ? ((TCPNIOTransport) transport).getListenerSelectorRunner(listenerIndex)
+                : null;
+        
+        if (listenerSelectorRunner != null) {
+            transport.getSelectorHandler().registerChannelAsync(
+                    listenerSelectorRunner, channel, SelectionKey.OP_ACCEPT,
+                    this, completionHandler);
+        } else {
+            transport.getNIOChannelDistributor().registerServiceChannelAsync(
+                    channel, SelectionKey.OP_ACCEPT, this, completionHandler);
+        }
         try {
             future.get(10, TimeUnit.SECONDS);
         } catch (ExecutionException e) {
@@ -210,9 +237,18 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         final TCPNIOTransport tcpNIOTransport = (TCPNIOTransport) transport;
 
-        tcpNIOTransport.getNIOChannelDistributor().registerChannelAsync(
-                acceptedConnection.getChannel(), initialSelectionKeyInterest,
-                acceptedConnection, completionHandler);
+        // SO_REUSEPORT listener keeps accepted connections on its own runner
+        final SelectorRunner listenerSelectorRunner = selectorRunner;
+        if (listenerIndex >= 0 && listenerSelectorRunner != null) {
+            tcpNIOTransport.getSelectorHandler().registerChannelAsync(
+                    listenerSelectorRunner, acceptedConnection.getChannel(),
+                    initialSelectionKeyInterest, acceptedConnection,
+                    completionHandler);
+        } else {
+            tcpNIOTransport.getNIOChannelDistributor().registerChannelAsync(
+                    acceptedConnection.getChannel(), initialSelectionKeyInterest,
+                    acceptedConnection, completionHandler);
+        }
     }
 
     @Override
@@ -223,6 +259,11 @@ public final class TCPNIOServerConnection extends TCPNIOConnection {
 
         transport.unbind(this);
 
+        for (TCPNIOServerConnection listener : reusePortListeners) {
+            transport.unbind(listener);
+        }
+        reusePortListeners.clear();
+
         super.preClose();
     }
 
@@ -99,6 +99,20 @@ public final class TCPNIOTransport extends NIOTransport implements
     public static final boolean DEFAULT_KEEP_ALIVE = true;
     public static final int DEFAULT_LINGER = -1;
     public static final int DEFAULT_SERVER_CONNECTION_BACKLOG = 4096;
+    /**
+     * The default max number of {@link java.nio.ByteBuffer}s passed to a single
+     * gathering write, which is IOV_MAX on most platforms.
+     */
+    public static final int DEFAULT_MAX_GATHERING_WRITE_BUFFERS = 1024;
+    /**
+     * The default max number of bytes passed to a single write, <tt>-1</tt>
+     * means one and a half of the connection's write buffer size.
+     */
+    public static final int DEFAULT_MAX_GATHERING_WRITE_SIZE = -1;
+    public static final boolean DEFAULT_ADAPTIVE_READ_BUFFER_SIZE = false;
+    public static final int DEFAULT_MIN_ADAPTIVE_READ_BUFFER_SIZE = 512;
+    public static final int DEFAULT_MAX_ADAPTIVE_READ_BUFFER_SIZE = 65536;
+    public static final boolean DEFAULT_REUSE_PORT_LISTENERS = false;
 
     private static final String DEFAULT_TRANSPORT_NAME = "TCPNIOTransport";
     /**
@@ -128,6 +142,31 @@ public final class TCPNIOTransport extends NIOTransport implements
      * The socket keepAlive mode.
      */
     boolean isKeepAlive = DEFAULT_KEEP_ALIVE;
+    /**
+     * The max number of buffers passed to a single gathering write.
+     */
+    int maxGatheringWriteBuffers = DEFAULT_MAX_GATHERING_WRITE_BUFFERS;
+    /**
+     * The max number of bytes passed to a single write.
+     */
+    int maxGatheringWriteSize = DEFAULT_MAX_GATHERING_WRITE_SIZE;
+    /**
+     * <tt>true</tt>, if the read buffer size is predicted per connection.
+     */
+    boolean isAdaptiveReadBufferSize = DEFAULT_ADAPTIVE_READ_BUFFER_SIZE;
+    /**
+     * The min read buffer size the predictor may choose.
+     */
+    int minAdaptiveReadBufferSize = DEFAULT_MIN_ADAPTIVE_READ_BUFFER_SIZE;
+    /**
+     * The max read buffer size the predictor may choose.
+     */
+    int maxAdaptiveReadBufferSize = DEFAULT_MAX_ADAPTIVE_READ_BUFFER_SIZE;
+    /**
+     * <tt>true</tt>, if a bind opens one SO_REUSEPORT listener per
+     * {@link SelectorRunner}.
+     */
+    boolean isReusePortListeners = DEFAULT_REUSE_PORT_LISTENERS;
 
     private final Filter defaultTransportFilter;
     final RegisterChannelCompletionHandler selectorRegistrationHandler;
@@ -193,6 +232,17 @@ public final class TCPNIOTransport extends NIOTransport implements
         serverConnection.listen();
     }
 
+    /**
+     * Returns the {@link SelectorRunner} the listener with the given index
+     * has to be bound to, or <tt>null</tt>, if the transport is not started.
+     */
+    SelectorRunner getListenerSelectorRunner(final int listenerIndex) {
+        final SelectorRunner[] runners = getSelectorRunners();
+        return runners != null && runners.length > 0
+                ? runners[listenerIndex % runners.length]
+                : null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -287,6 +337,32 @@ public final class TCPNIOTransport extends NIOTransport implements
         }
     }
 
+    @Override
+    protected void pauseAccepting() {
+        for (TCPNIOServerConnection serverConnection : serverConnections) {
+            try {
+                serverConnection.disableIOEvent(IOEvent.SERVER_ACCEPT);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE,
+                        "Exception occurred when pausing accepting connections: "
+                        + serverConnection, e);
+            }
+        }
+    }
+
+    @Override
+    protected void resumeAccepting() {
+        for (TCPNIOServerConnection serverConnection : serverConnections) {
+            try {
+                serverConnection.enableIOEvent(IOEvent.SERVER_ACCEPT);
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE,
+                        "Exception occurred when resuming accepting connections: "
+                        + serverConnection, e);
+            }
+        }
+    }
+
     @Override
     public void unbindAll() {
         final Lock lock = state.getStateLocker().writeLock();
@@ -489,6 +565,173 @@ public final class TCPNIOTransport extends NIOTransport implements
         this.serverConnectionBackLog = serverConnectionBackLog;
     }
 
+    /**
+     * Get the max number of {@link java.nio.ByteBuffer}s passed to a single
+     * gathering {@link SocketChannel#write(java.nio.ByteBuffer[], int, int)}.
+     * Direct {@link org.glassfish.grizzly.Buffer}s of a composite
+     * {@link org.glassfish.grizzly.Buffer} or of several queued messages are
+     * passed as they are, each taking one slot; adjacent heap
+     * {@link org.glassfish.grizzly.Buffer}s are copied into a single
+     * direct staging buffer.
+     * 
+     * @return the max number of buffers passed to a single gathering write.
+     */
+    public int getMaxGatheringWriteBuffers() {
+        return maxGatheringWriteBuffers;
+    }
+
+    /**
+     * Set the max number of {@link java.nio.ByteBuffer}s passed to a single
+     * gathering {@link SocketChannel#write(java.nio.ByteBuffer[], int, int)}.
+     *
+     * @param maxGatheringWriteBuffers the max number of buffers passed to
+     *        a single gathering write.
+     * @see #getMaxGatheringWriteBuffers()
+     */
+    public void setMaxGatheringWriteBuffers(final int maxGatheringWriteBuffers) {
+        if (maxGatheringWriteBuffers <= 0) {
+            throw new IllegalArgumentException(
+                    "maxGatheringWriteBuffers must be greater than zero");
+        }
+        this.maxGatheringWriteBuffers = maxGatheringWriteBuffers;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Get the max number of bytes passed to a single socket write.
+     * The negative value means one and a half of the connection's
+     * write buffer size.
+     *
+     * @return the max number of bytes passed to a single socket write.
+     */
+    public int getMaxGatheringWriteSize() {
+        return maxGatheringWriteSize;
+    }
+
+    /**
+     * Set the max number of bytes passed to a single socket write.
+     * The negative value means one and a half of the connection's
+     * write buffer size.
+     *
+     * @param maxGatheringWriteSize the max number of bytes passed to
+     *        a single socket write.
+     */
+    public void setMaxGatheringWriteSize(final int maxGatheringWriteSize) {
+        if (maxGatheringWriteSize == 0) {
+            throw new IllegalArgumentException(
+                    "maxGatheringWriteSize can't be zero");
+        }
+        this.maxGatheringWriteSize = maxGatheringWriteSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Returns <tt>true</tt>, if the size of the {@link org.glassfish.grizzly.Buffer}
+     * allocated for a read is predicted per {@link Connection} based on the
+     * recent read sizes, or <tt>false</tt>, if the {@link Connection}'s
+     * read buffer size is always used.
+     * 
+     * @return <tt>true</tt>, if the read buffer size is predicted per
+     *         {@link Connection}.
+     * @see TCPNIOConnection#getNextReadBufferSize()
+     */
+    public boolean isAdaptiveReadBufferSize() {
+        return isAdaptiveReadBufferSize;
+    }
+
+    /**
+     * Turns on/off the per {@link Connection} read buffer size prediction.
+     * The predicted size starts from the {@link Connection}'s read buffer
+     * size and stays within the
+     * [{@link #getMinAdaptiveReadBufferSize()}; {@link #getMaxAdaptiveReadBufferSize()}]
+     * range.
+     * The setting is applied to the {@link Connection}s created after the change.
+     * 
+     * @param isAdaptiveReadBufferSize <tt>true</tt>, if the read buffer size
+     *        has to be predicted per {@link Connection}.
+     */
+    public void setAdaptiveReadBufferSize(final boolean isAdaptiveReadBufferSize) {
+        this.isAdaptiveReadBufferSize = isAdaptiveReadBufferSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return the min read buffer size the per {@link Connection} predictor
+     *         may choose.
+     */
+    public int getMinAdaptiveReadBufferSize() {
+        return minAdaptiveReadBufferSize;
+    }
+
+    /**
+     * Sets the min read buffer size the per {@link Connection} predictor
+     * may choose.
+     * 
+     * @param minAdaptiveReadBufferSize the min read buffer size.
+     */
+    public void setMinAdaptiveReadBufferSize(final int minAdaptiveReadBufferSize) {
+        if (minAdaptiveReadBufferSize <= 0) {
+            throw new IllegalArgumentException(
+                    "minAdaptiveReadBufferSize must be greater than zero");
+        }
+        this.minAdaptiveReadBufferSize = minAdaptiveReadBufferSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * @return the max read buffer size the per {@link Connection} predictor
+     *         may choose.
+     */
+    public int getMaxAdaptiveReadBufferSize() {
+        return maxAdaptiveReadBufferSize;
+    }
+
+    /**
+     * Sets the max read buffer size the per {@link Connection} predictor
+     * may choose.
+     * 
+     * @param maxAdaptiveReadBufferSize the max read buffer size.
+     */
+    public void setMaxAdaptiveReadBufferSize(final int maxAdaptiveReadBufferSize) {
+        if (maxAdaptiveReadBufferSize <= 0) {
+            throw new IllegalArgumentException(
+                    "maxAdaptiveReadBufferSize must be greater than zero");
+        }
+        this.maxAdaptiveReadBufferSize = maxAdaptiveReadBufferSize;
+        notifyProbesConfigChanged(this);
+    }
+
+    /**
+     * Returns <tt>true</tt>, if binding to a {@link SocketAddress} opens
+     * one <tt>SO_REUSEPORT</tt> server socket per {@link SelectorRunner}, so
+     * each runner accepts and serves its own {@link Connection}s, or
+     * <tt>false</tt>, if a single server socket is shared by all the runners.
+     * 
+     * @return <tt>true</tt>, if the transport binds one <tt>SO_REUSEPORT</tt>
+     *         listener per {@link SelectorRunner}.
+     */
+    public boolean isReusePortListeners() {
+        return isReusePortListeners;
+    }
+
+    /**
+     * Turns on/off the <tt>SO_REUSEPORT</tt> listener per {@link SelectorRunner}
+     * mode. In this mode the kernel balances incoming connections between
+     * the listeners, and an accepted {@link Connection} is served by the
+     * {@link SelectorRunner}, which accepted it, without being handed over
+     * to another thread.
+     * If <tt>SO_REUSEPORT</tt> is not supported by the JVM or OS - a single
+     * server socket will be bound.
+     * The setting is applied to the binds made after the change.
+     * 
+     * @param isReusePortListeners <tt>true</tt>, if one <tt>SO_REUSEPORT</tt>
+     *        listener has to be bound per {@link SelectorRunner}.
+     */
+    public void setReusePortListeners(final boolean isReusePortListeners) {
+        this.isReusePortListeners = isReusePortListeners;
+        notifyProbesConfigChanged(this);
+    }
+
     @Override
     public Filter getTransportFilter() {
         return defaultTransportFilter;
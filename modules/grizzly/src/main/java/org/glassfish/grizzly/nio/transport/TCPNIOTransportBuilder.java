@@ -56,6 +56,12 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
     protected int serverConnectionBackLog = TCPNIOTransport.DEFAULT_SERVER_CONNECTION_BACKLOG;
     protected int serverSocketSoTimeout = TCPNIOTransport.DEFAULT_SERVER_SOCKET_SO_TIMEOUT;
     protected boolean tcpNoDelay = TCPNIOTransport.DEFAULT_TCP_NO_DELAY;
+    protected int maxGatheringWriteBuffers = TCPNIOTransport.DEFAULT_MAX_GATHERING_WRITE_BUFFERS;
+    protected int maxGatheringWriteSize = TCPNIOTransport.DEFAULT_MAX_GATHERING_WRITE_SIZE;
+    protected boolean adaptiveReadBufferSize = TCPNIOTransport.DEFAULT_ADAPTIVE_READ_BUFFER_SIZE;
+    protected int minAdaptiveReadBufferSize = TCPNIOTransport.DEFAULT_MIN_ADAPTIVE_READ_BUFFER_SIZE;
+    protected int maxAdaptiveReadBufferSize = TCPNIOTransport.DEFAULT_MAX_ADAPTIVE_READ_BUFFER_SIZE;
+    protected boolean reusePortListeners = TCPNIOTransport.DEFAULT_REUSE_PORT_LISTENERS;
 
     // ------------------------------------------------------------ Constructors
 
@@ -157,6 +163,108 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         return getThis();
     }
 
+    /**
+     * @see TCPNIOTransport#getMaxGatheringWriteBuffers()
+     */
+    public int getMaxGatheringWriteBuffers() {
+        return maxGatheringWriteBuffers;
+    }
+
+    /**
+     * @see TCPNIOTransport#setMaxGatheringWriteBuffers(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setMaxGatheringWriteBuffers(int maxGatheringWriteBuffers) {
+        this.maxGatheringWriteBuffers = maxGatheringWriteBuffers;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#getMaxGatheringWriteSize()
+     */
+    public int getMaxGatheringWriteSize() {
+        return maxGatheringWriteSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setMaxGatheringWriteSize(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setMaxGatheringWriteSize(int maxGatheringWriteSize) {
+        this.maxGatheringWriteSize = maxGatheringWriteSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#isAdaptiveReadBufferSize()
+     */
+    public boolean isAdaptiveReadBufferSize() {
+        return adaptiveReadBufferSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setAdaptiveReadBufferSize(boolean)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setAdaptiveReadBufferSize(boolean adaptiveReadBufferSize) {
+        this.adaptiveReadBufferSize = adaptiveReadBufferSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#getMinAdaptiveReadBufferSize()
+     */
+    public int getMinAdaptiveReadBufferSize() {
+        return minAdaptiveReadBufferSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setMinAdaptiveReadBufferSize(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setMinAdaptiveReadBufferSize(int minAdaptiveReadBufferSize) {
+        this.minAdaptiveReadBufferSize = minAdaptiveReadBufferSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#getMaxAdaptiveReadBufferSize()
+     */
+    public int getMaxAdaptiveReadBufferSize() {
+        return maxAdaptiveReadBufferSize;
+    }
+
+    /**
+     * @see TCPNIOTransport#setMaxAdaptiveReadBufferSize(int)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setMaxAdaptiveReadBufferSize(int maxAdaptiveReadBufferSize) {
+        this.maxAdaptiveReadBufferSize = maxAdaptiveReadBufferSize;
+        return getThis();
+    }
+
+    /**
+     * @see TCPNIOTransport#isReusePortListeners()
+     */
+    public boolean isReusePortListeners() {
+        return reusePortListeners;
+    }
+
+    /**
+     * @see TCPNIOTransport#setReusePortListeners(boolean)
+     *
+     * @return this <code>TCPNIOTransportBuilder</code>
+     */
+    public TCPNIOTransportBuilder setReusePortListeners(boolean reusePortListeners) {
+        this.reusePortListeners = reusePortListeners;
+        return getThis();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -168,6 +276,12 @@ public class TCPNIOTransportBuilder extends NIOTransportBuilder<TCPNIOTransportB
         transport.setServerConnectionBackLog(serverConnectionBackLog);
         transport.setTcpNoDelay(tcpNoDelay);
         transport.setServerSocketSoTimeout(serverSocketSoTimeout);
+        transport.setMaxGatheringWriteBuffers(maxGatheringWriteBuffers);
+        transport.setMaxGatheringWriteSize(maxGatheringWriteSize);
+        transport.setAdaptiveReadBufferSize(adaptiveReadBufferSize);
+        transport.setMinAdaptiveReadBufferSize(minAdaptiveReadBufferSize);
+        transport.setMaxAdaptiveReadBufferSize(maxAdaptiveReadBufferSize);
+        transport.setReusePortListeners(reusePortListeners);
         return transport;
     }
 
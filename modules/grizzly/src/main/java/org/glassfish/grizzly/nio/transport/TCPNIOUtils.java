@@ -79,7 +79,8 @@ public class TCPNIOUtils {
         final DirectByteBufferRecord ioRecord = DirectByteBufferRecord.get();
         
         try {
-            fill(bufferArray, bufferSize, ioRecord);
+            fill(bufferArray, bufferSize, ioRecord,
+                    getMaxGatheringWriteBuffers(connection));
             ioRecord.finishBufferSlice();
 
             final int arraySize = ioRecord.getArraySize();
@@ -164,8 +165,20 @@ public class TCPNIOUtils {
         src.position(oldPos);
     }
 
-    static void fill(final BufferArray bufferArray,
-            final int totalBufferSize, final DirectByteBufferRecord ioRecord) {
+    /**
+     * Fills the {@link DirectByteBufferRecord} array with the
+     * {@link BufferArray} content to be passed to a gathering write.
+     * Direct {@link Buffer}s are added to the array as they are, heap
+     * {@link Buffer}s are copied into the direct staging buffer, so adjacent
+     * heap {@link Buffer}s occupy a single array element.
+     * 
+     * @return <tt>false</tt>, if the filling was stopped, because the
+     *         array reached <tt>maxArraySize</tt> elements, or <tt>true</tt>
+     *         otherwise
+     */
+    static boolean fill(final BufferArray bufferArray,
+            final int totalBufferSize, final DirectByteBufferRecord ioRecord,
+            final int maxArraySize) {
         
         final Buffer buffers[] = bufferArray.getArray();
         final int size = bufferArray.size();
@@ -184,11 +197,19 @@ public class TCPNIOUtils {
             
             if (buffer.isDirect()) {
                 ioRecord.finishBufferSlice();
+                if (ioRecord.getArraySize() >= maxArraySize) {
+                    return false;
+                }
+                
                 ioRecord.putToArray(buffer.toByteBuffer());
             } else {
                 ByteBuffer currentDirectBufferSlice = ioRecord.getDirectBufferSlice();
                 
                 if (currentDirectBufferSlice == null) {
+                    if (ioRecord.getArraySize() >= maxArraySize) {
+                        return false;
+                    }
+                    
                     final ByteBuffer directByteBuffer = ioRecord.getDirectBuffer();
                     if (directByteBuffer == null) {
                         ioRecord.allocate(totalRemaining);   // allocate buffer big enough to put the entire message (not just the chunk  we're writing)
@@ -206,12 +227,21 @@ public class TCPNIOUtils {
             totalRemaining -= bufferSize;
         }
 
+        return true;
     }
 
-    private static int calcWriteBufferSize(final TCPNIOConnection connection,
+    static int calcWriteBufferSize(final TCPNIOConnection connection,
             final int bufferSize) {
+        final int maxWriteSize =
+                ((TCPNIOTransport) connection.getTransport()).maxGatheringWriteSize;
         return Math.min(TCPNIOTransport.MAX_SEND_BUFFER_SIZE,
-                Math.min(bufferSize, (connection.getWriteBufferSize() * 3) / 2));
+                Math.min(bufferSize, maxWriteSize > 0
+                        ? maxWriteSize
+                        : (connection.getWriteBufferSize() * 3) / 2));
+    }
+
+    static int getMaxGatheringWriteBuffers(final TCPNIOConnection connection) {
+        return ((TCPNIOTransport) connection.getTransport()).maxGatheringWriteBuffers;
     }
 
     public static Buffer allocateAndReadBuffer(final TCPNIOConnection connection)
@@ -223,10 +253,16 @@ public class TCPNIOUtils {
         Throwable error = null;
         Buffer buffer = null;
         
+        final ReadBufferSizePredictor predictor =
+                connection.readBufferSizePredictor;
+        int receiveBufferSize = 0;
+        
         try {
-            final int receiveBufferSize =
+            receiveBufferSize =
                     Math.min(TCPNIOTransport.MAX_RECEIVE_BUFFER_SIZE,
-                            connection.getReadBufferSize());
+                            predictor != null
+                                    ? predictor.nextSize()
+                                    : connection.getReadBufferSize());
         
             if (!memoryManager.willAllocateDirect(receiveBufferSize)) {
                 final DirectByteBufferRecord ioRecord = 
@@ -254,6 +290,10 @@ public class TCPNIOUtils {
         }
         
         if (read > 0) {
+            if (predictor != null) {
+                predictor.onRead(receiveBufferSize, read);
+            }
+            
             buffer.position(read);
             buffer.allowBufferDispose(true);
         } else {
@@ -81,6 +81,11 @@ public final class UDPNIOTransport extends NIOTransport
     public static final ChannelConfigurator DEFAULT_CHANNEL_CONFIGURATOR =
             new DefaultChannelConfigurator();
 
+    /**
+     * The default max number of datagrams read per read readiness event.
+     */
+    public static final int DEFAULT_READ_BATCH_SIZE = 1;
+
     static final Logger LOGGER = Grizzly.logger(UDPNIOTransport.class);
     private static final String DEFAULT_TRANSPORT_NAME = "UDPNIOTransport";
     /**
@@ -105,6 +110,10 @@ public final class UDPNIOTransport extends NIOTransport
     private final UDPNIOBindingHandler bindingHandler =
             new UDPNIOBindingHandler(this);
 
+    /**
+     * The max number of datagrams read per read readiness event.
+     */
+    int readBatchSize = DEFAULT_READ_BATCH_SIZE;
 
     public UDPNIOTransport() {
         this(DEFAULT_TRANSPORT_NAME);
@@ -399,6 +408,40 @@ public final class UDPNIOTransport extends NIOTransport
         }
     }
 
+    /**
+     * Returns the max number of datagrams, which are read and passed
+     * to the {@link org.glassfish.grizzly.filterchain.FilterChain} one by one
+     * per read readiness event, before the {@link Connection} goes back to
+     * the {@link java.nio.channels.Selector}.
+     * 
+     * @return the max number of datagrams read per read readiness event.
+     * @since 3.0
+     */
+    public int getReadBatchSize() {
+        return readBatchSize;
+    }
+
+    /**
+     * Sets the max number of datagrams, which are read and passed
+     * to the {@link org.glassfish.grizzly.filterchain.FilterChain} one by one
+     * per read readiness event, before the {@link Connection} goes back to
+     * the {@link java.nio.channels.Selector}. Higher values save the selector
+     * round-trips for high-rate UDP traffic, but let a busy {@link Connection}
+     * hold its thread longer.
+     * 
+     * @param readBatchSize the max number of datagrams read per read
+     *        readiness event.
+     * @since 3.0
+     */
+    public void setReadBatchSize(final int readBatchSize) {
+        if (readBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                    "readBatchSize must be greater than zero");
+        }
+        this.readBatchSize = readBatchSize;
+        notifyProbesConfigChanged(this);
+    }
+
     @Override
     public Filter getTransportFilter() {
         return transportFilter;
@@ -51,6 +51,7 @@ import org.glassfish.grizzly.nio.NIOTransport;
  */
 public class UDPNIOTransportBuilder extends NIOTransportBuilder<UDPNIOTransportBuilder> {
 
+    protected int readBatchSize = UDPNIOTransport.DEFAULT_READ_BATCH_SIZE;
 
     // ------------------------------------------------------------ Constructors
 
@@ -67,12 +68,31 @@ public class UDPNIOTransportBuilder extends NIOTransportBuilder<UDPNIOTransportB
     }
 
 
+    /**
+     * @see UDPNIOTransport#getReadBatchSize()
+     */
+    public int getReadBatchSize() {
+        return readBatchSize;
+    }
+
+    /**
+     * @see UDPNIOTransport#setReadBatchSize(int)
+     *
+     * @return this <code>UDPNIOTransportBuilder</code>
+     */
+    public UDPNIOTransportBuilder setReadBatchSize(int readBatchSize) {
+        this.readBatchSize = readBatchSize;
+        return getThis();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public UDPNIOTransport build() {
-        return (UDPNIOTransport) super.build();
+        final UDPNIOTransport transport = (UDPNIOTransport) super.build();
+        transport.setReadBatchSize(readBatchSize);
+        return transport;
     }
 
 
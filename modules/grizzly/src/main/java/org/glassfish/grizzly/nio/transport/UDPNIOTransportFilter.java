@@ -44,6 +44,7 @@ import java.io.IOException;
 import java.net.SocketAddress;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Filter;
+import org.glassfish.grizzly.Appendable;
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.CompletionHandler;
 import org.glassfish.grizzly.Connection;
@@ -77,7 +78,13 @@ public final class UDPNIOTransportFilter extends BaseFilter {
         final UDPNIOConnection connection = (UDPNIOConnection) ctx.getConnection();
         final boolean isBlocking = ctx.getTransportContext().isBlocking();
 
-        final Buffer inBuffer = ctx.getMessage();
+        final Object message = ctx.getMessage();
+        // not null, if the FilterChain reruns the filter to read the next
+        // datagram of the batch
+        final ReadBatch batch = message instanceof ReadBatch
+                ? (ReadBatch) message
+                : null;
+        final Buffer inBuffer = batch == null ? (Buffer) message : null;
 
         final ReadResult<Buffer, SocketAddress> readResult;
 
@@ -122,6 +129,20 @@ public final class UDPNIOTransportFilter extends BaseFilter {
             return ctx.getStopAction();
         }
 
+        if (!isBlocking && inBuffer == null) {
+            final int remaining = batch != null
+                    ? batch.remaining - 1
+                    : transport.getReadBatchSize() - 1;
+            
+            if (remaining > 0) {
+                // the FilterChain will rerun this filter with the batch as
+                // the message once the datagram is processed
+                final ReadBatch nextBatch = batch != null ? batch : new ReadBatch();
+                nextBatch.remaining = remaining;
+                return ctx.getInvokeAction(nextBatch);
+            }
+        }
+        
         return ctx.getInvokeAction();
     }
 
@@ -183,4 +204,17 @@ public final class UDPNIOTransportFilter extends BaseFilter {
             connection.closeSilently();
         }
     }
+
+    /**
+     * The number of datagrams, which still could be read within the current
+     * read readiness event.
+     */
+    private static final class ReadBatch implements Appendable<ReadBatch> {
+        private int remaining;
+
+        @Override
+        public ReadBatch append(final ReadBatch element) {
+            return this;
+        }
+    }
 }
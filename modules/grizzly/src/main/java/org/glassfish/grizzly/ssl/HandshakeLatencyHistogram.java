@@ -0,0 +1,226 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.ssl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.glassfish.grizzly.Connection;
+
+/**
+ * {@link SSLProbe}, which collects SSL handshake latencies into a histogram
+ * with power-of-two microsecond buckets.
+ * 
+ * The bucket <tt>0</tt> counts handshakes completed in less than
+ * <tt>1</tt> microsecond, the bucket <tt>i</tt> counts handshakes completed
+ * within <tt>[2<sup>i-1</sup>, 2<sup>i</sup>)</tt> microseconds, the last
+ * bucket counts all the slower handshakes.
+ * 
+ * The histogram also tracks the time {@link javax.net.ssl.SSLEngine} delegated
+ * tasks were waiting for the executor configured via
+ * {@link SSLBaseFilter#setDelegatedTaskExecutor(java.util.concurrent.Executor)}.
+ * 
+ * @since 3.0
+ */
+public class HandshakeLatencyHistogram extends SSLProbe.Adapter {
+    /**
+     * The number of histogram buckets, the last bucket covers latencies
+     * starting from ~17 minutes.
+     */
+    public static final int BUCKETS_COUNT = 32;
+    
+    private final AtomicLongArray handshakeBuckets =
+            new AtomicLongArray(BUCKETS_COUNT);
+    private final AtomicLongArray delegatedTaskWaitBuckets =
+            new AtomicLongArray(BUCKETS_COUNT);
+    
+    private final AtomicLong failedCount = new AtomicLong();
+    
+    // ---------------------------------------------------- Methods from SSLProbe
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onHandshakeCompleteEvent(final Connection connection,
+            final long latencyNanos) {
+        handshakeBuckets.incrementAndGet(bucketIndex(latencyNanos));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onHandshakeFailedEvent(final Connection connection,
+            final Throwable error) {
+        failedCount.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onDelegatedTasksEvent(final Connection connection,
+            final long waitNanos, final long executionNanos) {
+        delegatedTaskWaitBuckets.incrementAndGet(bucketIndex(waitNanos));
+    }
+
+    // ---------------------------------------------------------- Public Methods
+
+    /**
+     * @return the number of completed handshakes.
+     */
+    public long getCount() {
+        return sum(handshakeBuckets);
+    }
+    
+    /**
+     * @return the number of failed handshakes.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+    
+    /**
+     * @return the snapshot of the completed handshake counts per bucket.
+     */
+    public long[] getBuckets() {
+        return snapshot(handshakeBuckets);
+    }
+
+    /**
+     * @return the snapshot of the delegated tasks executor wait time counts
+     *         per bucket.
+     */
+    public long[] getDelegatedTaskWaitBuckets() {
+        return snapshot(delegatedTaskWaitBuckets);
+    }
+    
+    /**
+     * Returns the upper bound of the latency, which is greater or equal to the
+     * latency of the given percent of the completed handshakes.
+     * 
+     * @param percentile the percentile in range <tt>(0, 100]</tt>
+     * @param timeUnit the result {@link TimeUnit}
+     * @return the latency upper bound, or <tt>-1</tt> if no handshakes
+     *         were completed
+     */
+    public long getPercentile(final double percentile,
+            final TimeUnit timeUnit) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile has to be in range (0, 100]");
+        }
+        
+        final long[] buckets = getBuckets();
+        long count = 0;
+        for (long bucket : buckets) {
+            count += bucket;
+        }
+        
+        if (count == 0) {
+            return -1;
+        }
+        
+        final long threshold = (long) Math.ceil(count * percentile / 100);
+        long accumulated = 0;
+        int i = 0;
+        for (; i < BUCKETS_COUNT - 1; i++) {
+            accumulated += buckets[i];
+            if (accumulated >= threshold) {
+                break;
+            }
+        }
+        
+        return timeUnit.convert(getBucketUpperBound(i), TimeUnit.MICROSECONDS);
+    }
+    
+    /**
+     * @param bucketIndex the bucket index
+     * @return the exclusive latency upper bound of the bucket in microseconds.
+     */
+    public static long getBucketUpperBound(final int bucketIndex) {
+        return bucketIndex < BUCKETS_COUNT - 1
+                ? 1L << bucketIndex
+                : Long.MAX_VALUE;
+    }
+    
+    /**
+     * Resets the collected statistics.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS_COUNT; i++) {
+            handshakeBuckets.set(i, 0);
+            delegatedTaskWaitBuckets.set(i, 0);
+        }
+        
+        failedCount.set(0);
+    }
+    
+    // --------------------------------------------------------- Private Methods
+
+    private static int bucketIndex(final long nanos) {
+        final long micros = nanos / 1000;
+        if (micros <= 0) {
+            return 0;
+        }
+        
+        return Math.min(64 - Long.numberOfLeadingZeros(micros),
+                BUCKETS_COUNT - 1);
+    }
+    
+    private static long sum(final AtomicLongArray array) {
+        long sum = 0;
+        for (int i = 0; i < array.length(); i++) {
+            sum += array.get(i);
+        }
+        
+        return sum;
+    }
+    
+    private static long[] snapshot(final AtomicLongArray array) {
+        final long[] result = new long[array.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = array.get(i);
+        }
+        
+        return result;
+    }
+}
@@ -48,7 +48,9 @@ import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Filter;
 import java.util.logging.Level;
@@ -84,6 +86,9 @@ import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.monitoring.DefaultMonitoringConfig;
+import org.glassfish.grizzly.monitoring.MonitoringAware;
+import org.glassfish.grizzly.monitoring.MonitoringConfig;
 import org.glassfish.grizzly.ssl.SSLConnectionContext.Allocator;
 import org.glassfish.grizzly.ssl.SSLConnectionContext.SslResult;
 import org.glassfish.grizzly.utils.Futures;
@@ -95,7 +100,8 @@ import static org.glassfish.grizzly.ssl.SSLUtils.*;
  *
  * @author Alexey Stashok
  */
-public class SSLBaseFilter extends BaseFilter {
+public class SSLBaseFilter extends BaseFilter
+        implements MonitoringAware<SSLProbe> {
     private static final Logger LOGGER = Grizzly.logger(SSLBaseFilter.class);
     protected static final MessageCloner<Buffer> COPY_CLONER = new OnWriteCopyCloner();
 
@@ -112,13 +118,21 @@ public class SSLBaseFilter extends BaseFilter {
         }
     };
     
-    private static final Allocator OUTPUT_BUFFER_ALLOCATOR =
+    static final Allocator OUTPUT_BUFFER_ALLOCATOR =
             new Allocator() {
         @Override
         public Buffer grow(final SSLConnectionContext sslCtx,
             final Buffer oldBuffer, final int newSize) {
             
-            return allocateOutputBuffer(newSize);
+            final Buffer newBuffer = allocateOutputBuffer(newSize);
+            if (oldBuffer != null) {
+                // keep the records, which have already been wrapped
+                oldBuffer.flip();
+                newBuffer.put(oldBuffer);
+                oldBuffer.dispose();
+            }
+            
+            return newBuffer;
         }
     };
     
@@ -130,9 +144,17 @@ public class SSLBaseFilter extends BaseFilter {
             Collections.newSetFromMap(new ConcurrentHashMap<>(2));
     
     private long handshakeTimeoutMillis = -1;
+    
+    private volatile Executor delegatedTaskExecutor;
         
     private SSLTransportFilterWrapper optimizedTransportFilter;
     
+    /**
+     * SSL handshake probes
+     */
+    protected final DefaultMonitoringConfig<SSLProbe> monitoringConfig =
+            new DefaultMonitoringConfig<SSLProbe>(SSLProbe.class);
+    
     // ------------------------------------------------------------ Constructors
 
 
@@ -242,6 +264,50 @@ public class SSLBaseFilter extends BaseFilter {
         this.renegotiationDisabled = renegotiationDisabled;
     }
 
+    /**
+     * @return the {@link Executor} to run {@link SSLEngine} delegated tasks on,
+     *         or <tt>null</tt> if the tasks are executed by the thread, which
+     *         processes the handshake (default).
+     * 
+     * @since 3.0
+     */
+    public Executor getDelegatedTaskExecutor() {
+        return delegatedTaskExecutor;
+    }
+
+    /**
+     * Sets the {@link Executor} to run {@link SSLEngine} delegated tasks on
+     * during non-blocking handshakes.
+     * The delegated tasks (for example key exchange computations) are usually
+     * the most expensive part of a handshake, so running them on a separate
+     * {@link Executor} frees the thread, which processes the handshake (for
+     * example the selector thread in case of
+     * {@link org.glassfish.grizzly.strategies.SameThreadIOStrategy}), to serve
+     * other {@link Connection}s. The handshake processing is suspended
+     * and gets resumed once the tasks are completed.
+     * 
+     * If the {@link Executor} rejects the tasks, they are executed by the
+     * current thread.
+     * 
+     * @param delegatedTaskExecutor the {@link Executor}, or <tt>null</tt> to
+     *        execute the tasks by the thread, which processes the handshake.
+     * 
+     * @since 3.0
+     */
+    public void setDelegatedTaskExecutor(final Executor delegatedTaskExecutor) {
+        this.delegatedTaskExecutor = delegatedTaskExecutor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @since 3.0
+     */
+    @Override
+    public MonitoringConfig<SSLProbe> getMonitoringConfig() {
+        return monitoringConfig;
+    }
+
     protected SSLTransportFilterWrapper getOptimizedTransportFilter(
             final TransportFilter childFilter) {
         if (optimizedTransportFilter == null ||
@@ -324,16 +390,26 @@ public class SSLBaseFilter extends BaseFilter {
             }
 
             final Buffer buffer;
-            buffer = ((handshakeTimeoutMillis >= 0)
-                         ? doHandshakeSync(sslCtx,
-                                           ctx,
-                                           (Buffer) ctx.getMessage(),
-                                           handshakeTimeoutMillis)
-                         : makeInputRemainder(sslCtx,
-                                              ctx,
-                                              doHandshakeStep(sslCtx,
-                                                              ctx,
-                                                              (Buffer) ctx.getMessage())));
+            if (handshakeTimeoutMillis >= 0) {
+                buffer = doHandshakeSync(sslCtx,
+                                         ctx,
+                                         (Buffer) ctx.getMessage(),
+                                         handshakeTimeoutMillis);
+            } else {
+                final Executor executor = delegatedTaskExecutor;
+                buffer = makeInputRemainder(sslCtx,
+                                            ctx,
+                                            doHandshakeStep(sslCtx,
+                                                            ctx,
+                                                            (Buffer) ctx.getMessage(),
+                                                            null,
+                                                            executor != null));
+                
+                if (executor != null &&
+                        sslEngine.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+                    return executeDelegatedTasks(ctx, sslCtx, buffer, executor);
+                }
+            }
         
             final boolean hasRemaining = buffer != null && buffer.hasRemaining();
             
@@ -407,7 +483,12 @@ public class SSLBaseFilter extends BaseFilter {
             final SSLConnectionContext sslCtx) throws SSLException {
         Buffer input = ctx.getMessage();
         
-        Buffer output = null;
+        // allocate the output for all the complete records at once,
+        // so it doesn't get reallocated (copied) record by record
+        final int recordsSize = getSSLRecordsSize(input);
+        Buffer output = recordsSize > 0
+                ? MM_ALLOCATOR.grow(sslCtx, null, recordsSize)
+                : null;
         
         boolean isClosed = false;
         
@@ -467,6 +548,8 @@ public class SSLBaseFilter extends BaseFilter {
                 ctx.setMessage(output);
                 return ctx.getInvokeAction(makeInputRemainder(sslCtx, ctx, input));
             }
+            
+            output.dispose();
         }
 
         return ctx.getStopAction(makeInputRemainder(sslCtx, ctx, input));
@@ -627,6 +710,33 @@ public class SSLBaseFilter extends BaseFilter {
                                      Buffer inputBuffer,
                                      final Buffer tmpAppBuffer0)
             throws IOException {
+        return doHandshakeStep(sslCtx, ctx, inputBuffer, tmpAppBuffer0, false);
+    }
+    
+    /**
+     * Performs SSL handshake steps, until the handshake is completed or more
+     * input data is required.
+     * 
+     * @param sslCtx the {@link SSLConnectionContext}
+     * @param ctx the {@link FilterChainContext}
+     * @param inputBuffer the handshake input data
+     * @param tmpAppBuffer0 the temporary application {@link Buffer}, or <tt>null</tt>
+     * @param stopOnDelegatedTask if <tt>true</tt> - the method returns as soon
+     *          as the {@link SSLEngine} requires delegated tasks to be executed,
+     *          leaving the {@link SSLEngine} in the
+     *          {@link HandshakeStatus#NEED_TASK} state, otherwise the tasks
+     *          are executed by the current thread
+     * @return the input data remainder
+     * @throws IOException
+     * 
+     * @since 3.0
+     */
+    protected Buffer doHandshakeStep(final SSLConnectionContext sslCtx,
+                                     final FilterChainContext ctx,
+                                     Buffer inputBuffer,
+                                     final Buffer tmpAppBuffer0,
+                                     final boolean stopOnDelegatedTask)
+            throws IOException {
 
         final SSLEngine sslEngine = sslCtx.getSslEngine();
         final Connection connection = ctx.getConnection();
@@ -705,7 +815,12 @@ public class SSLBaseFilter extends BaseFilter {
                         if (isLoggingFinest) {
                             LOGGER.log(Level.FINEST, "NEED_TASK Engine: {0}", sslEngine);
                         }
-                        executeDelegatedTask(sslEngine);
+                        
+                        if (stopOnDelegatedTask) {
+                            break _exitWhile;
+                        }
+                        
+                        executeDelegatedTasks(connection, sslEngine);
                         handshakeStatus = sslEngine.getHandshakeStatus();
                         break;
                     }
@@ -814,6 +929,48 @@ public class SSLBaseFilter extends BaseFilter {
         }
     }
 
+    /**
+     * Suspends the handshake processing and runs {@link SSLEngine} delegated
+     * tasks on the passed {@link Executor}. The processing is resumed once
+     * the tasks are completed.
+     */
+    private NextAction executeDelegatedTasks(final FilterChainContext ctx,
+            final SSLConnectionContext sslCtx, final Buffer inputBuffer,
+            final Executor executor) {
+        final NextAction suspendAction = ctx.getSuspendAction();
+        ctx.setMessage(inputBuffer);
+        ctx.suspend();
+        
+        final DelegatedTasksRunner runner =
+                new DelegatedTasksRunner(ctx, sslCtx.getSslEngine());
+        try {
+            executor.execute(runner);
+        } catch (RejectedExecutionException e) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "SSLEngine delegated tasks were rejected"
+                        + " by the executor, running them in the current thread."
+                        + " Connection={0}", ctx.getConnection());
+            }
+            
+            runner.run();
+        }
+        
+        return suspendAction;
+    }
+    
+    private void executeDelegatedTasks(final Connection connection,
+            final SSLEngine sslEngine) {
+        if (!monitoringConfig.hasProbes()) {
+            executeDelegatedTask(sslEngine);
+            return;
+        }
+        
+        final long start = System.nanoTime();
+        executeDelegatedTask(sslEngine);
+        ProbeNotifier.notifyDelegatedTasks(monitoringConfig, connection, 0,
+                System.nanoTime() - start);
+    }
+    
     private Buffer silentRehandshake(final FilterChainContext context,
             final SSLConnectionContext sslCtx) throws SSLException {
         try {
@@ -1006,6 +1163,12 @@ public class SSLBaseFilter extends BaseFilter {
     }
 
     protected void notifyHandshakeStart(final Connection connection) {
+        if (monitoringConfig.hasProbes()) {
+            obtainSslConnectionContext(connection).setHandshakeStartNanos(
+                    System.nanoTime());
+            ProbeNotifier.notifyHandshakeStart(monitoringConfig, connection);
+        }
+        
         if (!handshakeListeners.isEmpty()) {
             for (final HandshakeListener listener : handshakeListeners) {
                 listener.onStart(connection);
@@ -1016,6 +1179,17 @@ public class SSLBaseFilter extends BaseFilter {
     protected void notifyHandshakeComplete(final Connection<?> connection,
                                           final SSLEngine sslEngine) {
 
+        if (monitoringConfig.hasProbes()) {
+            final SSLConnectionContext sslCtx =
+                    obtainSslConnectionContext(connection);
+            final long start = sslCtx.getHandshakeStartNanos();
+            if (start != 0) {
+                sslCtx.setHandshakeStartNanos(0);
+                ProbeNotifier.notifyHandshakeComplete(monitoringConfig,
+                        connection, System.nanoTime() - start);
+            }
+        }
+        
         if (!handshakeListeners.isEmpty()) {
             for (final HandshakeListener listener : handshakeListeners) {
                 listener.onComplete(connection);
@@ -1025,6 +1199,11 @@ public class SSLBaseFilter extends BaseFilter {
 
     protected void notifyHandshakeFailed(final Connection connection,
             final Throwable t) {
+        if (monitoringConfig.hasProbes()) {
+            obtainSslConnectionContext(connection).setHandshakeStartNanos(0);
+            ProbeNotifier.notifyHandshakeFailed(monitoringConfig, connection, t);
+        }
+        
         if (!handshakeListeners.isEmpty()) {
             for (final HandshakeListener listener : handshakeListeners) {
                 listener.onFailure(connection, t);
@@ -1086,6 +1265,61 @@ public class SSLBaseFilter extends BaseFilter {
 
     } // END CertificateEvent
 
+    /**
+     * Runs {@link SSLEngine} delegated tasks and resumes the suspended
+     * handshake processing.
+     */
+    private final class DelegatedTasksRunner implements Runnable {
+        private final FilterChainContext ctx;
+        private final SSLEngine sslEngine;
+        private final long submitTime = System.nanoTime();
+
+        private DelegatedTasksRunner(final FilterChainContext ctx,
+                final SSLEngine sslEngine) {
+            this.ctx = ctx;
+            this.sslEngine = sslEngine;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final long start = System.nanoTime();
+                
+                // if a task fails - SSLEngine rethrows the error on the next
+                // wrap/unwrap, so the resumed handshake step will fail
+                executeDelegatedTask(sslEngine);
+                
+                if (monitoringConfig.hasProbes()) {
+                    ProbeNotifier.notifyDelegatedTasks(monitoringConfig,
+                            ctx.getConnection(), start - submitTime,
+                            System.nanoTime() - start);
+                }
+            } catch (Throwable t) {
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.log(Level.FINE, "SSLEngine delegated task error", t);
+                }
+            }
+            
+            if (sslEngine.getHandshakeStatus() != HandshakeStatus.NEED_TASK) {
+                ctx.resume();
+            } else {
+                // the handshake can't make progress, resuming it would
+                // offload the (missing) tasks again
+                final SSLException error = new SSLException(
+                        "SSLEngine delegated tasks didn't complete the handshake step");
+                final Connection connection = ctx.getConnection();
+                final Buffer input = ctx.getMessage();
+                if (input != null) {
+                    input.tryDispose();
+                }
+                
+                notifyHandshakeFailed(connection, error);
+                connection.closeWithReason(error);
+                ctx.resume(ctx.getStopAction());
+            }
+        }
+    } // END DelegatedTasksRunner
+    
     private static class InternalProcessingHandler extends Adapter {
         private final FilterChainContext parentContext;
 
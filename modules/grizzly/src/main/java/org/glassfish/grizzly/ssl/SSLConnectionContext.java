@@ -81,6 +81,17 @@ public final class SSLConnectionContext {
         BUFFER_SIZE_COEF = coeff;
     }
     
+    /**
+     * The max number of TLS records wrapped into one network {@link Buffer},
+     * bigger messages are wrapped into a composite of such buffers.
+     */
+    private static final int MAX_RECORDS_PER_OUTPUT_BUFFER = 4;
+    
+    /**
+     * The max SSL/TLS record plain text size (2^14).
+     */
+    private static final int MAX_RECORD_PLAINTEXT_SIZE = 16384;
+    
     final ByteBufferArray outputByteBufferArray =
             ByteBufferArray.create();
     
@@ -99,6 +110,8 @@ public final class SSLConnectionContext {
     
     private final Connection connection;
     private FilterChain newConnectionFilterChain;
+    
+    private long handshakeStartNanos;
 
     public SSLConnectionContext(Connection connection) {
         this.connection = connection;
@@ -125,6 +138,14 @@ public final class SSLConnectionContext {
     public boolean isServerMode() {
         return isServerMode;
     }
+
+    long getHandshakeStartNanos() {
+        return handshakeStartNanos;
+    }
+
+    void setHandshakeStartNanos(final long handshakeStartNanos) {
+        this.handshakeStartNanos = handshakeStartNanos;
+    }
     
     void updateBufferSizes() {
         final SSLSession session = sslEngine.getSession();
@@ -173,8 +194,11 @@ public final class SSLConnectionContext {
 
     SslResult unwrap(int len, final Buffer input, Buffer output,
             final Allocator allocator) {
-            
-        output = ensureBufferSize(output, appBufferSize, allocator);
+        
+        // the plain text is never bigger than the record, if SSLEngine
+        // still wants more space - it reports BUFFER_OVERFLOW and we grow
+        // the output to the application buffer size below
+        output = ensureRemaining(output, len, allocator);
 
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE, "unwrap engine: {0} input: {1} output: {2}",
@@ -184,10 +208,19 @@ public final class SSLConnectionContext {
         final int inPos = input.position();
         final int outPos = output.position();
         
-        final ByteBuffer inputByteBuffer =
-                input.toByteBuffer(input.position(), input.position() + len);
+        // SSLEngine unwraps from one ByteBuffer, so the record spanning
+        // several composite buffer chunks has to be gathered, use
+        // the thread-local cached buffer for that instead of a new allocation
+        final Buffer recordBuffer = isSpanningChunks(input, inPos, len)
+                ? gatherRecord(input, inPos, len)
+                : null;
+        
+        final ByteBuffer inputByteBuffer = recordBuffer == null
+                ? input.toByteBuffer(inPos, inPos + len)
+                : recordBuffer.toByteBuffer();
         final int initPosition = inputByteBuffer.position();
         final SSLEngineResult sslEngineResult;
+        int inputConsumed;
         
         try {
             if (!output.isComposite()) {
@@ -209,6 +242,11 @@ public final class SSLConnectionContext {
             }
         } catch (SSLException e) {
             return new SslResult(output, e);
+        } finally {
+            inputConsumed = inputByteBuffer.position() - initPosition;
+            if (recordBuffer != null) {
+                recordBuffer.dispose();
+            }
         }
         
         final Status status = sslEngineResult.getStatus();
@@ -222,7 +260,7 @@ public final class SSLConnectionContext {
             return new SslResult(output, new SSLException("SSL unwrap error: " + status));
         }
         
-        input.position(inPos + inputByteBuffer.position() - initPosition); // GRIZZLY-1827 input.position(inPos + sslEngineResult.bytesConsumed());
+        input.position(inPos + inputConsumed); // GRIZZLY-1827 input.position(inPos + sslEngineResult.bytesConsumed());
         output.position(outPos + sslEngineResult.bytesProduced());
 
         if (LOGGER.isLoggable(Level.FINE)) {
@@ -243,35 +281,41 @@ public final class SSLConnectionContext {
         final int inputArraySize = bba.size();
         
         Buffer output = null;
+        Buffer recordsBuffer = null;
         SslResult result = null;
         try {
-            result = wrap(input, inputArray, inputArraySize, null, allocator);
-            
-            if (result.isError()) {
-                throw result.getError();
-            }
-            
-            output = result.getOutput();
-            output.trim();
-            
-            if (input.hasRemaining()) {
-                do {
-                    result = wrap(input, inputArray, inputArraySize,
-                            null, allocator);
-                    
-                    if (result.isError()) {
-                        throw result.getError();
-                    }
-                    
-                    final Buffer newOutput = result.getOutput();
-                    newOutput.trim();
-                    
+            do {
+                if (recordsBuffer != null
+                        && recordsBuffer.remaining() < netBufferSize) {
+                    // the network buffer is full
+                    recordsBuffer.trim();
                     output = Buffers.appendBuffers(memoryManager, output,
-                            newOutput);
-                } while (input.hasRemaining());
-            }
+                            recordsBuffer);
+                    recordsBuffer = null;
+                }
+                
+                if (recordsBuffer == null) {
+                    // allocate the network buffer for several records at once,
+                    // so they are sent as one Buffer
+                    final int records = Math.min(MAX_RECORDS_PER_OUTPUT_BUFFER,
+                            Math.max(1, (input.remaining() + MAX_RECORD_PLAINTEXT_SIZE - 1)
+                                    / MAX_RECORD_PLAINTEXT_SIZE));
+                    recordsBuffer = allocator.grow(this, null,
+                            records * netBufferSize);
+                }
+                
+                result = wrap(input, inputArray, inputArraySize,
+                        recordsBuffer, allocator);
+                recordsBuffer = result.getOutput();
+                
+                if (result.isError()) {
+                    throw result.getError();
+                }
+            } while (input.hasRemaining());
             
-            return output;
+            recordsBuffer.trim();
+            
+            return Buffers.appendBuffers(memoryManager, output, recordsBuffer);
         } finally {
             bba.restore();
             bba.reset();
@@ -290,7 +334,7 @@ public final class SSLConnectionContext {
             Buffer output,
             final Allocator allocator) {
             
-        output = ensureBufferSize(output, netBufferSize, allocator);
+        output = ensureRemaining(output, netBufferSize, allocator);
 
         if (LOGGER.isLoggable(Level.FINE)) {
             LOGGER.log(Level.FINE, "wrap engine: {0} input: {1} output: {2}",
@@ -406,8 +450,12 @@ public final class SSLConnectionContext {
     
     private Buffer ensureBufferSize(Buffer output,
             final int size, final Allocator allocator) {
-        final int sz = (int) ((float) size * BUFFER_SIZE_COEF);
-        
+        return ensureRemaining(output, (int) ((float) size * BUFFER_SIZE_COEF),
+                allocator);
+    }
+    
+    private Buffer ensureRemaining(Buffer output,
+            final int sz, final Allocator allocator) {
         if (output == null) {
             assert allocator != null;
             output = allocator.grow(this, null, sz);
@@ -419,6 +467,35 @@ public final class SSLConnectionContext {
         return output;
     }
     
+    /**
+     * @return <tt>true</tt> if the composite buffer's <tt>[position, position + len)</tt>
+     *         region is stored in more than one chunk.
+     */
+    private boolean isSpanningChunks(final Buffer input, final int position,
+            final int len) {
+        if (!input.isComposite()) {
+            return false;
+        }
+        
+        final ByteBufferArray bba = input.toByteBufferArray(
+                inputByteBufferArray, position, position + len);
+        try {
+            return bba.size() > 1;
+        } finally {
+            bba.restore();
+            bba.reset();
+        }
+    }
+    
+    private static Buffer gatherRecord(final Buffer input, final int position,
+            final int len) {
+        final Buffer recordBuffer = allocateOutputBuffer(len);
+        recordBuffer.put(input, position, len);
+        recordBuffer.flip();
+        
+        return recordBuffer;
+    }
+    
     interface Allocator {
         Buffer grow(final SSLConnectionContext sslCtx,
                     final Buffer oldBuffer, final int newSize);
@@ -326,10 +326,12 @@ public class SSLFilter extends SSLBaseFilter {
     protected Buffer doHandshakeStep(final SSLConnectionContext sslCtx,
                                      final FilterChainContext ctx,
                                      final Buffer inputBuffer,
-                                     final Buffer tmpAppBuffer0)
+                                     final Buffer tmpAppBuffer0,
+                                     final boolean stopOnDelegatedTask)
     throws IOException {
         try {
-            return super.doHandshakeStep(sslCtx, ctx, inputBuffer, tmpAppBuffer0);
+            return super.doHandshakeStep(sslCtx, ctx, inputBuffer,
+                    tmpAppBuffer0, stopOnDelegatedTask);
         } catch (IOException ioe) {
             SSLHandshakeContext context =
                     handshakeContextAttr.get(ctx.getConnection());
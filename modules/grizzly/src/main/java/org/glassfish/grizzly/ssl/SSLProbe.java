@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.ssl;
+
+import org.glassfish.grizzly.Connection;
+
+/**
+ * Monitoring probe providing callbacks that may be invoked by
+ * {@link SSLBaseFilter} during SSL handshakes.
+ *
+ * @since 3.0
+ */
+public interface SSLProbe {
+
+    /**
+     * Method will be called, when SSL handshake (or re-handshake) gets started.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     */
+    void onHandshakeStartEvent(Connection connection);
+
+    /**
+     * Method will be called, when SSL handshake gets completed.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param latencyNanos the time passed since the handshake start in nanoseconds.
+     */
+    void onHandshakeCompleteEvent(Connection connection, long latencyNanos);
+
+    /**
+     * Method will be called, when SSL handshake fails.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param error the handshake error.
+     */
+    void onHandshakeFailedEvent(Connection connection, Throwable error);
+
+    /**
+     * Method will be called, when {@link javax.net.ssl.SSLEngine} delegated
+     * tasks get executed.
+     *
+     * @param connection {@link Connection}, the event belongs to.
+     * @param waitNanos the time the tasks were waiting for the executor
+     *        in nanoseconds, <tt>0</tt> if the tasks were executed inline.
+     * @param executionNanos the tasks execution time in nanoseconds.
+     */
+    void onDelegatedTasksEvent(Connection connection, long waitNanos,
+            long executionNanos);
+
+
+    // ---------------------------------------------------------- Nested Classes
+
+
+    /**
+     * {@link SSLProbe} adapter that provides no-op implementations for
+     * all interface methods allowing easy extension by the developer.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    class Adapter implements SSLProbe {
+
+
+        // ------------------------------------------------- Methods from SSLProbe
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onHandshakeStartEvent(Connection connection) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onHandshakeCompleteEvent(Connection connection,
+                long latencyNanos) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onHandshakeFailedEvent(Connection connection,
+                Throwable error) {}
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void onDelegatedTasksEvent(Connection connection,
+                long waitNanos, long executionNanos) {}
+
+    } // END Adapter
+
+}
@@ -119,6 +119,7 @@ public final class SSLUtils {
     private static final byte CHANGE_CIPHER_SPECT_CONTENT_TYPE = 20;
     private static final byte APPLICATION_DATA_CONTENT_TYPE = 23;
     private static final int SSLV3_RECORD_HEADER_SIZE = 5; // SSLv3 record header
+    private static final int MAX_SSLV3_RECORD_LENGTH = 16384 + 2048; // 2^14 + 2048
     private static final int SSL20_HELLO_VERSION = 0x0002;
     private static final int MIN_VERSION = 0x0300;
     private static final int MAX_MAJOR_VERSION = 0x03;
@@ -263,6 +264,39 @@ public final class SSLUtils {
         return len;
     }
 
+    /**
+     * Returns the total size of the complete SSL/TLS records, which are
+     * available in the {@link Buffer} starting from its position.
+     * The first SSLv2, malformed or oversized record stops the counting.
+     * 
+     * @param buf the {@link Buffer} with SSL/TLS records
+     * @return the total size of the complete records
+     */
+    static int getSSLRecordsSize(final Buffer buf) {
+        final int start = buf.position();
+        final int limit = buf.limit();
+        
+        int pos = start;
+        while (limit - pos >= SSLV3_RECORD_HEADER_SIZE) {
+            final byte contentType = buf.get(pos);
+            if (contentType < CHANGE_CIPHER_SPECT_CONTENT_TYPE
+                    || contentType > APPLICATION_DATA_CONTENT_TYPE) {
+                break;
+            }
+            
+            final int len = ((buf.get(pos + 3) & 0xff) << 8)
+                    + (buf.get(pos + 4) & 0xff);
+            if (len > MAX_SSLV3_RECORD_LENGTH
+                    || limit - pos < len + SSLV3_RECORD_HEADER_SIZE) {
+                break;
+            }
+            
+            pos += len + SSLV3_RECORD_HEADER_SIZE;
+        }
+        
+        return pos - start;
+    }
+    
     /**
      * Complete handshakes operations.
      * @param sslEngine The SSLEngine used to manage the SSL operations.
@@ -73,7 +73,7 @@ public abstract class AbstractThreadPool extends AbstractExecutorService
     public static final int DEFAULT_MAX_THREAD_COUNT;
 
     // "Never stop the thread by timeout" value
-    private static final Long NEVER_TIMEOUT = Long.MAX_VALUE;
+    static final Long NEVER_TIMEOUT = Long.MAX_VALUE;
 
     static {
         int processorsBasedThreadCount =
@@ -143,7 +143,17 @@ public abstract class AbstractThreadPool extends AbstractExecutorService
 
         this.config = config;
         if (config.getInitialMonitoringConfig().hasProbes()) {
-            monitoringConfig.addProbes(config.getInitialMonitoringConfig().getProbes());
+            final ThreadPoolProbe[] probes =
+                    config.getInitialMonitoringConfig().getProbes();
+            for (ThreadPoolProbe probe : probes) {
+                if (probe instanceof AdaptiveThreadPoolSizer
+                        && !(this instanceof SyncThreadPool)) {
+                    throw new IllegalArgumentException(
+                            "AdaptiveThreadPoolSizer requires a SyncThreadPool, "
+                            + "the core pool size has to be less than the max pool size");
+                }
+            }
+            monitoringConfig.addProbes(probes);
         }
         
         if (config.getThreadFactory() == null) {
@@ -201,7 +211,7 @@ public abstract class AbstractThreadPool extends AbstractExecutorService
     /**
      * @return the number of allocated threads in the thread pool
      */
-    public final int getSize() {
+    public int getSize() {
         synchronized (stateLock) {
             return workers.size();
         }
@@ -351,6 +361,7 @@ public abstract class AbstractThreadPool extends AbstractExecutorService
         if (delayedQueue != null) {
             worker.transactionExpirationTime =
                     System.currentTimeMillis() + transactionTimeoutMillis;
+            delayedQueue.reschedule(worker);
         }
 
         final ClassLoader initial = config.getInitialClassLoader();
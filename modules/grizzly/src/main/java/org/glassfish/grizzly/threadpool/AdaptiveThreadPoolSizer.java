@@ -0,0 +1,328 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
+
+/**
+ * {@link ThreadPoolProbe}, which adjusts the maximum number of the
+ * {@link SyncThreadPool} threads at runtime to keep the task queueing delay
+ * close to the target value.
+ *
+ * Every sample interval the sizer estimates the average queueing delay
+ * using Little's law (the queue size divided by the dequeue rate). If the
+ * delay exceeds the target, the pool limit grows proportionally to the
+ * difference, unless the previous growth didn't improve the throughput,
+ * which means the pool is saturated by something other than the
+ * threads number (CPU, a downstream resource) and more threads would only
+ * add contention. If the delay is less than the half of the target, the
+ * limit is decreased by one thread. The limit stays within the core and max
+ * pool sizes configured when the sizer was attached.
+ *
+ * The sizer is attached as a thread pool probe, for example:
+ * <pre>
+ * config.setCorePoolSize(8).setMaxPoolSize(256);
+ * config.getInitialMonitoringConfig().addProbes(
+ *         new AdaptiveThreadPoolSizer(10, TimeUnit.MILLISECONDS));
+ * </pre>
+ * The core pool size has to be less than the max pool size, so
+ * {@link GrizzlyExecutorService} creates a resizable {@link SyncThreadPool},
+ * other thread pools fail to be created with the sizer in the initial
+ * monitoring config. A sizer added to such a pool at runtime is ignored.
+ * The sizer's decisions are logged with the {@link Level#FINE} level.
+ *
+ * @since 3.0
+ */
+public class AdaptiveThreadPoolSizer extends ThreadPoolProbe.Adapter {
+    private static final Logger LOGGER = Grizzly.logger(AdaptiveThreadPoolSizer.class);
+
+    public static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 100;
+
+    // the min relative throughput gain, which justifies the last pool growth
+    private static final double MIN_THROUGHPUT_GAIN = 0.05;
+
+    public enum Decision {
+        NONE, GROW, SHRINK, SATURATED
+    }
+
+    private final long targetQueueDelayNanos;
+    private final long sampleIntervalNanos;
+
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong dequeuedCount = new AtomicLong();
+    private final AtomicLong nextSampleTime = new AtomicLong();
+
+    // accessed by the sampling thread only
+    private long lastSampleTime;
+    private long lastDequeuedCount;
+    private double lastThroughput;
+    private int minPoolSize = -1;
+    private int maxPoolSize;
+    private boolean isUnsupported;
+
+    private volatile int poolSizeLimit = -1;
+    private volatile long queueDelayNanos;
+    private volatile double throughput;
+    private volatile Decision lastDecision = Decision.NONE;
+
+    /**
+     * Creates the sizer with the {@link #DEFAULT_SAMPLE_INTERVAL_MILLIS}
+     * sample interval.
+     *
+     * @param targetQueueDelay the target task queueing delay.
+     * @param unit the target delay {@link TimeUnit}.
+     */
+    public AdaptiveThreadPoolSizer(final long targetQueueDelay,
+            final TimeUnit unit) {
+        this(targetQueueDelay, unit, DEFAULT_SAMPLE_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param targetQueueDelay the target task queueing delay.
+     * @param unit the target delay {@link TimeUnit}.
+     * @param sampleInterval the interval the pool size is reevaluated.
+     * @param sampleIntervalUnit the sample interval {@link TimeUnit}.
+     */
+    public AdaptiveThreadPoolSizer(final long targetQueueDelay,
+            final TimeUnit unit, final long sampleInterval,
+            final TimeUnit sampleIntervalUnit) {
+        if (targetQueueDelay <= 0) {
+            throw new IllegalArgumentException("targetQueueDelay <= 0");
+        }
+
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("sampleInterval <= 0");
+        }
+
+        this.targetQueueDelayNanos = unit.toNanos(targetQueueDelay);
+        this.sampleIntervalNanos = sampleIntervalUnit.toNanos(sampleInterval);
+    }
+
+    /**
+     * @param unit the result {@link TimeUnit}.
+     * @return the target task queueing delay.
+     */
+    public long getTargetQueueDelay(final TimeUnit unit) {
+        return unit.convert(targetQueueDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit the result {@link TimeUnit}.
+     * @return the average task queueing delay measured during the last
+     *         sample interval.
+     */
+    public long getQueueDelay(final TimeUnit unit) {
+        return unit.convert(queueDelayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of tasks per second dequeued during the last sample
+     *         interval.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * @return the current pool size limit set by the sizer, or <tt>-1</tt>
+     *         if the sizer hasn't made any decision yet.
+     */
+    public int getPoolSizeLimit() {
+        return poolSizeLimit;
+    }
+
+    /**
+     * @return the last sizing {@link Decision}.
+     */
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    // ---------------------------------------- Methods from ThreadPoolProbe
+
+    @Override
+    public void onTaskQueueEvent(final AbstractThreadPool threadPool,
+            final Runnable task) {
+        queuedCount.incrementAndGet();
+        sampleIfNeeded(threadPool);
+    }
+
+    @Override
+    public void onTaskDequeueEvent(final AbstractThreadPool threadPool,
+            final Runnable task) {
+        dequeuedCount.incrementAndGet();
+        sampleIfNeeded(threadPool);
+    }
+
+    // --------------------------------------------------------- Private Methods
+
+    private void sampleIfNeeded(final AbstractThreadPool threadPool) {
+        final long now = System.nanoTime();
+        final long next = nextSampleTime.get();
+        if (now - next < 0
+                || !nextSampleTime.compareAndSet(next, now + sampleIntervalNanos)) {
+            return;
+        }
+
+        // the CAS lets one thread per interval in, the lock makes the
+        // sampling state visible to the next interval's thread
+        // the pool's lock mustn't be taken under the sizer's one: the producer
+        // calls the probe holding the pool's lock, the consumer doesn't,
+        // so the pool is queried and resized outside of the sizer's lock
+        final int poolSize = threadPool.getSize();
+        final int newLimit;
+        synchronized (this) {
+            newLimit = sample(threadPool, poolSize, now);
+        }
+
+        if (newLimit != -1) {
+            ((SyncThreadPool) threadPool).setMaxPoolSize(newLimit);
+        }
+    }
+
+    /**
+     * @return the new pool size limit to be applied, or <tt>-1</tt> if the
+     *         limit has to be kept.
+     */
+    private int sample(final AbstractThreadPool threadPool, final int poolSize,
+            final long now) {
+        if (isUnsupported) {
+            return -1;
+        }
+
+        if (!(threadPool instanceof SyncThreadPool)) {
+            isUnsupported = true;
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING,
+                        LogMessages.WARNING_GRIZZLY_THREADPOOL_ADAPTIVE_SIZING_UNSUPPORTED(
+                                threadPool.getConfig().getPoolName()));
+            }
+
+            return -1;
+        }
+
+        final ThreadPoolConfig config = threadPool.getConfig();
+
+        final long dequeued = dequeuedCount.get();
+
+        if (minPoolSize == -1) {
+            // start from the current pool size
+            minPoolSize = Math.max(config.getCorePoolSize(), 1);
+            maxPoolSize = config.getMaxPoolSize();
+            final int initialLimit = Math.min(
+                    Math.max(minPoolSize, poolSize), maxPoolSize);
+            poolSizeLimit = initialLimit;
+            lastSampleTime = now;
+            lastDequeuedCount = dequeued;
+            return initialLimit;
+        }
+
+        final long elapsed = now - lastSampleTime;
+        final long dequeuedInInterval = dequeued - lastDequeuedCount;
+        final long queueSize = Math.max(queuedCount.get() - dequeued, 0);
+
+        lastSampleTime = now;
+        lastDequeuedCount = dequeued;
+
+        final double currentThroughput = dequeuedInInterval * 1e9d / elapsed;
+        final long delay;
+        if (dequeuedInInterval > 0) {
+            delay = (long) ((double) queueSize * elapsed / dequeuedInInterval);
+        } else {
+            // nothing is dequeued, all the threads are blocked
+            delay = queueSize > 0 ? elapsed : 0;
+        }
+
+        queueDelayNanos = delay;
+        throughput = currentThroughput;
+
+        // the sizer's own limit, the pool config may not be updated yet
+        final int limit = poolSizeLimit;
+        int newLimit = limit;
+        Decision decision = Decision.NONE;
+
+        if (delay > targetQueueDelayNanos) {
+            if (lastDecision == Decision.GROW
+                    && currentThroughput <= lastThroughput * (1 + MIN_THROUGHPUT_GAIN)) {
+                decision = Decision.SATURATED;
+            } else if (limit < maxPoolSize) {
+                final double gradient = (double) targetQueueDelayNanos / delay;
+                final int step = Math.max(1, (int) (limit * (1 - gradient)));
+                newLimit = Math.min(limit + step, maxPoolSize);
+                decision = Decision.GROW;
+            }
+        } else if (delay < targetQueueDelayNanos / 2 && limit > minPoolSize) {
+            newLimit = limit - 1;
+            decision = Decision.SHRINK;
+        }
+
+        lastThroughput = currentThroughput;
+        lastDecision = decision;
+
+        if (newLimit != limit) {
+            poolSizeLimit = newLimit;
+
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE,
+                        "{0}: {1} the pool size limit {2} -> {3}, queueing delay {4}us, throughput {5} tasks/s",
+                        new Object[]{config.getPoolName(), decision, limit,
+                            newLimit, TimeUnit.NANOSECONDS.toMicros(delay),
+                            (long) currentThroughput});
+            }
+        } else if (decision == Decision.SATURATED && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE,
+                    "{0}: the pool size limit {1} is kept, the last growth didn't increase throughput {2} tasks/s, queueing delay {3}us",
+                    new Object[]{config.getPoolName(), limit,
+                        (long) currentThroughput,
+                        TimeUnit.NANOSECONDS.toMicros(delay)});
+        }
+
+        // the limit is (re)applied also if the resize made by the previous
+        // interval's thread has overtaken this one
+        return newLimit != config.getMaxPoolSize() ? newLimit : -1;
+    }
+}
@@ -47,6 +47,10 @@ import java.util.Queue;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.monitoring.MonitoringAware;
 import org.glassfish.grizzly.monitoring.MonitoringConfig;
 
@@ -57,6 +61,8 @@ import org.glassfish.grizzly.monitoring.MonitoringConfig;
 public class GrizzlyExecutorService extends AbstractExecutorService
         implements MonitoringAware<ThreadPoolProbe> {
 
+    private static final Logger LOGGER = Grizzly.logger(GrizzlyExecutorService.class);
+
     private final Object statelock = new Object();
     private volatile AbstractThreadPool pool;
     protected volatile ThreadPoolConfig config;
@@ -78,6 +84,23 @@ public class GrizzlyExecutorService extends AbstractExecutorService
         return new GrizzlyExecutorService(cfg);
     }
 
+    /**
+     * Creates the {@link GrizzlyExecutorService}, which runs each task in
+     * a new virtual thread, if the JVM supports virtual threads, otherwise
+     * the platform thread pool is created based on the passed
+     * {@link ThreadPoolConfig}.
+     *
+     * @param cfg {@link ThreadPoolConfig}
+     * @return {@link GrizzlyExecutorService}
+     *
+     * @see VirtualThreadPool
+     * @since 3.0
+     */
+    public static GrizzlyExecutorService createVirtualThreadInstance(
+            ThreadPoolConfig cfg) {
+        return new GrizzlyExecutorService(cfg.copy().setVirtualThreads(true));
+    }
+
     protected GrizzlyExecutorService(ThreadPoolConfig config) {
         setImpl(config);
     }
@@ -93,6 +116,26 @@ public class GrizzlyExecutorService extends AbstractExecutorService
             cfg.setMemoryManager(MemoryManager.DEFAULT_MEMORY_MANAGER);
         }
         
+        if (cfg.isVirtualThreads()) {
+            if (VirtualThreadPool.isSupported()) {
+                this.pool = new VirtualThreadPool(cfg);
+                this.config = cfg;
+                return;
+            }
+            
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING,
+                        LogMessages.WARNING_GRIZZLY_THREADPOOL_VIRTUAL_THREADS_UNSUPPORTED(
+                                cfg.getPoolName()));
+            }
+        }
+        
+        if (cfg.isWorkStealing()) {
+            this.pool = new WorkStealingThreadPool(cfg);
+            this.config = cfg;
+            return;
+        }
+
         final Queue<Runnable> queue = cfg.getQueue();
         if ((queue == null || queue instanceof BlockingQueue) &&
                 (cfg.getCorePoolSize() < 0 || cfg.getCorePoolSize() == cfg.getMaxPoolSize())) {
@@ -63,6 +63,8 @@ public class SyncThreadPool extends AbstractThreadPool {
     protected int maxQueuedTasks = -1;
     private int currentPoolSize;
     private int activeThreadsCount;
+    // the number of idle non-core workers waiting for a task
+    private int idleNonCoreThreadsCount;
     
     /**
      *
@@ -125,6 +127,47 @@ public class SyncThreadPool extends AbstractThreadPool {
         }
     }
 
+    /**
+     * Changes the maximum number of the pool threads at runtime.
+     * If the limit is increased, the threads are started right away to
+     * process the queued tasks, if the limit is decreased, the extra idle
+     * non-core threads exit.
+     *
+     * @param maxPoolSize the new maximum number of threads, which can't be
+     *        less than the core pool size.
+     *
+     * @since 3.0
+     */
+    public void setMaxPoolSize(final int maxPoolSize) {
+        synchronized (stateLock) {
+            validateNewPoolSize(Math.max(config.getCorePoolSize(), 1), maxPoolSize);
+
+            final int oldMaxPoolSize = config.getMaxPoolSize();
+            config.setMaxPoolSize(maxPoolSize);
+
+            if (!running) {
+                return;
+            }
+
+            if (maxPoolSize < oldMaxPoolSize) {
+                // wake up just the extra idle non-core workers, the busy
+                // ones exit, when they complete their current tasks
+                int toStop = Math.min(currentPoolSize - maxPoolSize,
+                        idleNonCoreThreadsCount);
+                while (toStop-- > 0) {
+                    stateLock.notify();
+                }
+                return;
+            }
+
+            int toStart = Math.min(maxPoolSize - currentPoolSize,
+                    workQueue.size() - (currentPoolSize - activeThreadsCount));
+            while (toStart-- > 0) {
+                startWorker(new SyncThreadWorker(false));
+            }
+        }
+    }
+
     @Override
     protected void startWorker(Worker worker) {
         synchronized (stateLock) {
@@ -139,7 +182,9 @@ public class SyncThreadPool extends AbstractThreadPool {
         super.onWorkerExit(worker);
         
         synchronized (stateLock) {
-            currentPoolSize--;
+            if (!((SyncThreadWorker) worker).isReleased) {
+                currentPoolSize--;
+            }
             activeThreadsCount--;
         }
     }
@@ -164,6 +209,8 @@ public class SyncThreadPool extends AbstractThreadPool {
     protected class SyncThreadWorker extends Worker {
 
         private final boolean core;
+        // true, if the worker has already been excluded from the pool size
+        private boolean isReleased;
 
         public SyncThreadWorker(boolean core) {
             this.core = core;
@@ -178,7 +225,7 @@ public class SyncThreadPool extends AbstractThreadPool {
                     if (!running
                             || (!core && currentPoolSize > config.getMaxPoolSize())) {
                         // if maxpoolsize becomes lower during runtime we kill of the
-                        return null;
+                        return release();
                     }
 
                     Runnable r = workQueue.poll();
@@ -196,10 +243,19 @@ public class SyncThreadPool extends AbstractThreadPool {
                     }
 
                     do {
-                        if (!hasKeepAlive) {
-                            stateLock.wait();
-                        } else {
-                            stateLock.wait(keepAliveMillis);
+                        if (!core) {
+                            idleNonCoreThreadsCount++;
+                        }
+                        try {
+                            if (!hasKeepAlive) {
+                                stateLock.wait();
+                            } else {
+                                stateLock.wait(keepAliveMillis);
+                            }
+                        } finally {
+                            if (!core) {
+                                idleNonCoreThreadsCount--;
+                            }
                         }
 
                         r = workQueue.poll();
@@ -208,14 +264,28 @@ public class SyncThreadPool extends AbstractThreadPool {
                             return r;
                         }
 
-                        // Less than 20 millis remainder will consider as keepalive timeout
                         if (!running) {
-                            return null;
-                        } else if (hasKeepAlive) {
+                            return release();
+                        }
+                        
+                        if (currentPoolSize > config.getMaxPoolSize()) {
+                            if (!core) {
+                                return release();
+                            }
+                            
+                            // the pool is shrinking, pass the wake up
+                            // on to an idle non-core worker
+                            if (idleNonCoreThreadsCount > 0) {
+                                stateLock.notify();
+                            }
+                        }
+                        
+                        // Less than 20 millis remainder will consider as keepalive timeout
+                        if (hasKeepAlive) {
                             keepAliveMillis = endTime - System.currentTimeMillis();
                             
                             if (keepAliveMillis < 20) {
-                                return null;
+                                return release();
                             }
                         }
                     } while (true);
@@ -225,5 +295,16 @@ public class SyncThreadPool extends AbstractThreadPool {
                 }
             }
         }
+
+        /**
+         * Excludes the worker from the pool size right away, under the
+         * <tt>stateLock</tt>, so the other workers, which check the pool
+         * size, don't exit as well.
+         */
+        private Runnable release() {
+            currentPoolSize--;
+            isReleased = true;
+            return null;
+        }
     }
 }
@@ -97,6 +97,8 @@ public final class ThreadPoolConfig {
     protected DelayedExecutor transactionMonitor;
     protected long transactionTimeoutMillis;
     protected ClassLoader initialClassLoader;
+    protected boolean isVirtualThreads;
+    protected boolean isWorkStealing;
 
     /**
      * Thread pool probes
@@ -155,6 +157,8 @@ public final class ThreadPoolConfig {
         this.keepAliveTimeMillis   = cfg.keepAliveTimeMillis;
         this.mm              = cfg.mm;
         this.initialClassLoader = cfg.initialClassLoader;
+        this.isVirtualThreads = cfg.isVirtualThreads;
+        this.isWorkStealing = cfg.isWorkStealing;
         
         this.threadPoolMonitoringConfig =
                 new DefaultMonitoringConfig<ThreadPoolProbe>(ThreadPoolProbe.class);
@@ -420,6 +424,68 @@ public final class ThreadPoolConfig {
         return this;
     }
 
+    /**
+     * @return <tt>true</tt>, if the pool has to run each task in a new
+     *         virtual thread, if the JVM supports them.
+     *
+     * @since 3.0
+     */
+    public boolean isVirtualThreads() {
+        return isVirtualThreads;
+    }
+
+    /**
+     * Specifies whether the pool has to run each task in a new virtual thread.
+     * If the JVM doesn't support virtual threads, the platform thread pool
+     * is created.
+     * The pool sizes, queue and thread factory settings are not considered
+     * by the virtual thread pool.
+     *
+     * @param isVirtualThreads <tt>true</tt>, if the pool has to run each task
+     *        in a new virtual thread.
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @see VirtualThreadPool
+     *
+     * @since 3.0
+     */
+    public ThreadPoolConfig setVirtualThreads(final boolean isVirtualThreads) {
+        this.isVirtualThreads = isVirtualThreads;
+        return this;
+    }
+
+    /**
+     * @return <tt>true</tt>, if the pool has to dispatch tasks to per-worker
+     *         queues and let idle workers steal tasks from busy ones.
+     *
+     * @since 3.0
+     */
+    public boolean isWorkStealing() {
+        return isWorkStealing;
+    }
+
+    /**
+     * Specifies whether the pool has to dispatch tasks to per-worker queues
+     * and let idle workers steal tasks from busy ones, instead of sharing
+     * one task queue between all the workers.
+     * The work-stealing pool runs <tt>maxPoolSize</tt> threads, the custom
+     * task queue, if any, is not considered.
+     *
+     * @param isWorkStealing <tt>true</tt>, if the pool has to use per-worker
+     *        task queues.
+     *
+     * @return the {@link ThreadPoolConfig}
+     *
+     * @see WorkStealingThreadPool
+     *
+     * @since 3.0
+     */
+    public ThreadPoolConfig setWorkStealing(final boolean isWorkStealing) {
+        this.isWorkStealing = isWorkStealing;
+        return this;
+    }
+
     @Override
     public String toString() {
         return ThreadPoolConfig.class.getSimpleName() + " :\r\n"
@@ -434,6 +500,8 @@ public final class ThreadPoolConfig {
                 + "  transactionTimeoutMillis: " + transactionTimeoutMillis + "\r\n"
                 + "  priority: " + priority + "\r\n"
                 + "  isDaemon: " + isDaemon + "\r\n"
-                + "  initialClassLoader: " + initialClassLoader;
+                + "  initialClassLoader: " + initialClassLoader + "\r\n"
+                + "  isVirtualThreads: " + isVirtualThreads + "\r\n"
+                + "  isWorkStealing: " + isWorkStealing;
     }
 }
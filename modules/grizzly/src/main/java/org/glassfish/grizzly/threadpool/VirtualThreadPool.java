@@ -0,0 +1,311 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.threadpool;
+
+import java.lang.reflect.Method;
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.glassfish.grizzly.Grizzly;
+
+/**
+ * The thread pool, which runs each task in a new virtual thread.
+ * 
+ * Virtual threads are detected at runtime, so the pool may be used only if
+ * {@link #isSupported()} returns <tt>true</tt>, which is the case on JDK 21+
+ * (or earlier JDKs with preview features enabled).
+ * 
+ * The pool doesn't have a task queue and doesn't limit the number of threads,
+ * so the {@link ThreadPoolConfig}'s pool sizes, queue and thread factory are
+ * ignored. The {@link ThreadPoolProbe} events are reported the same way as
+ * for the platform thread pools: a task is queued, when it's passed to
+ * {@link #execute(java.lang.Runnable)}, and dequeued, when its virtual
+ * thread starts. The thread allocated/released events are not reported,
+ * because virtual threads are not pooled.
+ * 
+ * The tasks are dispatched without any pool-wide lock, the pool's lock is
+ * taken only when the pool is shut down.
+ * 
+ * @see GrizzlyExecutorService#createVirtualThreadInstance(org.glassfish.grizzly.threadpool.ThreadPoolConfig)
+ */
+public class VirtualThreadPool extends AbstractThreadPool {
+    private static final Logger LOGGER = Grizzly.logger(VirtualThreadPool.class);
+    
+    private static final Method OF_VIRTUAL_METHOD;
+    private static final Method BUILDER_NAME_METHOD;
+    private static final Method BUILDER_FACTORY_METHOD;
+    private static final boolean IS_SUPPORTED;
+    
+    static {
+        Method ofVirtualMethod = null;
+        Method builderNameMethod = null;
+        Method builderFactoryMethod = null;
+        boolean isSupported = false;
+        
+        try {
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builderNameMethod = builderClass.getMethod("name", String.class, long.class);
+            builderFactoryMethod = builderClass.getMethod("factory");
+            
+            // throws UnsupportedOperationException, if virtual threads
+            // are preview feature, which is not enabled
+            ofVirtualMethod.invoke(null);
+            isSupported = true;
+        } catch (Throwable t) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "Virtual threads are not supported", t);
+            }
+        }
+        
+        OF_VIRTUAL_METHOD = ofVirtualMethod;
+        BUILDER_NAME_METHOD = builderNameMethod;
+        BUILDER_FACTORY_METHOD = builderFactoryMethod;
+        IS_SUPPORTED = isSupported;
+    }
+    
+    private final ThreadFactory virtualThreadFactory;
+    private final Queue<Runnable> queue = new ExecutingQueue();
+    // the workers, which virtual threads are running
+    private final Set<VirtualWorker> activeWorkers = Collections.newSetFromMap(
+            new ConcurrentHashMap<VirtualWorker, Boolean>());
+    
+    /**
+     * @return <tt>true</tt>, if the JVM supports virtual threads,
+     *         or <tt>false</tt> otherwise.
+     */
+    public static boolean isSupported() {
+        return IS_SUPPORTED;
+    }
+    
+    public VirtualThreadPool(final ThreadPoolConfig config) {
+        super(config);
+        
+        if (!IS_SUPPORTED) {
+            throw new UnsupportedOperationException(
+                    "Virtual threads are not supported");
+        }
+        
+        virtualThreadFactory = createVirtualThreadFactory(
+                config.getPoolName() + "-virtual-");
+        
+        ProbeNotifier.notifyThreadPoolStarted(this);
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+        
+        final VirtualWorker worker = new VirtualWorker(command);
+        worker.t = virtualThreadFactory.newThread(worker);
+        activeWorkers.add(worker);
+        
+        if (!running) {
+            // the pool was shut down concurrently and might miss the worker
+            removeWorker(worker);
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+        
+        onTaskQueued(command);
+        startWorker(worker);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> drained = super.shutdownNow();
+        for (VirtualWorker worker : activeWorkers) {
+            worker.t.interrupt();
+        }
+        
+        return drained;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !running && activeWorkers.isEmpty();
+    }
+
+    /**
+     * @return the number of running virtual threads.
+     */
+    @Override
+    public int getSize() {
+        return activeWorkers.size();
+    }
+
+    /**
+     * Returns the always empty {@link Queue}, tasks offered to the queue
+     * are executed right away, so the tasks are not lost when
+     * {@link GrizzlyExecutorService#reconfigure(org.glassfish.grizzly.threadpool.ThreadPoolConfig)}
+     * moves them from the previous thread pool.
+     * 
+     * @return the always empty {@link Queue}.
+     */
+    @Override
+    public Queue<Runnable> getQueue() {
+        return queue;
+    }
+
+    /**
+     * Starts the worker's virtual thread, the pool's lock must not be held.
+     */
+    @Override
+    protected void startWorker(final Worker worker) {
+        worker.t.start();
+    }
+
+    @Override
+    protected void onWorkerStarted(final Worker worker) {
+        if (delayedQueue != null) {
+            delayedQueue.add(worker, NEVER_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void onWorkerExit(final Worker worker) {
+        if (delayedQueue != null) {
+            delayedQueue.remove(worker);
+        }
+        
+        removeWorker((VirtualWorker) worker);
+    }
+
+    private void removeWorker(final VirtualWorker worker) {
+        activeWorkers.remove(worker);
+        
+        if (!running && activeWorkers.isEmpty()) {
+            synchronized (stateLock) {
+                // notify awaitTermination threads
+                stateLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    protected void poisonAll() {
+        // each virtual thread exits after its task is completed
+    }
+    
+    private ThreadFactory createVirtualThreadFactory(final String namePrefix) {
+        try {
+            final Object builder = BUILDER_NAME_METHOD.invoke(
+                    OF_VIRTUAL_METHOD.invoke(null), namePrefix, 1L);
+            final ThreadFactory factory =
+                    (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(builder);
+            
+            return new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = factory.newThread(r);
+                    thread.setUncaughtExceptionHandler(VirtualThreadPool.this);
+                    
+                    return thread;
+                }
+            };
+        } catch (Exception e) {
+            throw new IllegalStateException(
+                    "Can't create virtual thread factory", e);
+        }
+    }
+    
+    private final class VirtualWorker extends Worker {
+        private Runnable task;
+
+        private VirtualWorker(final Runnable task) {
+            this.task = task;
+        }
+        
+        @Override
+        protected Runnable getTask() {
+            final Runnable r = task;
+            task = null;
+            
+            return r;
+        }
+    }
+    
+    private final class ExecutingQueue extends AbstractQueue<Runnable> {
+
+        @Override
+        public boolean offer(final Runnable task) {
+            if (task != poison) {
+                execute(task);
+            }
+            
+            return true;
+        }
+
+        @Override
+        public Runnable poll() {
+            return null;
+        }
+
+        @Override
+        public Runnable peek() {
+            return null;
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            return Collections.<Runnable>emptyList().iterator();
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.threadpool;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed size thread pool, where each worker has its own task queue.
+ * A task is queued to the worker chosen by the task's affinity key
+ * (see {@link AffinityTask}), to the current worker, if the task is
+ * submitted from the pool's thread, or to a random worker otherwise, so
+ * submitting threads don't contend on a single queue head.
+ * Idle workers steal tasks from the queues of busy workers.
+ *
+ * The pool runs <tt>maxPoolSize</tt> threads and respects the configured
+ * queue limit; the custom task queue, if configured, is not used.
+ *
+ * @see ThreadPoolConfig#setWorkStealing(boolean)
+ *
+ * @since 3.0
+ */
+public class WorkStealingThreadPool extends AbstractThreadPool {
+
+    private final StealingWorker[] stealingWorkers;
+    private final Semaphore queuePermits;
+    private final AtomicInteger idleWorkersCount = new AtomicInteger();
+    private final AtomicInteger searchingWorkersCount = new AtomicInteger();
+    private final ThreadLocal<StealingWorker> currentWorker =
+            new ThreadLocal<StealingWorker>();
+    private final Queue<Runnable> queue = new WorkersQueue();
+
+    public WorkStealingThreadPool(final ThreadPoolConfig config) {
+        super(config);
+
+        queuePermits = config.getQueueLimit() >= 0
+                ? new Semaphore(config.getQueueLimit())
+                : null;
+
+        final int poolSize = config.getMaxPoolSize();
+        stealingWorkers = new StealingWorker[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            stealingWorkers[i] = new StealingWorker(i);
+        }
+
+        synchronized (stateLock) {
+            for (StealingWorker worker : stealingWorkers) {
+                startWorker(worker);
+            }
+        }
+
+        ProbeNotifier.notifyThreadPoolStarted(this);
+        super.onMaxNumberOfThreadsReached();
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        if (command == null) { // must nullcheck to ensure queuesize is valid
+            throw new IllegalArgumentException("Runnable task is null");
+        }
+
+        if (!running) {
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        if (queuePermits != null && !queuePermits.tryAcquire()) {
+            onTaskQueueOverflow();
+        }
+
+        final StealingWorker worker = selectWorker(command);
+        worker.tasks.offer(command);
+
+        // doublecheck the pool is still running
+        if (!running && worker.tasks.remove(command)) {
+            releasePermit();
+            throw new RejectedExecutionException("ThreadPool is not running");
+        }
+
+        onTaskQueued(command);
+
+        if (!worker.wakeUp(false)) {
+            wakeUpIdleWorker(worker.index);
+        }
+    }
+
+    /**
+     * Returns the {@link Queue} view of all the workers' task queues.
+     * Tasks offered to the queue are executed by the pool, so the tasks are
+     * not lost when
+     * {@link GrizzlyExecutorService#reconfigure(org.glassfish.grizzly.threadpool.ThreadPoolConfig)}
+     * moves them from the previous thread pool.
+     *
+     * @return the {@link Queue} view of all the workers' task queues.
+     */
+    @Override
+    public Queue<Runnable> getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return the number of tasks, which were executed by a worker other than
+     *         the one they were queued to.
+     */
+    public long getStolenTasksCount() {
+        long count = 0;
+        for (StealingWorker worker : stealingWorkers) {
+            count += worker.stolenTasksCount;
+        }
+
+        return count;
+    }
+
+    /**
+     * Must hold statelock while calling this method.
+     */
+    @Override
+    protected void poisonAll() {
+        // workers exit once the pool is stopped and no tasks are left
+        for (StealingWorker worker : stealingWorkers) {
+            worker.wakeUp(false);
+        }
+    }
+
+    @Override
+    protected void onWorkerStarted(final Worker worker) {
+        currentWorker.set((StealingWorker) worker);
+        super.onWorkerStarted(worker);
+    }
+
+    @Override
+    protected void onWorkerExit(final Worker worker) {
+        currentWorker.remove();
+        super.onWorkerExit(worker);
+    }
+
+    private StealingWorker selectWorker(final Runnable command) {
+        final StealingWorker[] ws = stealingWorkers;
+
+        if (command instanceof AffinityTask) {
+            final Object key = ((AffinityTask) command).getAffinityKey();
+            if (key != null) {
+                final int h = key.hashCode();
+                return ws[((h ^ (h >>> 16)) & 0x7fffffff) % ws.length];
+            }
+        }
+
+        final StealingWorker current = currentWorker.get();
+        if (current != null) {
+            return current;
+        }
+
+        return ws[ThreadLocalRandom.current().nextInt(ws.length)];
+    }
+
+    /**
+     * Wakes up an idle worker to steal the task queued to the busy one,
+     * unless there is a worker, which is already searching for a task.
+     */
+    private void wakeUpIdleWorker(final int from) {
+        if (idleWorkersCount.get() == 0 || searchingWorkersCount.get() > 0) {
+            return;
+        }
+
+        final StealingWorker[] ws = stealingWorkers;
+        for (int i = 1; i < ws.length; i++) {
+            if (ws[(from + i) % ws.length].wakeUp(true)) {
+                return;
+            }
+        }
+    }
+
+    private Runnable pollAny(final int from) {
+        final StealingWorker[] ws = stealingWorkers;
+        for (int i = 0; i < ws.length; i++) {
+            final Runnable task = ws[(from + i) % ws.length].tasks.poll();
+            if (task != null) {
+                releasePermit();
+                return task;
+            }
+        }
+
+        return null;
+    }
+
+    private void releasePermit() {
+        if (queuePermits != null) {
+            queuePermits.release();
+        }
+    }
+
+    /**
+     * The task, which has to be executed by the same worker as other tasks
+     * with the equal affinity key, unless the worker is busy and the task is
+     * stolen by an idle worker.
+     */
+    public interface AffinityTask extends Runnable {
+        /**
+         * @return the task affinity key, for example the
+         *         {@link org.glassfish.grizzly.Connection} the task is
+         *         processing, or <tt>null</tt> if the task has no affinity.
+         */
+        Object getAffinityKey();
+    }
+
+    private final class StealingWorker extends Worker {
+        private static final int RUNNING = 0;
+        private static final int PARKED = 1;
+        private static final int SEARCHING = 2;
+
+        private final int index;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        // updated by the worker thread only
+        private volatile long stolenTasksCount;
+
+        private StealingWorker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected Runnable getTask() throws InterruptedException {
+            while (true) {
+                final boolean isRunning = running;
+
+                Runnable task = nextTask();
+                final boolean wasSearching = stopSearching();
+
+                if (task != null) {
+                    if (wasSearching) {
+                        // more tasks may be waiting for busy workers
+                        wakeUpIdleWorker(index);
+                    }
+
+                    return task;
+                }
+
+                if (!isRunning) {
+                    return poison;
+                }
+
+                state.set(PARKED);
+                idleWorkersCount.incrementAndGet();
+
+                // recheck after being registered as idle, so the task
+                // queued concurrently or the pool shutdown is not missed
+                if (!running) {
+                    cancelPark();
+                    continue;
+                }
+
+                task = nextTask();
+                if (task != null) {
+                    cancelPark();
+                    stopSearching();
+                    return task;
+                }
+
+                while (state.get() == PARKED) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        cancelPark();
+                        stopSearching();
+                        throw new InterruptedException();
+                    }
+                }
+            }
+        }
+
+        private Runnable nextTask() {
+            Runnable task = tasks.poll();
+            if (task != null) {
+                releasePermit();
+                return task;
+            }
+
+            final StealingWorker[] ws = stealingWorkers;
+            for (int i = 1; i < ws.length; i++) {
+                task = ws[(index + i) % ws.length].tasks.poll();
+                if (task != null) {
+                    releasePermit();
+                    stolenTasksCount++;
+                    return task;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * @param isSearching <tt>true</tt>, if the worker is woken up to
+         *        steal a task from another worker.
+         * @return <tt>true</tt>, if the worker was parked and is woken up.
+         */
+        private boolean wakeUp(final boolean isSearching) {
+            if (state.compareAndSet(PARKED, isSearching ? SEARCHING : RUNNING)) {
+                idleWorkersCount.decrementAndGet();
+                if (isSearching) {
+                    searchingWorkersCount.incrementAndGet();
+                }
+
+                LockSupport.unpark(t);
+                return true;
+            }
+
+            return false;
+        }
+
+        private void cancelPark() {
+            if (state.compareAndSet(PARKED, RUNNING)) {
+                idleWorkersCount.decrementAndGet();
+            }
+        }
+
+        private boolean stopSearching() {
+            if (state.get() == SEARCHING
+                    && state.compareAndSet(SEARCHING, RUNNING)) {
+                searchingWorkersCount.decrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+    private final class WorkersQueue extends AbstractQueue<Runnable> {
+
+        @Override
+        public boolean offer(final Runnable task) {
+            if (task != poison) {
+                execute(task);
+            }
+
+            return true;
+        }
+
+        @Override
+        public Runnable poll() {
+            return pollAny(0);
+        }
+
+        @Override
+        public Runnable peek() {
+            for (StealingWorker worker : stealingWorkers) {
+                final Runnable task = worker.tasks.peek();
+                if (task != null) {
+                    return task;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            final List<Runnable> snapshot = new ArrayList<Runnable>();
+            for (StealingWorker worker : stealingWorkers) {
+                snapshot.addAll(worker.tasks);
+            }
+
+            return snapshot.iterator();
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (StealingWorker worker : stealingWorkers) {
+                size += worker.tasks.size();
+            }
+
+            return size;
+        }
+    }
+}
@@ -141,13 +141,13 @@ public class ActivityCheckFilter extends BaseFilter {
     
     @Override
     public NextAction handleRead(final FilterChainContext ctx) throws IOException {
-        IDLE_ATTR.get(ctx.getConnection()).timeoutMillis = System.currentTimeMillis() + timeoutMillis;
+        IDLE_ATTR.get(ctx.getConnection()).timeoutMillis = CoarseClock.currentTimeMillis() + timeoutMillis;
         return ctx.getInvokeAction();
     }
 
     @Override
     public NextAction handleWrite(final FilterChainContext ctx) throws IOException {
-        IDLE_ATTR.get(ctx.getConnection()).timeoutMillis = System.currentTimeMillis() + timeoutMillis;
+        IDLE_ATTR.get(ctx.getConnection()).timeoutMillis = CoarseClock.currentTimeMillis() + timeoutMillis;
         return ctx.getInvokeAction();
     }
 
@@ -0,0 +1,201 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Shared coarse-grained clock.
+ *
+ * A single daemon thread samples {@link System#currentTimeMillis()} once per
+ * tick (1 millisecond by default) and, once per second, pre-renders the
+ * current date in the RFC 1123 format used by the HTTP <tt>Date</tt> header.
+ * Readers get the published values without any system call or formatting.
+ *
+ * The published time may lag the system time by up to one tick, so the clock
+ * is meant for timestamps and timeouts, not for precise measurements.
+ * The ticker thread stops, if the clock hasn't been read for a minute, and
+ * is restarted by the next read.
+ *
+ * The tick duration might be changed using the
+ * {@code org.glassfish.grizzly.utils.CoarseClock.tickMillis}
+ * system property.
+ *
+ * @since 3.0
+ */
+public final class CoarseClock {
+    public static final String TICK_MILLIS_PROPERTY =
+            CoarseClock.class.getName() + ".tickMillis";
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Math.max(1, Long.getLong(TICK_MILLIS_PROPERTY, 1)));
+
+    private static final long MAX_IDLE_TICKS =
+            TimeUnit.MINUTES.toNanos(1) / TICK_NANOS;
+
+    private static final Object sync = new Object();
+
+    // accessed under sync only
+    private static final SimpleDateFormat HTTP_DATE_FORMAT;
+    static {
+        HTTP_DATE_FORMAT = new SimpleDateFormat(
+                "EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        HTTP_DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("GMT"));
+    }
+
+    private static volatile boolean isRunning;
+    private static volatile boolean isAccessed;
+
+    private static volatile long currentTimeMillis;
+    private static volatile Second currentSecond;
+
+    private CoarseClock() {
+    }
+
+    /**
+     * @return the current time in milliseconds, with the tick precision
+     */
+    public static long currentTimeMillis() {
+        touch();
+        return currentTimeMillis;
+    }
+
+    /**
+     * @return the current date formatted according to RFC 1123, like
+     *  <tt>Sun, 06 Nov 1994 08:49:37 GMT</tt>
+     */
+    public static String getHttpDate() {
+        touch();
+        return currentSecond.httpDate;
+    }
+
+    /**
+     * Returns the current date formatted according to RFC 1123 as US-ASCII
+     * bytes. The returned array is shared and must not be modified.
+     *
+     * @return the current date formatted according to RFC 1123
+     */
+    public static byte[] getHttpDateBytes() {
+        touch();
+        return currentSecond.httpDateBytes;
+    }
+
+    private static void touch() {
+        if (!isRunning) {
+            start();
+        } else if (!isAccessed) {
+            isAccessed = true;
+        }
+    }
+
+    private static void start() {
+        synchronized (sync) {
+            if (isRunning) {
+                return;
+            }
+
+            tick();
+            isAccessed = true;
+            isRunning = true;
+
+            final Thread ticker = new Thread(new Ticker(), "grizzly-coarse-clock");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    private static void tick() {
+        final long now = System.currentTimeMillis();
+        final long second = now / 1000;
+
+        final Second current = currentSecond;
+        if (current == null || current.second != second) {
+            synchronized (sync) {
+                currentSecond = new Second(second,
+                        HTTP_DATE_FORMAT.format(new Date(second * 1000)));
+            }
+        }
+
+        currentTimeMillis = now;
+    }
+
+    private static final class Ticker implements Runnable {
+
+        @Override
+        public void run() {
+            long idleTicks = 0;
+
+            while (true) {
+                LockSupport.parkNanos(TICK_NANOS);
+                tick();
+
+                if (isAccessed) {
+                    isAccessed = false;
+                    idleTicks = 0;
+                } else if (++idleTicks >= MAX_IDLE_TICKS) {
+                    synchronized (sync) {
+                        if (!isAccessed) {
+                            isRunning = false;
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Second {
+        private final long second;
+        private final String httpDate;
+        private final byte[] httpDateBytes;
+
+        private Second(final long second, final String httpDate) {
+            this.second = second;
+            this.httpDate = httpDate;
+            this.httpDateBytes = httpDate.getBytes(Charsets.ASCII_CHARSET);
+        }
+    }
+}
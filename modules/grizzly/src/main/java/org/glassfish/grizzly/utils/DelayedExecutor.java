@@ -49,12 +49,32 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Executes {@link Worker} tasks for the elements, whose timeouts, as reported
+ * by {@link Resolver}, have expired.
+ * 
+ * By default the elements of every {@link DelayQueue} are scanned once per
+ * check interval. If the timing-wheel mode is enabled (either via constructor
+ * or the {@value #TIMING_WHEEL_PROPERTY} system property), the elements are
+ * kept in a hierarchical hashed timing wheel with the check interval as a tick,
+ * so each tick touches only the elements, which are due. In the timing-wheel
+ * mode the timeout, which has been moved closer directly via {@link Resolver},
+ * has to be announced using {@link DelayQueue#reschedule(java.lang.Object)}.
  * 
  * @author Alexey Stashok
  */
 public class DelayedExecutor {
     public final static long UNSET_TIMEOUT = -1;
     
+    /**
+     * The system property to enable the timing-wheel mode for
+     * {@link DelayedExecutor}s, created without explicit mode setting.
+     */
+    public static final String TIMING_WHEEL_PROPERTY =
+            "org.glassfish.grizzly.utils.DelayedExecutor.timing-wheel";
+    
+    private static final boolean USE_TIMING_WHEEL_DEFAULT =
+            Boolean.getBoolean(TIMING_WHEEL_PROPERTY);
+    
     private final ExecutorService threadPool;
 
     private final DelayedRunnable runnable = new DelayedRunnable();
@@ -68,18 +88,38 @@ public class DelayedExecutor {
 
     private final long checkIntervalMillis;
 
+    private final TimingWheel timingWheel;
+    
     public DelayedExecutor(final ExecutorService threadPool) {
         this(threadPool, 1000, TimeUnit.MILLISECONDS);
     }
 
     public DelayedExecutor(final ExecutorService threadPool,
             final long checkInterval, final TimeUnit timeunit) {
+        this(threadPool, checkInterval, timeunit, USE_TIMING_WHEEL_DEFAULT);
+    }
+
+    /**
+     * @param threadPool the {@link ExecutorService} to run the check loop.
+     * @param checkInterval the check interval, in the timing-wheel mode it's
+     *        the duration of a wheel tick.
+     * @param timeunit the check interval {@link TimeUnit}.
+     * @param useTimingWheel <tt>true</tt> to keep the elements in a timing
+     *        wheel, or <tt>false</tt> to scan all the elements every check
+     *        interval.
+     */
+    public DelayedExecutor(final ExecutorService threadPool,
+            final long checkInterval, final TimeUnit timeunit,
+            final boolean useTimingWheel) {
         if (checkInterval < 0) {
             throw new IllegalArgumentException("check interval can't be negative");
         }
         
         this.threadPool = threadPool;
         this.checkIntervalMillis = TimeUnit.MILLISECONDS.convert(checkInterval, timeunit);
+        this.timingWheel = useTimingWheel
+                ? new TimingWheel(checkIntervalMillis)
+                : null;
     }
 
     public void start() {
@@ -103,6 +143,10 @@ public class DelayedExecutor {
     public void destroy() {
         stop();
         synchronized(sync) {
+            for (final DelayQueue queue : queues) {
+                queue.isDestroyed = true;
+            }
+            
             queues.clear();
         }
     }
@@ -112,6 +156,14 @@ public class DelayedExecutor {
         return threadPool;
     }
 
+    /**
+     * @return <tt>true</tt> if the elements are kept in a timing wheel, or
+     *         <tt>false</tt> if all the elements are scanned every check interval.
+     */
+    public boolean isTimingWheel() {
+        return timingWheel != null;
+    }
+
     public <E> DelayQueue<E> createDelayQueue(final Worker<E> worker,
             final Resolver<E> resolver) {
         
@@ -131,8 +183,13 @@ public class DelayedExecutor {
         @SuppressWarnings("unchecked")
         @Override
         public void run() {
+            if (timingWheel != null) {
+                runTimingWheel();
+                return;
+            }
+            
             while(isStarted) {
-                final long currentTimeMillis = System.currentTimeMillis();
+                final long currentTimeMillis = CoarseClock.currentTimeMillis();
                 
                 for (final DelayQueue delayQueue : queues) {
                     if (delayQueue.queue.isEmpty()) continue;
@@ -176,33 +233,90 @@ public class DelayedExecutor {
                 }
             }
         }
+        
+        private void runTimingWheel() {
+            while(isStarted) {
+                timingWheel.advance(CoarseClock.currentTimeMillis());
+                
+                synchronized(sync) {
+                    if (!isStarted) return;
+                    
+                    try {
+                        sync.wait(timingWheel.millisToNextTick(
+                                CoarseClock.currentTimeMillis()));
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }
+        }
     }
 
     public class DelayQueue<E> {
-        final ConcurrentMap<E, DelayQueue> queue = new ConcurrentHashMap<>();
+        final ConcurrentMap<E, DelayQueue> queue;
+        // the timing-wheel mode entries
+        final ConcurrentMap<E, TimingWheel.Entry> entries;
 
         final Worker<E> worker;
         final Resolver<E> resolver;
 
+        volatile boolean isDestroyed;
+        
         public DelayQueue(final Worker<E> worker, final Resolver<E> resolver) {
             this.worker = worker;
             this.resolver = resolver;
+            
+            if (timingWheel == null) {
+                queue = new ConcurrentHashMap<>();
+                entries = null;
+            } else {
+                queue = null;
+                entries = new ConcurrentHashMap<>();
+            }
         }
 
         public void add(final E elem, final long delay, final TimeUnit timeUnit) {
             if (delay >= 0) {
                 final long delayWithSysTime =
-                        System.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(delay, timeUnit);
-                resolver.setTimeoutMillis(elem, ((delayWithSysTime < 0) ? Long.MAX_VALUE : delayWithSysTime));
-                queue.put(elem, this);
+                        CoarseClock.currentTimeMillis() + TimeUnit.MILLISECONDS.convert(delay, timeUnit);
+                final long timeoutMillis = (delayWithSysTime < 0) ? Long.MAX_VALUE : delayWithSysTime;
+                resolver.setTimeoutMillis(elem, timeoutMillis);
+                
+                if (timingWheel == null) {
+                    queue.put(elem, this);
+                } else {
+                    timingWheel.schedule(this, elem, timeoutMillis);
+                }
             }
         }
 
+        /**
+         * Notifies the queue, that the element's timeout has been changed
+         * directly via {@link Resolver}, bypassing
+         * {@link #add(java.lang.Object, long, java.util.concurrent.TimeUnit)}.
+         * The call is required only in the timing-wheel mode, when
+         * the timeout has been moved closer, otherwise it's no-op.
+         * 
+         * @param elem the element, which timeout has been changed.
+         */
+        public void reschedule(final E elem) {
+            if (timingWheel != null) {
+                final long timeoutMillis = resolver.getTimeoutMillis(elem);
+                if (timeoutMillis != UNSET_TIMEOUT) {
+                    timingWheel.schedule(this, elem, timeoutMillis);
+                }
+            }
+        }
+        
         public void remove(final E elem) {
             resolver.removeTimeout(elem);
+            
+            if (timingWheel != null) {
+                timingWheel.cancel(this, elem);
+            }
         }
 
         public void destroy() {
+            isDestroyed = true;
             queues.remove(this);
         }
     }
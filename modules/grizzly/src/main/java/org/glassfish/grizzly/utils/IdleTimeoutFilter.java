@@ -295,11 +295,13 @@ public class IdleTimeoutFilter extends BaseFilter {
                     final long timeout = timeoutResolver.getTimeout(ctx);
                     timeoutToSet = timeout == FOREVER ?
                             FOREVER :
-                            System.currentTimeMillis() + timeout;
+                            CoarseClock.currentTimeMillis() + timeout;
                 }
 
-                IdleRecord.timeoutMillisUpdater.compareAndSet(
-                        idleRecord, FOREVER_SPECIAL, timeoutToSet);
+                if (IdleRecord.timeoutMillisUpdater.compareAndSet(
+                        idleRecord, FOREVER_SPECIAL, timeoutToSet)) {
+                    queue.reschedule(connection);
+                }
             }
         }
     } // END ContextCompletionListener
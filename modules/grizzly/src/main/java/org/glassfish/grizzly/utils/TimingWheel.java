@@ -0,0 +1,424 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hierarchical hashed timing wheel, which backs {@link DelayedExecutor}
+ * when it's running in timing-wheel mode.
+ *
+ * The wheel consists of {@link #LEVELS} levels with {@link #WHEEL_SIZE} slots
+ * each, level <tt>N</tt> slot covers <tt>WHEEL_SIZE^N</tt> ticks. Elements,
+ * whose deadline is beyond the last level, are kept in the overflow list,
+ * which is revisited once per full rotation of the last level.
+ *
+ * The wheel slots are owned by the single thread, which runs
+ * {@link #advance(long)}; other threads never touch them directly, but
+ * enqueue {@link Entry}s, whose timeout might have been changed, to the
+ * pending queue, which is drained on every tick. So adding, rescheduling and
+ * cancelling an element costs O(1), and every tick touches only the slots,
+ * which are due.
+ * 
+ * The {@link DelayedExecutor.Resolver} remains the source of truth for the
+ * element timeout: when a slot fires, the current timeout is re-read, so
+ * an element, whose timeout has been prolonged, is just moved to the proper
+ * slot. An element is only required to be re-submitted (see
+ * {@link DelayedExecutor.DelayQueue#reschedule(java.lang.Object)}) if its
+ * timeout has been moved closer, than it was at the moment of scheduling.
+ */
+final class TimingWheel {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long OVERFLOW_MASK = (1L << (LEVELS * WHEEL_BITS)) - 1;
+
+    /**
+     * Value of {@link Entry#scheduledMillis} for the entries, which
+     * are not linked to any wheel slot.
+     */
+    static final long NOT_SCHEDULED = Long.MAX_VALUE;
+    
+    private final long tickMillis;
+    private final long startMillis;
+    
+    // the slots (sentinel heads of circular lists) [level][slot]
+    private final Entry[][] wheels = new Entry[LEVELS][WHEEL_SIZE];
+    private final Entry overflow = new Entry(null, null);
+    
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<Entry>();
+    
+    // the last processed tick
+    private long tick;
+    // the number of entries linked to the wheel
+    private int size;
+
+    TimingWheel(final long tickMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.startMillis = CoarseClock.currentTimeMillis();
+        
+        for (int i = 0; i < LEVELS; i++) {
+            for (int j = 0; j < WHEEL_SIZE; j++) {
+                wheels[i][j] = new Entry(null, null);
+            }
+        }
+    }
+
+    long getTickMillis() {
+        return tickMillis;
+    }
+    
+    /**
+     * Makes sure the element will be processed by the wheel not later than
+     * its current {@link DelayedExecutor.Resolver} timeout.
+     * May be called by any thread.
+     */
+    @SuppressWarnings("unchecked")
+    <E> void schedule(final DelayedExecutor.DelayQueue<E> delayQueue,
+            final E element, final long timeoutMillis) {
+        final ConcurrentMap<E, Entry> entries = delayQueue.entries;
+        
+        Entry entry = entries.get(element);
+        if (entry == null) {
+            final Entry newEntry = new Entry(delayQueue, element);
+            entry = entries.putIfAbsent(element, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+
+        // the entry fires not later than scheduledMillis and its timeout
+        // is re-checked at that moment, so we have to act only if the
+        // deadline became closer
+        if (timeoutMillis < entry.scheduledMillis) {
+            signal(entry);
+        }
+    }
+
+    /**
+     * Asks the wheel to re-check the element, whose timeout might have been
+     * removed.
+     * May be called by any thread.
+     */
+    <E> void cancel(final DelayedExecutor.DelayQueue<E> delayQueue,
+            final E element) {
+        final Entry entry = delayQueue.entries.get(element);
+        if (entry != null) {
+            signal(entry);
+        }
+    }
+
+    /**
+     * Advances the wheel up to the passed time, processing all the expired
+     * elements.
+     * Must be called by the single wheel thread only.
+     */
+    void advance(final long currentTimeMillis) {
+        drainPending(currentTimeMillis);
+        
+        final long targetTick = (currentTimeMillis - startMillis) / tickMillis;
+        if (size == 0) {
+            // nothing to cascade or fire - jump right to the target tick
+            if (targetTick > tick) {
+                tick = targetTick;
+            }
+            
+            return;
+        }
+        
+        while (tick < targetTick) {
+            tick++;
+            cascade();
+            fire(currentTimeMillis);
+        }
+    }
+
+    /**
+     * @return the number of milliseconds left until the next tick.
+     */
+    long millisToNextTick(final long currentTimeMillis) {
+        return Math.max(1,
+                startMillis + (tick + 1) * tickMillis - currentTimeMillis);
+    }
+    
+    private void signal(final Entry entry) {
+        if (Entry.PENDING_UPDATER.compareAndSet(entry, 0, 1)) {
+            pending.offer(entry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainPending(final long currentTimeMillis) {
+        Entry entry;
+        while ((entry = pending.poll()) != null) {
+            // reset the flag before reading the timeout, so a concurrent
+            // update, which we might not see, will enqueue the entry again
+            entry.pending = 0;
+            
+            final DelayedExecutor.DelayQueue delayQueue = entry.delayQueue;
+            final Object element = entry.element;
+            final long timeoutMillis =
+                    delayQueue.resolver.getTimeoutMillis(element);
+            
+            if (timeoutMillis == DelayedExecutor.UNSET_TIMEOUT
+                    || delayQueue.isDestroyed) {
+                evict(entry);
+                continue;
+            }
+            
+            if (delayQueue.entries.get(element) != entry) {
+                // the entry has been evicted meanwhile - try to bring it back
+                if (delayQueue.entries.putIfAbsent(element, entry) != null) {
+                    unlink(entry);
+                    entry.scheduledMillis = NOT_SCHEDULED;
+                    continue;
+                }
+            }
+            
+            if (entry.isLinked() && entry.scheduledMillis <= timeoutMillis) {
+                // will be re-checked on time
+                continue;
+            }
+            
+            unlink(entry);
+            place(entry, timeoutMillis, tick + 1);
+        }
+    }
+
+    /**
+     * Moves the entries from the higher level slots, which became current,
+     * down to the lower levels.
+     */
+    private void cascade() {
+        if ((tick & OVERFLOW_MASK) == 0) {
+            relink(overflow);
+        }
+        
+        for (int level = LEVELS - 1; level > 0; level--) {
+            final int shift = level * WHEEL_BITS;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                relink(wheels[level][(int) ((tick >>> shift) & WHEEL_MASK)]);
+            }
+        }
+    }
+
+    private void relink(final Entry head) {
+        Entry entry = detachAll(head);
+        while (entry != null) {
+            final Entry next = entry.next;
+            entry.next = null;
+            place(entry, entry.deadlineTick);
+            entry = next;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void fire(final long currentTimeMillis) {
+        Entry entry = detachAll(wheels[0][(int) (tick & WHEEL_MASK)]);
+        while (entry != null) {
+            final Entry next = entry.next;
+            entry.next = null;
+            
+            final DelayedExecutor.DelayQueue delayQueue = entry.delayQueue;
+            final Object element = entry.element;
+            
+            // mark the entry as not scheduled before reading the timeout,
+            // so a concurrent add() either is seen here, or signals the entry
+            entry.scheduledMillis = NOT_SCHEDULED;
+            
+            final long timeoutMillis =
+                    delayQueue.resolver.getTimeoutMillis(element);
+            
+            if (timeoutMillis == DelayedExecutor.UNSET_TIMEOUT
+                    || delayQueue.isDestroyed) {
+                evict(entry);
+            } else if (currentTimeMillis - timeoutMillis >= 0) {
+                boolean isDone = true;
+                try {
+                    isDone = delayQueue.worker.doWork(element);
+                } catch (Exception ignored) {
+                }
+
+                if (isDone) {
+                    delayQueue.entries.remove(element, entry);
+                } else {
+                    final long newTimeoutMillis =
+                            delayQueue.resolver.getTimeoutMillis(element);
+                    if (newTimeoutMillis == DelayedExecutor.UNSET_TIMEOUT) {
+                        evict(entry);
+                    } else {
+                        place(entry, newTimeoutMillis, tick + 1);
+                    }
+                }
+            } else {
+                // the timeout has been prolonged
+                place(entry, timeoutMillis, tick + 1);
+            }
+            
+            entry = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evict(final Entry entry) {
+        unlink(entry);
+        entry.scheduledMillis = NOT_SCHEDULED;
+        entry.delayQueue.entries.remove(entry.element, entry);
+    }
+    
+    private void place(final Entry entry, final long timeoutMillis,
+            final long minTick) {
+        if (timeoutMillis == NOT_SCHEDULED) {
+            // infinite timeout - keep the entry off the wheel until it's
+            // signaled with a finite timeout
+            entry.scheduledMillis = NOT_SCHEDULED;
+            return;
+        }
+        
+        entry.scheduledMillis = timeoutMillis;
+        place(entry, Math.max(toTick(timeoutMillis), minTick));
+    }
+
+    /**
+     * Links the entry to the slot, which fires at the passed tick.
+     * The deadlineTick is expected to be not less than the current tick.
+     */
+    private void place(final Entry entry, final long deadlineTick) {
+        entry.deadlineTick = deadlineTick;
+        
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = level * WHEEL_BITS;
+            if ((deadlineTick >>> shift) - (tick >>> shift) < WHEEL_SIZE) {
+                link(wheels[level][(int) ((deadlineTick >>> shift) & WHEEL_MASK)],
+                        entry);
+                return;
+            }
+        }
+        
+        link(overflow, entry);
+    }
+
+    private long toTick(final long timeoutMillis) {
+        final long delta = timeoutMillis - startMillis;
+        if (delta <= 0) {
+            return 0;
+        }
+        
+        // round up, so the entry never fires before its timeout
+        return delta / tickMillis + (delta % tickMillis == 0 ? 0 : 1);
+    }
+    
+    private void link(final Entry head, final Entry entry) {
+        final Entry tail = head.prev;
+        entry.prev = tail;
+        entry.next = head;
+        tail.next = entry;
+        head.prev = entry;
+        size++;
+    }
+    
+    private void unlink(final Entry entry) {
+        if (entry.isLinked()) {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            size--;
+        }
+    }
+
+    /**
+     * Detaches all the entries from the slot and returns them as
+     * a singly linked (via {@link Entry#next}) list.
+     */
+    private Entry detachAll(final Entry head) {
+        if (head.next == head) {
+            return null;
+        }
+        
+        final Entry first = head.next;
+        head.prev.next = null;
+        head.next = head.prev = head;
+        
+        for (Entry entry = first; entry != null; entry = entry.next) {
+            entry.prev = null;
+            size--;
+        }
+        
+        return first;
+    }
+    
+    static final class Entry {
+        private static final AtomicIntegerFieldUpdater<Entry> PENDING_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Entry.class, "pending");
+        
+        final DelayedExecutor.DelayQueue delayQueue;
+        final Object element;
+
+        // the timeout the entry was scheduled with
+        volatile long scheduledMillis = NOT_SCHEDULED;
+        // 1 if the entry is in the pending queue
+        volatile int pending;
+        
+        // accessed by the wheel thread only
+        private Entry prev;
+        private Entry next;
+        private long deadlineTick;
+        
+        Entry(final DelayedExecutor.DelayQueue delayQueue,
+                final Object element) {
+            this.delayQueue = delayQueue;
+            this.element = element;
+            
+            if (delayQueue == null) { // sentinel
+                prev = next = this;
+            }
+        }
+
+        private boolean isLinked() {
+            return prev != null;
+        }
+    }
+}
@@ -41,17 +41,23 @@
 package org.glassfish.grizzly;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.glassfish.grizzly.asyncqueue.AsyncQueueWriter;
@@ -68,9 +74,12 @@ import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.TransportMemoryBudget;
 import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+import org.glassfish.grizzly.strategies.WorkerThreadIOStrategy;
 import org.glassfish.grizzly.streams.StreamReader;
 import org.glassfish.grizzly.utils.Charsets;
 import org.glassfish.grizzly.utils.EchoFilter;
@@ -93,6 +102,9 @@ import static org.junit.Assert.*;
 @RunWith(Parameterized.class)
 public class AsyncWriteQueueTest {
     public static final int PORT = 7781;
+    
+    // the bytes, which may still be queued after reading is suspended
+    private static final int MAX_SUSPENDED_PENDING_BYTES = 2 * 1024 * 1024;
 
     private static final Logger LOGGER = Grizzly.logger(AsyncWriteQueueTest.class);
 
@@ -466,6 +478,229 @@ public class AsyncWriteQueueTest {
         }
     }
 
+    @Test
+    public void testReadThrottling() throws Exception {
+        doTestReadThrottling(WorkerThreadIOStrategy.getInstance());
+    }
+
+    @Test
+    public void testReadThrottlingSameThreadStrategy() throws Exception {
+        // SameThreadIOStrategy never toggles OP_READ interest
+        doTestReadThrottling(SameThreadIOStrategy.getInstance());
+    }
+
+    private void doTestReadThrottling(final IOStrategy strategy)
+            throws Exception {
+        final int lowWatermark = 64 * 1024;
+        final int highWatermark = 256 * 1024;
+        final int bytesToSend = 16 * 1024 * 1024;
+
+        final CountDownLatch suspendLatch = new CountDownLatch(1);
+        final CountDownLatch resumeLatch = new CountDownLatch(1);
+        final AtomicInteger maxSuspendPendingBytes = new AtomicInteger();
+        final AtomicReference<Connection> serverConnection =
+                new AtomicReference<Connection>();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new EchoFilter());
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder
+                .newInstance()
+                .setOptimizedForMultiplexing(isOptimizedForMultiplexing)
+                .setIOStrategy(strategy)
+                .setReadThrottlingWatermarks(lowWatermark, highWatermark)
+                .build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.getConnectionMonitoringConfig().addProbes(new ConnectionProbe.Adapter() {
+            @Override
+            public void onReadSuspendEvent(Connection connection, int pendingBytes) {
+                maxSuspendPendingBytes.set(Math.max(pendingBytes, maxSuspendPendingBytes.get()));
+                serverConnection.set(connection);
+                suspendLatch.countDown();
+            }
+
+            @Override
+            public void onReadResumeEvent(Connection connection, int pendingBytes) {
+                assertTrue(pendingBytes <= lowWatermark);
+                resumeLatch.countDown();
+            }
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        Socket socket = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            socket = new Socket();
+            socket.setReceiveBufferSize(8192);
+            socket.connect(new java.net.InetSocketAddress("localhost", PORT));
+            final OutputStream out = socket.getOutputStream();
+
+            // the client doesn't read the echo, so the server's write queue backs up
+            final Future<Boolean> writeFuture = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    final byte[] chunk = new byte[8192];
+                    for (int sent = 0; sent < bytesToSend; sent += chunk.length) {
+                        out.write(chunk);
+                    }
+                    out.flush();
+                    return true;
+                }
+            });
+
+            assertTrue(suspendLatch.await(10, TimeUnit.SECONDS));
+            assertTrue(maxSuspendPendingBytes.get() >= highWatermark);
+            
+            // the server has to stop reading, so the write queue stays bounded
+            Thread.sleep(500);
+            final int pendingBytes = ((NIOConnection) serverConnection.get())
+                    .getAsyncWriteQueue().spaceInBytes();
+            assertTrue("the write queue keeps growing: " + pendingBytes,
+                    pendingBytes < MAX_SUSPENDED_PENDING_BYTES);
+
+            final InputStream in = socket.getInputStream();
+            final byte[] buf = new byte[65536];
+            int received = 0;
+            while (received < bytesToSend) {
+                final int len = in.read(buf);
+                assertTrue("unexpected EOF, received " + received, len > 0);
+                received += len;
+            }
+
+            assertTrue(resumeLatch.await(10, TimeUnit.SECONDS));
+            assertTrue(writeFuture.get(10, TimeUnit.SECONDS));
+            assertEquals(bytesToSend, received);
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+            executor.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        doTestMemoryBudget(WorkerThreadIOStrategy.getInstance());
+    }
+
+    @Test
+    public void testMemoryBudgetSameThreadStrategy() throws Exception {
+        doTestMemoryBudget(SameThreadIOStrategy.getInstance());
+    }
+
+    private void doTestMemoryBudget(final IOStrategy strategy)
+            throws Exception {
+        final int bytesToSend = 16 * 1024 * 1024;
+        final TransportMemoryBudget memoryBudget =
+                new TransportMemoryBudget(256 * 1024);
+
+        final CountDownLatch suspendLatch = new CountDownLatch(1);
+        final CountDownLatch resumeLatch = new CountDownLatch(1);
+        // the budget state is captured on suspend, the write queue may be
+        // flushed to the socket and reading resumed by the time it's checked
+        final AtomicBoolean isAcceptPausedOnSuspend = new AtomicBoolean();
+        final AtomicInteger readSuspendedOnSuspend = new AtomicInteger();
+
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new EchoFilter());
+
+        final TCPNIOTransport transport = TCPNIOTransportBuilder
+                .newInstance()
+                .setOptimizedForMultiplexing(isOptimizedForMultiplexing)
+                .setIOStrategy(strategy)
+                .setMemoryBudget(memoryBudget)
+                .build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.getConnectionMonitoringConfig().addProbes(new ConnectionProbe.Adapter() {
+            @Override
+            public void onReadSuspendEvent(Connection connection, int pendingBytes) {
+                if (suspendLatch.getCount() > 0) {
+                    isAcceptPausedOnSuspend.set(memoryBudget.isAcceptPaused());
+                    readSuspendedOnSuspend.set(
+                            memoryBudget.getReadSuspendedConnectionsCount());
+                }
+                suspendLatch.countDown();
+            }
+
+            @Override
+            public void onReadResumeEvent(Connection connection, int pendingBytes) {
+                resumeLatch.countDown();
+            }
+        });
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        Socket socket = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            socket = new Socket();
+            socket.setReceiveBufferSize(8192);
+            socket.setSoTimeout(10000);
+            socket.connect(new java.net.InetSocketAddress("localhost", PORT));
+            final OutputStream out = socket.getOutputStream();
+
+            // the client doesn't read the echo, so the server's write queue
+            // exhausts the memory budget
+            final Future<Boolean> writeFuture = executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    final byte[] chunk = new byte[8192];
+                    for (int sent = 0; sent < bytesToSend; sent += chunk.length) {
+                        out.write(chunk);
+                    }
+                    out.flush();
+                    return true;
+                }
+            });
+
+            assertTrue(suspendLatch.await(10, TimeUnit.SECONDS));
+            assertTrue(isAcceptPausedOnSuspend.get());
+            assertTrue(memoryBudget.getPeakUsage() >= 256 * 1024 * 0.9);
+            assertTrue(readSuspendedOnSuspend.get() > 0);
+            
+            // the server has to stop reading, so the usage stays bounded
+            Thread.sleep(500);
+            assertTrue("the memory usage keeps growing: " + memoryBudget.getUsage(),
+                    memoryBudget.getUsage() < MAX_SUSPENDED_PENDING_BYTES);
+
+            final InputStream in = socket.getInputStream();
+            final byte[] buf = new byte[65536];
+            int received = 0;
+            while (received < bytesToSend) {
+                final int len = in.read(buf);
+                assertTrue("unexpected EOF, received " + received, len > 0);
+                received += len;
+            }
+
+            assertTrue(resumeLatch.await(10, TimeUnit.SECONDS));
+            assertTrue(writeFuture.get(10, TimeUnit.SECONDS));
+            assertEquals(bytesToSend, received);
+
+            socket.close();
+            socket = null;
+
+            for (int i = 0; i < 100 && memoryBudget.getUsage() != 0; i++) {
+                Thread.sleep(100);
+            }
+
+            assertEquals(0, memoryBudget.getUsage());
+            assertFalse(memoryBudget.isAcceptPaused());
+            assertTrue(memoryBudget.admitRequest());
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+            executor.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
     @Test
     public void testAsyncWriteQueueReentrants() throws Exception {
         Connection connection = null;
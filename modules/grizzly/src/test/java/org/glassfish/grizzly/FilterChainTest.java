@@ -240,6 +240,48 @@ public class FilterChainTest extends TestCase {
         resultFuture.get(10, TimeUnit.SECONDS);
     }
 
+    public void testEventPassThroughFilters() throws Exception {
+        final Connection connection =
+                new TCPNIOConnection(TCPNIOTransportBuilder.newInstance().build(), null);
+
+        counterAttr.set(connection, new AtomicInteger(0));
+
+        final FilterChain chain = FilterChainBuilder.stateless().build();
+        chain.add(new BaseFilter());
+        chain.add(new EventCounterFilter(0));
+        chain.add(new BaseFilter());
+        chain.add(new BaseFilter() {
+            // handles WRITE only, so has to be skipped for the event
+            @Override
+            public NextAction handleWrite(FilterChainContext ctx)
+                    throws IOException {
+                throw new IllegalStateException("Unexpected handler call");
+            }
+        });
+        chain.add(new EventCounterFilter(1));
+        chain.add(new BaseFilter());
+
+        FutureImpl<FilterChainContext> resultFuture = Futures.createSafeFuture();
+        chain.fireEventUpstream(connection, INC_EVENT,
+                Futures.toCompletionHandler(resultFuture));
+        resultFuture.get(10, TimeUnit.SECONDS);
+        assertEquals(2, counterAttr.get(connection).get());
+
+        // the chain change has to be taken into account
+        chain.add(new EventCounterFilter(2));
+        chain.add(new BaseFilter());
+
+        final Connection connection2 =
+                new TCPNIOConnection(TCPNIOTransportBuilder.newInstance().build(), null);
+        counterAttr.set(connection2, new AtomicInteger(0));
+
+        resultFuture = Futures.createSafeFuture();
+        chain.fireEventUpstream(connection2, INC_EVENT,
+                Futures.toCompletionHandler(resultFuture));
+        resultFuture.get(10, TimeUnit.SECONDS);
+        assertEquals(3, counterAttr.get(connection2).get());
+    }
+
     public void testEventDownstream() throws Exception {
         final Connection connection =
                 new TCPNIOConnection(TCPNIOTransportBuilder.newInstance().build(), null);
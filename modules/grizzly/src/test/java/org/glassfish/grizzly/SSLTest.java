@@ -40,6 +40,7 @@
 
 package org.glassfish.grizzly;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
@@ -79,6 +80,7 @@ import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.ssl.SSLContextConfigurator;
 import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.glassfish.grizzly.ssl.HandshakeLatencyHistogram;
 import org.glassfish.grizzly.ssl.SSLFilter;
 import org.glassfish.grizzly.ssl.SSLStreamReader;
 import org.glassfish.grizzly.ssl.SSLStreamWriter;
@@ -89,6 +91,7 @@ import org.glassfish.grizzly.utils.EchoFilter;
 import org.glassfish.grizzly.utils.StringFilter;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.net.ssl.KeyManager;
@@ -101,6 +104,7 @@ import javax.net.ssl.X509TrustManager;
 
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
 import org.glassfish.grizzly.utils.Futures;
 import org.junit.Ignore;
 import org.junit.runner.RunWith;
@@ -398,6 +402,102 @@ public class SSLTest {
     }
 
 
+    @Test
+    public void testDelegatedTaskExecutor() throws Exception {
+        Connection connection = null;
+        SSLContextConfigurator sslContextConfigurator = createSSLContextConfigurator();
+        SSLEngineConfigurator clientSSLEngineConfigurator = null;
+        SSLEngineConfigurator serverSSLEngineConfigurator = null;
+
+        if (sslContextConfigurator.validateConfiguration(true)) {
+            clientSSLEngineConfigurator =
+                    new SSLEngineConfigurator(createSSLContext(),
+                                              true,
+                                              false,
+                                              false);
+            serverSSLEngineConfigurator =
+                    new SSLEngineConfigurator(sslContextConfigurator.createSSLContext(true),
+                                              false,
+                                              false,
+                                              false);
+        } else {
+            fail("Failed to validate SSLContextConfiguration.");
+        }
+
+        final ExecutorService delegatedTaskPool = Executors.newFixedThreadPool(2);
+        final AtomicInteger offloadCounter = new AtomicInteger();
+        final HandshakeLatencyHistogram histogram = new HandshakeLatencyHistogram();
+        
+        final SSLFilter serverSSLFilter =
+                new SSLFilter(serverSSLEngineConfigurator, null);
+        serverSSLFilter.getMonitoringConfig().addProbes(histogram);
+        serverSSLFilter.setDelegatedTaskExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                offloadCounter.incrementAndGet();
+                delegatedTaskPool.execute(command);
+            }
+        });
+        
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(serverSSLFilter);
+        filterChainBuilder.add(new EchoFilter());
+
+        TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(SameThreadIOStrategy.getInstance())
+                .build();
+        transport.setProcessor(filterChainBuilder.build());
+        transport.setMemoryManager(manager);
+
+        final FutureImpl<String> echoFuture = Futures.createSafeFuture();
+        
+        TCPNIOTransport cTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        FilterChainBuilder clientChain = FilterChainBuilder.stateless();
+        clientChain.add(new TransportFilter());
+        clientChain.add(new SSLFilter(null, clientSSLEngineConfigurator));
+        clientChain.add(new StringFilter());
+        clientChain.add(new BaseFilter() {
+            @Override
+            public NextAction handleRead(FilterChainContext ctx)
+                    throws IOException {
+                echoFuture.result((String) ctx.getMessage());
+                return ctx.getStopAction();
+            }
+        });
+        cTransport.setProcessor(clientChain.build());
+        cTransport.setMemoryManager(manager);
+
+        try {
+            transport.bind(PORT);
+            transport.start();
+
+            cTransport.start();
+
+            Future<Connection> future = cTransport.connect("localhost", PORT);
+            connection = future.get(10, TimeUnit.SECONDS);
+
+            assertNotNull(connection);
+
+            connection.write("message");
+            assertEquals("message", echoFuture.get(10, TimeUnit.SECONDS));
+            
+            assertTrue(offloadCounter.get() > 0);
+            assertEquals(1, histogram.getCount());
+            assertEquals(0, histogram.getFailedCount());
+            assertTrue(histogram.getPercentile(100, TimeUnit.MICROSECONDS) > 0);
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            cTransport.shutdownNow();
+            transport.shutdownNow();
+            delegatedTaskPool.shutdownNow();
+        }
+    }
+
+
     // ------------------------------------------------------- Protected Methods
 
 
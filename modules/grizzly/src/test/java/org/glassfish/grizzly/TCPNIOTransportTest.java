@@ -43,9 +43,15 @@ package org.glassfish.grizzly;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectableChannel;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -64,12 +70,17 @@ import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.BuffersBuffer;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.nio.AbstractNIOConnectionDistributor;
+import org.glassfish.grizzly.nio.LeastLoadedConnectionDistributor;
 import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.nio.NIOTransport;
 import org.glassfish.grizzly.nio.RegisterChannelResult;
 import org.glassfish.grizzly.nio.SelectorRunner;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
 import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
@@ -513,9 +524,348 @@ public class TCPNIOTransportTest {
     }
 
 
+    @Test
+    public void testGatheringWriteBuffersLimit() throws Exception {
+        final int componentsCount = 64;
+        final int componentSize = 100;
+        final int messagesCount = 8;
+        final int expectedSize = componentsCount * componentSize * messagesCount;
+        
+        final FutureImpl<byte[]> resultFuture = SafeFutureImpl.create();
+        
+        FilterChainBuilder filterChainBuilder = FilterChainBuilder.stateless();
+        filterChainBuilder.add(new TransportFilter());
+        filterChainBuilder.add(new BaseFilter() {
+            private final byte[] received = new byte[expectedSize];
+            private int receivedSize;
+
+            @Override
+            public NextAction handleRead(final FilterChainContext ctx)
+                    throws IOException {
+                final Buffer buffer = ctx.getMessage();
+                final int size = buffer.remaining();
+                buffer.get(received, receivedSize, size);
+                buffer.tryDispose();
+                
+                receivedSize += size;
+                if (receivedSize == expectedSize) {
+                    resultFuture.result(received);
+                }
+                
+                return ctx.getStopAction();
+            }
+        });
+        
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setMaxGatheringWriteBuffers(3)
+                .setMaxGatheringWriteSize(1000)
+                .build();
+        transport.setProcessor(filterChainBuilder.build());
+        
+        Connection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+            
+            connection = transport.connect("localhost", PORT)
+                    .get(10, TimeUnit.SECONDS);
+            
+            final MemoryManager mm = transport.getMemoryManager();
+            final byte[] expected = new byte[expectedSize];
+            int offset = 0;
+            
+            for (int i = 0; i < messagesCount; i++) {
+                final BuffersBuffer message = BuffersBuffer.create(mm);
+                for (int j = 0; j < componentsCount; j++) {
+                    final byte[] chunk = new byte[componentSize];
+                    Arrays.fill(chunk, (byte) (offset / componentSize));
+                    System.arraycopy(chunk, 0, expected, offset, componentSize);
+                    offset += componentSize;
+                    
+                    // mix heap and direct components
+                    final Buffer component;
+                    if (j % 3 == 0) {
+                        final ByteBuffer bb = ByteBuffer.allocateDirect(componentSize);
+                        bb.put(chunk).flip();
+                        component = new ByteBufferWrapper(bb);
+                    } else {
+                        component = Buffers.wrap(mm, chunk);
+                    }
+                    
+                    message.append(component);
+                }
+                
+                connection.write(message);
+            }
+            
+            assertTrue(Arrays.equals(expected,
+                    resultFuture.get(10, TimeUnit.SECONDS)));
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAdaptiveReadBufferSize() throws Exception {
+        final int minSize = 256;
+        final int maxSize = 8192;
+        final int bulkSize = 1024 * 1024;
+        
+        final AtomicInteger maxPredictedSize = new AtomicInteger();
+        final AtomicInteger lastPredictedSize = new AtomicInteger();
+        final AtomicInteger receivedBytes = new AtomicInteger();
+        
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setReadBufferSize(1024)
+                .setAdaptiveReadBufferSize(true)
+                .setMinAdaptiveReadBufferSize(minSize)
+                .setMaxAdaptiveReadBufferSize(maxSize)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        transport.getConnectionMonitoringConfig().addProbes(
+                new ConnectionProbe.Adapter() {
+            @Override
+            public void onReadEvent(Connection connection, Buffer data, int size) {
+                if (connection.getTransport() != transport) {
+                    return;
+                }
+                
+                final int predictedSize = ((TCPNIOConnection) connection)
+                        .getNextReadBufferSize();
+                lastPredictedSize.set(predictedSize);
+                if (predictedSize > maxPredictedSize.get()) {
+                    maxPredictedSize.set(predictedSize);
+                }
+                receivedBytes.addAndGet(size);
+            }
+        });
+        
+        final TCPNIOTransport clientTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        clientTransport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        
+        Connection connection = null;
+        try {
+            transport.bind(PORT);
+            transport.start();
+            clientTransport.start();
+            
+            connection = clientTransport.connect("localhost", PORT)
+                    .get(10, TimeUnit.SECONDS);
+            
+            // bulk transfer grows the predicted size up to max
+            connection.write(Buffers.wrap(clientTransport.getMemoryManager(),
+                    new byte[bulkSize]));
+            waitForBytes(receivedBytes, bulkSize);
+            assertEquals(maxSize, maxPredictedSize.get());
+            
+            // small messages shrink the predicted size down to min
+            for (int i = 1; i <= 16; i++) {
+                connection.write(Buffers.wrap(clientTransport.getMemoryManager(),
+                        new byte[10]));
+                waitForBytes(receivedBytes, bulkSize + i * 10);
+            }
+            assertEquals(minSize, lastPredictedSize.get());
+        } finally {
+            if (connection != null) {
+                connection.closeSilently();
+            }
+            
+            clientTransport.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLeastLoadedConnectionDistributor() throws Exception {
+        final int runnersCount = 4;
+        final int clientsCount = 40;
+        
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setSelectorRunnersCount(runnersCount)
+                .build();
+        transport.setNIOChannelDistributor(
+                new LeastLoadedConnectionDistributor(transport));
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        
+        final TCPNIOTransport clientTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        clientTransport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        
+        final Connection[] connections = new Connection[clientsCount];
+        try {
+            transport.bind(PORT);
+            transport.start();
+            clientTransport.start();
+            
+            for (int i = 0; i < clientsCount; i++) {
+                connections[i] = clientTransport.connect("localhost", PORT)
+                        .get(10, TimeUnit.SECONDS);
+            }
+            
+            // accepted connections + server connection
+            waitForConnectionsCount(transport, clientsCount + 1);
+            for (int count : transport.getSelectorRunnersConnectionsCount()) {
+                assertTrue(count > 0);
+            }
+            
+            for (Connection connection : connections) {
+                connection.closeSilently();
+            }
+            
+            waitForConnectionsCount(transport, 1);
+        } finally {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.closeSilently();
+                }
+            }
+            
+            clientTransport.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReusePortListeners() throws Exception {
+        final int runnersCount = 4;
+        final int clientsCount = 32;
+        
+        final Map<Connection, Connection> acceptedConnections =
+                new ConcurrentHashMap<Connection, Connection>();
+        final Set<Connection> boundConnections =
+                Collections.newSetFromMap(new ConcurrentHashMap<Connection, Boolean>());
+        final AtomicInteger receivedBytes = new AtomicInteger();
+        
+        final TCPNIOTransport transport = TCPNIOTransportBuilder.newInstance()
+                .setReusePortListeners(true)
+                .setSelectorRunnersCount(runnersCount)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        transport.getConnectionMonitoringConfig().addProbes(
+                new ConnectionProbe.Adapter() {
+            @Override
+            public void onBindEvent(Connection connection) {
+                boundConnections.add(connection);
+            }
+
+            @Override
+            public void onAcceptEvent(Connection serverConnection,
+                    Connection clientConnection) {
+                acceptedConnections.put(clientConnection, serverConnection);
+            }
+
+            @Override
+            public void onReadEvent(Connection connection, Buffer data, int size) {
+                receivedBytes.addAndGet(size);
+            }
+        });
+        
+        final TCPNIOTransport clientTransport =
+                TCPNIOTransportBuilder.newInstance().build();
+        clientTransport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter()).build());
+        
+        final Connection[] connections = new Connection[clientsCount];
+        try {
+            final TCPNIOServerConnection serverConnection = transport.bind(0);
+            transport.start();
+            clientTransport.start();
+            
+            final int port = ((InetSocketAddress) serverConnection.getLocalAddress()).getPort();
+            for (int i = 0; i < clientsCount; i++) {
+                connections[i] = clientTransport.connect("localhost", port)
+                        .get(10, TimeUnit.SECONDS);
+                connections[i].write(Buffers.wrap(clientTransport.getMemoryManager(),
+                        new byte[1]));
+            }
+            
+            waitForBytes(receivedBytes, clientsCount);
+            assertEquals(clientsCount, acceptedConnections.size());
+            
+            if (isReusePortSupported()) {
+                assertEquals(runnersCount, boundConnections.size());
+                
+                // accepted connections stay on the accepting selector runner
+                for (Map.Entry<Connection, Connection> entry : acceptedConnections.entrySet()) {
+                    assertTrue(((NIOConnection) entry.getKey()).getSelectorRunner()
+                            == ((NIOConnection) entry.getValue()).getSelectorRunner());
+                }
+            } else {
+                assertEquals(1, boundConnections.size());
+            }
+            
+            // unbinding the returned connection closes all the listeners
+            transport.unbind(serverConnection);
+            for (Connection boundConnection : boundConnections) {
+                assertTrue(!boundConnection.isOpen());
+            }
+        } finally {
+            for (Connection connection : connections) {
+                if (connection != null) {
+                    connection.closeSilently();
+                }
+            }
+            
+            clientTransport.shutdownNow();
+            transport.shutdownNow();
+        }
+    }
+
     // --------------------------------------------------------- Private Methods
 
 
+    private static void waitForConnectionsCount(final NIOTransport transport,
+            final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            int total = 0;
+            for (int count : transport.getSelectorRunnersConnectionsCount()) {
+                total += count;
+            }
+            
+            if (total == expected) {
+                return;
+            }
+            
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + expected + " connections, but got " + total);
+            }
+            
+            Thread.sleep(5);
+        }
+    }
+
+    private static boolean isReusePortSupported() {
+        try {
+            StandardSocketOptions.class.getField("SO_REUSEPORT");
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private static void waitForBytes(final AtomicInteger counter,
+            final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (counter.get() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + expected + " bytes, but got " + counter.get());
+            }
+            
+            Thread.sleep(5);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected void doTestParallelWrites(int packetsNumber,
                                         int size,
@@ -41,16 +41,28 @@
 package org.glassfish.grizzly;
 
 import org.glassfish.grizzly.threadpool.AbstractThreadPool;
+import org.glassfish.grizzly.threadpool.AdaptiveThreadPoolSizer;
 import org.glassfish.grizzly.threadpool.FixedThreadPool;
+import org.glassfish.grizzly.threadpool.GrizzlyExecutorService;
 import org.glassfish.grizzly.threadpool.SyncThreadPool;
 import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+import org.glassfish.grizzly.threadpool.VirtualThreadPool;
+import org.glassfish.grizzly.threadpool.WorkStealingThreadPool;
 import org.junit.Test;
 
 import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
 import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
 import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
@@ -78,6 +90,378 @@ public class ThreadPoolsTest {
         assertEquals("Pool did not properly initialize threads based on core pool size configuration.", 5, ((Map) workers.get(fixedThreadPool)).size());
     }
 
+    @Test
+    public void testVirtualThreadPoolProbes() throws Exception {
+        final int tasksCount = 100;
+        
+        final AtomicInteger queuedCount = new AtomicInteger();
+        final AtomicInteger dequeuedCount = new AtomicInteger();
+        final AtomicInteger completedCount = new AtomicInteger();
+        final AtomicInteger allocatedThreadsCount = new AtomicInteger();
+        final CountDownLatch completedLatch = new CountDownLatch(tasksCount);
+        
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setPoolName("virtual-test");
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onThreadAllocateEvent(AbstractThreadPool threadPool, Thread thread) {
+                allocatedThreadsCount.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+                queuedCount.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskDequeueEvent(AbstractThreadPool threadPool, Runnable task) {
+                dequeuedCount.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+                completedCount.incrementAndGet();
+                completedLatch.countDown();
+            }
+        });
+        
+        // falls back to the platform thread pool, if virtual threads are not supported
+        final GrizzlyExecutorService executor =
+                GrizzlyExecutorService.createVirtualThreadInstance(config);
+        try {
+            final AtomicInteger virtualThreadsCount = new AtomicInteger();
+            for (int i = 0; i < tasksCount; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (Thread.currentThread().getName().startsWith("virtual-test-virtual-")) {
+                            virtualThreadsCount.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            
+            assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(tasksCount, queuedCount.get());
+            assertEquals(tasksCount, dequeuedCount.get());
+            assertEquals(tasksCount, completedCount.get());
+            assertEquals(VirtualThreadPool.isSupported() ? tasksCount : 0,
+                    virtualThreadsCount.get());
+            if (VirtualThreadPool.isSupported()) {
+                // virtual threads are not pooled, so not reported per task
+                assertEquals(0, allocatedThreadsCount.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWorkStealingThreadPool() throws Exception {
+        final int tasksCount = 100;
+        final Object affinityKey = new Object();
+
+        final AtomicInteger queuedCount = new AtomicInteger();
+        final AtomicInteger dequeuedCount = new AtomicInteger();
+        final CountDownLatch completedLatch = new CountDownLatch(tasksCount);
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(4).setMaxPoolSize(4).setWorkStealing(true);
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onTaskQueueEvent(AbstractThreadPool threadPool, Runnable task) {
+                queuedCount.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskDequeueEvent(AbstractThreadPool threadPool, Runnable task) {
+                dequeuedCount.incrementAndGet();
+            }
+
+            @Override
+            public void onTaskCompleteEvent(AbstractThreadPool threadPool, Runnable task) {
+                completedLatch.countDown();
+            }
+        });
+
+        final GrizzlyExecutorService executor =
+                GrizzlyExecutorService.createInstance(config);
+        try {
+            // all the tasks are queued to the same worker, which is blocked
+            // by the first task, so the rest have to be stolen
+            for (int i = 0; i < tasksCount; i++) {
+                final boolean isBlocker = i == 0;
+                executor.execute(new WorkStealingThreadPool.AffinityTask() {
+                    @Override
+                    public Object getAffinityKey() {
+                        return affinityKey;
+                    }
+
+                    @Override
+                    public void run() {
+                        if (isBlocker) {
+                            try {
+                                blockerLatch.await(10, TimeUnit.SECONDS);
+                            } catch (InterruptedException ignored) {
+                            }
+                        }
+                    }
+                });
+            }
+
+            final long deadline = System.currentTimeMillis() + 10000;
+            while (completedLatch.getCount() > 1
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, completedLatch.getCount());
+            blockerLatch.countDown();
+            assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(tasksCount, queuedCount.get());
+            assertEquals(tasksCount, dequeuedCount.get());
+
+            final Field poolField = GrizzlyExecutorService.class.getDeclaredField("pool");
+            poolField.setAccessible(true);
+            final WorkStealingThreadPool pool =
+                    (WorkStealingThreadPool) poolField.get(executor);
+            assertNotNull(pool);
+            assertTrue(pool.getStolenTasksCount() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testWorkStealingThreadPoolQueueLimit() throws Exception {
+        final AtomicInteger overflowCount = new AtomicInteger();
+        final CountDownLatch blockerLatch = new CountDownLatch(1);
+        final CountDownLatch startedLatch = new CountDownLatch(1);
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(1).setMaxPoolSize(1).setQueueLimit(2)
+                .setWorkStealing(true);
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onTaskQueueOverflowEvent(AbstractThreadPool threadPool) {
+                overflowCount.incrementAndGet();
+            }
+        });
+
+        final Runnable blocker = new Runnable() {
+            @Override
+            public void run() {
+                startedLatch.countDown();
+                try {
+                    blockerLatch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        };
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+
+        final GrizzlyExecutorService executor =
+                GrizzlyExecutorService.createInstance(config);
+        try {
+            executor.execute(blocker);
+            assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+
+            executor.execute(task);
+            executor.execute(task);
+            try {
+                executor.execute(task);
+                fail("RejectedExecutionException is expected");
+            } catch (RejectedExecutionException expected) {
+            }
+
+            assertEquals(1, overflowCount.get());
+        } finally {
+            blockerLatch.countDown();
+            executor.shutdownNow();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAdaptiveThreadPoolSizer() throws Exception {
+        final int tasksCount = 300;
+        final CountDownLatch completedLatch = new CountDownLatch(tasksCount);
+        final AdaptiveThreadPoolSizer sizer = new AdaptiveThreadPoolSizer(
+                2, TimeUnit.MILLISECONDS, 20, TimeUnit.MILLISECONDS);
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(1).setMaxPoolSize(16);
+        config.getInitialMonitoringConfig().addProbes(sizer);
+
+        final GrizzlyExecutorService executor =
+                GrizzlyExecutorService.createInstance(config);
+        try {
+            // blocking tasks, the pool has to grow to keep the queueing delay
+            for (int i = 0; i < tasksCount; i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(2);
+                        } catch (InterruptedException ignored) {
+                        }
+                        completedLatch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(completedLatch.await(20, TimeUnit.SECONDS));
+            assertTrue(sizer.getPoolSizeLimit() > 1);
+            assertTrue(sizer.getPoolSizeLimit() <= 16);
+            assertTrue(sizer.getThroughput() > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAdaptiveThreadPoolSizerConcurrentSampling() throws Exception {
+        // the tiny sample interval makes the producers (holding the pool lock)
+        // and the consumers sample and resize the pool concurrently
+        final int producersCount = 4;
+        final int tasksPerProducer = 20000;
+        final CountDownLatch completedLatch =
+                new CountDownLatch(producersCount * tasksPerProducer);
+        final AdaptiveThreadPoolSizer sizer = new AdaptiveThreadPoolSizer(
+                1, TimeUnit.MICROSECONDS, 1, TimeUnit.MICROSECONDS);
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(1).setMaxPoolSize(8);
+        config.getInitialMonitoringConfig().addProbes(sizer);
+
+        final GrizzlyExecutorService executor =
+                GrizzlyExecutorService.createInstance(config);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                completedLatch.countDown();
+            }
+        };
+        
+        final Thread[] producers = new Thread[producersCount];
+        try {
+            for (int i = 0; i < producersCount; i++) {
+                producers[i] = new Thread() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < tasksPerProducer; j++) {
+                            executor.execute(task);
+                        }
+                    }
+                };
+                producers[i].start();
+            }
+
+            for (Thread producer : producers) {
+                producer.join(TimeUnit.SECONDS.toMillis(20));
+                assertTrue("Producer is blocked", !producer.isAlive());
+            }
+            
+            assertTrue("Tasks are not completed",
+                    completedLatch.await(20, TimeUnit.SECONDS));
+            assertTrue(sizer.getPoolSizeLimit() >= 1);
+            assertTrue(sizer.getPoolSizeLimit() <= 8);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testSyncThreadPoolShrink() throws Exception {
+        final int maxPoolSize = 4;
+        final CountDownLatch startedLatch = new CountDownLatch(maxPoolSize);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        final CountDownLatch completedLatch = new CountDownLatch(maxPoolSize);
+
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(1).setMaxPoolSize(maxPoolSize)
+                .setKeepAliveTime(1, TimeUnit.MINUTES);
+        // the slow thread release lets the other woken up workers check
+        // the pool size, while the exiting worker is still completing
+        config.getInitialMonitoringConfig().addProbes(new ThreadPoolProbe.Adapter() {
+            @Override
+            public void onThreadReleaseEvent(AbstractThreadPool threadPool,
+                    Thread thread) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        final SyncThreadPool threadPool = new SyncThreadPool(config);
+        try {
+            for (int i = 0; i < maxPoolSize; i++) {
+                threadPool.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        startedLatch.countDown();
+                        try {
+                            releaseLatch.await();
+                        } catch (InterruptedException ignored) {
+                        }
+                        completedLatch.countDown();
+                    }
+                });
+            }
+
+            assertTrue(startedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(maxPoolSize, threadPool.getSize());
+            releaseLatch.countDown();
+            assertTrue(completedLatch.await(10, TimeUnit.SECONDS));
+
+            // shrink by one thread, just one idle non-core worker has to exit
+            threadPool.setMaxPoolSize(maxPoolSize - 1);
+            for (int i = 0; i < 100 && threadPool.getSize() > maxPoolSize - 1; i++) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(200);
+            assertEquals(maxPoolSize - 1, threadPool.getSize());
+
+            threadPool.setMaxPoolSize(2);
+            for (int i = 0; i < 100 && threadPool.getSize() > 2; i++) {
+                Thread.sleep(20);
+            }
+            Thread.sleep(200);
+            assertEquals(2, threadPool.getSize());
+        } finally {
+            threadPool.shutdownNow();
+        }
+
+        assertTrue(threadPool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAdaptiveThreadPoolSizerUnsupportedPool() throws Exception {
+        final ThreadPoolConfig config = ThreadPoolConfig.defaultConfig()
+                .setCorePoolSize(4).setMaxPoolSize(4);
+        config.getInitialMonitoringConfig().addProbes(
+                new AdaptiveThreadPoolSizer(10, TimeUnit.MILLISECONDS));
+
+        try {
+            GrizzlyExecutorService.createInstance(config);
+            fail("AdaptiveThreadPoolSizer has to be rejected by the fixed thread pool");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
     @Test
     public void testCustomThreadPoolSameThreadStrategy() throws Exception {
 
@@ -41,8 +41,16 @@
 package org.glassfish.grizzly;
 
 import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.glassfish.grizzly.filterchain.*;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
@@ -124,5 +132,59 @@ public class UDPNIOTransportTest {
         } finally {
             transport.shutdownNow();
         }
-    }    
+    }
+
+    @Test
+    public void testReadBatch() throws Exception {
+        final int datagramsCount = 200;
+        
+        final Set<Integer> receivedIds =
+                Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        final AtomicInteger wrongAddressCounter = new AtomicInteger();
+        final CountDownLatch receivedLatch = new CountDownLatch(datagramsCount);
+        
+        final DatagramSocket client = new DatagramSocket(
+                new InetSocketAddress("localhost", 0));
+        final UDPNIOTransport transport = UDPNIOTransportBuilder.newInstance()
+                .setReadBatchSize(16)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new BaseFilter() {
+                    @Override
+                    public NextAction handleRead(FilterChainContext ctx)
+                            throws IOException {
+                        final Buffer buffer = ctx.getMessage();
+                        if (!client.getLocalSocketAddress().equals(ctx.getAddress())) {
+                            wrongAddressCounter.incrementAndGet();
+                        }
+                        
+                        if (receivedIds.add(buffer.getInt())) {
+                            receivedLatch.countDown();
+                        }
+                        
+                        buffer.tryDispose();
+                        return ctx.getStopAction();
+                    }
+                }).build());
+        
+        try {
+            transport.bind(PORT);
+            transport.start();
+            
+            final InetSocketAddress serverAddress =
+                    new InetSocketAddress("localhost", PORT);
+            for (int i = 0; i < datagramsCount; i++) {
+                final byte[] data = ByteBuffer.allocate(4).putInt(i).array();
+                client.send(new DatagramPacket(data, data.length, serverAddress));
+            }
+            
+            assertTrue("Received " + receivedIds.size() + " datagrams",
+                    receivedLatch.await(10, TimeUnit.SECONDS));
+            assertEquals(0, wrongAddressCounter.get());
+        } finally {
+            client.close();
+            transport.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.asyncqueue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+import org.glassfish.grizzly.memory.Buffers;
+
+/**
+ * {@link MpscRecordQueue} tests.
+ */
+public class MpscRecordQueueTest extends TestCase {
+
+    public void testOfferPoll() {
+        final MpscRecordQueue<AsyncWriteQueueRecord> queue =
+                new MpscRecordQueue<AsyncWriteQueueRecord>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        
+        final AsyncWriteQueueRecord[] records = createRecords(5);
+        
+        // repeat to go through the stub relinking
+        for (int round = 0; round < 3; round++) {
+            for (AsyncWriteQueueRecord record : records) {
+                queue.offer(record);
+            }
+            
+            assertEquals(records.length, queue.size());
+            assertSame(records[0], queue.peek());
+            
+            for (AsyncWriteQueueRecord record : records) {
+                assertSame(record, queue.poll());
+            }
+            
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+            assertEquals(0, queue.size());
+        }
+    }
+
+    public void testRemove() {
+        final MpscRecordQueue<AsyncWriteQueueRecord> queue =
+                new MpscRecordQueue<AsyncWriteQueueRecord>();
+        final AsyncWriteQueueRecord[] records = createRecords(5);
+        
+        for (AsyncWriteQueueRecord record : records) {
+            queue.offer(record);
+        }
+        
+        assertTrue(queue.remove(records[2]));  // middle
+        assertTrue(queue.remove(records[0]));  // head
+        assertTrue(queue.remove(records[4]));  // tail
+        assertFalse(queue.remove(records[4]));
+        
+        // offer after the tail was removed
+        queue.offer(records[4]);
+        
+        final Iterator<AsyncWriteQueueRecord> it = queue.iterator();
+        assertSame(records[1], it.next());
+        it.remove();
+        assertSame(records[3], it.next());
+        assertSame(records[4], it.next());
+        assertFalse(it.hasNext());
+        
+        assertSame(records[3], queue.poll());
+        assertTrue(queue.remove(records[4]));
+        assertTrue(queue.isEmpty());
+        
+        queue.offer(records[0]);
+        assertSame(records[0], queue.poll());
+        assertNull(queue.poll());
+    }
+
+    public void testDrain() {
+        final TaskQueue<AsyncWriteQueueRecord> taskQueue =
+                TaskQueue.createTaskQueue(null);
+        final AsyncWriteQueueRecord[] records = createRecords(5);
+        
+        for (AsyncWriteQueueRecord record : records) {
+            taskQueue.offer(record);
+        }
+        
+        final List<AsyncWriteQueueRecord> drained =
+                new ArrayList<AsyncWriteQueueRecord>();
+        
+        assertEquals(3, taskQueue.drain(new TaskQueue.Drainer<AsyncWriteQueueRecord>() {
+            @Override
+            public boolean accept(final AsyncWriteQueueRecord task) {
+                if (task == records[3]) {
+                    return false;
+                }
+                
+                drained.add(task);
+                return true;
+            }
+        }));
+        
+        assertEquals(3, drained.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(records[i], drained.get(i));
+        }
+        
+        // the rejected record stays at the head
+        assertSame(records[3], taskQueue.poll());
+        assertSame(records[4], taskQueue.poll());
+        assertNull(taskQueue.poll());
+    }
+
+    public void testConcurrentProducers() throws Exception {
+        final int producersCount = 8;
+        final int recordsPerProducer = 20000;
+        
+        final MpscRecordQueue<AsyncWriteQueueRecord> queue =
+                new MpscRecordQueue<AsyncWriteQueueRecord>();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final AsyncWriteQueueRecord[][] records =
+                new AsyncWriteQueueRecord[producersCount][];
+        
+        for (int i = 0; i < producersCount; i++) {
+            final AsyncWriteQueueRecord[] producerRecords =
+                    createRecords(recordsPerProducer, i);
+            records[i] = producerRecords;
+            
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                    
+                    for (AsyncWriteQueueRecord record : producerRecords) {
+                        queue.offer(record);
+                    }
+                }
+            }.start();
+        }
+        
+        startLatch.countDown();
+        
+        // each producer's records have to be polled in order
+        final int[] nextIdx = new int[producersCount];
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        int polled = 0;
+        
+        while (polled < producersCount * recordsPerProducer) {
+            final AsyncWriteQueueRecord record = queue.poll();
+            if (record == null) {
+                assertTrue("Timeout", System.currentTimeMillis() < deadline);
+                Thread.yield();
+                continue;
+            }
+            
+            final int producer = (Integer) record.getDstAddress();
+            assertSame(records[producer][nextIdx[producer]++], record);
+            polled++;
+        }
+        
+        assertNull(queue.poll());
+    }
+    
+    private static AsyncWriteQueueRecord[] createRecords(final int count) {
+        return createRecords(count, null);
+    }
+    
+    private static AsyncWriteQueueRecord[] createRecords(final int count,
+            final Object dstAddress) {
+        final AsyncWriteQueueRecord[] records = new AsyncWriteQueueRecord[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = AsyncWriteQueueRecord.create(null,
+                    Buffers.EMPTY_BUFFER, null, dstAddress, null, true);
+        }
+        
+        return records;
+    }
+}
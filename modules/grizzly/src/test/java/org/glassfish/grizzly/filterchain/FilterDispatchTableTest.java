@@ -0,0 +1,132 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.filterchain;
+
+import java.io.IOException;
+import org.glassfish.grizzly.filterchain.FilterChainContext.Operation;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link FilterDispatchTable}, which {@link DefaultFilterChain}
+ * uses to jump over the pass-through {@link Filter}s.
+ */
+public class FilterDispatchTableTest {
+
+    @Test
+    public void testPassThroughFilters() {
+        final DefaultFilterChain chain =
+                (DefaultFilterChain) FilterChainBuilder.stateless().build();
+        chain.add(new BaseFilter());
+        chain.add(new EventFilter());
+        chain.add(new BaseFilter());
+        chain.add(new WriteFilter());
+        chain.add(new EventFilter());
+        chain.add(new BaseFilter());
+
+        FilterDispatchTable table = chain.obtainDispatchTable();
+        assertEquals(6, table.size());
+
+        // upstream
+        assertEquals(1, table.next(Operation.EVENT, true, 0, 6));
+        assertEquals(4, table.next(Operation.EVENT, true, 2, 6));
+        assertEquals(6, table.next(Operation.EVENT, true, 5, 6));
+        assertEquals(3, table.next(Operation.EVENT, true, 2, 3));
+        assertEquals(3, table.next(Operation.WRITE, true, 0, 6));
+        assertEquals(6, table.next(Operation.READ, true, 0, 6));
+
+        // downstream
+        assertEquals(4, table.next(Operation.EVENT, false, 5, -1));
+        assertEquals(1, table.next(Operation.EVENT, false, 3, -1));
+        assertEquals(-1, table.next(Operation.EVENT, false, 0, -1));
+        assertEquals(3, table.next(Operation.WRITE, false, 5, -1));
+
+        // the chain change has to recompile the table
+        chain.add(new EventFilter());
+        chain.add(new BaseFilter());
+
+        table = chain.obtainDispatchTable();
+        assertEquals(8, table.size());
+        assertEquals(6, table.next(Operation.EVENT, true, 5, 8));
+        assertEquals(8, table.next(Operation.EVENT, true, 7, 8));
+
+        chain.remove(4);
+        chain.set(0, new EventFilter());
+
+        table = chain.obtainDispatchTable();
+        assertEquals(7, table.size());
+        assertEquals(0, table.next(Operation.EVENT, true, 0, 7));
+        assertEquals(5, table.next(Operation.EVENT, true, 2, 7));
+    }
+
+    @Test
+    public void testTransportFilter() {
+        final DefaultFilterChain chain =
+                (DefaultFilterChain) FilterChainBuilder.stateless().build();
+        chain.add(new BaseFilter());
+        chain.add(new TransportFilter());
+
+        final FilterDispatchTable table = chain.obtainDispatchTable();
+        // TransportFilter handles all the operations
+        for (Operation operation : new Operation[] {Operation.ACCEPT,
+                Operation.CONNECT, Operation.READ, Operation.WRITE,
+                Operation.EVENT, Operation.CLOSE}) {
+            assertEquals(1, table.next(operation, true, 0, 2));
+        }
+    }
+
+    private static class EventFilter extends BaseFilter {
+        @Override
+        public NextAction handleEvent(final FilterChainContext ctx,
+                final FilterChainEvent event) throws IOException {
+            return ctx.getInvokeAction();
+        }
+    }
+
+    private static class WriteFilter extends BaseFilter {
+        @Override
+        public NextAction handleWrite(final FilterChainContext ctx)
+                throws IOException {
+            return ctx.getInvokeAction();
+        }
+    }
+}
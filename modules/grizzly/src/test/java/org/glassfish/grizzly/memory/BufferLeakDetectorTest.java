@@ -0,0 +1,103 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.memory;
+
+import org.glassfish.grizzly.Buffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link BufferLeakDetector} tests.
+ */
+public class BufferLeakDetectorTest {
+
+    static {
+        System.setProperty(PooledMemoryManager.class.getName()
+                + ".leak-detection-sampling-rate", "1");
+    }
+
+    @Test
+    public void testLeakDetected() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager();
+        final BufferLeakDetector leakDetector = mm.getLeakDetector();
+        assertNotNull(leakDetector);
+
+        allocateAndLeak(mm);
+
+        for (int i = 0; i < 100 && leakDetector.getLeaksCount() == 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        assertEquals(1, leakDetector.getLeaksCount());
+    }
+
+    @Test
+    public void testReleasedBufferIsNotLeak() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager();
+        final BufferLeakDetector leakDetector = mm.getLeakDetector();
+
+        final Buffer b = mm.allocate(1024);
+        ((ReferenceCountedBuffer) b).retain();
+        b.release();
+        b.release();
+
+        // the other buffer is shared by a slice only
+        Buffer slice = mm.allocate(1024).slice(0, 512);
+        slice.tryDispose();
+        //noinspection UnusedAssignment
+        slice = null;
+
+        for (int i = 0; i < 100 && leakDetector.getLeaksCount() == 0; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        // the first buffer was released, the second one leaked
+        assertEquals(1, leakDetector.getLeaksCount());
+    }
+
+    private static void allocateAndLeak(final MemoryManager mm) {
+        final Buffer b = mm.allocate(1024);
+        b.put(0, (byte) 1);
+    }
+}
@@ -699,6 +699,205 @@ public class PooledMemoryManagerTest {
     }
 
 
+    @Test
+    public void testArenaAllocationAndDispose() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect, 8);
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        final int initialCount = pool.elementsCount();
+
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        // the 1st allocation misses the arena and refills it with a batch
+        // of 4 buffers
+        final Buffer b1 = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(1, probe.arenaMiss.get());
+        assertEquals(0, probe.bufferAllocatedFromArena.get());
+        assertEquals(4, probe.bufferAllocatedFromPool.get());
+        assertEquals(3, pool.arenaElementsCount());
+        assertEquals(initialCount - 4, pool.elementsCount());
+
+        final Buffer b2 = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(1, probe.arenaMiss.get());
+        assertEquals(1, probe.bufferAllocatedFromArena.get());
+        assertEquals(2, pool.arenaElementsCount());
+
+        // buffers released on the same thread stay in the arena
+        b1.tryDispose();
+        b2.tryDispose();
+        assertEquals(0, probe.bufferReleasedToPool.get());
+        assertEquals(4, pool.arenaElementsCount());
+        assertEquals(initialCount - 4, pool.elementsCount());
+
+        // released buffer must be reusable
+        final Buffer b3 = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(2, probe.bufferAllocatedFromArena.get());
+        assertEquals(DEFAULT_BASE_BUFFER_SIZE, b3.remaining());
+        b3.put(0, (byte) 1);
+        b3.tryDispose();
+        assertEquals(0, probe.bufferAllocated.get());
+    }
+
+    @Test
+    public void testArenaSpill() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect, 8);
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        final int initialCount = pool.elementsCount();
+
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        final Buffer[] buffers = new Buffer[10];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        }
+
+        // refills on the 1st, 5th and 9th allocations
+        assertEquals(3, probe.arenaMiss.get());
+        assertEquals(7, probe.bufferAllocatedFromArena.get());
+        assertEquals(12, probe.bufferAllocatedFromPool.get());
+        assertEquals(2, pool.arenaElementsCount());
+
+        for (Buffer buffer : buffers) {
+            buffer.tryDispose();
+        }
+
+        // the arena overflowed once and spilled a batch of 4 buffers
+        assertEquals(4, probe.bufferReleasedToPool.get());
+        assertEquals(8, pool.arenaElementsCount());
+        assertEquals(initialCount - 12 + 4, pool.elementsCount());
+    }
+
+    @Test
+    public void testArenaCrossThreadRelease() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect, 8);
+        final PooledMemoryManager.Pool pool = mm.getPools()[0];
+        final int initialCount = pool.elementsCount();
+
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        final Buffer b = mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(3, pool.arenaElementsCount());
+
+        // the buffer released on the thread without an arena has to be
+        // returned to the owning slice
+        final Thread t = new Thread() {
+            @Override
+            public void run() {
+                b.tryDispose();
+            }
+        };
+        t.start();
+        t.join(10000);
+
+        assertEquals(1, probe.bufferReleasedToPool.get());
+        assertEquals(3, pool.arenaElementsCount());
+        assertEquals(initialCount - 3, pool.elementsCount());
+    }
+
+    @Test
+    public void testReferenceCounting() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect);
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        final ReferenceCountedBuffer b =
+                (ReferenceCountedBuffer) mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(1, b.refCount());
+
+        assertSame(b, b.retain());
+        assertSame(b, b.retain());
+        assertEquals(3, b.refCount());
+
+        // the buffer stays usable until the last reference is dropped
+        b.tryDispose();
+        assertTrue(b.release());
+        assertEquals(1, b.refCount());
+        b.put(0, (byte) 1);
+        assertEquals(0, probe.bufferReleasedToPool.get());
+
+        b.dispose();
+        assertEquals(0, b.refCount());
+        assertEquals(1, probe.bufferReleasedToPool.get());
+
+        // double release has no effect
+        b.release();
+        assertEquals(1, probe.bufferReleasedToPool.get());
+
+        try {
+            b.retain();
+            fail("Released buffer can't be retained");
+        } catch (IllegalStateException expected) {
+        }
+
+        // the buffer is reset, when reallocated from the pool
+        final ReferenceCountedBuffer b2 =
+                (ReferenceCountedBuffer) mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        assertEquals(1, b2.refCount());
+        b2.dispose();
+    }
+
+    @Test
+    public void testRetainedSlice() throws Exception {
+        final PooledMemoryManager mm = new PooledMemoryManager(
+                DEFAULT_BASE_BUFFER_SIZE, 1, 0, 1,
+                DEFAULT_HEAP_USAGE_PERCENTAGE,
+                DEFAULT_PREALLOCATED_BUFFERS_PERCENTAGE,
+                isDirect);
+        final TestProbe probe = new TestProbe();
+        mm.getMonitoringConfig().addProbes(probe);
+
+        final ReferenceCountedBuffer b =
+                (ReferenceCountedBuffer) mm.allocate(DEFAULT_BASE_BUFFER_SIZE);
+        for (int i = 0; i < 16; i++) {
+            b.put(i, (byte) i);
+        }
+
+        final ReferenceCountedBuffer slice1 = b.retainedSlice(0, 8);
+        final ReferenceCountedBuffer slice2 = b.retainedSlice(8, 16);
+        final ReferenceCountedBuffer duplicate = b.retainedDuplicate();
+        assertEquals(8, slice1.remaining());
+        assertEquals(1, slice1.refCount());
+
+        // the original owner is done with the buffer
+        b.release();
+        assertEquals(0, probe.bufferReleasedToPool.get());
+
+        // the slices are independent views of the same memory
+        assertEquals(7, slice1.get(7));
+        assertEquals(8, slice2.get(0));
+        slice2.position(4);
+        assertEquals(0, slice1.position());
+
+        // a slice could be shared by several owners itself
+        slice1.retain();
+        slice1.release();
+        slice2.release();
+        duplicate.release();
+        assertEquals(0, probe.bufferReleasedToPool.get());
+        assertEquals(7, slice1.get(7));
+
+        slice1.release();
+        assertEquals(1, probe.bufferReleasedToPool.get());
+    }
+
     @Test
     public void circularityBoundaryTest() {
         final PooledMemoryManager mm = new PooledMemoryManager(
@@ -839,6 +1038,8 @@ public class PooledMemoryManagerTest {
         final AtomicInteger bufferAllocated = new AtomicInteger();
         final AtomicInteger bufferAllocatedFromPool = new AtomicInteger();
         final AtomicInteger bufferReleasedToPool = new AtomicInteger();
+        final AtomicInteger bufferAllocatedFromArena = new AtomicInteger();
+        final AtomicInteger arenaMiss = new AtomicInteger();
 
         @Override
         public void onBufferAllocateEvent(int size) {
@@ -854,5 +1055,15 @@ public class PooledMemoryManagerTest {
         public void onBufferReleaseToPoolEvent(int size) {
             bufferReleasedToPool.incrementAndGet();
         }
+
+        @Override
+        public void onBufferAllocateFromArenaEvent(int size) {
+            bufferAllocatedFromArena.incrementAndGet();
+        }
+
+        @Override
+        public void onArenaMissEvent(int size) {
+            arenaMiss.incrementAndGet();
+        }
     }
 }
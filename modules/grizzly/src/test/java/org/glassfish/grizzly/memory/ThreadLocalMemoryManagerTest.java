@@ -429,5 +429,15 @@ public class ThreadLocalMemoryManagerTest extends AbstractThreadLocalMemoryManag
         public void onBufferReleaseToPoolEvent(int size) {
             LOGGER.log(Level.INFO, "releaseBufferToPoolEvent: {0}", size);
         }
+
+        @Override
+        public void onBufferAllocateFromArenaEvent(int size) {
+            LOGGER.log(Level.INFO, "allocateBufferFromArenaEvent: {0}", size);
+        }
+
+        @Override
+        public void onArenaMissEvent(int size) {
+            LOGGER.log(Level.INFO, "arenaMissEvent: {0}", size);
+        }
     }
 }
@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import junit.framework.TestCase;
+import org.glassfish.grizzly.Transport;
+import org.glassfish.grizzly.TransportProbe;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.utils.EchoFilter;
+
+/**
+ * Test the array-backed {@link SelectedSelectionKeySet} and
+ * {@link SelectorRunner} draining it.
+ */
+public class SelectedSelectionKeySetTest extends TestCase {
+
+    static {
+        System.setProperty(SelectorRunner.class.getName()
+                + ".optimize-selected-keys", "true");
+    }
+
+    public void testInstall() throws Exception {
+        final Selector selector = Selectors.newSelector(
+                SelectorProvider.provider());
+        final Pipe pipe = Pipe.open();
+        try {
+            final SelectedSelectionKeySet keySet =
+                    SelectedSelectionKeySet.install(selector);
+            assertNotNull(keySet);
+            assertSame(keySet, selector.selectedKeys());
+
+            pipe.source().configureBlocking(false);
+            final SelectionKey key = pipe.source().register(selector,
+                    SelectionKey.OP_READ);
+
+            assertEquals(0, selector.selectNow());
+            assertTrue(keySet.isEmpty());
+
+            pipe.sink().write(ByteBuffer.wrap(new byte[] {1}));
+            assertEquals(1, selector.selectNow());
+            assertEquals(1, keySet.size());
+            assertSame(key, keySet.get(0));
+            assertTrue(key.isReadable());
+
+            keySet.clear();
+            assertEquals(0, keySet.size());
+            assertNull(keySet.get(0));
+
+            // the data wasn't read, so the key has to be selected again
+            assertEquals(1, selector.selectNow());
+            assertEquals(1, keySet.size());
+            assertSame(key, keySet.get(0));
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+            selector.close();
+        }
+    }
+
+    public void testGrow() throws Exception {
+        final SelectedSelectionKeySet keySet = new SelectedSelectionKeySet();
+        final Selector selector = Selectors.newSelector(
+                SelectorProvider.provider());
+        final Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            pipe.sink().configureBlocking(false);
+            final SelectionKey[] keys = {
+                pipe.source().register(selector, SelectionKey.OP_READ),
+                pipe.sink().register(selector, SelectionKey.OP_WRITE)
+            };
+
+            final int count = 3000;
+            for (int i = 0; i < count; i++) {
+                assertTrue(keySet.add(keys[i & 1]));
+            }
+            assertFalse(keySet.add(null));
+
+            assertEquals(count, keySet.size());
+            int i = 0;
+            for (SelectionKey key : keySet) {
+                assertSame(keys[i & 1], key);
+                assertSame(key, keySet.get(i));
+                i++;
+            }
+            assertEquals(count, i);
+
+            keySet.clear();
+            assertTrue(keySet.isEmpty());
+            assertFalse(keySet.iterator().hasNext());
+        } finally {
+            pipe.sink().close();
+            pipe.source().close();
+            selector.close();
+        }
+    }
+
+    public void testEcho() throws Exception {
+        assertTrue(SelectorRunner.OPTIMIZE_SELECTED_KEYS);
+
+        final AtomicLong selects = new AtomicLong();
+        final AtomicLong selectedKeys = new AtomicLong();
+
+        final TCPNIOTransport transport =
+                TCPNIOTransportBuilder.newInstance().build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new EchoFilter())
+                .build());
+        transport.getMonitoringConfig().addProbes(new TransportProbe.Adapter() {
+            @Override
+            public void onSelectEvent(Transport transport, int selectedKeysCount) {
+                selects.incrementAndGet();
+                selectedKeys.addAndGet(selectedKeysCount);
+            }
+        });
+
+        Socket socket = null;
+        try {
+            final TCPNIOServerConnection serverConnection =
+                    transport.bind(0);
+            transport.start();
+
+            final int port = ((InetSocketAddress)
+                    serverConnection.getLocalAddress()).getPort();
+            socket = new Socket("localhost", port);
+            socket.setSoTimeout(10000);
+            final OutputStream out = socket.getOutputStream();
+            final InputStream in = socket.getInputStream();
+
+            for (int i = 0; i < 16; i++) {
+                final byte[] message = ("Hello " + i).getBytes();
+                out.write(message);
+                out.flush();
+
+                final byte[] echo = new byte[message.length];
+                int offset = 0;
+                while (offset < echo.length) {
+                    final int read = in.read(echo, offset, echo.length - offset);
+                    assertTrue("Unexpected EOF", read > 0);
+                    offset += read;
+                }
+                assertTrue(Arrays.equals(message, echo));
+            }
+
+            final SelectorRunner[] runners = transport.getSelectorRunners();
+            for (SelectorRunner runner : runners) {
+                assertNotNull(runner.getSelector().selectedKeys());
+                assertTrue(runner.getSelector().selectedKeys()
+                        instanceof SelectedSelectionKeySet);
+            }
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+            transport.shutdownNow();
+        }
+
+        assertTrue(selects.get() > 0);
+        // accept + at least one read per message
+        assertTrue(selectedKeys.get() >= 17);
+    }
+}
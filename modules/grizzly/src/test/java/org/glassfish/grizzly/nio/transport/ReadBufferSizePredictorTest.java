@@ -0,0 +1,92 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.nio.transport;
+
+import junit.framework.TestCase;
+
+/**
+ * {@link ReadBufferSizePredictor} tests.
+ */
+public class ReadBufferSizePredictorTest extends TestCase {
+
+    public void testInitialSizeIsClamped() {
+        assertEquals(1024, new ReadBufferSizePredictor(512, 4096, 1024).nextSize());
+        assertEquals(512, new ReadBufferSizePredictor(512, 4096, 16).nextSize());
+        assertEquals(4096, new ReadBufferSizePredictor(512, 4096, 1 << 20).nextSize());
+        assertEquals(512, new ReadBufferSizePredictor(512, 256, 1024).nextSize());
+    }
+
+    public void testGrow() {
+        final ReadBufferSizePredictor predictor =
+                new ReadBufferSizePredictor(512, 4096, 1024);
+        
+        predictor.onRead(1024, 1024);
+        assertEquals(2048, predictor.nextSize());
+        predictor.onRead(2048, 2048);
+        assertEquals(4096, predictor.nextSize());
+        predictor.onRead(4096, 4096);
+        assertEquals(4096, predictor.nextSize());
+    }
+
+    public void testShrink() {
+        final ReadBufferSizePredictor predictor =
+                new ReadBufferSizePredictor(512, 4096, 4096);
+        
+        // a single small read doesn't change the prediction
+        predictor.onRead(4096, 10);
+        assertEquals(4096, predictor.nextSize());
+        
+        predictor.onRead(4096, 10);
+        assertEquals(2048, predictor.nextSize());
+        
+        // a read which doesn't fit into the half resets the shrinking
+        predictor.onRead(2048, 10);
+        predictor.onRead(2048, 1500);
+        predictor.onRead(2048, 10);
+        assertEquals(2048, predictor.nextSize());
+        
+        for (int i = 0; i < 10; i++) {
+            predictor.onRead(predictor.nextSize(), 10);
+        }
+        
+        assertEquals(512, predictor.nextSize());
+    }
+}
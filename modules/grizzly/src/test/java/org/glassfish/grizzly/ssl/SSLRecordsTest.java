@@ -0,0 +1,431 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.ssl;
+
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.ByteBufferArray;
+import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.memory.HeapMemoryManager;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.transport.TCPNIOConnection;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.ssl.SSLConnectionContext.Allocator;
+import org.glassfish.grizzly.ssl.SSLConnectionContext.SslResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the SSL/TLS record framing, which is used to presize and gather
+ * the buffers for {@link SSLEngine} wrap/unwrap operations.
+ */
+public class SSLRecordsTest {
+    private static final byte HANDSHAKE = 22;
+    private static final byte CHANGE_CIPHER_SPEC = 20;
+    private static final byte APPLICATION_DATA = 23;
+    
+    private static final int MAX_RECORD_PLAINTEXT_SIZE = 16384;
+    private static final int MAX_RECORDS_PER_OUTPUT_BUFFER = 4;
+    
+    private final MemoryManager mm = new HeapMemoryManager();
+    
+    private final Allocator allocator = new Allocator() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public Buffer grow(final SSLConnectionContext sslCtx,
+                final Buffer oldBuffer, final int newSize) {
+            return oldBuffer == null ?
+                    mm.allocate(newSize) :
+                    mm.reallocate(oldBuffer, newSize);
+        }
+    };
+    
+    private SSLEngine clientEngine;
+    private SSLConnectionContext serverSslCtx;
+    
+    @Before
+    public void setUp() throws Exception {
+        final SSLContextConfigurator sslContextConfigurator =
+                createSSLContextConfigurator();
+        
+        clientEngine = new SSLEngineConfigurator(
+                sslContextConfigurator.createSSLContext(true),
+                true, false, false).createSSLEngine();
+        final SSLEngine serverEngine = new SSLEngineConfigurator(
+                sslContextConfigurator.createSSLContext(true),
+                false, false, false).createSSLEngine();
+        
+        handshake(clientEngine, serverEngine);
+        
+        serverSslCtx = new SSLConnectionContext(
+                new TCPNIOConnection(TCPNIOTransportBuilder.newInstance().build(), null));
+        serverSslCtx.configure(serverEngine);
+    }
+    
+    @Test
+    public void testRecordsSizePartialHeader() {
+        final byte[] record = record(APPLICATION_DATA, 100);
+        
+        assertEquals(0, recordsSize(Arrays.copyOf(record, 4)));
+        assertEquals(record.length, recordsSize(
+                concat(record, Arrays.copyOf(record, 3))));
+    }
+    
+    @Test
+    public void testRecordsSizePartialRecord() {
+        final byte[] record = record(APPLICATION_DATA, 100);
+        
+        assertEquals(0, recordsSize(Arrays.copyOf(record, 50)));
+        assertEquals(0, recordsSize(Arrays.copyOf(record, record.length - 1)));
+        assertEquals(record.length, recordsSize(
+                concat(record, Arrays.copyOf(record, 50))));
+    }
+    
+    @Test
+    public void testRecordsSizeSSLv2Header() {
+        // SSLv2 ClientHello: 2-byte length with the high bit set, msg type 1
+        final byte[] sslv2Hello = new byte[0x2e + 2];
+        sslv2Hello[0] = (byte) 0x80;
+        sslv2Hello[1] = 0x2e;
+        sslv2Hello[2] = 1;
+        sslv2Hello[3] = 3;
+        sslv2Hello[4] = 1;
+        
+        final byte[] record = record(HANDSHAKE, 10);
+        
+        assertEquals(0, recordsSize(sslv2Hello));
+        assertEquals(0, recordsSize(concat(sslv2Hello, record)));
+        assertEquals(record.length, recordsSize(concat(record, sslv2Hello)));
+    }
+    
+    @Test
+    public void testRecordsSizeMalformed() {
+        final byte[] plainText = "GET / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes();
+        final byte[] record = record(APPLICATION_DATA, 10);
+        
+        assertEquals(0, recordsSize(plainText));
+        assertEquals(record.length, recordsSize(concat(record, plainText)));
+        
+        // content types out of the SSLv3/TLS range
+        assertEquals(0, recordsSize(record((byte) 19, 10)));
+        assertEquals(0, recordsSize(record((byte) 24, 10)));
+    }
+    
+    @Test
+    public void testRecordsSizeOversized() {
+        final int maxLength = MAX_RECORD_PLAINTEXT_SIZE + 2048;
+        
+        final byte[] maxRecord = record(APPLICATION_DATA, maxLength);
+        assertEquals(maxRecord.length, recordsSize(maxRecord));
+        
+        // the complete, but too long records must not be counted
+        assertEquals(0, recordsSize(record(APPLICATION_DATA, maxLength + 1)));
+        assertEquals(0, recordsSize(record(APPLICATION_DATA, 0xFFFF)));
+        
+        final byte[] record = record(HANDSHAKE, 10);
+        assertEquals(record.length, recordsSize(
+                concat(record, record(APPLICATION_DATA, 0xFFFF))));
+    }
+    
+    @Test
+    public void testRecordsSizeMultipleRecords() {
+        final byte[] records = concat(
+                record(HANDSHAKE, 100),
+                record(CHANGE_CIPHER_SPEC, 1),
+                record(APPLICATION_DATA, MAX_RECORD_PLAINTEXT_SIZE),
+                record(APPLICATION_DATA, 0));
+        final byte[] partialRecord = Arrays.copyOf(record(HANDSHAKE, 10), 8);
+        final byte[] junk = new byte[7];
+        
+        final Buffer buffer = Buffers.wrap(mm, concat(junk, records, partialRecord));
+        buffer.position(junk.length);
+        
+        assertEquals(records.length, SSLUtils.getSSLRecordsSize(buffer));
+        assertEquals(junk.length, buffer.position());
+        
+        // the same records split in the middle of the headers and bodies
+        final Buffer composite = split(concat(records, partialRecord),
+                3, 104, 107, 200, records.length - 2);
+        assertTrue(composite.isComposite());
+        assertEquals(records.length, SSLUtils.getSSLRecordsSize(composite));
+    }
+    
+    @Test
+    public void testUnwrapRecordSpanningChunks() throws Exception {
+        final byte[] record1 = wrap(clientEngine, "record1".getBytes());
+        final byte[] record2 = wrap(clientEngine, "record2".getBytes());
+        
+        // record1 spans the chunks, record2 is contained in the second one
+        final Buffer input = split(concat(record1, record2), record1.length / 2);
+        assertEquals(record1.length + record2.length,
+                SSLUtils.getSSLRecordsSize(input));
+        
+        SslResult result = serverSslCtx.unwrap(record1.length, input, null,
+                allocator);
+        assertFalse(result.isError());
+        assertEquals(record1.length, input.position());
+        
+        Buffer output = result.getOutput();
+        output.flip();
+        assertEquals("record1", output.toStringContent());
+        
+        result = serverSslCtx.unwrap(record2.length, input, null, allocator);
+        assertFalse(result.isError());
+        assertFalse(input.hasRemaining());
+        
+        output = result.getOutput();
+        output.flip();
+        assertEquals("record2", output.toStringContent());
+    }
+    
+    @Test
+    public void testWrapAllMaxRecordsPerOutputBuffer() throws Exception {
+        final int recordsCount = 6;
+        final byte[] plainText = new byte[recordsCount * MAX_RECORD_PLAINTEXT_SIZE];
+        for (int i = 0; i < plainText.length; i++) {
+            plainText[i] = (byte) i;
+        }
+        
+        final Buffer input = Buffers.wrap(mm, plainText);
+        final Buffer output = serverSslCtx.wrapAll(input,
+                SSLBaseFilter.OUTPUT_BUFFER_ALLOCATOR);
+        assertFalse(input.hasRemaining());
+        
+        // the first network buffer is filled up to the limit,
+        // the rest of the records go to the next one(s)
+        final ByteBufferArray bba = output.toByteBufferArray();
+        final ByteBuffer[] chunks = bba.getArray();
+        assertTrue(bba.size() > 1);
+        assertEquals(MAX_RECORDS_PER_OUTPUT_BUFFER, countRecords(chunks[0]));
+        
+        int records = 0;
+        for (int i = 0; i < bba.size(); i++) {
+            final int chunkRecords = countRecords(chunks[i]);
+            assertTrue(chunkRecords <= MAX_RECORDS_PER_OUTPUT_BUFFER);
+            records += chunkRecords;
+        }
+        // TLS 1.3 records may carry less than 2^14 bytes of the plain text
+        assertTrue(records >= recordsCount);
+        
+        // the records are decrypted to the original plain text
+        final byte[] wrapped = new byte[output.remaining()];
+        output.get(wrapped);
+        
+        final ByteBuffer netBuffer = ByteBuffer.wrap(wrapped);
+        final ByteBuffer appBuffer = ByteBuffer.allocate(plainText.length
+                + clientEngine.getSession().getApplicationBufferSize());
+        while (netBuffer.hasRemaining()) {
+            clientEngine.unwrap(netBuffer, appBuffer);
+        }
+        
+        appBuffer.flip();
+        final byte[] unwrapped = new byte[appBuffer.remaining()];
+        appBuffer.get(unwrapped);
+        assertArrayEquals(plainText, unwrapped);
+    }
+    
+    @Test
+    public void testOutputBufferAllocatorGrowKeepsContent() {
+        final Allocator outputAllocator = SSLBaseFilter.OUTPUT_BUFFER_ALLOCATOR;
+        
+        final Buffer buffer = outputAllocator.grow(serverSslCtx, null, 16);
+        buffer.put("wrapped".getBytes());
+        
+        final Buffer grownBuffer = outputAllocator.grow(serverSslCtx, buffer, 64);
+        assertEquals(7, grownBuffer.position());
+        assertTrue(grownBuffer.remaining() >= 64 - 7);
+        
+        grownBuffer.flip();
+        assertEquals("wrapped", grownBuffer.toStringContent());
+    }
+    
+    // --------------------------------------------------------- Private Methods
+
+    
+    private int recordsSize(final byte[] bytes) {
+        return SSLUtils.getSSLRecordsSize(Buffers.wrap(mm, bytes));
+    }
+    
+    /**
+     * @return the {@link CompositeBuffer}, which chunks are split at the
+     *         given offsets
+     */
+    private Buffer split(final byte[] bytes, final int... offsets) {
+        final CompositeBuffer composite = CompositeBuffer.newBuffer(mm);
+        int start = 0;
+        for (int offset : offsets) {
+            composite.append(Buffers.wrap(mm, bytes, start, offset - start));
+            start = offset;
+        }
+        composite.append(Buffers.wrap(mm, bytes, start, bytes.length - start));
+        
+        return composite;
+    }
+    
+    private static byte[] record(final byte contentType, final int length) {
+        final byte[] record = new byte[length + 5];
+        record[0] = contentType;
+        record[1] = 3;
+        record[2] = 3;
+        record[3] = (byte) (length >> 8);
+        record[4] = (byte) length;
+        
+        return record;
+    }
+    
+    private static byte[] concat(final byte[]... arrays) {
+        int length = 0;
+        for (byte[] array : arrays) {
+            length += array.length;
+        }
+        
+        final byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] array : arrays) {
+            System.arraycopy(array, 0, result, offset, array.length);
+            offset += array.length;
+        }
+        
+        return result;
+    }
+    
+    private static int countRecords(final ByteBuffer buffer) {
+        int count = 0;
+        for (int pos = buffer.position(); pos < buffer.limit(); count++) {
+            pos += 5 + (((buffer.get(pos + 3) & 0xff) << 8)
+                    | (buffer.get(pos + 4) & 0xff));
+        }
+        
+        return count;
+    }
+    
+    private static byte[] wrap(final SSLEngine engine, final byte[] plainText)
+            throws SSLException {
+        final ByteBuffer netBuffer = ByteBuffer.allocate(
+                engine.getSession().getPacketBufferSize());
+        engine.wrap(ByteBuffer.wrap(plainText), netBuffer);
+        
+        return Arrays.copyOf(netBuffer.array(), netBuffer.position());
+    }
+    
+    /**
+     * Handshakes the engines in memory, until there are no pending
+     * handshake messages left.
+     */
+    private static void handshake(final SSLEngine client,
+            final SSLEngine server) throws SSLException {
+        final ByteBuffer clientToServer = ByteBuffer.allocate(65536);
+        final ByteBuffer serverToClient = ByteBuffer.allocate(65536);
+        
+        client.beginHandshake();
+        server.beginHandshake();
+        
+        for (int i = 0; i < 1000; i++) {
+            final boolean clientProgress =
+                    handshakeStep(client, serverToClient, clientToServer);
+            final boolean serverProgress =
+                    handshakeStep(server, clientToServer, serverToClient);
+            
+            if (!clientProgress && !serverProgress
+                    && clientToServer.position() == 0
+                    && serverToClient.position() == 0) {
+                return;
+            }
+        }
+        
+        fail("The handshake is not completed");
+    }
+    
+    private static boolean handshakeStep(final SSLEngine engine,
+            final ByteBuffer in, final ByteBuffer out) throws SSLException {
+        final HandshakeStatus status = engine.getHandshakeStatus();
+        switch (status) {
+            case NEED_TASK:
+                SSLUtils.executeDelegatedTask(engine);
+                return true;
+            case NEED_WRAP:
+                engine.wrap(ByteBuffer.allocate(0), out);
+                return true;
+            default:
+                if (in.position() == 0) {
+                    return false;
+                }
+                
+                in.flip();
+                try {
+                    engine.unwrap(in, ByteBuffer.allocate(
+                            engine.getSession().getApplicationBufferSize()));
+                } finally {
+                    in.compact();
+                }
+                
+                return true;
+        }
+    }
+
+    private SSLContextConfigurator createSSLContextConfigurator() {
+        final SSLContextConfigurator sslContextConfigurator =
+                new SSLContextConfigurator();
+        final ClassLoader cl = getClass().getClassLoader();
+        
+        final URL cacertsUrl = cl.getResource("ssltest-cacerts.jks");
+        if (cacertsUrl != null) {
+            sslContextConfigurator.setTrustStoreFile(cacertsUrl.getFile());
+            sslContextConfigurator.setTrustStorePass("changeit");
+        }
+
+        final URL keystoreUrl = cl.getResource("ssltest-keystore.jks");
+        if (keystoreUrl != null) {
+            sslContextConfigurator.setKeyStoreFile(keystoreUrl.getFile());
+            sslContextConfigurator.setKeyStorePass("changeit");
+        }
+
+        return sslContextConfigurator;
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+/**
+ * {@link DelayedExecutor} tests.
+ */
+public class DelayedExecutorTest extends TestCase {
+    private ExecutorService threadPool;
+    
+    @Override
+    protected void setUp() throws Exception {
+        threadPool = Executors.newCachedThreadPool();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        threadPool.shutdownNow();
+    }
+
+    public void testExpiration() throws Exception {
+        doTestExpiration(false);
+        doTestExpiration(true);
+    }
+
+    public void testProlongedTimeout() throws Exception {
+        doTestProlongedTimeout(false);
+        doTestProlongedTimeout(true);
+    }
+    
+    public void testRemove() throws Exception {
+        doTestRemove(false);
+        doTestRemove(true);
+    }
+    
+    public void testRescheduleCloser() throws Exception {
+        final DelayedExecutor executor = new DelayedExecutor(threadPool,
+                10, TimeUnit.MILLISECONDS, true);
+        assertTrue(executor.isTimingWheel());
+        
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new LatchWorker(latch), new ElementResolver());
+        executor.start();
+        
+        try {
+            final Element element = new Element();
+            queue.add(element, Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            
+            // change the timeout directly via resolver
+            element.timeoutMillis = System.currentTimeMillis() + 50;
+            queue.reschedule(element);
+            
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    public void testWorkerRetry() throws Exception {
+        final DelayedExecutor executor = new DelayedExecutor(threadPool,
+                10, TimeUnit.MILLISECONDS, true);
+        
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new DelayedExecutor.Worker<Element>() {
+
+            @Override
+            public boolean doWork(final Element element) {
+                if (attempts.incrementAndGet() < 3) {
+                    return false;
+                }
+                
+                latch.countDown();
+                return true;
+            }
+        }, new ElementResolver());
+        executor.start();
+        
+        try {
+            queue.add(new Element(), 10, TimeUnit.MILLISECONDS);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(3, attempts.get());
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private void doTestExpiration(final boolean useTimingWheel)
+            throws Exception {
+        final int count = 1000;
+        final DelayedExecutor executor = new DelayedExecutor(threadPool,
+                10, TimeUnit.MILLISECONDS, useTimingWheel);
+        
+        final CountDownLatch latch = new CountDownLatch(count);
+        final Queue<Element> expired = new ConcurrentLinkedQueue<Element>();
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new DelayedExecutor.Worker<Element>() {
+
+            @Override
+            public boolean doWork(final Element element) {
+                element.expiredAtMillis = System.currentTimeMillis();
+                expired.add(element);
+                latch.countDown();
+                return true;
+            }
+        }, new ElementResolver());
+        executor.start();
+        
+        try {
+            for (int i = 0; i < count; i++) {
+                // spread the timeouts over several wheel levels
+                queue.add(new Element(), (i % 10) * (i % 7) * 10,
+                        TimeUnit.MILLISECONDS);
+            }
+            
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            
+            for (Element element : expired) {
+                assertTrue(element.expiredAtMillis >= element.timeoutMillis);
+            }
+        } finally {
+            executor.destroy();
+        }
+    }
+    
+    private void doTestProlongedTimeout(final boolean useTimingWheel)
+            throws Exception {
+        final DelayedExecutor executor = new DelayedExecutor(threadPool,
+                10, TimeUnit.MILLISECONDS, useTimingWheel);
+        
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new LatchWorker(latch), new ElementResolver());
+        executor.start();
+        
+        try {
+            final Element element = new Element();
+            queue.add(element, 50, TimeUnit.MILLISECONDS);
+            
+            // prolong the timeout directly via resolver
+            final long prolongedMillis = System.currentTimeMillis() + 300;
+            element.timeoutMillis = prolongedMillis;
+            
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertTrue(System.currentTimeMillis() >= prolongedMillis);
+        } finally {
+            executor.destroy();
+        }
+    }
+    
+    private void doTestRemove(final boolean useTimingWheel) throws Exception {
+        final DelayedExecutor executor = new DelayedExecutor(threadPool,
+                10, TimeUnit.MILLISECONDS, useTimingWheel);
+        
+        final CountDownLatch latch = new CountDownLatch(1);
+        final DelayedExecutor.DelayQueue<Element> queue =
+                executor.createDelayQueue(new LatchWorker(latch), new ElementResolver());
+        executor.start();
+        
+        try {
+            final Element element = new Element();
+            queue.add(element, 50, TimeUnit.MILLISECONDS);
+            queue.remove(element);
+            
+            assertFalse(latch.await(300, TimeUnit.MILLISECONDS));
+        } finally {
+            executor.destroy();
+        }
+    }
+    
+    private static final class Element {
+        private volatile long timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+        private volatile long expiredAtMillis;
+    }
+    
+    private static final class LatchWorker
+            implements DelayedExecutor.Worker<Element> {
+        private final CountDownLatch latch;
+
+        private LatchWorker(final CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public boolean doWork(final Element element) {
+            latch.countDown();
+            return true;
+        }
+    }
+    
+    private static final class ElementResolver
+            implements DelayedExecutor.Resolver<Element> {
+
+        @Override
+        public boolean removeTimeout(final Element element) {
+            element.timeoutMillis = DelayedExecutor.UNSET_TIMEOUT;
+            return true;
+        }
+
+        @Override
+        public long getTimeoutMillis(final Element element) {
+            return element.timeoutMillis;
+        }
+
+        @Override
+        public void setTimeoutMillis(final Element element,
+                final long timeoutMillis) {
+            element.timeoutMillis = timeoutMillis;
+        }
+    }
+}
@@ -50,6 +50,7 @@ import org.glassfish.grizzly.http.util.BufferChunk;
 import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.HexUtils;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.ssl.SSLSupport;
@@ -452,6 +453,11 @@ final class AjpMessageUtils {
                 headers.setValue("Content-Length").setBuffer(contentLengthBuffer,
                         contentLengthBuffer.position(), contentLengthBuffer.limit());
             }
+            final PreEncodedHeaders preEncodedHeaders =
+                    httpResponsePacket.getPreEncodedHeaders();
+            if (preEncodedHeaders != null) {
+                preEncodedHeaders.copyTo(headers);
+            }
 
             final int numHeaders = headers.size();
 
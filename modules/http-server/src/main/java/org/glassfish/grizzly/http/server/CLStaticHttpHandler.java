@@ -61,6 +61,7 @@ import org.glassfish.grizzly.http.Method;
 import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.io.NIOOutputStream;
 import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.memory.BufferArray;
 import org.glassfish.grizzly.memory.MemoryManager;
@@ -349,7 +350,7 @@ public class CLStaticHttpHandler extends StaticHttpHandlerBase {
             final InputStream input) throws IOException {
         response.setStatus(HttpStatus.OK_200);
 
-        response.addDateHeader(Header.Date, System.currentTimeMillis());
+        response.addHeader(Header.Date, FastHttpDateFormat.getCurrentDate());
         final int chunkSize = 8192;
         
         response.suspend();
@@ -205,6 +205,7 @@ public class HttpServerFilter extends BaseFilter
                 handlerRequest.initialize(request, ctx, this);
                 handlerResponse.initialize(handlerRequest, response,
                         ctx, suspendedResponseQueue, this);
+                response.setPreEncodedHeaders(config.getDefaultResponseHeaders());
 
                 if (config.isGracefulShutdownSupported()) {
                     activeRequestsCounter.incrementAndGet();
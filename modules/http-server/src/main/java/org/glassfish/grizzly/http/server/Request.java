@@ -106,6 +106,7 @@ import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.ParameterVisitor;
 import org.glassfish.grizzly.http.util.Parameters;
 import org.glassfish.grizzly.localization.LogMessages;
 import org.glassfish.grizzly.utils.Charsets;
@@ -357,6 +358,13 @@ public class Request {
     protected boolean requestParametersParsed = false;
 
 
+    /**
+     * The detached form POST body, which the lazily parsed parameters
+     * refer to.
+     */
+    private Buffer formParametersBuffer;
+
+
      /**
      * Cookies parsed flag.
      */
@@ -688,6 +696,7 @@ public class Request {
         parameterMap.setLocked(false);
         parameterMap.clear();
         parameters.recycle();
+        releaseFormParametersBuffer();
 
         requestExecutorProvider = null;
 
@@ -749,6 +758,7 @@ public class Request {
             parameterMap.setLocked(false);
             parameterMap.clear();
             parameters.recycle();
+            releaseFormParametersBuffer();
         }
     }
     
@@ -1147,6 +1157,33 @@ public class Request {
     }
 
 
+    /**
+     * Passes the raw, still URL-encoded, names and values of the query and
+     * form POST parameters to the <tt>visitor</tt> without decoding them.
+     *
+     * Only the parameters, which are still kept in their raw form, are
+     * visited: the ones of the query received as a {@link org.glassfish.grizzly.Buffer}
+     * and of the form POST body. The parameters of a query set as a String
+     * or a byte[] and the ones added to the {@link Parameters} directly are
+     * not visited, use {@link #getParameterNames()} and
+     * {@link #getParameterValues(String)} to get all of them.
+     *
+     * @param visitor {@link ParameterVisitor}
+     *
+     * @see Parameters#visitParameters(ParameterVisitor)
+     * @since 3.0
+     */
+    public void visitParameters(final ParameterVisitor visitor) {
+
+        if (!requestParametersParsed) {
+            parseRequestParameters();
+        }
+
+        parameters.visitParameters(visitor);
+
+    }
+
+
 
     /**
      * Returns a {@link java.util.Map} of the parameters of this request.
@@ -2160,7 +2197,14 @@ public class Request {
         try {
             final Buffer formData = getPostBody(len);
             read = formData.remaining();
-            parameters.processParameters(formData, formData.position(), read);
+
+            // detach the body, so the parameters can be decoded lazily
+            // right from it until the request is recycled
+            formParametersBuffer = inputBuffer.readBuffer(read);
+            read = 0;
+            parameters.processParametersLazily(formParametersBuffer,
+                    formParametersBuffer.position(),
+                    formParametersBuffer.remaining());
         } catch (Exception ignored) {
         } finally {
             try {
@@ -2173,6 +2217,13 @@ public class Request {
 
     }
 
+    private void releaseFormParametersBuffer() {
+        if (formParametersBuffer != null) {
+            formParametersBuffer.tryDispose();
+            formParametersBuffer = null;
+        }
+    }
+
     private Charset lookupCharset(final String enc) {
         Charset charset;
         if (enc != null) {
@@ -42,6 +42,7 @@ package org.glassfish.grizzly.http.server;
 
 import java.nio.charset.Charset;
 import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 import org.glassfish.grizzly.utils.JdkVersion;
 
 /**
@@ -94,6 +95,11 @@ public class ServerFilterConfiguration {
      * graceful shutdown, or <tt>false</tt> otherwise
      */
     private boolean isGracefulShutdownSupported = true;
+
+    /**
+     * The headers, which will be added to every response.
+     */
+    private PreEncodedHeaders defaultResponseHeaders;
     
     public ServerFilterConfiguration() {
         this("Grizzly", Grizzly.getDotedVersion());
@@ -123,6 +129,7 @@ public class ServerFilterConfiguration {
         this.maxPostSize = configuration.maxPostSize;
         this.sessionTimeoutSeconds = configuration.sessionTimeoutSeconds;
         this.sessionManager = configuration.sessionManager;
+        this.defaultResponseHeaders = configuration.defaultResponseHeaders;
     }
     
     /**
@@ -143,6 +150,30 @@ public class ServerFilterConfiguration {
         this.httpServerName = httpServerName;
     }
 
+    /**
+     * @return the {@link PreEncodedHeaders} added to every response, or
+     *  <tt>null</tt> if not set.
+     *
+     * @since 3.0
+     */
+    public PreEncodedHeaders getDefaultResponseHeaders() {
+        return defaultResponseHeaders;
+    }
+
+    /**
+     * Sets the headers, which will be added to every response, like
+     * <tt>Server</tt>, <tt>Cache-Control</tt> or CORS headers. The headers
+     * are encoded once and copied as is into each response, unless the
+     * response explicitly sets a header with the same name.
+     *
+     * @param defaultResponseHeaders {@link PreEncodedHeaders}, or <tt>null</tt>
+     *
+     * @since 3.0
+     */
+    public void setDefaultResponseHeaders(final PreEncodedHeaders defaultResponseHeaders) {
+        this.defaultResponseHeaders = defaultResponseHeaders;
+    }
+
     /**
      * @return the version of this server used for headers and default error pages.
      */
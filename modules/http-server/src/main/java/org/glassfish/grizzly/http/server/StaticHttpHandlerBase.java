@@ -57,6 +57,7 @@ import org.glassfish.grizzly.http.server.filecache.FileCache;
 import org.glassfish.grizzly.http.io.NIOOutputStream;
 import org.glassfish.grizzly.http.io.OutputBuffer;
 import org.glassfish.grizzly.http.util.MimeType;
+import org.glassfish.grizzly.http.util.FastHttpDateFormat;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.memory.Buffers;
@@ -122,7 +123,7 @@ public abstract class StaticHttpHandlerBase extends HttpHandler {
 
         final long length = file.length();
         response.setContentLengthLong(length);
-        response.addDateHeader(Header.Date, System.currentTimeMillis());
+        response.addHeader(Header.Date, FastHttpDateFormat.getCurrentDate());
         if (!response.isSendFileEnabled() || response.getRequest().isSecure()) {
             sendUsingBuffers(response, file);
         } else {
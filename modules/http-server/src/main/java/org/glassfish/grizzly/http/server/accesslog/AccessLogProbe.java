@@ -52,6 +52,7 @@ import org.glassfish.grizzly.http.server.HttpServerFilter;
 import org.glassfish.grizzly.http.server.HttpServerProbe;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.utils.CoarseClock;
 
 /**
  * A {@linkplain HttpServerProbe Grizzly probe} used to provide
@@ -137,7 +138,7 @@ public class AccessLogProbe extends HttpServerProbe.Adapter {
         /* Calculate request timing */
         final Long requestNanos = (Long) response.getRequest().getAttribute(ATTRIBUTE_TIME_STAMP);
 
-        final long timeStamp = System.currentTimeMillis();
+        final long timeStamp = CoarseClock.currentTimeMillis();
         final long nanoStamp = System.nanoTime();
 
         final long responseNanos = requestNanos == null ? -1 : nanoStamp - requestNanos;
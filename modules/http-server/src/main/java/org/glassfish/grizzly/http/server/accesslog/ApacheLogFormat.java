@@ -575,6 +575,9 @@ public class ApacheLogFormat implements AccessLogFormat {
         private final TimeZone timeZone;
         private final String pattern;
         private final String format;
+        /* Patterns w/o milliseconds render the same for the whole second */
+        private final boolean isSecondPrecision;
+        private volatile RenderedTime lastRendered;
 
         RequestTimeField(String format, TimeZone zone) {
             this.format = format;
@@ -604,15 +607,29 @@ public class ApacheLogFormat implements AccessLogFormat {
 
             /* Get our simple date format */
             simpleDateFormat = new SimpleDateFormatThreadLocal(pattern);
+            isSecondPrecision = pattern.indexOf('S') == -1;
         }
 
         @Override
         StringBuilder format(StringBuilder builder, Request request, Response response, Date timeStamp, long responseNanos) {
             if (timeStamp == null) return builder.append('-');
 
+            final long second = timeStamp.getTime() / 1000;
+            if (isSecondPrecision) {
+                final RenderedTime rendered = lastRendered;
+                if (rendered != null && rendered.second == second) {
+                    return builder.append(rendered.value);
+                }
+            }
+
             final SimpleDateFormat format = simpleDateFormat.get();
             format.setTimeZone(timeZone);
-            return builder.append(format.format(timeStamp));
+            final String value = format.format(timeStamp);
+            if (isSecondPrecision) {
+                lastRendered = new RenderedTime(second, value);
+            }
+
+            return builder.append(value);
         }
 
         @Override
@@ -621,6 +638,16 @@ public class ApacheLogFormat implements AccessLogFormat {
         }
     }
 
+    private static final class RenderedTime {
+        private final long second;
+        private final String value;
+
+        RenderedTime(long second, String value) {
+            this.second = second;
+            this.value = value;
+        }
+    }
+
     /* ====================================================================== */
 
     private static class RequestMethodField extends AbstractField {
@@ -57,7 +57,9 @@ import org.glassfish.grizzly.http.util.CacheableDataChunk;
 import org.glassfish.grizzly.http.util.Constants;
 import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.HttpHeaderScanner;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.CompositeBuffer;
 import org.glassfish.grizzly.memory.CompositeBuffer.DisposeOrder;
@@ -889,6 +891,12 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         int offset = arrayOffs + parsingState.offset;
 
         while(offset < limit) {
+            offset = HttpHeaderScanner.scanHeaderName(input, offset, limit,
+                    !preserveHeaderCase);
+            if (offset == limit) {
+                break;
+            }
+            
             byte b = input[offset];
             if (b == Constants.COLON) {
 
@@ -925,6 +933,25 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         final boolean hasShift = (offset != (arrayOffs + parsingState.checkpoint));
         
         while (offset < limit) {
+            if (!hasShift) {
+                // skip the value bytes up to CR or LF, no need to move them
+                final int eolIdx = HttpHeaderScanner.scanHeaderValue(input, offset, limit);
+                if (eolIdx != offset) {
+                    parsingState.checkpoint += eolIdx - offset;
+                    final int nonSpaceIdx =
+                            HttpHeaderScanner.lastNonSpace(input, offset, eolIdx);
+                    if (nonSpaceIdx != -1) {
+                        parsingState.checkpoint2 =
+                                parsingState.checkpoint - (eolIdx - nonSpaceIdx - 1);
+                    }
+                    
+                    offset = eolIdx;
+                    if (offset == limit) {
+                        break;
+                    }
+                }
+            }
+            
             final byte b = input[offset];
             if (b == Constants.CR) {
             } else if (b == Constants.LF) {
@@ -1168,6 +1195,12 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         int offset = parsingState.offset;
 
         while(offset < limit) {
+            offset = HttpHeaderScanner.scanHeaderName(input, offset, limit,
+                    !preserveHeaderCase);
+            if (offset == limit) {
+                break;
+            }
+            
             byte b = input.get(offset);
             if (b == Constants.COLON) {
 
@@ -1202,6 +1235,25 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
         final boolean hasShift = (offset != parsingState.checkpoint);
         
         while(offset < limit) {
+            if (!hasShift) {
+                // skip the value bytes up to CR or LF, no need to move them
+                final int eolIdx = HttpHeaderScanner.scanHeaderValue(input, offset, limit);
+                if (eolIdx != offset) {
+                    parsingState.checkpoint += eolIdx - offset;
+                    final int nonSpaceIdx =
+                            HttpHeaderScanner.lastNonSpace(input, offset, eolIdx);
+                    if (nonSpaceIdx != -1) {
+                        parsingState.checkpoint2 =
+                                parsingState.checkpoint - (eolIdx - nonSpaceIdx - 1);
+                    }
+                    
+                    offset = eolIdx;
+                    if (offset == limit) {
+                        break;
+                    }
+                }
+            }
+            
             final byte b = input.get(offset);
             if (b == Constants.CR) {
             } else if (b == Constants.LF) {
@@ -1608,6 +1660,12 @@ public abstract class HttpCodecFilter extends HttpBaseFilter
                     httpHeader);
 
             final MimeHeaders mimeHeaders = httpHeader.getHeaders();
+            final PreEncodedHeaders preEncodedHeaders = httpHeader.getPreEncodedHeaders();
+            if (preEncodedHeaders != null) {
+                encodedBuffer = preEncodedHeaders.writeTo(memoryManager,
+                        encodedBuffer, mimeHeaders);
+            }
+
             final byte[] tempEncodingBuffer = httpHeader.getTempHeaderEncodingBuffer();
             encodedBuffer = encodeMimeHeaders(memoryManager, encodedBuffer, mimeHeaders, tempEncodingBuffer);
             onHttpHeadersEncoded(httpHeader, ctx);
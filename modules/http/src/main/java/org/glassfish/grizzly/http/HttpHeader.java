@@ -56,6 +56,7 @@ import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HeaderValue;
 import org.glassfish.grizzly.http.util.HttpUtils;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 import org.glassfish.grizzly.utils.Charsets;
 
 /**
@@ -124,6 +125,11 @@ public abstract class HttpHeader extends HttpPacket
      */
     private boolean chunkingAllowed;
 
+    /**
+     * The immutable block of headers, which will be serialized as is.
+     */
+    private PreEncodedHeaders preEncodedHeaders;
+
     public HttpHeader() {
         this(new MimeHeaders());
     }
@@ -619,6 +625,31 @@ public abstract class HttpHeader extends HttpPacket
         return headers;
     }
 
+    /**
+     * @return the {@link PreEncodedHeaders} block, which will be serialized
+     *  along with this message's {@link MimeHeaders}, or <tt>null</tt> if
+     *  not set.
+     *
+     * @since 3.0
+     */
+    public PreEncodedHeaders getPreEncodedHeaders() {
+        return preEncodedHeaders;
+    }
+
+    /**
+     * Sets the {@link PreEncodedHeaders} block, which will be copied as is
+     * into the serialized message headers. The headers explicitly set in the
+     * message's {@link MimeHeaders} take precedence over the block's ones.
+     * The block headers are not visible via {@link #getHeader(String)}.
+     *
+     * @param preEncodedHeaders {@link PreEncodedHeaders}, or <tt>null</tt>
+     *
+     * @since 3.0
+     */
+    public void setPreEncodedHeaders(final PreEncodedHeaders preEncodedHeaders) {
+        this.preEncodedHeaders = preEncodedHeaders;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -892,6 +923,7 @@ public abstract class HttpHeader extends HttpPacket
         isExpectContent = true;
         upgrade.recycle();
         isIgnoreContentModifiers = false;
+        preEncodedHeaders = null;
         if (headerBuffer != null) {
             headerBuffer.dispose();
             headerBuffer = null;
@@ -1086,6 +1118,7 @@ public abstract class HttpHeader extends HttpPacket
         protected String contentType;
         protected String upgrade;
         protected MimeHeaders mimeHeaders;
+        protected PreEncodedHeaders preEncodedHeaders;
 
         /**
          * Set the HTTP message protocol version.
@@ -1225,6 +1258,18 @@ public abstract class HttpHeader extends HttpPacket
             return (T) this;
         }
         
+        /**
+         * Set the {@link PreEncodedHeaders} block.
+         *
+         * @param preEncodedHeaders {@link PreEncodedHeaders}
+         * @since 3.0
+         */
+        @SuppressWarnings({"unchecked"})
+        public final T preEncodedHeaders(PreEncodedHeaders preEncodedHeaders) {
+            this.preEncodedHeaders = preEncodedHeaders;
+            return (T) this;
+        }
+
         /**
          * Sets the maximum number of headers allowed.
          */
@@ -1260,6 +1305,9 @@ public abstract class HttpHeader extends HttpPacket
             if (mimeHeaders != null && mimeHeaders.size() > 0) {
                 httpHeader.getHeaders().copyFrom(mimeHeaders);
             }
+            if (preEncodedHeaders != null) {
+                httpHeader.setPreEncodedHeaders(preEncodedHeaders);
+            }
 
             return httpHeader;
         }
@@ -1271,6 +1319,7 @@ public abstract class HttpHeader extends HttpPacket
             contentLength = null;
             contentType = null;
             upgrade = null;
+            preEncodedHeaders = null;
             mimeHeaders.recycle();
         }
 
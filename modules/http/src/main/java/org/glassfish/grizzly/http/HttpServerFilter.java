@@ -55,6 +55,8 @@ import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.HttpStatus;
 import org.glassfish.grizzly.http.util.MimeHeaders;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.NIOTransport;
+import org.glassfish.grizzly.nio.TransportMemoryBudget;
 import org.glassfish.grizzly.utils.DelayedExecutor;
 
 import java.io.IOException;
@@ -622,10 +624,31 @@ public class HttpServerFilter extends HttpCodecFilter {
 
         final ServerHttpRequestImpl request = (ServerHttpRequestImpl) httpHeader;
 
+        if (!admitRequest(ctx.getConnection())) {
+            // Send 503; the transport memory budget is exhausted
+            HttpStatus.SERVICE_UNAVAILABLE_503.setValues(request.getResponse());
+            request.getProcessingState().error = true;
+            return true;
+        }
+
         prepareRequest(request, buffer.hasRemaining());
         return request.getProcessingState().error;
     }
 
+    /**
+     * @return <tt>false</tt>, if the transport {@link TransportMemoryBudget}
+     *         is exhausted and the request has to be rejected.
+     */
+    private static boolean admitRequest(final Connection connection) {
+        if (!(connection.getTransport() instanceof NIOTransport)) {
+            return true;
+        }
+
+        final TransportMemoryBudget memoryBudget =
+                ((NIOTransport) connection.getTransport()).getMemoryBudget();
+        return memoryBudget == null || memoryBudget.admitRequest();
+    }
+
     private void prepareRequest(final ServerHttpRequestImpl request,
             final boolean hasReadyContent) {
 
@@ -1009,11 +1032,21 @@ public class HttpServerFilter extends HttpCodecFilter {
     @Override
     Buffer encodeInitialLine(HttpPacket httpPacket, Buffer output, MemoryManager memoryManager) {
         final HttpResponsePacket httpResponse = (HttpResponsePacket) httpPacket;
+        final HttpStatus httpStatus = httpResponse.getHttpStatus();
+        final boolean isCustomReasonPhrase = httpResponse.isCustomReasonPhraseSet();
+        if (!isCustomReasonPhrase) {
+            final byte[] statusLineBytes =
+                    httpStatus.getStatusLineBytes(httpResponse.getProtocol());
+            if (statusLineBytes != null) {
+                return put(memoryManager, output, statusLineBytes);
+            }
+        }
+
         output = put(memoryManager, output, httpResponse.getProtocol().getProtocolBytes());
         output = put(memoryManager, output, Constants.SP);
-        output = put(memoryManager, output, httpResponse.getHttpStatus().getStatusBytes());
+        output = put(memoryManager, output, httpStatus.getStatusBytes());
         output = put(memoryManager, output, Constants.SP);
-        if (httpResponse.isCustomReasonPhraseSet()) {
+        if (isCustomReasonPhrase) {
             
             final DataChunk customReasonPhrase =
                     httpResponse.isHtmlEncodingCustomReasonPhrase() ?
@@ -1024,8 +1057,7 @@ public class HttpServerFilter extends HttpCodecFilter {
                     httpResponse.getTempHeaderEncodingBuffer(),
                     customReasonPhrase);
         } else {
-            output = put(memoryManager, output,
-                    httpResponse.getHttpStatus().getReasonPhraseBytes());
+            output = put(memoryManager, output, httpStatus.getReasonPhraseBytes());
         }
 
         return output;
@@ -73,6 +73,8 @@ import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.http.HttpBrokenContentException;
 import org.glassfish.grizzly.memory.Buffers;
 import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.nio.NIOTransport;
+import org.glassfish.grizzly.nio.TransportMemoryBudget;
 import org.glassfish.grizzly.utils.Exceptions;
 
 import static org.glassfish.grizzly.http.util.Constants.*;
@@ -121,6 +123,12 @@ public class InputBuffer {
      */
     private Connection connection;
 
+    /**
+     * The number of the buffered bytes accounted against the transport
+     * {@link TransportMemoryBudget}.
+     */
+    private int budgetedBytes;
+
     /**
      * The mark position within the current binary content.  Marking is not
      * supported for character content.
@@ -259,6 +267,7 @@ public class InputBuffer {
 
         inputContentBuffer.tryDispose();
         inputContentBuffer = null;
+        updateMemoryBudget();
 
         singleCharBuf.position(singleCharBuf.limit());
         
@@ -365,6 +374,7 @@ public class InputBuffer {
         
         if (!checkMarkAfterRead(nlen)) {
             inputContentBuffer.shrink();
+            updateMemoryBudget();
         }
         
         return nlen;
@@ -458,6 +468,7 @@ public class InputBuffer {
             inputContentBuffer = tmpBuffer;
         }
         
+        updateMemoryBudget();
         return buffer;
     }
     
@@ -731,6 +742,7 @@ public class InputBuffer {
             
             if (!checkMarkAfterRead(n)) {
                 inputContentBuffer.shrink();
+                updateMemoryBudget();
             }
             
             return nlen;
@@ -840,6 +852,7 @@ public class InputBuffer {
         markPos = -1;
         
         inputContentBuffer = buffer;
+        updateMemoryBudget();
     }
     
     /**
@@ -1263,6 +1276,7 @@ public class InputBuffer {
                 inputContentBuffer.position(inputContentBuffer.position() + consumedBytes);
                 if (readAheadLimit == -1) {
                     inputContentBuffer.shrink();
+                    updateMemoryBudget();
                 }
             } else {
                 isNeedMoreInput = true;
@@ -1328,6 +1342,7 @@ public class InputBuffer {
         
         if (readAheadLimit == -1) {
             inputContentBuffer.shrink();
+            updateMemoryBudget();
         }
         
         return producedChars;
@@ -1348,6 +1363,34 @@ public class InputBuffer {
             inputContentBuffer = buffer;
         }
 
+        updateMemoryBudget();
+    }
+
+    /**
+     * Accounts the change of the buffered bytes against the transport
+     * {@link TransportMemoryBudget}, if any.
+     */
+    private void updateMemoryBudget() {
+        final int bufferedBytes = inputContentBuffer != null
+                ? inputContentBuffer.remaining()
+                : 0;
+        final int delta = bufferedBytes - budgetedBytes;
+        if (delta == 0 || connection == null
+                || !(connection.getTransport() instanceof NIOTransport)) {
+            return;
+        }
+
+        final TransportMemoryBudget memoryBudget =
+                ((NIOTransport) connection.getTransport()).getMemoryBudget();
+        if (memoryBudget != null) {
+            if (delta > 0) {
+                memoryBudget.reserve(connection, delta);
+            } else {
+                memoryBudget.release(connection, -delta);
+            }
+
+            budgetedBytes = bufferedBytes;
+        }
     }
 
 
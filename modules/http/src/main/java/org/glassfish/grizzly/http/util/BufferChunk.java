@@ -264,6 +264,15 @@ public class BufferChunk implements Chunk {
         return code;
     }
 
+    // hash ignoring case
+    public int hashIgnoreCase() {
+        int code=0;
+        for (int i = start; i < end; i++) {
+            code = code * 31 + Ascii.toLower(buffer.get(i));
+        }
+        return code;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (!(o instanceof BufferChunk)) {
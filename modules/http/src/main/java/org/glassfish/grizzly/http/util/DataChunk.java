@@ -816,6 +816,43 @@ public class DataChunk implements Chunk {
         }
     }
 
+    /**
+     * Returns DataChunk hash code ignoring case considerations, the result
+     * is the same for all the content types.
+     * @return DataChunk hash code ignoring case considerations.
+     *
+     * @since 3.0
+     */
+    public int hashIgnoreCase() {
+        switch (type) {
+            case Bytes:
+                return byteChunk.hashIgnoreCase();
+            case Buffer:
+                return bufferChunk.hashIgnoreCase();
+            case String:
+                return hashIgnoreCase(stringValue);
+            case Chars:
+                return charChunk.hashIgnoreCase();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the {@link String} hash code ignoring case considerations,
+     * which is the same as {@link #hashIgnoreCase()} of a DataChunk with
+     * the same content.
+     *
+     * @since 3.0
+     */
+    public static int hashIgnoreCase(final String s) {
+        int code = 0;
+        for (int i = 0; i < s.length(); i++) {
+            code = code * 31 + Ascii.toLower(s.charAt(i));
+        }
+        return code;
+    }
+
     /**
      * Compares the data chunk to the specified byte array representing
      * lower-case ASCII characters.
@@ -58,9 +58,7 @@
 
 package org.glassfish.grizzly.http.util;
 
-import java.io.UnsupportedEncodingException;
 import java.text.DateFormat;
-import java.text.FieldPosition;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -68,10 +66,8 @@ import java.util.Locale;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.glassfish.grizzly.http.util.HttpCodecUtils.*;
-import org.glassfish.grizzly.utils.Charsets;
+import org.glassfish.grizzly.utils.CoarseClock;
 
 /**
  * Utility class to generate HTTP dates.
@@ -81,14 +77,10 @@ import org.glassfish.grizzly.utils.Charsets;
  */
 public final class FastHttpDateFormat {
 
-    private static final String ASCII_CHARSET_NAME = Charsets.ASCII_CHARSET.name();
-    
     private static final int CACHE_SIZE = 1000;
 
     private static final TimeZone GMT_TIME_ZONE = TimeZone.getTimeZone("GMT");
 
-    private static final SimpleDateFormatter FORMATTER = new SimpleDateFormatter();
-    
     /**
      * HTTP date format.
      */
@@ -103,7 +95,6 @@ public final class FastHttpDateFormat {
     private static final class SimpleDateFormatter {
         private final Date date;
         private final SimpleDateFormat f;
-        private final FieldPosition pos = new FieldPosition(-1);
 
         public SimpleDateFormatter() {
             date = new Date();
@@ -115,12 +106,6 @@ public final class FastHttpDateFormat {
             date.setTime(timeMillis);
             return f.format(date);
         }
-        
-        public final StringBuffer formatTo(final long timeMillis,
-                final StringBuffer buffer) {
-            date.setTime(timeMillis);
-            return f.format(date, buffer, pos);
-        }        
     }
 
     /**
@@ -146,27 +131,6 @@ public final class FastHttpDateFormat {
         };
 
 
-    /**
-     * Instant on which the currentDate object was generated.
-     */
-    private static volatile long nextGeneration;
-
-    private static final AtomicBoolean isGeneratingNow = new AtomicBoolean();
-    
-    private static final StringBuffer currentDateBuffer = new StringBuffer();
-    
-    /**
-     * Current formatted date as byte[].
-     */
-    private static byte[] currentDateBytes;
-
-    /**
-     * Current formatted date.
-     */
-    private static String cachedStringDate;
-    private static volatile byte[] dateBytesForCachedStringDate;
-
-    
     /**
      * Formatter cache.
      */
@@ -188,42 +152,16 @@ public final class FastHttpDateFormat {
      * Get the current date in HTTP format.
      */
     public static String getCurrentDate() {
-        final byte[] currentDateBytesNow = getCurrentDateBytes();
-        if (currentDateBytesNow != dateBytesForCachedStringDate) {
-            try {
-                cachedStringDate = new String(currentDateBytesNow, ASCII_CHARSET_NAME);
-                dateBytesForCachedStringDate = currentDateBytesNow;
-            } catch (UnsupportedEncodingException ignored) {
-                // should never reach this line
-            }
-        }
-        
-        return cachedStringDate;
+        return CoarseClock.getHttpDate();
     }
 
     /**
      * Get the current date in HTTP format.
+     * The pre-rendered date is shared by the {@link CoarseClock}, so the
+     * returned array must not be modified.
      */
     public static byte[] getCurrentDateBytes() {
-        final long now = System.currentTimeMillis();
-        final long diff = now - nextGeneration;
-        
-        if (diff > 0 &&
-                (diff > 5000 ||
-                    (!isGeneratingNow.get() &&
-                     isGeneratingNow.compareAndSet(false, true)))) {
-            synchronized (FORMAT) {
-                if (now > nextGeneration) {
-                    currentDateBuffer.setLength(0);
-                    FORMATTER.formatTo(now, currentDateBuffer);
-                    currentDateBytes = toCheckedByteArray(currentDateBuffer);
-                    nextGeneration = now + 1000;
-                }
-                
-                isGeneratingNow.set(false);
-            }
-        }
-        return currentDateBytes;
+        return CoarseClock.getHttpDateBytes();
     }
     
     /**
@@ -117,6 +117,13 @@ public enum Header {
         }
     }
 
+    /**
+     * The perfect hash table of the headers: the smallest power of two
+     * sized table, where every header's lower-case hash gets its own slot.
+     */
+    private static final Header[] HASH_SLOTS = createHashSlots();
+    private static final int HASH_SLOTS_MASK = HASH_SLOTS.length - 1;
+
     // --------------------------------------------------------- Per Enum Fields
 
 
@@ -125,6 +132,7 @@ public enum Header {
     private final String headerName;
     private final String headerNameLowerCase;
     private final int length;
+    private final int lowerCaseHash;
 
     // ------------------------------------------------------------ Constructors
 
@@ -137,6 +145,7 @@ public enum Header {
         headerNameLowerCaseBytes = headerNameLowerCase.getBytes(Charsets.ASCII_CHARSET);
         
         length = headerNameBytes.length;
+        lowerCaseHash = DataChunk.hashIgnoreCase(headerNameLowerCase);
     }
 
 
@@ -190,6 +199,20 @@ public enum Header {
     public final int getLength() {
         return length;
     }
+
+    /**
+     * <p>
+     * Returns the hash code of this header ignoring case considerations, see
+     * {@link DataChunk#hashIgnoreCase()}.
+     * </p>
+     *
+     * @return the hash code of this header ignoring case considerations.
+     *
+     * @since 3.0
+     */
+    public final int getLowerCaseHash() {
+        return lowerCaseHash;
+    }
     
     /**
      * <p>
@@ -235,4 +258,48 @@ public enum Header {
 
     }
 
+    /**
+     * <p>
+     * Finds the only <code>Header</code>, which may have the specified
+     * hash code ignoring case considerations. The caller has to check,
+     * if the name really matches the returned <code>Header</code>.
+     * </p>
+     *
+     * @param lowerCaseHash the hash code, see {@link DataChunk#hashIgnoreCase()}.
+     *
+     * @return the <code>Header</code> candidate, or <code>null</code>.
+     *
+     * @since 3.0
+     */
+    public static Header findByLowerCaseHash(final int lowerCaseHash) {
+        final Header header = HASH_SLOTS[spread(lowerCaseHash) & HASH_SLOTS_MASK];
+        return header != null && header.lowerCaseHash == lowerCaseHash
+                ? header
+                : null;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static Header[] createHashSlots() {
+        final Header[] headers = Header.values();
+        int size = Integer.highestOneBit(headers.length) << 1;
+        
+        outer:
+        while (true) {
+            final Header[] slots = new Header[size];
+            for (final Header h : headers) {
+                final int slot = spread(h.lowerCaseHash) & (size - 1);
+                if (slots[slot] != null) {
+                    size <<= 1;
+                    continue outer;
+                }
+                slots[slot] = h;
+            }
+
+            return slots;
+        }
+    }
+
 }
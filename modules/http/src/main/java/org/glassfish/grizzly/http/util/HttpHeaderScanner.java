@@ -0,0 +1,355 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.nio.ByteOrder;
+import org.glassfish.grizzly.Buffer;
+
+/**
+ * HTTP/1.x header scanner, which checks 8 bytes at a time using SWAR
+ * (SIMD within a register) techniques to locate the header delimiters and
+ * to lower-case the header names.
+ *
+ * The scanner methods process whole 8-byte words only, and return the index
+ * of the first byte they couldn't handle (a delimiter, or a byte less than
+ * 8 bytes away from the limit), so the caller is expected to continue
+ * byte-by-byte from that index. This way the caller's incremental parsing
+ * state stays exactly the same as if all the bytes were processed one by one.
+ *
+ * @since 3.0
+ */
+public final class HttpHeaderScanner {
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private static final long COLON_PATTERN = 0x3A3A3A3A3A3A3A3AL;
+    private static final long CR_PATTERN = 0x0D0D0D0D0D0D0D0DL;
+    private static final long LF_PATTERN = 0x0A0A0A0A0A0A0A0AL;
+
+    // adding these to a 7-bit byte sets its high bit, if the byte is >= 'A' / > 'Z'
+    private static final long GE_UPPER_A = 0x3F3F3F3F3F3F3F3FL;
+    private static final long GT_UPPER_Z = 0x2525252525252525L;
+
+    // big-endian long view of byte[] (JDK 9+ byteArrayViewVarHandle), which
+    // reads/writes 8 bytes at once, or null, if not available
+    private static final MethodHandle GET_LONG;
+    private static final MethodHandle PUT_LONG;
+
+    static {
+        MethodHandle getLong = null;
+        MethodHandle putLong = null;
+
+        try {
+            final Class<?> varHandleClass =
+                    Class.forName("java.lang.invoke.VarHandle");
+            final Class<?> accessModeClass =
+                    Class.forName("java.lang.invoke.VarHandle$AccessMode");
+            final Object varHandle = MethodHandles.class.getMethod(
+                    "byteArrayViewVarHandle", Class.class, ByteOrder.class)
+                    .invoke(null, long[].class, ByteOrder.BIG_ENDIAN);
+            final Method toMethodHandle =
+                    varHandleClass.getMethod("toMethodHandle", accessModeClass);
+
+            getLong = (MethodHandle) toMethodHandle.invoke(varHandle,
+                    accessMode(accessModeClass, "GET"));
+            putLong = (MethodHandle) toMethodHandle.invoke(varHandle,
+                    accessMode(accessModeClass, "SET"));
+        } catch (Throwable t) {
+            // JDK 8, the bytes are composed one by one
+            getLong = null;
+            putLong = null;
+        }
+
+        GET_LONG = getLong;
+        PUT_LONG = putLong;
+    }
+
+    private HttpHeaderScanner() {
+    }
+
+    /**
+     * Skips the header name bytes, lower-casing them if required, until the
+     * colon is found.
+     *
+     * @param input the header bytes.
+     * @param offset the index to start from.
+     * @param limit the index to stop at (exclusive).
+     * @param toLowerCase <tt>true</tt>, if the header name has to be
+     *        lower-cased.
+     *
+     * @return the index of the colon, or the index of the first byte, which
+     *         has to be processed by the caller.
+     */
+    public static int scanHeaderName(final byte[] input, int offset,
+            final int limit, final boolean toLowerCase) {
+        while (offset + 8 <= limit) {
+            final long word = getLong(input, offset);
+            final long colons = matchBytes(word, COLON_PATTERN);
+            final long upperCase = toLowerCase ? matchUpperCase(word) : 0;
+
+            if (colons == 0) {
+                if (upperCase != 0) {
+                    putLong(input, offset, toLowerCase(word, upperCase));
+                }
+                offset += 8;
+            } else {
+                final int colonIdx = firstByteIndex(colons);
+                final long upperCaseBeforeColon = upperCase & prefixMask(colonIdx);
+                if (upperCaseBeforeColon != 0) {
+                    putLong(input, offset, toLowerCase(word, upperCaseBeforeColon));
+                }
+                return offset + colonIdx;
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * The {@link Buffer} version of
+     * {@link #scanHeaderName(byte[], int, int, boolean)}, the composite and
+     * non big-endian buffers are not scanned.
+     */
+    public static int scanHeaderName(final Buffer input, int offset,
+            final int limit, final boolean toLowerCase) {
+        if (!isScannable(input)) {
+            return offset;
+        }
+
+        while (offset + 8 <= limit) {
+            final long word = input.getLong(offset);
+            final long colons = matchBytes(word, COLON_PATTERN);
+            final long upperCase = toLowerCase ? matchUpperCase(word) : 0;
+
+            if (colons == 0) {
+                if (upperCase != 0) {
+                    input.putLong(offset, toLowerCase(word, upperCase));
+                }
+                offset += 8;
+            } else {
+                final int colonIdx = firstByteIndex(colons);
+                final long upperCaseBeforeColon = upperCase & prefixMask(colonIdx);
+                if (upperCaseBeforeColon != 0) {
+                    input.putLong(offset, toLowerCase(word, upperCaseBeforeColon));
+                }
+                return offset + colonIdx;
+            }
+        }
+
+        return offset;
+    }
+
+    /**
+     * Skips the header value bytes until CR or LF is found.
+     *
+     * @param input the header bytes.
+     * @param offset the index to start from.
+     * @param limit the index to stop at (exclusive).
+     *
+     * @return the index of the CR or LF, or the index of the first byte, which
+     *         has to be processed by the caller.
+     */
+    public static int scanHeaderValue(final byte[] input, int offset,
+            final int limit) {
+        while (offset + 8 <= limit) {
+            final long eols = matchEol(getLong(input, offset));
+            if (eols != 0) {
+                return offset + firstByteIndex(eols);
+            }
+
+            offset += 8;
+        }
+
+        return offset;
+    }
+
+    /**
+     * The {@link Buffer} version of {@link #scanHeaderValue(byte[], int, int)},
+     * the composite and non big-endian buffers are not scanned.
+     */
+    public static int scanHeaderValue(final Buffer input, int offset,
+            final int limit) {
+        if (!isScannable(input)) {
+            return offset;
+        }
+
+        while (offset + 8 <= limit) {
+            final long eols = matchEol(input.getLong(offset));
+            if (eols != 0) {
+                return offset + firstByteIndex(eols);
+            }
+
+            offset += 8;
+        }
+
+        return offset;
+    }
+
+    /**
+     * @return the index of the last non-space byte in the [start, end) range,
+     *         or <tt>-1</tt>, if all the bytes are spaces.
+     */
+    public static int lastNonSpace(final byte[] input, final int start, int end) {
+        while (--end >= start) {
+            if (input[end] != Constants.SP) {
+                return end;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * The {@link Buffer} version of {@link #lastNonSpace(byte[], int, int)}.
+     */
+    public static int lastNonSpace(final Buffer input, final int start, int end) {
+        while (--end >= start) {
+            if (input.get(end) != Constants.SP) {
+                return end;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isScannable(final Buffer input) {
+        return !input.isComposite() && input.order() == ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * @return the word with the high bit set in every byte equal to the
+     *         pattern's byte. Unlike the classic <tt>(x - 0x01..) & ~x</tt>
+     *         trick, there are no false positives caused by the borrow.
+     */
+    private static long matchBytes(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    private static long matchEol(final long word) {
+        return matchBytes(word, CR_PATTERN) | matchBytes(word, LF_PATTERN);
+    }
+
+    /**
+     * @return the word with the high bit set in every 'A'..'Z' byte.
+     */
+    private static long matchUpperCase(final long word) {
+        final long low = word & LOW_BITS;
+        return (low + GE_UPPER_A) & ~(low + GT_UPPER_Z) & ~word & HIGH_BITS;
+    }
+
+    private static long toLowerCase(final long word, final long upperCase) {
+        // 0x80 >>> 2 == 0x20 == 'a' - 'A'
+        return word | (upperCase >>> 2);
+    }
+
+    private static int firstByteIndex(final long matches) {
+        return Long.numberOfLeadingZeros(matches) >>> 3;
+    }
+
+    /**
+     * @return the mask covering the first <tt>bytes</tt> bytes of a word.
+     */
+    private static long prefixMask(final int bytes) {
+        return bytes == 0 ? 0 : -1L << ((8 - bytes) << 3);
+    }
+
+    private static long getLong(final byte[] input, final int offset) {
+        if (GET_LONG != null) {
+            try {
+                return (long) GET_LONG.invokeExact(input, offset);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        return ((long) input[offset] << 56)
+                | ((long) (input[offset + 1] & 0xFF) << 48)
+                | ((long) (input[offset + 2] & 0xFF) << 40)
+                | ((long) (input[offset + 3] & 0xFF) << 32)
+                | ((long) (input[offset + 4] & 0xFF) << 24)
+                | ((input[offset + 5] & 0xFF) << 16)
+                | ((input[offset + 6] & 0xFF) << 8)
+                | (input[offset + 7] & 0xFF);
+    }
+
+    private static void putLong(final byte[] input, final int offset,
+            final long value) {
+        if (PUT_LONG != null) {
+            try {
+                PUT_LONG.invokeExact(input, offset, value);
+                return;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        input[offset] = (byte) (value >>> 56);
+        input[offset + 1] = (byte) (value >>> 48);
+        input[offset + 2] = (byte) (value >>> 40);
+        input[offset + 3] = (byte) (value >>> 32);
+        input[offset + 4] = (byte) (value >>> 24);
+        input[offset + 5] = (byte) (value >>> 16);
+        input[offset + 6] = (byte) (value >>> 8);
+        input[offset + 7] = (byte) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object accessMode(final Class<?> accessModeClass,
+            final String name) {
+        return Enum.valueOf((Class) accessModeClass, name);
+    }
+
+    private static RuntimeException rethrow(final Throwable t) {
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+
+        throw new IllegalStateException(t);
+    }
+}
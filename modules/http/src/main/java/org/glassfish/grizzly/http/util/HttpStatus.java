@@ -45,7 +45,7 @@ import org.glassfish.grizzly.utils.Charsets;
 import java.util.HashMap;
 import java.util.Map;
 import org.glassfish.grizzly.http.HttpResponsePacket;
-import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.http.Protocol;
 
 /**
  * This <code>enum</code> encapsulates the HTTP response status and
@@ -104,13 +104,14 @@ public class HttpStatus {
     public static final HttpStatus HTTP_VERSION_NOT_SUPPORTED_505 = register(505, "HTTP Version Not Supported");
 
     private static HttpStatus register(final int statusCode, final String reasonPhrase) {
-        final HttpStatus httpStatus = newHttpStatus(statusCode, reasonPhrase);
+        // the predefined statuses are shared, so their status lines are pre-encoded
+        final HttpStatus httpStatus = new HttpStatus(statusCode, reasonPhrase, true);
         statusMessages.put(statusCode, httpStatus);
         return httpStatus;
     }
 
     public static HttpStatus newHttpStatus(final int statusCode, final String reasonPhrase) {
-        return new HttpStatus(statusCode, reasonPhrase);
+        return new HttpStatus(statusCode, reasonPhrase, false);
     }
     
     /**
@@ -121,7 +122,7 @@ public class HttpStatus {
     public static HttpStatus getHttpStatus(final int statusCode) {
         HttpStatus status = statusMessages.get(statusCode);
         if (status == null) {
-            status = new HttpStatus(statusCode, "CUSTOM");
+            status = new HttpStatus(statusCode, "CUSTOM", false);
         }
 
         return status;
@@ -134,12 +135,27 @@ public class HttpStatus {
     private final String reasonPhrase;
     private final byte[] reasonPhraseBytes;
     private final byte[] statusBytes;
+    // pre-encoded status lines, indexed by Protocol ordinal, or null
+    private final byte[][] statusLineBytes;
 
-    private HttpStatus(final int status, final String reasonPhrase) {
+    private HttpStatus(final int status, final String reasonPhrase,
+            final boolean isPreEncodeStatusLines) {
         this.status = status;
         this.reasonPhrase = reasonPhrase;
         reasonPhraseBytes = reasonPhrase.getBytes(Charsets.ASCII_CHARSET);
         statusBytes = Integer.toString(status).getBytes(Charsets.ASCII_CHARSET);
+
+        if (isPreEncodeStatusLines) {
+            final Protocol[] protocols = Protocol.values();
+            statusLineBytes = new byte[protocols.length][];
+            for (Protocol protocol : protocols) {
+                statusLineBytes[protocol.ordinal()] =
+                        (protocol.getProtocolString() + ' ' + status + ' ' + reasonPhrase)
+                        .getBytes(Charsets.ASCII_CHARSET);
+            }
+        } else {
+            statusLineBytes = null;
+        }
     }
 
     // ---------------------------------------------------------- Public Methods
@@ -178,12 +194,27 @@ public class HttpStatus {
         return reasonPhraseBytes;
     }
 
+    /**
+     * @param protocol the response {@link Protocol}
+     * @return the pre-encoded status line (without the trailing CRLF), like
+     *  <tt>HTTP/1.1 200 OK</tt>, for the given protocol, or <tt>null</tt>
+     *  if the status isn't one of the predefined <tt>HttpStatus</tt> constants.
+     *
+     * @since 3.0
+     */
+    public byte[] getStatusLineBytes(final Protocol protocol) {
+        return statusLineBytes != null
+                ? statusLineBytes[protocol.ordinal()]
+                : null;
+    }
+
     /**
      * Sets the status and reason phrase on the specified response.
      * @param response the response to set the status and reason phrase on.
      */
     public void setValues(final HttpResponsePacket response) {
+        // the status' own reason phrase is used, so the pre-encoded status
+        // line can be serialized
         response.setStatus(this);
-        response.setReasonPhrase(Buffers.wrap(null, reasonPhraseBytes));
     }
 }
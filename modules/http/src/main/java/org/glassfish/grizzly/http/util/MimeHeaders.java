@@ -167,6 +167,12 @@ servlet needs direct access to headers).
 
     public static DataChunk NOOP_CHUNK = new DataChunk.Immutable(null);
 
+    /**
+     * The number of headers, starting from which the lookups use the hashed
+     * header index rather than the linear scan.
+     */
+    private static final int INDEX_THRESHOLD = 16;
+
     /**
      * The header fields.
      */
@@ -180,6 +186,31 @@ servlet needs direct access to headers).
 
     private int maxNumHeaders = MAX_NUM_HEADERS_DEFAULT;
 
+    /**
+     * The hashed header index, which is built lazily by the first lookup
+     * once there are {@link #INDEX_THRESHOLD} headers, and is dropped when
+     * the headers are removed or cleared.
+     */
+    private boolean isIndexed;
+    /**
+     * The open-addressing table, which maps a header name hash to the
+     * index + 1 of the first header with this name, 0 means empty slot.
+     */
+    private int[] indexTable;
+    /**
+     * The header name hashes ignoring case.
+     */
+    private int[] nameHashes;
+    /**
+     * The index of the next header with the same name, -1 if none.
+     */
+    private int[] nextSameName;
+    /**
+     * The index + 1 of the first header with the known {@link Header} name,
+     * keyed by the {@link Header} ordinal, 0 means no such header.
+     */
+    private int[] knownHeaders;
+
     /**
      * The header names {@link Iterable}.
      */
@@ -222,6 +253,7 @@ servlet needs direct access to headers).
         count = 0;
         mark = 0;
         marked = false;
+        isIndexed = false;
 
     }
 
@@ -250,6 +282,7 @@ servlet needs direct access to headers).
         }
         this.maxNumHeaders = source.maxNumHeaders;
         this.count = source.count;
+        this.isIndexed = false;
         if (headers.length < count) {
             MimeHeaderField tmp[] = new MimeHeaderField[count * 2];
             System.arraycopy(headers, 0, tmp, 0, headers.length);
@@ -363,39 +396,142 @@ servlet needs direct access to headers).
      * Find the index of a header with the given name.
      */
     public int indexOf(String name, int fromIndex) {
-        // We can use a hash - but it's not clear how much
-        // benefit you can get - there is an  overhead
-        // and the number of headers is small (4-5 ?)
-        // Another problem is that we'll pay the overhead
-        // of constructing the hashtable
-
-        // A custom search tree may be better
-        for (int i = fromIndex; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(name)) {
-                return i;
+        // The number of headers is usually small, so the linear scan is
+        // cheaper than the hashed index, which pays off for large header
+        // sets (behind proxies and CDNs)
+        if (count < INDEX_THRESHOLD) {
+            for (int i = fromIndex; i < count; i++) {
+                if (headers[i].getName().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        if (!isIndexed) {
+            buildIndex();
+        }
+
+        final int hash = DataChunk.hashIgnoreCase(name);
+        final int mask = indexTable.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = indexTable[slot];
+            if (entry == 0) {
+                return -1;
+            }
+
+            final int idx = entry - 1;
+            if (nameHashes[idx] == hash
+                    && headers[idx].getName().equalsIgnoreCase(name)) {
+                return nextSameName(idx, fromIndex);
             }
         }
-        return -1;
     }
 
     /**
      * Find the index of a header with the given name.
      */
     public int indexOf(final Header header, final int fromIndex) {
-        // We can use a hash - but it's not clear how much
-        // benefit you can get - there is an  overhead
-        // and the number of headers is small (4-5 ?)
-        // Another problem is that we'll pay the overhead
-        // of constructing the hashtable
-
-        // A custom search tree may be better
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = fromIndex; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                return i;
+        if (count < INDEX_THRESHOLD) {
+            final byte[] bytes = header.getLowerCaseBytes();
+            for (int i = fromIndex; i < count; i++) {
+                if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
+                    return i;
+                }
             }
+            return -1;
+        }
+
+        if (!isIndexed) {
+            buildIndex();
+        }
+
+        // the known headers are resolved via their own slot
+        return nextSameName(knownHeaders[header.ordinal()] - 1, fromIndex);
+    }
+
+    /**
+     * @return the index of the first header with the same name as the
+     *         <tt>idx</tt> header, starting from <tt>fromIndex</tt>, or -1.
+     */
+    private int nextSameName(int idx, final int fromIndex) {
+        while (idx != -1 && idx < fromIndex) {
+            idx = nextSameName[idx];
         }
-        return -1;
+
+        return idx;
+    }
+
+    private void buildIndex() {
+        final int capacity = headers.length;
+        if (nameHashes == null || nameHashes.length < capacity) {
+            nameHashes = new int[capacity];
+            nextSameName = new int[capacity];
+            // keep the load factor <= 0.5
+            indexTable = new int[Integer.highestOneBit(capacity) << 2];
+            if (knownHeaders == null) {
+                knownHeaders = new int[Header.values().length];
+            }
+        } else {
+            Arrays.fill(indexTable, 0);
+        }
+
+        Arrays.fill(knownHeaders, 0);
+        for (int i = 0; i < count; i++) {
+            addToIndex(i);
+        }
+
+        isIndexed = true;
+    }
+
+    /**
+     * Updates the index, if it's built, when the header has been added.
+     */
+    private void onHeaderAdded(final int idx) {
+        if (isIndexed) {
+            if (idx < nameHashes.length) {
+                addToIndex(idx);
+            } else {
+                // the headers array has grown, rebuild the index on demand
+                isIndexed = false;
+            }
+        }
+    }
+
+    private void addToIndex(final int idx) {
+        final DataChunk name = headers[idx].getName();
+        final int hash = name.hashIgnoreCase();
+        nameHashes[idx] = hash;
+        nextSameName[idx] = -1;
+
+        final int mask = indexTable.length - 1;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = indexTable[slot];
+            if (entry == 0) {
+                indexTable[slot] = idx + 1;
+
+                final Header header = Header.findByLowerCaseHash(hash);
+                if (header != null && name.equalsIgnoreCaseLowerCase(
+                        header.getLowerCaseBytes())) {
+                    knownHeaders[header.ordinal()] = idx + 1;
+                }
+                return;
+            }
+
+            int last = entry - 1;
+            if (nameHashes[last] == hash
+                    && headers[last].getName().equalsIgnoreCase(name)) {
+                while (nextSameName[last] != -1) {
+                    last = nextSameName[last];
+                }
+                nextSameName[last] = idx;
+                return;
+            }
+        }
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
     }
 
 
@@ -494,6 +630,7 @@ servlet needs direct access to headers).
         }
         MimeHeaderField mh = createHeader();
         mh.getName().setString(name);
+        onHeaderAdded(count - 1);
         return mh.getValue();
     }
 
@@ -506,6 +643,7 @@ servlet needs direct access to headers).
         }
         MimeHeaderField mh = createHeader();
         mh.getName().setBytes(header.toByteArray());
+        onHeaderAdded(count - 1);
         return mh.getValue();
     }
 
@@ -520,6 +658,7 @@ servlet needs direct access to headers).
         }
         MimeHeaderField mhf = createHeader();
         mhf.getName().setBytes(buffer, startN, startN + len);
+        onHeaderAdded(count - 1);
         return mhf.getValue();
     }
 
@@ -534,6 +673,7 @@ servlet needs direct access to headers).
         }
         MimeHeaderField mhf = createHeader();
         mhf.getName().setBuffer(buffer, startN, startN + len);
+        onHeaderAdded(count - 1);
         return mhf.getValue();
     }
 
@@ -547,18 +687,16 @@ servlet needs direct access to headers).
         if (!isValidName(name)) {
             return NOOP_CHUNK;
         }
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(name)) {
-                for (int j = i + 1; j < count; j++) {
-                    if (headers[j].getName().equalsIgnoreCase(name)) {
-                        removeHeader(j--);
-                    }
-                }
-                return headers[i].getValue();
+        final int i = indexOf(name, 0);
+        if (i >= 0) {
+            for (int j = indexOf(name, i + 1); j >= 0; j = indexOf(name, j)) {
+                removeHeader(j);
             }
+            return headers[i].getValue();
         }
         MimeHeaderField mh = createHeader();
         mh.getName().setString(name);
+        onHeaderAdded(count - 1);
         return mh.getValue();
     }
 
@@ -572,19 +710,16 @@ servlet needs direct access to headers).
         if (!isValidName(header)) {
             return NOOP_CHUNK;
         }
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                for (int j = i + 1; j < count; j++) {
-                    if (headers[j].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                        removeHeader(j--);
-                    }
-                }
-                return headers[i].getValue();
+        final int i = indexOf(header, 0);
+        if (i >= 0) {
+            for (int j = indexOf(header, i + 1); j >= 0; j = indexOf(header, j)) {
+                removeHeader(j);
             }
+            return headers[i].getValue();
         }
         MimeHeaderField mh = createHeader();
         mh.getName().setBytes(header.toByteArray());
+        onHeaderAdded(count - 1);
 
         return mh.getValue();
     }
@@ -596,12 +731,8 @@ servlet needs direct access to headers).
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(String name) {
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(name)) {
-                return headers[i].getValue();
-            }
-        }
-        return null;
+        final int i = indexOf(name, 0);
+        return i >= 0 ? headers[i].getValue() : null;
     }
 
     /**
@@ -610,13 +741,8 @@ servlet needs direct access to headers).
      * in the header, an arbitrary one is returned.
      */
     public DataChunk getValue(final Header header) {
-        final byte[] bytes = header.getLowerCaseBytes();
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCaseLowerCase(bytes)) {
-                return headers[i].getValue();
-            }
-        }
-        return null;
+        final int i = indexOf(header, 0);
+        return i >= 0 ? headers[i].getValue() : null;
     }
 
     // bad shortcut - it'll convert to string ( too early probably,
@@ -641,19 +767,15 @@ servlet needs direct access to headers).
         // XXX
         // warning: rather sticky code; heavily tuned
 
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(name)) {
-                removeHeader(i--);
-            }
+        for (int i = indexOf(name, 0); i >= 0; i = indexOf(name, i)) {
+            removeHeader(i);
         }
     }
 
     public void removeHeader(final Header header) {
 
-        for (int i = 0; i < count; i++) {
-            if (headers[i].getName().equalsIgnoreCase(header.getBytes())) {
-                removeHeader(i--);
-            }
+        for (int i = indexOf(header, 0); i >= 0; i = indexOf(header, i)) {
+            removeHeader(i);
         }
 
     }
@@ -727,6 +849,7 @@ servlet needs direct access to headers).
         headers[idx] = headers[count - 1];
         headers[count - 1] = mh;
         count--;
+        isIndexed = false;
     }
 
 
@@ -814,12 +937,9 @@ class NamesIterator extends BaseIterator {
         next = null;
         for (; pos < size; pos++) {
             next = headers.getName(pos).toString();
-            for (int j = 0; j < pos; j++) {
-                if (headers.getName(j).equalsIgnoreCase(next)) {
-                    // duplicate.
-                    next = null;
-                    break;
-                }
+            if (headers.indexOf(next, 0) < pos) {
+                // duplicate.
+                next = null;
             }
             if (next != null) {
                 // it's not a duplicate
@@ -866,12 +986,12 @@ final class ValuesIterator extends BaseIterator {
 
     protected void findNext() {
         next = null;
-        for (; pos < size; pos++) {
-            final DataChunk n1 = headers.getName(pos);
-            if (n1.equalsIgnoreCase(name)) {
-                next = headers.getValue(pos);
-                break;
-            }
+        final int idx = headers.indexOf(name, pos);
+        if (idx >= 0 && idx < size) {
+            next = headers.getValue(idx);
+            pos = idx;
+        } else {
+            pos = size;
         }
         pos++;
     }
@@ -62,7 +62,9 @@ import java.io.CharConversionException;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Set;
 import java.util.logging.Level;
@@ -72,6 +74,7 @@ import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Grizzly;
 
 import org.glassfish.grizzly.localization.LogMessages;
+import org.glassfish.grizzly.utils.Charsets;
 
 /**
  * @author Costin Manolache
@@ -108,6 +111,28 @@ public final class Parameters {
     private int limit = -1;
     private int parameterCount = 0;
 
+    // Lazy parameters, parsed from Buffers, are recorded as offsets into
+    // their source Buffer and decoded only when they're requested.
+    // Each record is {source index << 2 | decode flags,
+    //                 nameStart, nameEnd, valueStart, valueEnd}
+    private static final int RECORD_SIZE = 5;
+    private static final int DECODE_NAME_FLAG = 1;
+    private static final int DECODE_VALUE_FLAG = 2;
+
+    private Buffer[] lazySources = new Buffer[2];
+    private Charset[] lazyEncodings = new Charset[2];
+    private int lazySourcesCount;
+    private int[] lazyRecords = new int[RECORD_SIZE * 8];
+    private int lazyRecordsCount;
+    // the number of lazy records already added to paramHashValues
+    private int processedLazyRecordsCount;
+    // the lazy parameter values found by getParameter(String)
+    private HashMap<String, String> lazyValues;
+    private final BufferChunk lazyChunk = new BufferChunk();
+    private final ByteChunk decodedBytes = new ByteChunk();
+    private final BufferChunk visitedName = new BufferChunk();
+    private final BufferChunk visitedValue = new BufferChunk();
+
     public void setQuery(final DataChunk queryBC) {
         this.queryDC = queryBC;
     }
@@ -154,6 +179,15 @@ public final class Parameters {
         parameterCount = 0;
         decodedQuery.recycle();
 
+        Arrays.fill(lazySources, 0, lazySourcesCount, null);
+        Arrays.fill(lazyEncodings, 0, lazySourcesCount, null);
+        lazySourcesCount = 0;
+        lazyRecordsCount = 0;
+        processedLazyRecordsCount = 0;
+        if (lazyValues != null) {
+            lazyValues.clear();
+        }
+
     }
     // -------------------- Sub-request support --------------------
 
@@ -217,6 +251,7 @@ public final class Parameters {
         if (key == null) {
             return;
         }
+        processLazyParameters();
         ArrayList<String> values;
         if (paramHashValues.containsKey(key)) {
             values = paramHashValues.get(key);
@@ -230,6 +265,7 @@ public final class Parameters {
 
     public String[] getParameterValues(String name) {
         handleQueryParameters();
+        processLazyParameters();
         final ArrayList<String> values;
         // sub-request
         if (currentChild != null) {
@@ -244,6 +280,7 @@ public final class Parameters {
 
     public Set<String> getParameterNames() {
         handleQueryParameters();
+        processLazyParameters();
         // Slow - the original code
         if (currentChild != null) {
             currentChild.merge();
@@ -276,6 +313,7 @@ public final class Parameters {
 
         // Local parameters first - they take precedence as in spec.
         handleQueryParameters();
+        processLazyParameters();
         // we already merged with the parent
         if (didMerge) {
             return;
@@ -307,6 +345,8 @@ public final class Parameters {
                 return "";
             }
             return values.get(0);
+        } else if (name != null && processedLazyRecordsCount < lazyRecordsCount) {
+            return getLazyParameter(name);
         } else {
             return null;
         }
@@ -329,6 +369,14 @@ public final class Parameters {
                        new Object[]{queryDC, queryStringEncoding});
         }
         
+        if (queryDC.getType() == DataChunk.Type.Buffer) {
+            // the query isn't decoded in place, so refer to it directly
+            final BufferChunk bc = queryDC.getBufferChunk();
+            processParametersLazily(bc.getBuffer(), bc.getStart(),
+                    bc.getLength(), queryStringEncoding);
+            return;
+        }
+
         decodedQuery.duplicate(queryDC);
         
         processParameters(decodedQuery, queryStringEncoding);
@@ -378,6 +426,7 @@ public final class Parameters {
             return;
         }
 
+        processLazyParameters();
         parameterCount++;
         if (limit > -1 && parameterCount > limit) {
             // Processing this parameter will push us over the limit. ISE is
@@ -387,6 +436,10 @@ public final class Parameters {
                     );
         }
 
+        putParameter(key, value);
+    }
+
+    private void putParameter(final String key, final String value) {
         ArrayList<String> values = paramHashValues.get(key);
         if (values == null) {
             values = new ArrayList<String>(1);
@@ -403,8 +456,6 @@ public final class Parameters {
     // of the above.
     // we are called from a single thread - we can do it the hard way
     // if needed
-    final BufferChunk tmpName = new BufferChunk();
-    final BufferChunk tmpValue = new BufferChunk();
     private final BufferChunk origName = new BufferChunk();
     private final BufferChunk origValue = new BufferChunk();
     final CharChunk tmpNameC = new CharChunk(1024);
@@ -420,6 +471,39 @@ public final class Parameters {
 
     public void processParameters(final Buffer buffer, final int start, final int len,
         final Charset enc) {
+        final int recordsCount = lazyRecordsCount;
+        final int sourcesCount = lazySourcesCount;
+
+        processParametersLazily(buffer, start, len, enc);
+
+        // the Buffer isn't guaranteed to stay untouched after we return,
+        // so decode the parameters now and forget their offsets
+        processLazyParameters();
+        lazyRecordsCount = recordsCount;
+        processedLazyRecordsCount = recordsCount;
+        for (int i = sourcesCount; i < lazySourcesCount; i++) {
+            lazySources[i] = null;
+            lazyEncodings[i] = null;
+        }
+        lazySourcesCount = sourcesCount;
+    }
+
+    public void processParametersLazily(final Buffer buffer, final int start,
+            final int len) {
+        processParametersLazily(buffer, start, len, encoding);
+    }
+
+    /**
+     * Parses the parameters the same way as
+     * {@link #processParameters(Buffer, int, int, Charset)} does, but only
+     * records the offsets of their names and values within the {@link Buffer}.
+     * A parameter is decoded when it's requested, so the {@link Buffer} content
+     * must stay untouched until this <tt>Parameters</tt> is recycled.
+     *
+     * @since 3.0
+     */
+    public void processParametersLazily(final Buffer buffer, final int start,
+            final int len, final Charset enc) {
 
         if (LOGGER.isLoggable(Level.FINEST)) {
             LOGGER.log(Level.FINEST,
@@ -431,8 +515,12 @@ public final class Parameters {
                                buffer.toStringContent(enc, start, start + len)
                        });
         }
-        
-        int decodeFailCount = 0;
+
+        if (len <= 0) {
+            return;
+        }
+
+        final int sourceIdx = addLazySource(buffer, enc);
 
         int end = start + len;
         int pos = start;
@@ -510,7 +598,6 @@ public final class Parameters {
 
             if (nameEnd <= nameStart) {
                 if (LOGGER.isLoggable(Level.INFO)) {
-                    String extract;
                     if (valueEnd < nameStart) {
                         LOGGER.info(LogMessages.INFO_GRIZZLY_HTTP_PARAMETERS_INVALID_CHUNK(
                                 nameStart,
@@ -521,61 +608,195 @@ public final class Parameters {
                 continue;
                 // invalid chunk - it's better to ignore
             }
-            tmpName.setBufferChunk(buffer, nameStart, nameEnd);
-            tmpValue.setBufferChunk(buffer, valueStart, valueEnd);
 
-            // Take copies as if anything goes wrong originals will be
-            // corrupted. This means original values can be logged.
-            // For performance - only done for debug
-            if (LOGGER.isLoggable(Level.FINEST)) {
-                origName.setBufferChunk(buffer, nameStart, nameEnd);
-                origValue.setBufferChunk(buffer, valueStart, valueEnd);
-            }
+            parameterCount++;
+            addLazyRecord((sourceIdx << 2)
+                                  | (decodeName ? DECODE_NAME_FLAG : 0)
+                                  | (decodeValue ? DECODE_VALUE_FLAG : 0),
+                          nameStart, nameEnd, valueStart, valueEnd);
+        }
+    }
 
-            try {
-                String name;
-                String value;
+    /**
+     * Passes the raw, still URL-encoded, names and values of the parameters,
+     * which were parsed lazily from {@link Buffer}s, to the <tt>visitor</tt>
+     * in their original order. Nothing gets decoded or allocated on the way,
+     * the {@link BufferChunk}s are reused from one call to another, so the
+     * <tt>visitor</tt> must not keep references to them.
+     *
+     * Only the parameters, which still have their raw form, are visited:
+     * <ul>
+     *   <li>the query, if its {@link DataChunk} is {@link DataChunk.Type#Buffer};</li>
+     *   <li>the parameters passed to
+     *       {@link #processParametersLazily(Buffer, int, int, Charset)}.</li>
+     * </ul>
+     * The parameters of a String, byte[] or char[] query, the ones passed to
+     * {@link #processParameters(Buffer, int, int, Charset)} or any other
+     * <tt>processParameters</tt> method, and the ones added by
+     * {@link #addParameter(String, String)} are decoded right away, so they
+     * are not visited. Use {@link #getParameterNames()} and
+     * {@link #getParameterValues(String)} to get all the parameters.
+     *
+     * @since 3.0
+     */
+    public void visitParameters(final ParameterVisitor visitor) {
+        handleQueryParameters();
+
+        try {
+            for (int i = 0; i < lazyRecordsCount; i++) {
+                final int offset = i * RECORD_SIZE;
+                final Buffer source = lazySources[lazyRecords[offset] >>> 2];
+                final int nameEnd = lazyRecords[offset + 2];
+                final int valueStart = lazyRecords[offset + 3];
 
-                if (decodeName) {
-                    name = urlDecode(tmpName, enc);
+                visitedName.setBufferChunk(source, lazyRecords[offset + 1], nameEnd);
+                if (valueStart != -1) {
+                    visitedValue.setBufferChunk(source, valueStart,
+                            lazyRecords[offset + 4]);
                 } else {
-                    name = tmpName.toString(enc);
+                    visitedValue.setBufferChunk(source, nameEnd, nameEnd);
                 }
 
-                if (valueStart != -1) {
-                    if (decodeValue) {
-                        value = urlDecode(tmpValue, enc);
-                    } else {
-                        value = tmpValue.toString(enc);
+                if (!visitor.visit(visitedName, visitedValue)) {
+                    break;
+                }
+            }
+        } finally {
+            visitedName.recycle();
+            visitedValue.recycle();
+        }
+    }
+
+    /**
+     * Looks for the first value of the parameter among the lazy records,
+     * which haven't been added to the parameters map yet.
+     */
+    private String getLazyParameter(final String name) {
+        if (lazyValues != null) {
+            final String value = lazyValues.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        final boolean isAsciiName = isAscii(name);
+        for (int i = processedLazyRecordsCount; i < lazyRecordsCount; i++) {
+            final int offset = i * RECORD_SIZE;
+            try {
+                if (lazyNameEquals(offset, name, isAsciiName)) {
+                    final int flags = lazyRecords[offset];
+                    final int valueStart = lazyRecords[offset + 3];
+                    final String value = valueStart != -1
+                            ? decode(lazySources[flags >>> 2], valueStart,
+                                     lazyRecords[offset + 4],
+                                     (flags & DECODE_VALUE_FLAG) != 0,
+                                     lazyEncodings[flags >>> 2])
+                            : "";
+
+                    if (lazyValues == null) {
+                        lazyValues = new HashMap<String, String>();
                     }
-                } else {
-                    value = "";
+                    lazyValues.put(name, value);
+                    return value;
                 }
-                
-                addParameter(name, value);
+            } catch (Exception e) {
+                // the parameter can't be decoded, so it will be skipped
+                // (and logged) once the lazy records are processed
+            }
+        }
+
+        return null;
+    }
+
+    private boolean lazyNameEquals(final int offset, final String name,
+            final boolean isAsciiName) throws CharConversionException {
+        final int flags = lazyRecords[offset];
+        final Buffer source = lazySources[flags >>> 2];
+        final Charset enc = lazyEncodings[flags >>> 2];
+        final int nameStart = lazyRecords[offset + 1];
+        final int nameEnd = lazyRecords[offset + 2];
+        final boolean isUrlEncoded = (flags & DECODE_NAME_FLAG) != 0;
+
+        if (!isAsciiName || !isAsciiCompatible(enc)) {
+            return name.equals(decode(source, nameStart, nameEnd, isUrlEncoded, enc));
+        }
+
+        // an ASCII name is represented by the same bytes in the parameter
+        // encoding, so compare the bytes without creating a String
+        if (!isUrlEncoded) {
+            if (nameEnd - nameStart != name.length()) {
+                return false;
+            }
+
+            lazyChunk.setBufferChunk(source, nameStart, nameEnd);
+            try {
+                return lazyChunk.equals(name);
+            } finally {
+                lazyChunk.recycle();
+            }
+        }
+
+        urlDecode(source, nameStart, nameEnd);
+        return decodedBytes.equals(name);
+    }
+
+    /**
+     * Adds the lazy records, which haven't been processed yet, to the
+     * parameters map.
+     */
+    private void processLazyParameters() {
+        if (processedLazyRecordsCount == lazyRecordsCount) {
+            return;
+        }
+
+        int decodeFailCount = 0;
+
+        for (int i = processedLazyRecordsCount; i < lazyRecordsCount; i++) {
+            final int offset = i * RECORD_SIZE;
+            final int flags = lazyRecords[offset];
+            final Buffer source = lazySources[flags >>> 2];
+            final Charset enc = lazyEncodings[flags >>> 2];
+            final int nameStart = lazyRecords[offset + 1];
+            final int nameEnd = lazyRecords[offset + 2];
+            final int valueStart = lazyRecords[offset + 3];
+            final int valueEnd = lazyRecords[offset + 4];
+
+            try {
+                final String name = decode(source, nameStart, nameEnd,
+                        (flags & DECODE_NAME_FLAG) != 0, enc);
+                final String value = valueStart != -1
+                        ? decode(source, valueStart, valueEnd,
+                                 (flags & DECODE_VALUE_FLAG) != 0, enc)
+                        : "";
+
+                putParameter(name, value);
             } catch (Exception e) {
                 decodeFailCount++;
                 if (LOGGER.isLoggable(Level.FINEST)) {
                    LOGGER.log(Level.FINEST,
                             LogMessages.FINE_GRIZZLY_HTTP_PARAMETERS_DECODE_FAIL_DEBUG(
-                            origName.toString(), origValue.toString()));
+                            source.toStringContent(DEFAULT_CHARSET, nameStart, nameEnd),
+                            valueStart != -1
+                                    ? source.toStringContent(DEFAULT_CHARSET, valueStart, valueEnd)
+                                    : ""));
                 } else if (LOGGER.isLoggable(Level.INFO) && decodeFailCount == 1) {
-                    final String name = ((tmpName.getLength() > 0)
-                                            ? tmpName.toString()
+                    final String name = ((nameEnd > nameStart)
+                                            ? source.toStringContent(DEFAULT_CHARSET, nameStart, nameEnd)
                                             : "unavailable");
-                    final String value = ((tmpValue.getLength() > 0)
-                                            ? tmpValue.toString()
+                    final String value = ((valueEnd > valueStart && valueStart != -1)
+                                            ? source.toStringContent(DEFAULT_CHARSET, valueStart, valueEnd)
                                             : "unavailable");
                     LOGGER.log(Level.INFO,
                                LogMessages.INFO_GRIZZLY_HTTP_PARAMETERS_DECODE_FAIL_INFO(
                                        e.getMessage(), name, value));
                     LOGGER.log(Level.FINE, "Decoding stacktrace.", e);
                 }
-            } finally {
-                tmpName.recycle();
-                tmpValue.recycle();
             }
+        }
 
+        processedLazyRecordsCount = lazyRecordsCount;
+        if (lazyValues != null) {
+            lazyValues.clear();
         }
 
         if (!LOGGER.isLoggable(Level.FINEST) && decodeFailCount > 1) {
@@ -583,35 +804,75 @@ public final class Parameters {
         }
     }
 
-    private String urlDecode(final BufferChunk bc, final Charset enc)
-        throws IOException {
-//        if (urlDec == null) {
-//            urlDec = new UDecoder();
-//        }
-        URLDecoder.decode(bc, true);
-        String result;
-        if (enc != null) {
-            if (bc.getStart() == -1 && bc.getEnd() == -1) {
-                return "";
-            }
-            result = bc.toString(enc);
-        } else {
-            final CharChunk cc = tmpNameC;
-            final int length = bc.getLength();
-            cc.allocate(length, -1);
-            // Default encoding: fast conversion
-            final Buffer bbuf = bc.getBuffer();
-            final char[] cbuf = cc.getBuffer();
-            final int start = bc.getStart();
-            for (int i = 0; i < length; i++) {
-                cbuf[i] = (char) (bbuf.get(i + start) & 0xff);
-            }
+    private String decode(final Buffer source, final int start, final int end,
+            final boolean isUrlEncoded, final Charset enc)
+            throws CharConversionException {
+        final Charset charset = enc != null ? enc : DEFAULT_CHARSET;
+        if (!isUrlEncoded) {
+            return source.toStringContent(charset, start, end);
+        }
+
+        urlDecode(source, start, end);
+        return new String(decodedBytes.getBuffer(), decodedBytes.getStart(),
+                decodedBytes.getLength(), charset);
+    }
+
+    /**
+     * URL-decodes the source bytes into {@link #decodedBytes}, leaving the
+     * source untouched.
+     */
+    private void urlDecode(final Buffer source, final int start, final int end)
+            throws CharConversionException {
+        lazyChunk.setBufferChunk(source, start, end);
+        try {
+            decodedBytes.allocate(end - start, -1);
+            URLDecoder.decode(lazyChunk, decodedBytes, true);
+        } finally {
+            lazyChunk.recycle();
+        }
+    }
 
-            cc.setChars(cbuf, 0, length);
-            result = cc.toString();
-            cc.recycle();
+    private int addLazySource(final Buffer buffer, final Charset enc) {
+        if (lazySourcesCount == lazySources.length) {
+            lazySources = Arrays.copyOf(lazySources, lazySourcesCount * 2);
+            lazyEncodings = Arrays.copyOf(lazyEncodings, lazySourcesCount * 2);
         }
-        return result;
+
+        lazySources[lazySourcesCount] = buffer;
+        lazyEncodings[lazySourcesCount] = enc;
+        return lazySourcesCount++;
+    }
+
+    private void addLazyRecord(final int flags, final int nameStart,
+            final int nameEnd, final int valueStart, final int valueEnd) {
+        int offset = lazyRecordsCount * RECORD_SIZE;
+        if (offset == lazyRecords.length) {
+            lazyRecords = Arrays.copyOf(lazyRecords, offset * 2);
+        }
+
+        lazyRecords[offset++] = flags;
+        lazyRecords[offset++] = nameStart;
+        lazyRecords[offset++] = nameEnd;
+        lazyRecords[offset++] = valueStart;
+        lazyRecords[offset] = valueEnd;
+        lazyRecordsCount++;
+    }
+
+    private static boolean isAscii(final String s) {
+        for (int i = 0, len = s.length(); i < len; i++) {
+            if (s.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isAsciiCompatible(final Charset enc) {
+        return enc == null
+                || DEFAULT_CHARSET.equals(enc)
+                || Charsets.UTF8_CHARSET.equals(enc)
+                || Charsets.ASCII_CHARSET.equals(enc);
     }
 
     public void processParameters(char chars[], int start, int len) {
@@ -758,6 +1019,7 @@ public final class Parameters {
      * Debug purpose
      */
     public String paramsAsString() {
+        processLazyParameters();
         StringBuilder sb = new StringBuilder();
         for (final String s : paramHashValues.keySet()) {
             // END PWC 6057385
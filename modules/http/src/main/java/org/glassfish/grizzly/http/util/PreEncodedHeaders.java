@@ -0,0 +1,287 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2017 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://oss.oracle.com/licenses/CDDL+GPL-1.1
+ * or LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.grizzly.http.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.utils.Charsets;
+
+/**
+ * Immutable block of HTTP headers, which are encoded once, when the block is
+ * built, and then copied as is into every HTTP message header the block is
+ * attached to (see {@link org.glassfish.grizzly.http.HttpHeader#setPreEncodedHeaders(PreEncodedHeaders)}).
+ *
+ * The block is meant for headers, which are identical across many messages,
+ * like <tt>Server</tt>, <tt>Cache-Control</tt> or CORS headers.
+ * If the message's {@link MimeHeaders} contain a header with the same name,
+ * the explicitly set header wins and the corresponding block entry is skipped.
+ *
+ * The headers describing the message body (<tt>Content-Length</tt>,
+ * <tt>Content-Encoding</tt> and <tt>Transfer-Encoding</tt>) are maintained
+ * by the codec and can't be pre-encoded.
+ *
+ * @since 3.0
+ */
+public final class PreEncodedHeaders {
+    private static final byte[] COLON_BYTES = {(byte) ':', (byte) ' '};
+    private static final byte[] CRLF_BYTES = {(byte) '\r', (byte) '\n'};
+
+    private final String[] names;
+    private final Header[] knownHeaders;
+    private final String[] values;
+    // the i-th header is encoded in encoded[offsets[i], offsets[i + 1])
+    private final int[] offsets;
+    private final byte[] encoded;
+
+    private PreEncodedHeaders(final Builder builder) {
+        final int size = builder.names.size();
+        names = builder.names.toArray(new String[size]);
+        values = builder.values.toArray(new String[size]);
+        knownHeaders = new Header[size];
+        offsets = new int[size + 1];
+
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            length += names[i].length() + values[i].length() + 4;
+        }
+
+        encoded = new byte[length];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            knownHeaders[i] = find(names[i]);
+            offsets[i] = pos;
+            pos = put(names[i], pos);
+            pos = put(COLON_BYTES, pos);
+            pos = put(values[i], pos);
+            pos = put(CRLF_BYTES, pos);
+        }
+
+        offsets[size] = pos;
+    }
+
+    /**
+     * @return a new {@link Builder}
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of headers in the block
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param i header index
+     * @return the i-th header name
+     */
+    public String getName(final int i) {
+        return names[i];
+    }
+
+    /**
+     * @param i header index
+     * @return the i-th header value
+     */
+    public String getValue(final int i) {
+        return values[i];
+    }
+
+    /**
+     * @return the number of bytes in the encoded block
+     */
+    public int getEncodedLength() {
+        return encoded.length;
+    }
+
+    /**
+     * Writes the encoded block into the passed {@link Buffer}, skipping the
+     * headers that are explicitly set in the passed {@link MimeHeaders}.
+     * If none of the headers is overridden, the whole block is copied with a
+     * single bulk put.
+     *
+     * @param memoryManager the {@link MemoryManager} to be used, if the
+     *                      {@link Buffer} has to be resized
+     * @param buffer the {@link Buffer} to write the headers to
+     * @param headers the message's {@link MimeHeaders}, which take precedence
+     *                over the block, or <tt>null</tt>
+     * @return the {@link Buffer} the headers were written to, which might be
+     *         different from the passed one, if it had to be resized
+     */
+    public Buffer writeTo(final MemoryManager memoryManager, Buffer buffer,
+                          final MimeHeaders headers) {
+        final int size = names.length;
+        int from = 0;
+
+        if (headers != null && headers.size() > 0) {
+            for (int i = 0; i < size; i++) {
+                if (isOverridden(headers, i)) {
+                    if (from < i) {
+                        buffer = HttpCodecUtils.put(memoryManager, buffer, encoded,
+                                offsets[from], offsets[i] - offsets[from]);
+                    }
+
+                    from = i + 1;
+                }
+            }
+        }
+
+        if (from < size) {
+            buffer = HttpCodecUtils.put(memoryManager, buffer, encoded,
+                    offsets[from], offsets[size] - offsets[from]);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Adds the block headers, which are not set in the passed
+     * {@link MimeHeaders}, to the {@link MimeHeaders}. Might be used by the
+     * codecs, which can't serialize the HTTP/1.x encoded block as is.
+     *
+     * @param headers {@link MimeHeaders}
+     */
+    public void copyTo(final MimeHeaders headers) {
+        final int size = names.length;
+        final boolean[] isOverridden = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            isOverridden[i] = isOverridden(headers, i);
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (!isOverridden[i]) {
+                headers.addValue(names[i]).setString(values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(encoded, Charsets.ASCII_CHARSET);
+    }
+
+    private boolean isOverridden(final MimeHeaders headers, final int i) {
+        final int idx = knownHeaders[i] != null
+                ? headers.indexOf(knownHeaders[i], 0)
+                : headers.indexOf(names[i], 0);
+
+        return idx >= 0 && !headers.getValue(idx).isNull();
+    }
+
+    private int put(final String s, final int pos) {
+        HttpCodecUtils.toCheckedByteArray(s, encoded, pos);
+        return pos + s.length();
+    }
+
+    private int put(final byte[] bytes, final int pos) {
+        System.arraycopy(bytes, 0, encoded, pos, bytes.length);
+        return pos + bytes.length;
+    }
+
+    private static Header find(final String name) {
+        final Header header = Header.findByLowerCaseHash(
+                DataChunk.hashIgnoreCase(name));
+        return header != null && header.toString().equalsIgnoreCase(name)
+                ? header
+                : null;
+    }
+
+    /**
+     * {@link PreEncodedHeaders} builder.
+     */
+    public static final class Builder {
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> values = new ArrayList<String>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the header to the block.
+         *
+         * @param name the header name
+         * @param value the header value
+         * @return this
+         * @throws IllegalArgumentException if the header describes the message
+         *         body and is maintained by the codec
+         */
+        public Builder header(final String name, final String value) {
+            if (name == null || name.isEmpty() || value == null) {
+                throw new IllegalArgumentException("Header name and value must be set");
+            }
+
+            if (Header.ContentLength.toString().equalsIgnoreCase(name)
+                    || Header.ContentEncoding.toString().equalsIgnoreCase(name)
+                    || Header.TransferEncoding.toString().equalsIgnoreCase(name)) {
+                throw new IllegalArgumentException("Header " + name
+                        + " can't be pre-encoded");
+            }
+
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Adds the header to the block.
+         *
+         * @param header the {@link Header}
+         * @param value the header value
+         * @return this
+         * @throws IllegalArgumentException if the header describes the message
+         *         body and is maintained by the codec
+         */
+        public Builder header(final Header header, final String value) {
+            return header(header.toString(), value);
+        }
+
+        /**
+         * @return the immutable {@link PreEncodedHeaders} block
+         */
+        public PreEncodedHeaders build() {
+            return new PreEncodedHeaders(this);
+        }
+    }
+}
@@ -43,6 +43,8 @@ package org.glassfish.grizzly.http;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -64,6 +66,7 @@ import org.glassfish.grizzly.http.util.MimeHeaders;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.ByteBufferWrapper;
 import org.glassfish.grizzly.memory.MemoryManager;
 import org.glassfish.grizzly.nio.NIOConnection;
 import org.glassfish.grizzly.nio.transport.TCPNIOConnectorHandler;
@@ -206,12 +209,51 @@ public class HttpRequestParseTest extends TestCase {
         assertTrue(packet.getHttpHeader().isChunked());
     }
     
-    @SuppressWarnings({"unchecked"})
+    public void testLongHeaders() {
+        final String request = "POST /index.html HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "X-Very-Long-Mixed-CASE-Header-Name: Some Mixed CASE value\r\n"
+                + "Accept-Language: en-US,en;q=0.9        \r\n"
+                + "User-Agent:Mozilla/5.0 (X11; Linux x86_64)\tGecko/20100101\r\n"
+                + "X-Folded: first part of the value\r\n    second part\r\n"
+                + "Content-Length: 12345678\r\n"
+                + "\r\n";
+        final byte[] requestBytes = request.getBytes(StandardCharsets.ISO_8859_1);
+        
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(requestBytes.length);
+        directBuffer.put(requestBytes).flip();
+        
+        final Buffer[] inputs = {
+            Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, request),
+            new ByteBufferWrapper(directBuffer)
+        };
+        
+        for (Buffer input : inputs) {
+            final HttpHeader header = doTestDecoder(input, 4096).getHttpHeader();
+            final MimeHeaders headers = header.getHeaders();
+            
+            assertEquals("Some Mixed CASE value",
+                    headers.getHeader("x-very-long-mixed-case-header-name"));
+            assertEquals("x-very-long-mixed-case-header-name",
+                    headers.getName(1).toString());
+            assertEquals("en-US,en;q=0.9",
+                    headers.getHeader("accept-language"));
+            assertEquals("Mozilla/5.0 (X11; Linux x86_64)\tGecko/20100101",
+                    headers.getHeader("user-agent"));
+            assertEquals("first part of the value second part",
+                    headers.getHeader("x-folded"));
+            assertEquals(12345678, header.getContentLength());
+        }
+    }
+    
     private HttpPacket doTestDecoder(String request, int limit) {
-
         MemoryManager mm = MemoryManager.DEFAULT_MEMORY_MANAGER;
-        Buffer input = Buffers.wrap(mm, request);
-        
+        return doTestDecoder(Buffers.wrap(mm, request), limit);
+    }
+    
+    @SuppressWarnings({"unchecked"})
+    private HttpPacket doTestDecoder(Buffer input, int limit) {
+
         HttpServerFilter filter = new HttpServerFilter(true, limit, null, null) {
 
             @Override
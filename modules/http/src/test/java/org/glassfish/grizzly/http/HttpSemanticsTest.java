@@ -53,6 +53,7 @@ import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.filterchain.TransportFilter;
 import org.glassfish.grizzly.utils.Charsets;
 import org.glassfish.grizzly.http.util.HttpStatus;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 import org.glassfish.grizzly.impl.FutureImpl;
 import org.glassfish.grizzly.impl.SafeFutureImpl;
 import org.glassfish.grizzly.memory.MemoryManager;
@@ -801,6 +802,76 @@ public class HttpSemanticsTest extends TestCase {
         doTest(createHttpRequest(), result, serverResponseFilter);
     }
     
+    public void testPreEncodedHeaders() throws Throwable {
+        final PreEncodedHeaders preEncodedHeaders = PreEncodedHeaders.builder()
+                .header(Header.Server, "Grizzly-Test")
+                .header("Cache-Control", "no-cache")
+                .header("X-Custom", "template")
+                .build();
+
+        final BaseFilter serverResponseFilter = new BaseFilter() {
+            @Override
+            public NextAction handleRead(FilterChainContext ctx) throws IOException {
+                final HttpContent httpContent = ctx.getMessage();
+
+                if (!httpContent.isLast()) {
+                    return ctx.getStopAction(httpContent);
+                }
+
+                HttpRequestPacket request =
+                        (HttpRequestPacket) httpContent.getHttpHeader();
+                HttpResponsePacket response = request.getResponse();
+                HttpStatus.NOT_FOUND_404.setValues(response);
+                response.setPreEncodedHeaders(preEncodedHeaders);
+                response.setHeader("x-custom", "explicit");
+                response.setContentLength(0);
+                ctx.write(response);
+                return ctx.getStopAction();
+            }
+        };
+
+        ExpectedResult result = new ExpectedResult();
+        result.setProtocol("HTTP/1.1");
+        result.setStatusCode(404);
+        result.setStatusMessage("not found");
+        result.addHeader("Server", "Grizzly-Test");
+        result.addHeader("Cache-Control", "no-cache");
+        result.addHeader("X-Custom", "explicit");
+        result.addHeader("Content-Length", "0");
+        doTest(createHttpRequest(), result, serverResponseFilter);
+    }
+
+    public void testUnregisteredStatusCode() throws Throwable {
+        final BaseFilter serverResponseFilter = new BaseFilter() {
+            @Override
+            public NextAction handleRead(FilterChainContext ctx) throws IOException {
+                final HttpContent httpContent = ctx.getMessage();
+
+                if (!httpContent.isLast()) {
+                    return ctx.getStopAction(httpContent);
+                }
+
+                HttpRequestPacket request =
+                        (HttpRequestPacket) httpContent.getHttpHeader();
+                HttpResponsePacket response = request.getResponse();
+                // the status line isn't pre-encoded for unregistered codes
+                response.setStatus(299);
+                assertNull(response.getHttpStatus()
+                        .getStatusLineBytes(response.getProtocol()));
+                response.setContentLength(0);
+                ctx.write(response);
+                return ctx.getStopAction();
+            }
+        };
+
+        ExpectedResult result = new ExpectedResult();
+        result.setProtocol("HTTP/1.1");
+        result.setStatusCode(299);
+        result.setStatusMessage("custom");
+        result.addHeader("Content-Length", "0");
+        doTest(createHttpRequest(), result, serverResponseFilter);
+    }
+
     public void testHttpHeadersLimit() throws Throwable {
         final Builder builder = HttpRequestPacket.builder()
                 .method("GET")
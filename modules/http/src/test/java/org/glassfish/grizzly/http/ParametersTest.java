@@ -60,12 +60,17 @@ package org.glassfish.grizzly.http;
 
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.util.BufferChunk;
 import org.glassfish.grizzly.http.util.Constants;
 
 import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.utils.Charsets;
+import org.glassfish.grizzly.http.util.ParameterVisitor;
 import org.glassfish.grizzly.http.util.Parameters;
 import org.glassfish.grizzly.http.util.UEncoder;
 
@@ -174,7 +179,92 @@ public class ParametersTest {
         
         assertEquals(paramValue, parameters.getParameter(paramName));
     }
-    
+
+    @Test
+    public void testLazyQueryParameters() {
+        final String query = "a=1&b=x+y%21&a=2&c&%41=z&=invalid";
+        final Buffer queryBuffer =
+                Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, query);
+
+        Parameters parameters = new Parameters();
+        parameters.setQueryStringEncoding(Charsets.UTF8_CHARSET);
+        DataChunk queryStringDataChunk = DataChunk.newInstance();
+        queryStringDataChunk.setBuffer(queryBuffer);
+        parameters.setQuery(queryStringDataChunk);
+        parameters.handleQueryParameters();
+
+        assertEquals("1", parameters.getParameter("a"));
+        assertEquals("x y!", parameters.getParameter("b"));
+        assertEquals("", parameters.getParameter("c"));
+        assertEquals("z", parameters.getParameter("A"));
+        assertNull(parameters.getParameter("d"));
+        assertNull(parameters.getParameter("%41"));
+
+        // the query must not be decoded in place
+        assertEquals(query, queryBuffer.toStringContent(Charsets.ASCII_CHARSET));
+
+        assertArrayEquals(new String[] {"1", "2"},
+                parameters.getParameterValues("a"));
+        assertArrayEquals(new String[] {"a", "b", "c", "A"},
+                parameters.getParameterNames().toArray());
+        assertEquals("x y!", parameters.getParameter("b"));
+
+        parameters.addParameter("a", "3");
+        assertArrayEquals(new String[] {"1", "2", "3"},
+                parameters.getParameterValues("a"));
+    }
+
+    @Test
+    public void testVisitParameters() {
+        final String form = "a=1&b=x+y&c&d=4";
+        Parameters parameters = new Parameters();
+        parameters.processParametersLazily(
+                Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, form),
+                0, form.length(), Charsets.UTF8_CHARSET);
+
+        final List<String> visited = new ArrayList<String>();
+        parameters.visitParameters(new ParameterVisitor() {
+            @Override
+            public boolean visit(final BufferChunk name, final BufferChunk value) {
+                visited.add(name.toString() + ':' + value.toString());
+                return !name.equals("c");
+            }
+        });
+
+        assertEquals("[a:1, b:x+y, c:]", visited.toString());
+        assertEquals("4", parameters.getParameter("d"));
+    }
+
+    @Test
+    public void testVisitParametersNonBufferQuery() {
+        final String form = "f=1";
+        Parameters parameters = new Parameters();
+        parameters.setQueryStringEncoding(Charsets.UTF8_CHARSET);
+        DataChunk queryDataChunk = DataChunk.newInstance();
+        queryDataChunk.setString("q=x+y");
+        parameters.setQuery(queryDataChunk);
+        parameters.processParametersLazily(
+                Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, form),
+                0, form.length(), Charsets.UTF8_CHARSET);
+        parameters.addParameter("added", "2");
+
+        final List<String> visited = new ArrayList<String>();
+        parameters.visitParameters(new ParameterVisitor() {
+            @Override
+            public boolean visit(final BufferChunk name, final BufferChunk value) {
+                visited.add(name.toString() + ':' + value.toString());
+                return true;
+            }
+        });
+
+        // the String query and the added parameter are decoded eagerly,
+        // so only the lazily parsed form parameter is visited
+        assertEquals("[f:1]", visited.toString());
+        assertEquals("x y", parameters.getParameter("q"));
+        assertEquals("1", parameters.getParameter("f"));
+        assertEquals("2", parameters.getParameter("added"));
+    }
+
 
     public void testEncodedQueryParameter(String paramName, String paramValue, Charset charset) throws UnsupportedEncodingException {
         String charsetName = charset.name();
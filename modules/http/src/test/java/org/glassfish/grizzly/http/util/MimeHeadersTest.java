@@ -44,8 +44,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
 
 public class MimeHeadersTest {
 
@@ -167,4 +170,59 @@ public class MimeHeadersTest {
         Assert.assertArrayEquals(expectedValuesSet2, list.toArray(new String[list.size()]));
     }
 
+    @Test
+    public void testLargeHeaderSet() throws Exception {
+        final MimeHeaders headers = new MimeHeaders();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < 40; i++) {
+                final byte[] name = ("X-Custom-" + i).getBytes(StandardCharsets.US_ASCII);
+                if (i % 2 == 0) {
+                    headers.addValue(name, 0, name.length).setString("v" + i);
+                } else {
+                    headers.addValue(Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, name), 0, name.length).setString("v" + i);
+                }
+            }
+            headers.addValue("Host").setString("localhost");
+            headers.addValue("content-TYPE").setString("text/plain");
+            headers.addValue(Header.Via).setString("proxy-1");
+            headers.addValue("VIA").setString("proxy-2");
+
+            for (int i = 0; i < 40; i++) {
+                Assert.assertEquals(i, headers.indexOf("x-custom-" + i, 0));
+                Assert.assertEquals("v" + i, headers.getHeader("X-CUSTOM-" + i));
+            }
+            Assert.assertEquals(-1, headers.indexOf("x-custom-40", 0));
+            Assert.assertEquals("localhost", headers.getHeader(Header.Host));
+            Assert.assertEquals("text/plain", headers.getHeader(Header.ContentType));
+            Assert.assertFalse(headers.contains(Header.Cookie));
+            Assert.assertEquals(42, headers.indexOf(Header.Via, 0));
+            Assert.assertEquals(43, headers.indexOf(Header.Via, 43));
+            Assert.assertEquals(-1, headers.indexOf("via", 44));
+
+            // the headers added after the index is built
+            headers.addValue("Cookie").setString("a=b");
+            headers.addValue("via").setString("proxy-3");
+            Assert.assertEquals("a=b", headers.getHeader(Header.Cookie));
+            final List<String> vias = new ArrayList<>();
+            for (String via : headers.values(Header.Via)) {
+                vias.add(via);
+            }
+            Assert.assertArrayEquals(new String[] {"proxy-1", "proxy-2", "proxy-3"},
+                    vias.toArray(new String[vias.size()]));
+
+            headers.setValue(Header.Via).setString("proxy");
+            Assert.assertEquals("proxy", headers.getHeader("Via"));
+            Assert.assertEquals(-1, headers.indexOf(Header.Via, headers.indexOf(Header.Via, 0) + 1));
+
+            headers.removeHeader("X-Custom-7");
+            Assert.assertEquals(-1, headers.indexOf("x-custom-7", 0));
+            Assert.assertEquals("v8", headers.getHeader("x-custom-8"));
+            Assert.assertEquals(43, headers.size());
+
+            headers.recycle();
+            Assert.assertEquals(-1, headers.indexOf("x-custom-0", 0));
+            Assert.assertFalse(headers.contains(Header.Host));
+        }
+    }
+
 }
@@ -44,6 +44,7 @@ import java.io.IOException;
 import java.util.Map;
 
 import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.HttpHeader;
 import org.glassfish.grizzly.http.HttpRequestPacket;
 import org.glassfish.grizzly.http.HttpResponsePacket;
 import org.glassfish.grizzly.http.util.Ascii;
@@ -52,6 +53,7 @@ import org.glassfish.grizzly.http.util.ByteChunk;
 import org.glassfish.grizzly.http.util.DataChunk;
 import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.http.util.MimeHeaders;
+import org.glassfish.grizzly.http.util.PreEncodedHeaders;
 
 import static org.glassfish.grizzly.http.util.DataChunk.Type.Buffer;
 import static org.glassfish.grizzly.http.util.DataChunk.Type.Bytes;
@@ -78,6 +80,7 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
         assert http2Session.getDeflaterLock().isLocked();
         
         final MimeHeaders headers = response.getHeaders();
+        copyPreEncodedHeaders(response, headers);
         
         headers.removeHeader(Header.Connection);
         headers.removeHeader(Header.KeepAlive);
@@ -161,6 +164,7 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
 // ---------------------------------------------------------------
 
         final MimeHeaders headers = request.getHeaders();
+        copyPreEncodedHeaders(request, headers);
         
         String hostHeader = headers.getHeader(Header.Host);
         
@@ -229,6 +233,19 @@ class EncoderUtils extends EncoderDecoderUtilsBase {
         return encoder.flushHeaders();
     }
 
+    /**
+     * The HTTP/1.x encoded {@link PreEncodedHeaders} block can't be used
+     * as is, so its headers are HPACK encoded along with the user headers.
+     */
+    private static void copyPreEncodedHeaders(final HttpHeader httpHeader,
+                                              final MimeHeaders headers) {
+        final PreEncodedHeaders preEncodedHeaders =
+                httpHeader.getPreEncodedHeaders();
+        if (preEncodedHeaders != null) {
+            preEncodedHeaders.copyTo(headers);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static void encodeUserHeaders(final MimeHeaders headers,
                                           final HeadersEncoder encoder,
@@ -66,6 +66,8 @@ public class MemoryManager extends JmxObject {
     private final AtomicLong realAllocatedBytes = new AtomicLong();
     private final AtomicLong poolAllocatedBytes = new AtomicLong();
     private final AtomicLong poolReleasedBytes = new AtomicLong();
+    private final AtomicLong arenaAllocatedBytes = new AtomicLong();
+    private final AtomicLong arenaMissesCount = new AtomicLong();
     
     public MemoryManager(org.glassfish.grizzly.memory.MemoryManager memoryManager) {
         this.memoryManager = memoryManager;
@@ -95,7 +97,7 @@ public class MemoryManager extends JmxObject {
     }
 
     @ManagedAttribute(id="total-allocated-bytes")
-    @Description("Total number of allocated bytes (real + pool)")
+    @Description("Total number of allocated bytes (real + pool + arena)")
     public long getTotalAllocatedBytes() {
         return totalAllocatedBytes.get();
     }
@@ -118,6 +120,18 @@ public class MemoryManager extends JmxObject {
         return poolReleasedBytes.get();
     }
 
+    @ManagedAttribute(id="arena-allocated-bytes")
+    @Description("Total number of bytes allocated from per-thread arenas")
+    public long getArenaAllocatedBytes() {
+        return arenaAllocatedBytes.get();
+    }
+
+    @ManagedAttribute(id="arena-misses-count")
+    @Description("Number of allocations, which didn't find a buffer in the per-thread arena")
+    public long getArenaMissesCount() {
+        return arenaMissesCount.get();
+    }
+
     private class JmxMemoryProbe implements MemoryProbe {
 
         @Override
@@ -137,5 +151,16 @@ public class MemoryManager extends JmxObject {
             poolReleasedBytes.addAndGet(size);
         }
 
+        @Override
+        public void onBufferAllocateFromArenaEvent(int size) {
+            totalAllocatedBytes.addAndGet(size);
+            arenaAllocatedBytes.addAndGet(size);
+        }
+
+        @Override
+        public void onArenaMissEvent(int size) {
+            arenaMissesCount.incrementAndGet();
+        }
+
     }
 }
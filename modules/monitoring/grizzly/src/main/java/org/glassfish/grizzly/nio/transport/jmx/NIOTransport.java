@@ -48,7 +48,10 @@ import org.glassfish.grizzly.Transport;
 import org.glassfish.grizzly.TransportProbe;
 import org.glassfish.grizzly.monitoring.jmx.JmxObject;
 import org.glassfish.grizzly.memory.MemoryManager;
+import org.glassfish.grizzly.nio.NIOConnection;
+import org.glassfish.grizzly.nio.TransportMemoryBudget;
 import org.glassfish.grizzly.threadpool.GrizzlyExecutorService;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
@@ -90,6 +93,13 @@ public class NIOTransport extends JmxObject {
     private final AtomicInteger openConnectionsNum = new AtomicInteger();
     private final AtomicLong totalConnectionsNum = new AtomicLong();
 
+    private final AtomicInteger readSuspendedConnectionsNum = new AtomicInteger();
+    private final AtomicLong readSuspendsNum = new AtomicLong();
+
+    private final AtomicLong selectsNum = new AtomicLong();
+    private final AtomicLong emptySelectsNum = new AtomicLong();
+    private final AtomicLong selectedKeysNum = new AtomicLong();
+
     private GrizzlyJmxManager mom;
     
     private MemoryManager currentMemoryManager;
@@ -229,6 +239,104 @@ public class NIOTransport extends JmxObject {
         return totalConnectionsNum.get();
     }
 
+    @ManagedAttribute(id="read-suspended-connections-count")
+    @Description("The number of connections, which reading is suspended for, because their async write queue exceeded the high watermark or the memory budget is exhausted")
+    public int getReadSuspendedConnectionsCount() {
+        return readSuspendedConnectionsNum.get();
+    }
+
+    @ManagedAttribute(id="read-suspends-count")
+    @Description("The total number of times reading was suspended, because a connection's async write queue exceeded the high watermark or the memory budget is exhausted")
+    public long getReadSuspendsCount() {
+        return readSuspendsNum.get();
+    }
+
+    @ManagedAttribute(id="memory-budget")
+    @Description("The max number of bytes the transport connections may hold, -1 means no memory budget")
+    public long getMemoryBudget() {
+        final TransportMemoryBudget memoryBudget = transport.getMemoryBudget();
+        return memoryBudget != null ? memoryBudget.getBudget() : -1;
+    }
+
+    @ManagedAttribute(id="memory-budget-usage")
+    @Description("The number of bytes the transport connections currently hold")
+    public long getMemoryBudgetUsage() {
+        final TransportMemoryBudget memoryBudget = transport.getMemoryBudget();
+        return memoryBudget != null ? memoryBudget.getUsage() : 0;
+    }
+
+    @ManagedAttribute(id="memory-budget-peak-usage")
+    @Description("The max number of bytes the transport connections held at once")
+    public long getMemoryBudgetPeakUsage() {
+        final TransportMemoryBudget memoryBudget = transport.getMemoryBudget();
+        return memoryBudget != null ? memoryBudget.getPeakUsage() : 0;
+    }
+
+    @ManagedAttribute(id="accept-paused")
+    @Description("Is accepting new connections paused, because the memory budget is exhausted")
+    public boolean isAcceptPaused() {
+        final TransportMemoryBudget memoryBudget = transport.getMemoryBudget();
+        return memoryBudget != null && memoryBudget.isAcceptPaused();
+    }
+
+    @ManagedAttribute(id="rejected-requests-count")
+    @Description("The total number of requests rejected, because the memory budget is exhausted")
+    public long getRejectedRequestsCount() {
+        final TransportMemoryBudget memoryBudget = transport.getMemoryBudget();
+        return memoryBudget != null ? memoryBudget.getRejectedRequestsCount() : 0;
+    }
+
+    @ManagedAttribute(id="selects-count")
+    @Description("The total number of select operations performed by the selector threads")
+    public long getSelectsCount() {
+        return selectsNum.get();
+    }
+
+    @ManagedAttribute(id="empty-selects-count")
+    @Description("The number of select operations, which returned no keys (wakeups, timeouts or selector spins)")
+    public long getEmptySelectsCount() {
+        return emptySelectsNum.get();
+    }
+
+    @ManagedAttribute(id="selected-keys-count")
+    @Description("The total number of selected keys processed by the selector threads")
+    public long getSelectedKeysCount() {
+        return selectedKeysNum.get();
+    }
+
+    @ManagedAttribute(id="average-selected-keys-per-select")
+    @Description("The average number of keys processed per select operation")
+    public double getAverageSelectedKeysPerSelect() {
+        final long selects = selectsNum.get();
+        return selects != 0 ? (double) selectedKeysNum.get() / selects : 0;
+    }
+
+    @ManagedAttribute(id="selector-threads-connections-count")
+    @Description("The number of open connections registered on each selector thread")
+    public String getSelectorRunnersConnectionsCount() {
+        return Arrays.toString(transport.getSelectorRunnersConnectionsCount());
+    }
+
+    @ManagedAttribute(id="selector-threads-event-rate")
+    @Description("The recent number of selected keys per second on each selector thread")
+    public String getSelectorRunnersEventRate() {
+        return Arrays.toString(transport.getSelectorRunnersEventRate());
+    }
+
+    @ManagedAttribute(id="selector-threads-connections-imbalance")
+    @Description("The ratio of the max number of connections registered on a selector thread to the average one")
+    public double getSelectorRunnersConnectionsImbalance() {
+        final int[] counts = transport.getSelectorRunnersConnectionsCount();
+        long total = 0;
+        int max = 0;
+        for (int count : counts) {
+            total += count;
+            max = Math.max(max, count);
+        }
+        
+        return total != 0 ? (double) max * counts.length / total : 0;
+    }
+
     private static String getType(Object o) {
         return o != null ? o.getClass().getName() : "N/A";
     }
@@ -346,6 +454,16 @@ public class NIOTransport extends JmxObject {
             lastErrorEvent = new EventDate(error.getClass() + ": " + error.getMessage());
         }
 
+        @Override
+        public void onSelectEvent(Transport transport, int selectedKeysCount) {
+            selectsNum.incrementAndGet();
+            if (selectedKeysCount == 0) {
+                emptySelectsNum.incrementAndGet();
+            } else {
+                selectedKeysNum.addAndGet(selectedKeysCount);
+            }
+        }
+
         @Override
         public void onConfigChangeEvent(Transport transport) {
             synchronized (subtreeLock) {
@@ -400,6 +518,11 @@ public class NIOTransport extends JmxObject {
             if (openConnectionsNum.get() > 0) {
                 openConnectionsNum.decrementAndGet();
             }
+            if (connection instanceof NIOConnection
+                    && ((NIOConnection) connection).isReadSuspended()
+                    && readSuspendedConnectionsNum.get() > 0) {
+                readSuspendedConnectionsNum.decrementAndGet();
+            }
         }
 
         @Override
@@ -413,5 +536,18 @@ public class NIOTransport extends JmxObject {
         @Override
         public void onIOEventDisableEvent(Connection connection, IOEvent ioEvent) {
         }
+
+        @Override
+        public void onReadSuspendEvent(Connection connection, int pendingBytes) {
+            readSuspendedConnectionsNum.incrementAndGet();
+            readSuspendsNum.incrementAndGet();
+        }
+
+        @Override
+        public void onReadResumeEvent(Connection connection, int pendingBytes) {
+            if (readSuspendedConnectionsNum.get() > 0) {
+                readSuspendedConnectionsNum.decrementAndGet();
+            }
+        }
     }
 }
@@ -42,12 +42,14 @@ package org.glassfish.grizzly.threadpool.jmx;
 
 import org.glassfish.grizzly.monitoring.jmx.JmxObject;
 import org.glassfish.grizzly.threadpool.AbstractThreadPool;
+import org.glassfish.grizzly.threadpool.AdaptiveThreadPoolSizer;
 import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
 import org.glassfish.gmbal.Description;
 import org.glassfish.gmbal.GmbalMBean;
 import org.glassfish.gmbal.ManagedAttribute;
 import org.glassfish.gmbal.ManagedObject;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.glassfish.grizzly.jmxbase.GrizzlyJmxManager;
@@ -208,6 +210,66 @@ public class ThreadPool extends JmxObject {
         return totalTaskQueueOverflowCount.get();
     }
 
+    /**
+     * @return the pool size limit set by the {@link AdaptiveThreadPoolSizer},
+     *  or <tt>-1</tt> if the pool is not sized adaptively.
+     * @since 3.0
+     */
+    @ManagedAttribute(id="thread-pool-adaptive-size-limit")
+    @Description("The pool size limit set by the adaptive sizer, or -1 if the pool is not sized adaptively.")
+    public int getAdaptiveSizeLimit() {
+        final AdaptiveThreadPoolSizer sizer = getAdaptiveSizer();
+        return sizer != null ? sizer.getPoolSizeLimit() : -1;
+    }
+
+    /**
+     * @return the average task queueing delay in microseconds measured by the
+     *  {@link AdaptiveThreadPoolSizer}, or <tt>-1</tt> if the pool is not
+     *  sized adaptively.
+     * @since 3.0
+     */
+    @ManagedAttribute(id="thread-pool-adaptive-queue-delay-micros")
+    @Description("The average task queueing delay (in microseconds) measured by the adaptive sizer during the last sample interval.")
+    public long getAdaptiveQueueDelay() {
+        final AdaptiveThreadPoolSizer sizer = getAdaptiveSizer();
+        return sizer != null ? sizer.getQueueDelay(TimeUnit.MICROSECONDS) : -1;
+    }
+
+    /**
+     * @return the number of tasks per second measured by the
+     *  {@link AdaptiveThreadPoolSizer}, or <tt>-1</tt> if the pool is not
+     *  sized adaptively.
+     * @since 3.0
+     */
+    @ManagedAttribute(id="thread-pool-adaptive-throughput")
+    @Description("The number of tasks per second measured by the adaptive sizer during the last sample interval.")
+    public long getAdaptiveThroughput() {
+        final AdaptiveThreadPoolSizer sizer = getAdaptiveSizer();
+        return sizer != null ? (long) sizer.getThroughput() : -1;
+    }
+
+    /**
+     * @return the last {@link AdaptiveThreadPoolSizer} decision, or
+     *  <tt>null</tt> if the pool is not sized adaptively.
+     * @since 3.0
+     */
+    @ManagedAttribute(id="thread-pool-adaptive-last-decision")
+    @Description("The last decision made by the adaptive sizer: NONE, GROW, SHRINK or SATURATED.")
+    public String getAdaptiveLastDecision() {
+        final AdaptiveThreadPoolSizer sizer = getAdaptiveSizer();
+        return sizer != null ? sizer.getLastDecision().name() : null;
+    }
+
+    private AdaptiveThreadPoolSizer getAdaptiveSizer() {
+        for (ThreadPoolProbe p : threadPool.getMonitoringConfig().getProbes()) {
+            if (p instanceof AdaptiveThreadPoolSizer) {
+                return (AdaptiveThreadPoolSizer) p;
+            }
+        }
+
+        return null;
+    }
+
     // ---------------------------------------------------------- Nested Classes
 
 